@@ -3,6 +3,7 @@ package budget;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import budget.backend.repository.RepositoryFactory;
 import budget.frontend.constants.Constants;
 import budget.frontend.util.SceneLoader;
 import budget.frontend.util.WindowState;
@@ -54,6 +55,13 @@ public class Main extends Application {
             e.printStackTrace();
         }
     }
+    /**
+     * Stops the JavaFX application and closes the shared repositories.
+     */
+    @Override
+    public void stop() {
+        RepositoryFactory.shutdown();
+    }
     /**
      * The main entry point for the application.
      * @param args command line arguments
@@ -1,10 +1,15 @@
 package budget.backend.model.domain;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
 /**
  * Represent the state budget.
+ * A budget that has been {@link #freeze() frozen}, such as every budget of
+ * a published snapshot, refuses any change to itself or to its items.
  */
 public class Budget {
     private List<BudgetItem> items;
@@ -12,6 +17,25 @@ public class Budget {
     private double totalRevenue;
     private double totalExpense;
     private double netResult;
+    private boolean frozen;
+    // lookup indexes, built lazily and dropped whenever items are replaced
+    private ItemIndexes indexes;
+
+    /**
+     * Lookup tables over the items, built together and published through
+     * a single field. The record's fields are final, so readers on other
+     * threads that race on the first build see either no indexes or
+     * complete ones, never half built tables.
+     *
+     * @param byId items keyed by id
+     * @param byIdAndType items keyed by id and revenue flag
+     * @param byName items keyed by name
+     */
+    private record ItemIndexes(
+        Map<Integer, BudgetItem> byId,
+        Map<Long, BudgetItem> byIdAndType,
+        Map<String, BudgetItem> byName
+    ) { }
     /**
      * Constructor for budget.
      * Only 2 parameters
@@ -55,7 +79,145 @@ public class Budget {
      * @param items budget items
      */
     public void setItems(List<BudgetItem> items) {
+        checkNotFrozen();
         this.items = new ArrayList<>(items);
+        this.indexes = null;
+    }
+    /**
+     * Finds the first budget item with the given id, revenue or expense.
+     * @param id the budget item id
+     * @return an Optional containing the item, or empty if not found
+     */
+    public Optional<BudgetItem> findItem(int id) {
+        return Optional.ofNullable(indexes().byId().get(id));
+    }
+    /**
+     * Finds the budget item with the given id and type.
+     * @param id the budget item id
+     * @param isRevenue true for a revenue item, false for an expense item
+     * @return an Optional containing the item, or empty if not found
+     */
+    public Optional<BudgetItem> findItem(int id, boolean isRevenue) {
+        return Optional.ofNullable(
+            indexes().byIdAndType().get(indexKey(id, isRevenue)));
+    }
+    /**
+     * Finds the first budget item with the given name (case-sensitive).
+     * Names are indexed when the items are set, so an item renamed through
+     * {@link BudgetItem#setName(String)} is only found under its new name
+     * after {@link #setItems(List)} is called again.
+     * @param name the budget item name
+     * @return an Optional containing the item, or empty if not found
+     */
+    public Optional<BudgetItem> findItemByName(String name) {
+        if (name == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(indexes().byName().get(name));
+    }
+    /**
+     * Checks whether a budget item with the given id exists.
+     * @param id the budget item id
+     * @return true if a revenue or expense item has this id
+     */
+    public boolean containsItemId(int id) {
+        return indexes().byId().containsKey(id);
+    }
+    /**
+     * Checks whether a budget item with the given name exists.
+     * @param name the budget item name
+     * @return true if an item has exactly this name
+     */
+    public boolean containsItemName(String name) {
+        return findItemByName(name).isPresent();
+    }
+    /**
+     * Checks whether the given instance is one of the items of this budget.
+     * Looked up by id and type first, so only an item that shares both with
+     * an earlier one is searched for in the list.
+     * @param item the item to look for
+     * @return true if the item itself is in this budget
+     */
+    private boolean containsItem(BudgetItem item) {
+        if (findItem(item.getId(), item.getIsRevenue()).orElse(null) == item) {
+            return true;
+        }
+        for (BudgetItem candidate : items) {
+            if (candidate == item) {
+                return true;
+            }
+        }
+        return false;
+    }
+    /**
+     * Builds the id, (id, type) and name indexes on first use.
+     * When several items share a key the first one in list order wins,
+     * matching a linear search over {@link #getItems()}.
+     * @return the indexes of the current items
+     */
+    private ItemIndexes indexes() {
+        ItemIndexes current = indexes;
+        if (current != null) {
+            return current;
+        }
+        Map<Integer, BudgetItem> byId = new HashMap<>();
+        Map<Long, BudgetItem> byIdAndType = new HashMap<>();
+        Map<String, BudgetItem> byName = new HashMap<>();
+        for (BudgetItem item : items) {
+            if (item == null) {
+                continue;
+            }
+            byId.putIfAbsent(item.getId(), item);
+            byIdAndType.putIfAbsent(
+                indexKey(item.getId(), item.getIsRevenue()), item);
+            if (item.getName() != null) {
+                byName.putIfAbsent(item.getName(), item);
+            }
+        }
+        current = new ItemIndexes(byId, byIdAndType, byName);
+        indexes = current;
+        return current;
+    }
+    /**
+     * Combines an item id and its revenue flag into a single index key.
+     * @param id the budget item id
+     * @param isRevenue the revenue flag
+     * @return the index key
+     */
+    private static long indexKey(int id, boolean isRevenue) {
+        return ((long) id << 1) | (isRevenue ? 1L : 0L);
+    }
+    /**
+     * Sets the value of an item of this budget and moves the totals by the
+     * difference, in constant time instead of summing every item again.
+     * The totals stay correct as long as they matched the items before the
+     * call.
+     * @param item an item of this budget
+     * @param newValue the new value of the item
+     * @return the previous value of the item
+     * @throws IllegalArgumentException if item is null or is not an item
+     *                                  of this budget
+     * @throws IllegalStateException if the budget is frozen
+     */
+    public double applyItemValue(BudgetItem item, double newValue) {
+        checkNotFrozen();
+        if (item == null) {
+            throw new IllegalArgumentException("Item cannot be null");
+        }
+        if (!containsItem(item)) {
+            throw new IllegalArgumentException(
+                "Item " + item.getId() + " is not an item of budget " + year);
+        }
+        double oldValue = item.getValue();
+        double delta = newValue - oldValue;
+        item.setValue(newValue);
+        if (item.getIsRevenue()) {
+            totalRevenue += delta;
+        } else {
+            totalExpense += delta;
+        }
+        netResult = totalRevenue - totalExpense;
+        return oldValue;
     }
     /**
      * Return the year of budget state.
@@ -77,6 +239,7 @@ public class Budget {
      * @param totalRevenue the sum of revenue budget items
      */
     public void setTotalRevenue(double totalRevenue) {
+        checkNotFrozen();
         this.totalRevenue = totalRevenue;
     }
     /**
@@ -91,6 +254,7 @@ public class Budget {
      * @param totalExpense the sum of expense budget items
      */
     public void setTotalExpense(double totalExpense) {
+        checkNotFrozen();
         this.totalExpense = totalExpense;
     }
     /**
@@ -105,8 +269,39 @@ public class Budget {
      * @param netResult totalRevenue - totalExpense
      */
     public void setNetResult(double netResult) {
+        checkNotFrozen();
         this.netResult = netResult;
     }
+    /**
+     * Makes the budget and its items read-only for good. Called before the
+     * budget is shared between threads, so that no reader can change what
+     * the others see.
+     */
+    public void freeze() {
+        for (BudgetItem item : items) {
+            if (item != null) {
+                item.freeze();
+            }
+        }
+        frozen = true;
+    }
+    /**
+     * Checks whether the budget has been frozen.
+     * @return true if the budget refuses changes
+     */
+    public boolean isFrozen() {
+        return frozen;
+    }
+    /**
+     * Rejects a change to a frozen budget.
+     * @throws IllegalStateException if the budget is frozen
+     */
+    private void checkNotFrozen() {
+        if (frozen) {
+            throw new IllegalStateException(
+                "Budget " + year + " is shared and cannot be modified");
+        }
+    }
     /**
      * Returns a string representation of the budget.
      * @return a formatted string containing budget information
@@ -1,5 +1,7 @@
 package budget.backend.model.domain;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Locale;
 
@@ -7,6 +9,9 @@ import budget.backend.model.enums.Ministry;
 
 /**
  * Represents a budget line item of the state budget.
+ * The participating ministries are kept as given and also in an
+ * {@link EnumSet}, so checking whether a ministry may edit the item is a
+ * single bit test.
  */
 public class BudgetItem {
 
@@ -16,6 +21,10 @@ public class BudgetItem {
     private double value;
     private final boolean isRevenue;
     private final List<Ministry> ministries;
+    // null entries cannot be kept in the set, validation rejects them
+    private final EnumSet<Ministry> ministrySet;
+    // set when the owning budget is frozen, see Budget#freeze()
+    private boolean frozen;
     /**
      * Constructor for BudgetItem.
      * @param id unique budget item id
@@ -32,7 +41,7 @@ public class BudgetItem {
         String name,
         double value,
         boolean isRevenue,
-        List<Ministry> ministries
+        Collection<Ministry> ministries
     ) {
         this.id = id;
         this.year = year;
@@ -40,6 +49,12 @@ public class BudgetItem {
         this.value = value;
         this.isRevenue = isRevenue;
         this.ministries = new ArrayList<>(ministries);
+        this.ministrySet = EnumSet.noneOf(Ministry.class);
+        for (Ministry ministry : ministries) {
+            if (ministry != null) {
+                this.ministrySet.add(ministry);
+            }
+        }
     }
     /**
      * Return budget item id.
@@ -67,6 +82,7 @@ public class BudgetItem {
      * @param name new budget item name
      */
     public void setName(String name) {
+        checkNotFrozen();
         this.name = name;
     }
     /**
@@ -81,8 +97,25 @@ public class BudgetItem {
      * @param value value of a single budget item
      */
     public void setValue(double value) {
+        checkNotFrozen();
         this.value = value;
     }
+    /**
+     * Makes the item read-only for good, along with its budget.
+     */
+    void freeze() {
+        frozen = true;
+    }
+    /**
+     * Rejects a change to an item of a frozen budget.
+     * @throws IllegalStateException if the item is frozen
+     */
+    private void checkNotFrozen() {
+        if (frozen) {
+            throw new IllegalStateException(
+                "Budget item " + id + " is shared and cannot be modified");
+        }
+    }
     /**
      * Return if budget item is revenue.
      * @return True if item is a revenue item
@@ -92,11 +125,33 @@ public class BudgetItem {
     }
     /**
      * Return list of ministries.
-     * @return ministries list
+     * @return ministries list, in the order the item was created with
      */
     public List<Ministry> getMinistries() {
         return new ArrayList<>(ministries);
     }
+    /**
+     * Return the set of ministries, without null entries.
+     * @return a copy of the ministries set
+     */
+    public EnumSet<Ministry> getMinistrySet() {
+        return EnumSet.copyOf(ministrySet);
+    }
+    /**
+     * Checks if a ministry participates in the budget item.
+     * @param ministry the ministry to check
+     * @return true if the ministry is associated with the item
+     */
+    public boolean hasMinistry(Ministry ministry) {
+        return ministry != null && ministrySet.contains(ministry);
+    }
+    /**
+     * Checks if the budget item was given any ministry entry.
+     * @return true if the ministries list is not empty
+     */
+    public boolean hasMinistries() {
+        return !ministries.isEmpty();
+    }
     /**
      * Return  a string represantation of a budget item.
      * @return a formatted String containing
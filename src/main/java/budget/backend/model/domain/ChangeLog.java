@@ -2,6 +2,8 @@ package budget.backend.model.domain;
 
 import java.util.UUID;
 
+import budget.backend.util.TimestampUtils;
+
 /**
  * Represents a change log entry for a budget item.
  * @param id the unique ID of the change log entry
@@ -11,6 +13,10 @@ import java.util.UUID;
  * @param submittedDate the date when the change was submitted
  * @param actorName the full name of the actor
  * @param actorId the ID of the actor
+ * @param submittedAt {@code submittedDate} as a timestamp, see
+ *                    {@link TimestampUtils}; {@code 0} when not known, in
+ *                    which case it is parsed from {@code submittedDate}.
+ *                    Only {@code submittedDate} is stored.
  */
 public record ChangeLog(
     int id,
@@ -19,5 +25,38 @@ public record ChangeLog(
     double newValue,
     String submittedDate,
     String actorName,
-    UUID actorId
-) { }
+    UUID actorId,
+    long submittedAt
+) {
+    /**
+     * Parses the submission date once, when it was not supplied.
+     */
+    public ChangeLog {
+        if (submittedAt == 0) {
+            submittedAt = TimestampUtils.toEpochMillis(submittedDate);
+        }
+    }
+
+    /**
+     * Creates a change log entry, parsing its submission date.
+     * @param id the unique ID of the change log entry
+     * @param budgetItemId the ID of the budget item
+     * @param oldValue the old value of the budget item
+     * @param newValue the new value of the budget item
+     * @param submittedDate the date when the change was submitted
+     * @param actorName the full name of the actor
+     * @param actorId the ID of the actor
+     */
+    public ChangeLog(
+        int id,
+        int budgetItemId,
+        double oldValue,
+        double newValue,
+        String submittedDate,
+        String actorName,
+        UUID actorId
+    ) {
+        this(id, budgetItemId, oldValue, newValue, submittedDate, actorName,
+            actorId, 0);
+    }
+}
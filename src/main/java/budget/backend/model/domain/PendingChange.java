@@ -6,6 +6,7 @@ import java.util.Locale;
 import java.util.UUID;
 
 import budget.backend.model.enums.Status;
+import budget.backend.util.TimestampUtils;
 
 
 /**
@@ -26,6 +27,8 @@ public class PendingChange {
     private final double newValue;
     private Status status;
     private final String submittedDate;
+    // parsed from submittedDate on first use, Gson leaves it at 0
+    private transient long submittedAt;
     /**
      * Constructs a new pending change with an explicit ID.
      * Used by repository when loading from storage or when generating
@@ -60,8 +63,70 @@ public class PendingChange {
         this.oldValue = oldValue;
         this.newValue = newValue;
         this.status = Status.PENDING;
-        this.submittedDate = LocalDateTime.now()
-                            .format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        LocalDateTime now = LocalDateTime.now();
+        this.submittedDate =
+            now.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        this.submittedAt = TimestampUtils.toEpochMillis(now);
+    }
+    /**
+     * Constructs a pending change from stored fields, keeping its status
+     * and submission date. Used by repositories that store the fields one
+     * by one rather than as JSON.
+     *
+     * @param id the unique identifier for this pending change
+     * @param budgetItemId the ID of the budget item to be modified
+     * @param budgetItemYear the year of the Budget that
+     *                                      the budgetItem belongs to
+     * @param budgetItemName the name of the budget item to be modified.
+     * @param requestByName the full name requesting the change
+     * @param requestById the user id requesting the change
+     * @param oldValue the current value of the budget item
+     * @param newValue the proposed new value for the budget item
+     * @param status the review status
+     * @param submittedDate the stored submission date
+     */
+    public PendingChange(
+        int id,
+        int budgetItemId,
+        int budgetItemYear,
+        String budgetItemName,
+        String requestByName,
+        UUID requestById,
+        double oldValue,
+        double newValue,
+        Status status,
+        String submittedDate
+    ) {
+        this.id = id;
+        this.budgetItemName = budgetItemName;
+        this.budgetItemId = budgetItemId;
+        this.budgetItemYear = budgetItemYear;
+        this.requestByName = requestByName;
+        this.requestById = requestById;
+        this.oldValue = oldValue;
+        this.newValue = newValue;
+        this.status = status;
+        this.submittedDate = submittedDate;
+        this.submittedAt = TimestampUtils.toEpochMillis(submittedDate);
+    }
+    /**
+     * Constructs a copy of another pending change, including its status and
+     * submission date.
+     *
+     * @param other the pending change to copy
+     */
+    public PendingChange(PendingChange other) {
+        this.id = other.id;
+        this.budgetItemName = other.budgetItemName;
+        this.budgetItemId = other.budgetItemId;
+        this.budgetItemYear = other.budgetItemYear;
+        this.requestByName = other.requestByName;
+        this.requestById = other.requestById;
+        this.oldValue = other.oldValue;
+        this.newValue = other.newValue;
+        this.status = other.status;
+        this.submittedDate = other.submittedDate;
+        this.submittedAt = other.submittedAt;
     }
     /**
      * Return pending change unique id.
@@ -156,6 +221,20 @@ public class PendingChange {
         return submittedDate;
     }
 
+    /**
+     * Returns the submission date as a timestamp for ordering. Requests
+     * read from storage parse their date on the first call only.
+     *
+     * @return the timestamp described by {@link TimestampUtils}, or
+     *         {@link TimestampUtils#UNKNOWN} when the date cannot be read
+     */
+    public long getSubmittedAt() {
+        if (submittedAt == 0) {
+            submittedAt = TimestampUtils.toEpochMillis(submittedDate);
+        }
+        return submittedAt;
+    }
+
     /**
      * Returns a string representation of this pending change.
      *
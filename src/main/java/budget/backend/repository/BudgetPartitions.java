@@ -0,0 +1,199 @@
+package budget.backend.repository;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
+
+import budget.backend.util.PathsUtil;
+
+/**
+ * File layout of the year-partitioned budget storage. Every budget year is
+ * kept in its own {@code <year>.json} file holding the same esoda/eksoda
+ * object that budget.json stores under the year key, and a small
+ * {@code manifest.json} lists the stored years in order.
+ *
+ * <p>Files are replaced through the shared {@link GroupCommitWriter}, which
+ * writes a temporary file and renames it over the target. {@link #stamp()}
+ * stamps the manifest and every year file, so a partition edited in place
+ * by another program is noticed as well. The manifest is written last when
+ * the layout is created, so the layout only counts as present once
+ * complete.
+ */
+final class BudgetPartitions {
+
+    private static final Gson GSON =
+            new GsonBuilder().setPrettyPrinting().create();
+    private static final String MANIFEST_FILE = "manifest.json";
+    private static final String YEARS_KEY = "years";
+    private static final String PARTITION_SUFFIX = ".json";
+
+    private final Path directory;
+
+    /**
+     * Creates a layout rooted at the given directory.
+     *
+     * @param directory the partition directory
+     */
+    BudgetPartitions(final Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Returns the layout inside the current data directory.
+     *
+     * @return the partition layout
+     */
+    static BudgetPartitions current() {
+        return new BudgetPartitions(PathsUtil.getBudgetPartitionDirectory());
+    }
+
+    /**
+     * Tells whether a complete partitioned layout exists.
+     *
+     * @return {@code true} if the manifest is present
+     */
+    boolean exists() {
+        return Files.isRegularFile(manifest());
+    }
+
+    /**
+     * Returns a stamp that changes whenever the manifest or a year file is
+     * written, edited, added or removed, by this class or any other
+     * program.
+     *
+     * @return the stamps of the JSON files of the partition directory,
+     *         ordered by path; empty when the directory is missing
+     */
+    List<FileStamp> stamp() {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(
+                directory, "*" + PARTITION_SUFFIX)) {
+            entries.forEach(files::add);
+        } catch (IOException e) {
+            // no directory, nothing to stamp
+            return List.of();
+        }
+        files.sort(null);
+        List<FileStamp> stamps = new ArrayList<>(files.size());
+        for (Path file : files) {
+            stamps.add(FileStamp.of(file));
+        }
+        return stamps;
+    }
+
+    /**
+     * Returns the file holding the given year.
+     *
+     * @param year the budget year
+     * @return the partition file
+     */
+    Path partition(final int year) {
+        return directory.resolve(year + PARTITION_SUFFIX);
+    }
+
+    /**
+     * Reads the stored years from the manifest.
+     *
+     * @return the years in storage order
+     * @throws IOException if the manifest cannot be read
+     */
+    List<Integer> readYears() throws IOException {
+        List<Integer> years = new ArrayList<>();
+        try (JsonReader reader = GSON.newJsonReader(
+                Files.newBufferedReader(manifest(), StandardCharsets.UTF_8))) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if (YEARS_KEY.equals(reader.nextName())) {
+                    years.clear();
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        years.add(reader.nextInt());
+                    }
+                    reader.endArray();
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+        }
+        return years;
+    }
+
+    /**
+     * Replaces the manifest with the given years.
+     *
+     * @param years the years in storage order
+     * @throws IOException if the manifest cannot be written
+     */
+    void writeYears(final List<Integer> years) throws IOException {
+        JsonArray array = new JsonArray();
+        for (int year : years) {
+            array.add(year);
+        }
+        JsonObject root = new JsonObject();
+        root.add(YEARS_KEY, array);
+        writeAtomically(manifest(), root);
+    }
+
+    /**
+     * Replaces the partitions of several years. The files are handed to
+     * the writer together, so they are flushed as one batch.
+     *
+     * @param yearData the esoda/eksoda object of every year to write
+     * @throws IOException if a partition cannot be written
+     */
+    void writePartitions(final Map<Integer, JsonElement> yearData)
+            throws IOException {
+        Files.createDirectories(directory);
+        List<CompletableFuture<Void>> writes = new ArrayList<>();
+        for (Map.Entry<Integer, JsonElement> entry : yearData.entrySet()) {
+            JsonElement content = entry.getValue();
+            writes.add(GroupCommitWriter.shared().write(
+                partition(entry.getKey()),
+                writer -> GSON.toJson(content, writer)
+            ));
+        }
+        GroupCommitWriter.await(writes);
+    }
+
+    /**
+     * Removes the partition of one year, if present.
+     *
+     * @param year the budget year
+     * @throws IOException if the partition cannot be removed
+     */
+    void deletePartition(final int year) throws IOException {
+        Files.deleteIfExists(partition(year));
+    }
+
+    /**
+     * Returns the manifest file.
+     *
+     * @return the path of {@code manifest.json}
+     */
+    Path manifest() {
+        return directory.resolve(MANIFEST_FILE);
+    }
+
+    private void writeAtomically(final Path target, final JsonElement content)
+            throws IOException {
+        Files.createDirectories(directory);
+        GroupCommitWriter.shared().writeAndWait(
+            target,
+            writer -> GSON.toJson(content, writer)
+        );
+    }
+}
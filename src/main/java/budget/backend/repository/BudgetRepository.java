@@ -1,17 +1,29 @@
 package budget.backend.repository;
 
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.OptionalInt;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.IntStream;
@@ -21,10 +33,12 @@ import com.google.gson.GsonBuilder;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 
 import budget.backend.model.domain.Budget;
 import budget.backend.model.domain.BudgetItem;
-import budget.backend.model.enums.Ministry;
 import budget.backend.util.PathsUtil;
 import budget.constants.Limits;
 import budget.constants.Message;
@@ -32,6 +46,21 @@ import budget.constants.Message;
 /**
  * Repository class for managing budget data. Handles loading, saving, and
  * validation of files from JSON storage.
+ * Parsed budgets are kept in a write-through in-memory cache that is
+ * refreshed whenever the stored budgets or bill-ministry-map.json change on
+ * disk.
+ * Budgets are stored one file per year (see {@link BudgetPartitions}), so
+ * saving or deleting a year rewrites only that year and a small manifest.
+ * A single budget.json is read until the first write, which converts it to
+ * the partitioned layout, and stays available through
+ * {@link #importFromFile(Path)} and {@link #exportToFile(Path)}. A
+ * budget.json modified after the partition manifest, for example one
+ * regenerated by the data scripts, is imported again in its place.
+ * The cached budgets are published as an immutable {@link BudgetSnapshot}:
+ * readers take the current snapshot without locking, writers build the
+ * next snapshot from a copy and swap it in once the files are written.
+ * A binary copy of the stored budgets (see {@link BudgetSnapshotFile}) lets
+ * a cold start skip parsing the JSON while the files are unchanged.
  * */
 
 public class BudgetRepository
@@ -43,304 +72,686 @@ public class BudgetRepository
                     .create();
     private static final Logger LOGGER =
                     Logger.getLogger(BudgetRepository.class.getName());
-    private static final Object LOCK = new Object();
+    // reads share the read lock, saves and deletes take the write lock
+    private static final ReentrantReadWriteLock LOCK =
+            new ReentrantReadWriteLock();
     private static final String ESODA_KEY = "esoda";
     private static final String EKSODA_KEY = "eksoda";
 
+    // write-through cache, never modified once published
+    private final AtomicReference<BudgetSnapshot> snapshot =
+            new AtomicReference<>();
+    private final Object refreshLock = new Object();
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong cacheMisses = new AtomicLong();
+    private final IoCounters io = new IoCounters();
+
     /**
      * Loads all budgets from the budget.json File.
+     * Served from the in-memory cache while the backing files are unchanged.
      * @return list of budget or empty list if file is not found or load fails.
      */
     @Override
      public List<Budget> load() {
-        synchronized (LOCK) {
-            //load budget.json
-            InputStream budgetInput = PathsUtil.getBudgetInputStream();
-            if (budgetInput == null) {
-                LOGGER.log(
-                    Level.WARNING,
-                    "Resource {0} was not found returning empty list",
-                    PathsUtil.BUDGET_RESOURCE
-                );
-                return Collections.emptyList();
-            }
-            //load bill-ministry-map.json
-            InputStream ministryInput =
-                            PathsUtil.getBillMinistryMapInputStream();
-            if (ministryInput == null) {
-                LOGGER.log(
-                    Level.WARNING,
-                    "Resource {0} was not found returning empty list",
-                    PathsUtil.BILL_MINISTRY_MAP_RESOURCE
-                );
-                return Collections.emptyList();
-            }
-            try (budgetInput; ministryInput;
-                InputStreamReader budgetReader =
-                    new InputStreamReader(budgetInput, StandardCharsets.UTF_8);
-                InputStreamReader ministryReader =
-                    new InputStreamReader(
-                        ministryInput, StandardCharsets.UTF_8)) {
-                return buildBudgetsFromJson(budgetReader, ministryReader);
-            } catch (IOException io) {
-                LOGGER.log(
-                    Level.SEVERE,
-                    "Error reading " + PathsUtil.BUDGET_RESOURCE,
-                    io
-                );
-                return Collections.emptyList();
-            } catch (RuntimeException e) {
-                LOGGER.log(Level.SEVERE,
-                    "Malformed budget payload",
-                    e
-                );
-                return Collections.emptyList();
-            }
-        }
-    }
-
-    /**
-     * Builds Budget objects from JSON input streams.
-     * Parses both budget.json and bill-ministry-map.json to create
-     * complete Budget objects with BudgetItems and their associated ministries.
-     *
-     * @param budgetReader the input stream reader for budget.json
-     * @param ministryReader the input stream reader for bill-ministry-map.json
-     * @return list of Budget objects, or empty list if parsing fails
+        return copyBudgets(currentSnapshot().getBudgets());
+    }
+
+    /**
+     * Returns the current snapshot of every stored budget without taking
+     * a lock while the backing files are unchanged. Computations spanning
+     * several years should read them all from one snapshot, so that saves
+     * made meanwhile do not show up halfway.
+     * @return the current snapshot, whose budgets must not be modified
+     */
+    public BudgetSnapshot snapshot() {
+        return currentSnapshot();
+    }
+
+    /**
+     * Returns the budgets of a range of years from the current snapshot,
+     * reading the stored budgets at most once however many years the range
+     * covers. Charts over several years should use this instead of calling
+     * {@link #findById(Integer)} per year, which parses one partition per
+     * year while the cache and the binary snapshot are both stale.
+     * @param startYear the first year (inclusive)
+     * @param endYear the end of the range (exclusive)
+     * @return the range, holding no budgets when endYear is before
+     *         startYear; its budgets must not be modified
      */
-    private List<Budget> buildBudgetsFromJson(
-        InputStreamReader budgetReader,
-        InputStreamReader ministryReader
+    public BudgetYearRange findByYearRange(
+        final int startYear,
+        final int endYear
     ) {
-        JsonObject budgetJson = parseBudgetJson(budgetReader);
-        if (budgetJson == null) {
-            return Collections.emptyList();
+        BudgetSnapshot current = snapshot();
+        if (endYear < startYear) {
+            LOGGER.warning("Cannot search for a range ending before it starts");
+            return current.range(startYear, startYear);
         }
+        return current.range(startYear, endYear);
+    }
 
-        JsonObject ministryMapJson = parseMinistryMapJson(ministryReader);
-        if (ministryMapJson == null) {
-            return Collections.emptyList();
+    /**
+     * Re-reads the stored budgets and bill-ministry-map.json if they
+     * changed since they were cached and publishes the result, so that the
+     * next read is answered from memory. Does nothing while the cache is
+     * fresh. Meant to be called off the UI thread, see
+     * {@link DataFileWatcher}.
+     */
+    public void reload() {
+        currentSnapshot();
+    }
+
+    /**
+     * Returns the number of reads answered from the in-memory cache.
+     * @return the cache hit count of this repository
+     */
+    public long getCacheHits() {
+        return cacheHits.get();
+    }
+
+    /**
+     * Returns the number of reads that had to parse the backing files.
+     * @return the cache miss count of this repository
+     */
+    public long getCacheMisses() {
+        return cacheMisses.get();
+    }
+
+    /**
+     * Returns the published snapshot when it matches the files on disk,
+     * without locking. A stale snapshot is refreshed under the read lock,
+     * which waits for a writer that is between writing the files and
+     * publishing its snapshot.
+     * @return the current snapshot
+     */
+    private BudgetSnapshot currentSnapshot() {
+        BudgetSnapshot current = snapshot.get();
+        if (isFresh(current)) {
+            cacheHits.incrementAndGet();
+            return current;
+        }
+        importNewerSource();
+        LOCK.readLock().lock();
+        try {
+            return getCachedSnapshot();
+        } finally {
+            LOCK.readLock().unlock();
         }
-        //παίρνει το json με key byID
-        JsonObject byIdMap = ministryMapJson.getAsJsonObject("byId");
-        //παίρνει το json με key byName
-        JsonObject byNameMap = ministryMapJson.getAsJsonObject("byName");
+    }
 
-        List<Budget> budgets = new ArrayList<>();
-        // θυμιθείτε την δομή του budget.json
-        // εχεις ως key τον χρόνο και value είναι ένα αλλο json
-        // που αποτελεί τα στοιχεία του προυπολογισμού ενός έτους
-        for (String yearStr : budgetJson.keySet()) {
-            int year = Integer.parseInt(yearStr);
-            JsonObject yearBudgetData = budgetJson.getAsJsonObject(yearStr);
-            List<BudgetItem> items = buildBudgetItemsForYear(
-                yearBudgetData, year, byIdMap, byNameMap
-            );
-            Budget budget = buildBudgetFromItems(items, year);
-            budgets.add(budget);
+    /**
+     * Returns the cached snapshot, re-parsing the JSON files first when the
+     * cache is empty or either file changed size or modification time.
+     * Must be called while holding the read or the write lock; concurrent
+     * readers that find the cache stale parse the files only once.
+     * @return the cached snapshot
+     */
+    private BudgetSnapshot getCachedSnapshot() {
+        BudgetSnapshot current = snapshot.get();
+        if (isFresh(current)) {
+            cacheHits.incrementAndGet();
+            return current;
+        }
+        synchronized (refreshLock) {
+            current = snapshot.get();
+            if (isFresh(current)) {
+                cacheHits.incrementAndGet();
+                return current;
+            }
+            cacheMisses.incrementAndGet();
+            current = readBudgets();
+            snapshot.set(current);
+            return current;
         }
-        return budgets;
     }
 
     /**
-     * Parses the budget.json file into a JsonObject.
-     *
-     * @param budgetReader the input stream reader for budget.json
-     * @return JsonObject representing the budget data, or null if parsing fails
+     * Imports budget.json into the partitions when it was modified after
+     * the manifest, so that a regenerated budget.json replaces the stored
+     * budgets instead of being ignored once the partitions exist. The
+     * manifest then takes at least the modification time of budget.json,
+     * so the same file is not imported again. Takes the write lock, so it
+     * must not be called while holding the read lock.
      */
-    private JsonObject parseBudgetJson(InputStreamReader budgetReader) {
-        JsonObject budgetJson = GSON.fromJson(budgetReader, JsonObject.class);
-        return budgetJson;
+    private void importNewerSource() {
+        if (!isSourceNewer()) {
+            return;
+        }
+        LOCK.writeLock().lock();
+        try {
+            if (!isSourceNewer()) {
+                return;
+            }
+            LOGGER.info("budget.json changed, importing it again");
+            Path source = PathsUtil.getBudgetWritablePath();
+            if (!importFromFile(source)) {
+                return;
+            }
+            Path manifest = BudgetPartitions.current().manifest();
+            FileTime imported = Files.getLastModifiedTime(source);
+            if (imported.compareTo(
+                    Files.getLastModifiedTime(manifest)) > 0) {
+                Files.setLastModifiedTime(manifest, imported);
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to stamp budget manifest", e);
+        } finally {
+            LOCK.writeLock().unlock();
+        }
     }
 
     /**
-     * Parses the bill-ministry-map.json file into a JsonObject.
-     *
-     * @param ministryReader the input stream reader for bill-ministry-map.json
-     * @return JsonObject representing the ministry map,
-     *                                 or null if parsing fails
+     * Tells whether budget.json was modified after the partition manifest.
+     * @return {@code true} if the partitions exist and budget.json is
+     *         newer than their manifest
      */
-    private JsonObject parseMinistryMapJson(InputStreamReader ministryReader) {
-        JsonObject mapJson = GSON.fromJson(ministryReader, JsonObject.class);
-        return mapJson;
+    private static boolean isSourceNewer() {
+        BudgetPartitions partitions = BudgetPartitions.current();
+        Path source = PathsUtil.getBudgetWritablePath();
+        try {
+            return partitions.exists() && Files.isRegularFile(source)
+                && Files.getLastModifiedTime(source).compareTo(
+                    Files.getLastModifiedTime(partitions.manifest())) > 0;
+        } catch (IOException e) {
+            return false;
+        }
     }
 
     /**
-     * Builds BudgetItem objects for a specific year from JSON data.
-     * Processes both revenue items (esoda) and expense items (eksoda)
-     * and creates BudgetItem objects with their associated ministries.
-     *
-     * @param yearData the JSON object containing year-specific budget data
-     * @param year the budget year
-     * @param byIdMap the ministry mapping by bill ID
-     * @param byNameMap the ministry mapping by bill name
-     * @return list of BudgetItem objects for the year
+     * Tells whether the cache holds the budgets currently on disk.
+     * @return {@code true} if the cache can be used without re-parsing
      */
-    private List<BudgetItem> buildBudgetItemsForYear(
-        JsonObject yearData,
-        int year,
-        JsonObject byIdMap,
-        JsonObject byNameMap
+    private boolean isCacheFresh() {
+        return isFresh(snapshot.get());
+    }
+
+    /**
+     * Tells whether the given snapshot matches the files on disk.
+     * @param candidate the snapshot to check, may be {@code null}
+     * @return {@code true} if the snapshot can be used without re-parsing
+     */
+    private static boolean isFresh(final BudgetSnapshot candidate) {
+        return candidate != null
+            && currentBudgetStamp().equals(candidate.budgetStamp())
+            && FileStamp.of(PathsUtil.getBillMinistryWritablePath())
+                .equals(candidate.ministryStamp());
+    }
+
+    /**
+     * Stamps the storage the budgets are currently read from: the
+     * manifest and year files once the partitions exist, budget.json
+     * before that. budget.json is stamped in both cases, since a newer one
+     * replaces the partitions.
+     * @return the current stamp of the budget storage
+     */
+    private static List<FileStamp> currentBudgetStamp() {
+        BudgetPartitions partitions = BudgetPartitions.current();
+        if (partitions.exists()) {
+            return stampOf(partitions);
+        }
+        return List.of(FileStamp.of(PathsUtil.getBudgetWritablePath()));
+    }
+
+    /**
+     * Stamps the partitions together with budget.json.
+     * @param partitions the partition layout
+     * @return the stamps of the partition files followed by budget.json
+     */
+    private static List<FileStamp> stampOf(BudgetPartitions partitions) {
+        List<FileStamp> stamp = new ArrayList<>(partitions.stamp());
+        stamp.add(FileStamp.of(PathsUtil.getBudgetWritablePath()));
+        return stamp;
+    }
+
+    /**
+     * Drops the cached budgets so that the next read re-parses the files.
+     */
+    private void invalidateCache() {
+        snapshot.set(null);
+    }
+
+    /**
+     * Publishes the snapshot that follows a write of the given budgets:
+     * their stored form replaces the budget of the same year or is
+     * appended, and the removed years are dropped. The next snapshot is
+     * built from a copy and swapped in, so readers of the previous one are
+     * unaffected. Drops the cache when the ministry map is not available.
+     * @param saved the budgets that were persisted
+     * @param removed the years that were deleted
+     * @param partitions the partition layout that was written
+     */
+    private void publishWrite(
+        final Collection<Budget> saved,
+        final Set<Integer> removed,
+        final BudgetPartitions partitions
     ) {
-        List<BudgetItem> items = new ArrayList<>();
+        List<FileStamp> stamp = stampOf(partitions);
+        snapshot.updateAndGet(current -> {
+            if (current == null || current.ministries() == null) {
+                return null;
+            }
+            List<Budget> budgets = new ArrayList<>(current.getBudgets());
+            budgets.removeIf(b -> removed.contains(b.getYear()));
+            Map<Integer, BudgetTotals> totals = new HashMap<>();
+            for (Budget budget : saved) {
+                Budget stored =
+                    toStoredBudget(budget, current.ministries(), totals);
+                OptionalInt index = findIndexByYear(budgets, budget.getYear());
+                if (index.isPresent()) {
+                    budgets.set(index.getAsInt(), stored);
+                } else {
+                    budgets.add(stored);
+                }
+            }
+            return current.withBudgets(budgets, totals, stamp);
+        });
+    }
 
-        if (yearData.has(ESODA_KEY)) {
-            items.addAll(parseRevenueItems(
-                yearData.getAsJsonArray(ESODA_KEY),
-                year,
-                byIdMap,
-                byNameMap
-            ));
+    /**
+     * Reads and parses the stored budgets and bill-ministry-map.json.
+     * @return the new snapshot, holding no budgets if a file is not found
+     *         or the load fails
+     */
+    private BudgetSnapshot readBudgets() {
+        io.recordRead();
+        List<FileStamp> budgetStamp = currentBudgetStamp();
+        FileStamp ministryStamp =
+                    FileStamp.of(PathsUtil.getBillMinistryWritablePath());
+        MinistryLookup ministries = readMinistryLookup();
+        List<Budget> budgets;
+        if (ministries == null) {
+            budgets = Collections.emptyList();
+        } else {
+            budgets = readStoredBudgets(ministries);
         }
+        return new BudgetSnapshot(
+            budgets, ministries, budgetStamp, ministryStamp);
+    }
 
-        if (yearData.has(EKSODA_KEY)) {
-            items.addAll(parseExpenseItems(
-                yearData.getAsJsonArray(EKSODA_KEY),
-                year,
-                byIdMap,
-                byNameMap
-            ));
+    /**
+     * Reads every stored budget from the binary snapshot while it matches
+     * the JSON files. Otherwise the JSON files are parsed and, when all of
+     * them could be read, the snapshot is rebuilt from the result.
+     * @param ministries the compiled bill-ministry map
+     * @return the budgets in storage order
+     */
+    private List<Budget> readStoredBudgets(MinistryLookup ministries) {
+        BudgetPartitions partitions = BudgetPartitions.current();
+        boolean partitioned = partitions.exists();
+        Path snapshotFile = PathsUtil.getBudgetSnapshotPath();
+        Optional<List<Budget>> decoded =
+            BudgetSnapshotFile.open(snapshotFile, partitioned)
+                .flatMap(file -> decodeAll(file, ministries));
+        if (decoded.isPresent()) {
+            return decoded.get();
         }
-        return items;
+        List<FileStamp> sources = new ArrayList<>();
+        List<Budget> budgets = partitioned
+            ? readPartitions(partitions, ministries, sources)
+            : readSingleFile(ministries, sources);
+        if (!sources.isEmpty()
+                && sources.stream().noneMatch(
+                    source -> source.path().equals(snapshotFile))) {
+            try {
+                BudgetSnapshotFile.write(
+                    snapshotFile, partitioned, sources, budgets);
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING,
+                    "Failed to write the budget snapshot", e);
+            }
+        }
+        return budgets;
     }
 
     /**
-     * Parses revenue items (esoda) from JSON array.
-     * Converts each JSON element into a BudgetItem with isRevenue set to true.
-     *
-     * @param revenueData the JSON array containing revenue items
-     * @param year the budget year
-     * @param byIdMap the ministry mapping by bill ID
-     * @param byNameMap the ministry mapping by bill name
-     * @return list of BudgetItem objects representing revenue items
+     * Decodes every year of a binary snapshot.
+     * @param file the opened snapshot
+     * @param ministries the compiled bill-ministry map
+     * @return the budgets, or empty if the snapshot is damaged
      */
-    private List<BudgetItem> parseRevenueItems(
-        JsonArray revenueData,
-        int year,
-        JsonObject byIdMap,
-        JsonObject byNameMap
+    private static Optional<List<Budget>> decodeAll(
+        BudgetSnapshotFile file,
+        MinistryLookup ministries
     ) {
-        List<BudgetItem> items = new ArrayList<>();
-        for (JsonElement element : revenueData) {
-            JsonObject item = element.getAsJsonObject();
-            BudgetItem budgetItem = createBudgetItem(
-                item, year, true, byIdMap, byNameMap
+        try {
+            List<Budget> budgets = new ArrayList<>();
+            for (int year : file.years()) {
+                file.items(year, ministries)
+                    .map(items -> buildBudgetFromItems(items, year))
+                    .ifPresent(budgets::add);
+            }
+            return Optional.of(budgets);
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Damaged budget snapshot", e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Reads and compiles bill-ministry-map.json.
+     * @return the ministry lookup, or {@code null} if the map is missing,
+     *         empty or malformed
+     */
+    MinistryLookup readMinistryLookup() {
+        InputStream ministryInput =
+                        PathsUtil.getBillMinistryMapInputStream();
+        if (ministryInput == null) {
+            LOGGER.log(
+                Level.WARNING,
+                "Resource {0} was not found returning empty list",
+                PathsUtil.BILL_MINISTRY_MAP_RESOURCE
             );
-            items.add(budgetItem);
+            return null;
+        }
+        try (ministryInput;
+            JsonReader ministryReader = GSON.newJsonReader(
+                new InputStreamReader(
+                    ministryInput, StandardCharsets.UTF_8))) {
+            if (!hasContent(ministryReader)) {
+                return null;
+            }
+            return MinistryLookup.read(ministryReader);
+        } catch (IOException io) {
+            LOGGER.log(
+                Level.SEVERE,
+                "Error reading " + PathsUtil.BILL_MINISTRY_MAP_RESOURCE,
+                io
+            );
+            return null;
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.SEVERE,
+                "Malformed bill-ministry map payload",
+                e
+            );
+            return null;
         }
-        return items;
     }
 
     /**
-     * Parses expense items (eksoda) from JSON array.
-     * Converts each JSON element into a BudgetItem with isRevenue set to false.
-     *
-     * @param expenseData the JSON array containing expense items
-     * @param year the budget year
-     * @param byIdMap the ministry mapping by bill ID
-     * @param byNameMap the ministry mapping by bill name
-     * @return list of BudgetItem objects representing expense items
+     * Reads every budget from the single-file budget.json format.
+     * @param ministries the compiled bill-ministry map
+     * @param sources receives the stamp of budget.json, taken before it is
+     *                read; left empty when the classpath copy is used or the
+     *                file cannot be read
+     * @return list of budget or empty list if file is not found or load fails.
      */
-    private List<BudgetItem> parseExpenseItems(
-        JsonArray expenseData,
-        int year,
-        JsonObject byIdMap,
-        JsonObject byNameMap
+    private List<Budget> readSingleFile(
+        MinistryLookup ministries,
+        List<FileStamp> sources
     ) {
-        List<BudgetItem> items = new ArrayList<>();
-        for (JsonElement element : expenseData) {
-            JsonObject item = element.getAsJsonObject();
-            BudgetItem budgetItem = createBudgetItem(
-                item, year, false, byIdMap, byNameMap
+        Path budgetFile = PathsUtil.getBudgetWritablePath();
+        // only the data directory copy is read through, not the classpath
+        boolean external = Files.isRegularFile(budgetFile)
+            && Files.isReadable(budgetFile);
+        FileStamp stamp = FileStamp.of(budgetFile);
+        //load budget.json
+        InputStream budgetInput = PathsUtil.getBudgetInputStream();
+        if (budgetInput == null) {
+            LOGGER.log(
+                Level.WARNING,
+                "Resource {0} was not found returning empty list",
+                PathsUtil.BUDGET_RESOURCE
             );
-            items.add(budgetItem);
+            return Collections.emptyList();
+        }
+        try (budgetInput;
+            JsonReader budgetReader = GSON.newJsonReader(
+                new InputStreamReader(budgetInput, StandardCharsets.UTF_8))) {
+            List<Budget> budgets = parseBudgets(budgetReader, ministries);
+            if (external && stamp.exists()) {
+                sources.add(stamp);
+            }
+            return budgets;
+        } catch (IOException io) {
+            LOGGER.log(
+                Level.SEVERE,
+                "Error reading " + PathsUtil.BUDGET_RESOURCE,
+                io
+            );
+            return Collections.emptyList();
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.SEVERE,
+                "Malformed budget payload",
+                e
+            );
+            return Collections.emptyList();
         }
-        return items;
     }
 
     /**
-     * Creates a BudgetItem from JSON data.
-     * Extracts ID, name, and value from the JSON object and associates
-     * the appropriate ministries based on the provided mappings.
-     *
-     * @param item the JSON object containing item data
+     * Reads every year listed in the partition manifest. A partition that
+     * is missing or malformed is logged and skipped, the other years are
+     * still returned.
+     * @param partitions the partition layout
+     * @param ministries the compiled bill-ministry map
+     * @param sources receives the stamps of the manifest and of every
+     *                partition, taken before they are read; left empty when
+     *                any of them cannot be read
+     * @return the budgets in manifest order
+     */
+    private List<Budget> readPartitions(
+        BudgetPartitions partitions,
+        MinistryLookup ministries,
+        List<FileStamp> sources
+    ) {
+        List<FileStamp> stamps = new ArrayList<>();
+        stamps.add(FileStamp.of(partitions.manifest()));
+        List<Integer> years;
+        try {
+            years = partitions.readYears();
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.SEVERE, "Failed to read budget manifest", e);
+            return Collections.emptyList();
+        }
+        List<Budget> budgets = new ArrayList<>(years.size());
+        boolean complete = true;
+        for (int year : years) {
+            stamps.add(FileStamp.of(partitions.partition(year)));
+            Optional<Budget> budget =
+                readPartition(partitions, year, ministries);
+            budget.ifPresent(budgets::add);
+            complete = complete && budget.isPresent();
+        }
+        if (complete) {
+            sources.addAll(stamps);
+        }
+        return budgets;
+    }
+
+    /**
+     * Reads the partition file of one year.
+     * @param partitions the partition layout
      * @param year the budget year
-     * @param isRevenue true if this is a revenue item, false if expense
-     * @param byIdMap the ministry mapping by bill ID
-     * @param byNameMap the ministry mapping by bill name
-     * @return a BudgetItem instance
+     * @param ministries the compiled bill-ministry map
+     * @return the budget of the year, or empty if it cannot be read
      */
-    private BudgetItem createBudgetItem(
-        JsonObject item,
+    private Optional<Budget> readPartition(
+        BudgetPartitions partitions,
         int year,
-        boolean isRevenue,
-        JsonObject byIdMap,
-        JsonObject byNameMap
+        MinistryLookup ministries
     ) {
-        int id = item.get("ID").getAsInt();
-        String name = item.get("BILL").getAsString();
-        double value = item.get("VALUE").getAsDouble();
-        List<Ministry> ministries =
-                            extractMinistries(id, name, byIdMap, byNameMap);
+        try (JsonReader reader = GSON.newJsonReader(
+                Files.newBufferedReader(
+                    partitions.partition(year), StandardCharsets.UTF_8))) {
+            List<BudgetItem> items = readYearItems(reader, year, ministries);
+            return Optional.of(buildBudgetFromItems(items, year));
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(
+                Level.SEVERE,
+                "Failed to read budget partition of " + year,
+                e
+            );
+            return Optional.empty();
+        }
+    }
 
-        return new BudgetItem(id, year, name, value, isRevenue, ministries);
+    /**
+     * Builds Budget objects from budget.json in a single streaming pass.
+     * BudgetItems are created as their tokens are read, so no intermediate
+     * JSON tree of the file is kept in memory. Ministries are resolved
+     * through the precompiled bill-ministry lookup.
+     *
+     * @param budgetReader the reader over budget.json
+     * @param ministries the compiled bill-ministry map
+     * @return list of Budget objects in file order, or empty list when the
+     *         document is empty
+     * @throws IOException if budget.json cannot be read
+     */
+    static List<Budget> parseBudgets(
+        JsonReader budgetReader,
+        MinistryLookup ministries
+    ) throws IOException {
+        if (!hasContent(budgetReader)) {
+            return Collections.emptyList();
+        }
+        // θυμιθείτε την δομή του budget.json
+        // εχεις ως key τον χρόνο και value είναι ένα αλλο json
+        // που αποτελεί τα στοιχεία του προυπολογισμού ενός έτους
+        Map<String, Budget> budgetsByYear = new LinkedHashMap<>();
+        budgetReader.beginObject();
+        while (budgetReader.hasNext()) {
+            String yearStr = budgetReader.nextName();
+            int year = Integer.parseInt(yearStr);
+            List<BudgetItem> items =
+                readYearItems(budgetReader, year, ministries);
+            budgetsByYear.put(yearStr, buildBudgetFromItems(items, year));
+        }
+        budgetReader.endObject();
+        return new ArrayList<>(budgetsByYear.values());
     }
 
     /**
-     * Extracts the list of ministries for a budget item.
-     * First tries to find ministries by ID, then by name if not found.
+     * Tells whether the reader holds a JSON value. Empty documents and a
+     * top-level {@code null} are treated as missing data.
      *
-     * @param id the budget item ID
-     * @param name the budget item name
-     * @param byIdMap the ministry mapping by bill ID
-     * @param byNameMap the ministry mapping by bill name
-     * @return list of Ministry enums associated with the budget item
-     */
-    private List<Ministry> extractMinistries(
-        int id,
-        String name,
-        JsonObject byIdMap,
-        JsonObject byNameMap
-    ) {
-        List<Ministry> ministries = new ArrayList<>();
-        String idStr = String.valueOf(id);
+     * @param reader the reader to inspect
+     * @return {@code true} if a value can be read
+     * @throws IOException if the reader fails
+     */
+    private static boolean hasContent(JsonReader reader) throws IOException {
+        try {
+            if (reader.peek() == JsonToken.NULL) {
+                reader.nextNull();
+                return false;
+            }
+            return true;
+        } catch (EOFException e) {
+            return false;
+        }
+    }
 
-        if (byIdMap != null && byIdMap.has(idStr)) {
-            ministries.addAll(parseMinistriesFromArray(
-                byIdMap.getAsJsonArray(idStr)
-            ));
-        } else if (byNameMap != null && byNameMap.has(name)) {
-            ministries.addAll(parseMinistriesFromArray(
-                byNameMap.getAsJsonArray(name)
-            ));
+    /**
+     * Reads the items of one year. Revenue items (esoda) always precede
+     * expense items (eksoda) in the returned list, whatever their order in
+     * the file.
+     *
+     * @param reader the reader positioned at the year object
+     * @param year the budget year
+     * @param ministries the compiled bill-ministry map
+     * @return list of BudgetItem objects for the year
+     * @throws IOException if the year cannot be read
+     */
+    private static List<BudgetItem> readYearItems(
+        JsonReader reader,
+        int year,
+        MinistryLookup ministries
+    ) throws IOException {
+        List<BudgetItem> revenueItems = List.of();
+        List<BudgetItem> expenseItems = List.of();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String key = reader.nextName();
+            if (ESODA_KEY.equals(key)) {
+                revenueItems = readItems(reader, year, true, ministries);
+            } else if (EKSODA_KEY.equals(key)) {
+                expenseItems = readItems(reader, year, false, ministries);
+            } else {
+                reader.skipValue();
+            }
         }
+        reader.endObject();
+        List<BudgetItem> items =
+            new ArrayList<>(revenueItems.size() + expenseItems.size());
+        items.addAll(revenueItems);
+        items.addAll(expenseItems);
+        return items;
+    }
 
-        return ministries;
+    /**
+     * Reads an esoda or eksoda array.
+     *
+     * @param reader the reader positioned at the array
+     * @param year the budget year
+     * @param isRevenue true for revenue items, false for expense items
+     * @param ministries the compiled bill-ministry map
+     * @return the items of the array in file order
+     * @throws IOException if the array cannot be read
+     */
+    private static List<BudgetItem> readItems(
+        JsonReader reader,
+        int year,
+        boolean isRevenue,
+        MinistryLookup ministries
+    ) throws IOException {
+        List<BudgetItem> items = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            items.add(readItem(reader, year, isRevenue, ministries));
+        }
+        reader.endArray();
+        return items;
     }
 
     /**
-     * Parses ministry names from JSON array and converts
-     *                                  them to Ministry enums.
-     * Invalid ministry names are logged as warnings and skipped.
+     * Creates a BudgetItem from the ID, BILL and VALUE fields of an item
+     * object and associates the ministries mapped to it.
      *
-     * @param ministryArray the JSON array containing ministry name strings
-     * @return list of Ministry enums
+     * @param reader the reader positioned at the item object
+     * @param year the budget year
+     * @param isRevenue true if this is a revenue item, false if expense
+     * @param ministries the compiled bill-ministry map
+     * @return a BudgetItem instance
+     * @throws IOException if the item cannot be read
      */
-    private List<Ministry> parseMinistriesFromArray(JsonArray ministryArray) {
-        List<Ministry> ministries = new ArrayList<>();
-        for (JsonElement ministryElement : ministryArray) {
-            String ministryStr = ministryElement.getAsString();
-            try {
-                ministries.add(Ministry.valueOf(ministryStr));
-            } catch (IllegalArgumentException e) {
-                LOGGER.log(
-                    Level.WARNING,
-                    "Unknown ministry: {0}",
-                    ministryStr
-                );
+    private static BudgetItem readItem(
+        JsonReader reader,
+        int year,
+        boolean isRevenue,
+        MinistryLookup ministries
+    ) throws IOException {
+        int id = 0;
+        String name = null;
+        double value = 0;
+        boolean hasId = false;
+        boolean hasValue = false;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "ID" -> {
+                    id = reader.nextInt();
+                    hasId = true;
+                }
+                case "BILL" -> {
+                    name = reader.nextString();
+                }
+                case "VALUE" -> {
+                    value = reader.nextDouble();
+                    hasValue = true;
+                }
+                default -> reader.skipValue();
             }
         }
-        return ministries;
+        reader.endObject();
+        if (!hasId || name == null || !hasValue) {
+            throw new JsonParseException(
+                "Budget item without ID, BILL or VALUE at "
+                + reader.getPath()
+            );
+        }
+        return new BudgetItem(
+            id, year, name, value, isRevenue,
+            ministries.ministriesFor(id, name)
+        );
     }
 
     /**
@@ -352,7 +763,10 @@ public class BudgetRepository
      * @param year the budget year
      * @return a Budget object with calculated totals
      */
-    private Budget buildBudgetFromItems(List<BudgetItem> items, int year) {
+    static Budget buildBudgetFromItems(
+        List<BudgetItem> items,
+        int year
+    ) {
         double totalRevenue = items.stream()
             .filter((budgetItem) -> budgetItem.getIsRevenue())
             .mapToDouble((budgetItem) -> budgetItem.getValue())
@@ -370,25 +784,256 @@ public class BudgetRepository
     /**
      * Saves a Budget entity to the JSON file.
      * Removes any existing budget with the same year to prevent duplicates.
+     * Only the partition of the budget's year is written, plus the manifest
+     * when the year is new. The next snapshot is published from the written
+     * budgets, so the next read does not re-parse.
      * @param budget the Budget object to be saved; must not be null.
      */
     @Override
     public void save(final Budget budget) {
-        synchronized (LOCK) {
-            if (budget == null) {
-                LOGGER.warning("Cannot save a null budget");
+        if (budget == null) {
+            LOGGER.warning("Cannot save a null budget");
+            return;
+        }
+        saveAll(List.of(budget));
+    }
+
+    /**
+     * Saves a batch of budgets in one write pass: the manifest is read
+     * once, the partition of every year in the batch is written and the
+     * manifest is written once if any year is new. When the batch holds
+     * several budgets of the same year the last one is stored.
+     * Null budgets are skipped.
+     * @param budgets the budgets to save, ignored when {@code null}
+     */
+    @Override
+    public void saveAll(final List<Budget> budgets) {
+        LOCK.writeLock().lock();
+        try {
+            importNewerSource();
+            if (budgets == null) {
+                LOGGER.warning("Cannot save a null list of budgets");
                 return;
             }
-            List<Budget> budgets = new ArrayList<>(load());
-            OptionalInt index = findIndexByYear(budgets, budget.getYear());
-            if (index.isPresent()) {
-                budgets.set(index.getAsInt(), budget);
+            Map<Integer, Budget> byYear = new LinkedHashMap<>();
+            for (Budget budget : budgets) {
+                if (budget == null) {
+                    LOGGER.warning("Cannot save a null budget");
+                    continue;
+                }
+                byYear.put(budget.getYear(), budget);
+            }
+            if (byYear.isEmpty()) {
+                return;
+            }
+            BudgetPartitions partitions = BudgetPartitions.current();
+            if (!partitions.exists()) {
+                List<Budget> stored =
+                    new ArrayList<>(getCachedSnapshot().getBudgets());
+                for (Budget budget : byYear.values()) {
+                    OptionalInt index =
+                        findIndexByYear(stored, budget.getYear());
+                    if (index.isPresent()) {
+                        stored.set(index.getAsInt(), budget);
+                    } else {
+                        stored.add(budget);
+                    }
+                }
+                if (!writeAllPartitions(partitions, stored)) {
+                    invalidateCache();
+                    return;
+                }
             } else {
-                budgets.add(budget);
+                boolean fresh = isCacheFresh();
+                if (!writeYears(partitions, byYear.values())) {
+                    invalidateCache();
+                    return;
+                }
+                if (!fresh) {
+                    invalidateCache();
+                    return;
+                }
+            }
+            publishWrite(byYear.values(), Set.of(), partitions);
+        } finally {
+            LOCK.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Writes the partitions of the given years and adds the new years to
+     * the manifest, reading and writing the manifest at most once.
+     * @param partitions the partition layout
+     * @param budgets the budgets to write, at most one per year
+     * @return {@code true} if every year was written
+     */
+    private boolean writeYears(
+        BudgetPartitions partitions,
+        Collection<Budget> budgets
+    ) {
+        try {
+            io.recordRead();
+            List<Integer> years = partitions.readYears();
+            Map<Integer, JsonElement> yearData = new LinkedHashMap<>();
+            boolean newYears = false;
+            for (Budget budget : budgets) {
+                yearData.put(
+                    budget.getYear(), buildYearDataFromBudget(budget));
+                if (!years.contains(budget.getYear())) {
+                    years.add(budget.getYear());
+                    newYears = true;
+                }
+            }
+            partitions.writePartitions(yearData);
+            if (newYears) {
+                partitions.writeYears(years);
+            }
+            io.recordWrite();
+            return true;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.SEVERE, "Failed to persist budgets", e);
+            return false;
+        }
+    }
+
+    /**
+     * Writes every budget to its own partition and then the manifest,
+     * removing partitions of years that are no longer listed.
+     * Used when the partitioned layout is created or replaced.
+     * @param partitions the partition layout
+     * @param budgets the budgets to store, in storage order
+     * @return {@code true} if the layout was written
+     */
+    private boolean writeAllPartitions(
+        BudgetPartitions partitions,
+        List<Budget> budgets
+    ) {
+        try {
+            List<Integer> previous = List.of();
+            if (partitions.exists()) {
+                io.recordRead();
+                previous = partitions.readYears();
+            }
+            List<Integer> years = new ArrayList<>(budgets.size());
+            Map<Integer, JsonElement> yearData = new LinkedHashMap<>();
+            for (Budget budget : budgets) {
+                yearData.put(
+                    budget.getYear(), buildYearDataFromBudget(budget));
+                years.add(budget.getYear());
             }
-            saveToFile(budgets);
+            partitions.writePartitions(yearData);
+            partitions.writeYears(years);
+            for (int year : previous) {
+                if (!years.contains(year)) {
+                    partitions.deletePartition(year);
+                }
+            }
+            io.recordWrite();
+            return true;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.SEVERE, "Failed to persist budgets", e);
+            return false;
         }
     }
+
+    /**
+     * Builds the Budget as it would be read back from budget.json: null
+     * items are dropped, revenue items precede expense items, items take
+     * the budget's year, ministries come from the bill-ministry map and
+     * totals are recomputed from the items. The totals and the
+     * {@link BudgetTotals} of the year are collected in the copy pass.
+     * @param budget the budget that was persisted
+     * @param ministries the compiled bill-ministry map
+     * @param totals receives the totals of the year
+     * @return a new Budget instance that is safe to keep in a snapshot
+     */
+    private static Budget toStoredBudget(
+        final Budget budget,
+        final MinistryLookup ministries,
+        final Map<Integer, BudgetTotals> totals
+    ) {
+        BudgetTotals.Accumulator accumulator = new BudgetTotals.Accumulator();
+        List<BudgetItem> revenueItems = new ArrayList<>();
+        List<BudgetItem> expenseItems = new ArrayList<>();
+        double totalRevenue = 0;
+        double totalExpense = 0;
+        for (BudgetItem item : budget.getItems()) {
+            if (item == null) {
+                continue;
+            }
+            BudgetItem stored = new BudgetItem(
+                item.getId(),
+                budget.getYear(),
+                item.getName(),
+                item.getValue(),
+                item.getIsRevenue(),
+                ministries.ministriesFor(
+                    item.getId(), item.getName())
+            );
+            accumulator.add(stored);
+            if (item.getIsRevenue()) {
+                revenueItems.add(stored);
+                totalRevenue += stored.getValue();
+            } else {
+                expenseItems.add(stored);
+                totalExpense += stored.getValue();
+            }
+        }
+        revenueItems.addAll(expenseItems);
+        Budget stored = new Budget(revenueItems, budget.getYear(),
+            totalRevenue, totalExpense, totalRevenue - totalExpense);
+        totals.put(stored.getYear(), accumulator.totals(stored));
+        return stored;
+    }
+
+    /**
+     * Creates deep copies of the supplied budgets so that callers can
+     * modify them without touching the cache.
+     * @param budgets the budgets to copy
+     * @return a new mutable list of copied budgets
+     */
+    private static List<Budget> copyBudgets(final List<Budget> budgets) {
+        List<Budget> copies = new ArrayList<>(budgets.size());
+        for (Budget budget : budgets) {
+            copies.add(copyBudget(budget));
+        }
+        return copies;
+    }
+
+    /**
+     * Creates a deep copy of a Budget and its items.
+     * @param budget the budget to copy
+     * @return the copy
+     */
+    private static Budget copyBudget(final Budget budget) {
+        List<BudgetItem> items = new ArrayList<>();
+        for (BudgetItem item : budget.getItems()) {
+            items.add(copyItem(item));
+        }
+        return new Budget(
+            items,
+            budget.getYear(),
+            budget.getTotalRevenue(),
+            budget.getTotalExpense(),
+            budget.getNetResult()
+        );
+    }
+
+    /**
+     * Creates a copy of a BudgetItem.
+     * @param item the item to copy
+     * @return the copy
+     */
+    private static BudgetItem copyItem(final BudgetItem item) {
+        return new BudgetItem(
+            item.getId(),
+            item.getYear(),
+            item.getName(),
+            item.getValue(),
+            item.getIsRevenue(),
+            item.getMinistries()
+        );
+    }
     /**
      * Helper method that finds the index of a Budget in a list by its year.
      * @param budgets the list of budgets to search through.
@@ -396,7 +1041,7 @@ public class BudgetRepository
      * @return an OptionalInt containing the index if found, or empty if no.
      *budget with the specified year exists in the list.
      */
-    private OptionalInt findIndexByYear(final List<Budget> budgets,
+    private static OptionalInt findIndexByYear(final List<Budget> budgets,
             final int year) {
         return IntStream.range(0, budgets.size())
             .filter(i -> budgets.get(i).getYear() == year)
@@ -411,15 +1056,11 @@ public class BudgetRepository
     */
    @Override
    public boolean existsById(final Integer year) {
-       synchronized (LOCK) {
-           if (year == null) {
-               LOGGER.warning("Cannot search with a null year");
-               return false;
-            }
-            return load()
-            .stream()
-            .anyMatch(b -> b.getYear() == year);
+       if (year == null) {
+           LOGGER.warning("Cannot search with a null year");
+           return false;
         }
+        return currentSnapshot().containsYear(year);
     }
     /**
     * Checks if a budget item with the specified name exists in a given year.
@@ -432,30 +1073,14 @@ public class BudgetRepository
     *                in the given year, false otherwise or if itemName is null
     */
     public boolean existsByName(final String itemName, final int year) {
-        synchronized (LOCK) {
-            if (itemName == null) {
-                LOGGER.warning("Cannot search with a null item name");
-                return false;
-            }
-
-            List<Budget> budgets = load();
-
-            for (Budget budget : budgets) {
-                if (budget.getYear() != year) {
-                    continue;
-                }
-
-                List<BudgetItem> items = budget.getItems();
-                boolean found = items.stream()
-                        .filter(item -> item != null)
-                        .anyMatch(item -> itemName.equals(item.getName()));
-
-                if (found) {
-                    return true;
-                }
-            }
+        if (itemName == null) {
+            LOGGER.warning("Cannot search with a null item name");
             return false;
         }
+        return currentSnapshot()
+            .findByYear(year)
+            .map(budget -> budget.containsItemName(itemName))
+            .orElse(false);
     }
     /**
      * Checks if a budget item with the specified ID exists in any budget.
@@ -467,28 +1092,18 @@ public class BudgetRepository
      *         false otherwise or if itemId is null or <= 0
      */
     public boolean existsByItemId(final int itemId, final int year) {
-        synchronized (LOCK) {
-            if (itemId <= 0) {
-                LOGGER.warning(Message.INVALID_ITEM_ID);
-                return false;
-            }
-            if (year < Limits.MIN_BUDGET_YEAR) {
-                LOGGER.warning("Cannot search with year earlier than 2000");
-                return false;
-            }
-
-            Optional<Budget> budget = findById(year);
-            if (budget.isEmpty()) {
-                return false;
-            }
-
-            Budget budgetForYear = budget.get();
-            List<BudgetItem> items = budgetForYear.getItems();
-            return items
-                    .stream()
-                    .filter(item -> item != null)
-                    .anyMatch(item -> item.getId() == itemId);
+        if (itemId <= 0) {
+            LOGGER.warning(Message.INVALID_ITEM_ID);
+            return false;
+        }
+        if (year < Limits.MIN_BUDGET_YEAR) {
+            LOGGER.warning("Cannot search with year earlier than 2000");
+            return false;
         }
+        return currentSnapshot()
+            .findByYear(year)
+            .map(budget -> budget.containsItemId(itemId))
+            .orElse(false);
     }
     /**
      * Finds a BudgetItem by id across all budgets.
@@ -500,31 +1115,18 @@ public class BudgetRepository
     public Optional<BudgetItem> findItemById(int id, int year,
                                                 boolean isRevenue
     ) {
-        synchronized (LOCK) {
-            if (id <= 0) {
-                LOGGER.warning(Message.INVALID_ITEM_ID);
-                return Optional.empty();
-            }
-            if (year < Limits.MIN_BUDGET_YEAR) {
-                LOGGER.warning("Cannot search with year earlier than 2000");
-                return Optional.empty();
-            }
-
-            Optional<Budget> budget = findById(year);
-            if (budget.isEmpty()) {
-                return Optional.empty();
-            }
-
-            Budget budgetForYear = budget.get();
-            List<BudgetItem> items = budgetForYear.getItems();
-
-            return items
-                    .stream()
-                    .filter(item -> item != null)
-                    .filter(item -> item.getId() == id
-                                && item.getIsRevenue() == isRevenue)
-                    .findFirst();
+        if (id <= 0) {
+            LOGGER.warning(Message.INVALID_ITEM_ID);
+            return Optional.empty();
+        }
+        if (year < Limits.MIN_BUDGET_YEAR) {
+            LOGGER.warning("Cannot search with year earlier than 2000");
+            return Optional.empty();
         }
+        return currentSnapshot()
+                .findByYear(year)
+                .flatMap(budget -> budget.findItem(id, isRevenue))
+                .map(BudgetRepository::copyItem);
     }
 
     /**
@@ -537,50 +1139,134 @@ public class BudgetRepository
     public Optional<BudgetItem> findItemById(int id, Budget budget,
         boolean isRevenue
     ) {
-        synchronized (LOCK) {
-            if (id <= 0) {
-                LOGGER.warning(Message.INVALID_ITEM_ID);
-                return Optional.empty();
-            }
-            if (budget == null) {
-                LOGGER.warning("Cannot search with null budget");
-                return Optional.empty();
-            }
-
-            List<BudgetItem> items = budget.getItems();
-
-            return items
-                .stream()
-                .filter(item -> item != null)
-                .filter(item -> item.getId() == id
-                        && item.getIsRevenue() == isRevenue)
-                .findFirst();
+        if (id <= 0) {
+            LOGGER.warning(Message.INVALID_ITEM_ID);
+            return Optional.empty();
         }
+        if (budget == null) {
+            LOGGER.warning("Cannot search with null budget");
+            return Optional.empty();
+        }
+
+        return budget.findItem(id, isRevenue);
     }
     /**
      * Deletes budgets that match the year of the provided Budget entity.
-     * When a matching entry is found it is removed and the updated collection.
-     * is persisted; otherwise no action is taken.
+     * When a matching entry is found it is removed from the manifest and
+     * its partition is deleted; otherwise no action is taken.
      * @param budget the budget to remove, ignored when {@code null}.
     */
    @Override
    public void delete(final Budget budget) {
-       synchronized (LOCK) {
-           if (budget == null) {
-               LOGGER.warning("Cannot delete a null budget");
-               return;
-            }
-            List<Budget> budgets = new ArrayList<>(load());
-            OptionalInt index = findIndexByYear(budgets, budget.getYear());
-            if (index.isPresent()) {
-                budgets.remove(index.getAsInt());
-                saveToFile(budgets);
+       if (budget == null) {
+           LOGGER.warning("Cannot delete a null budget");
+           return;
+        }
+        deleteAll(List.of(budget));
+    }
+
+    /**
+     * Deletes a batch of budgets, identified by their year, in one write
+     * pass: the manifest is read and written once and the partitions of the
+     * removed years are deleted. Nothing is written when none of the years
+     * is stored.
+     * @param budgets the budgets to remove, ignored when {@code null}.
+     */
+    @Override
+    public void deleteAll(final List<Budget> budgets) {
+        LOCK.writeLock().lock();
+        try {
+            importNewerSource();
+            if (budgets == null) {
+                LOGGER.warning("Cannot delete a null list of budgets");
+                return;
+            }
+            Set<Integer> requested = new LinkedHashSet<>();
+            for (Budget budget : budgets) {
+                if (budget != null) {
+                    requested.add(budget.getYear());
+                }
+            }
+            if (requested.isEmpty()) {
+                return;
+            }
+            BudgetPartitions partitions = BudgetPartitions.current();
+            if (!partitions.exists()) {
+                List<Budget> stored =
+                    new ArrayList<>(getCachedSnapshot().getBudgets());
+                if (!stored.removeIf(b -> requested.contains(b.getYear()))) {
+                    LOGGER.
+                    warning("Cannot delete a budget because it doesn't exist");
+                    return;
+                }
+                if (writeAllPartitions(partitions, stored)) {
+                    publishWrite(List.of(), requested, partitions);
+                } else {
+                    invalidateCache();
+                }
+                return;
+            }
+            boolean fresh = isCacheFresh();
+            Set<Integer> removed = new HashSet<>();
+            try {
+                io.recordRead();
+                List<Integer> years = partitions.readYears();
+                for (int year : requested) {
+                    if (years.remove(Integer.valueOf(year))) {
+                        removed.add(year);
+                    } else {
+                        LOGGER.
+                        warning(
+                            "Cannot delete a budget because it doesn't exist");
+                    }
+                }
+                if (removed.isEmpty()) {
+                    return;
+                }
+                partitions.writeYears(years);
+                for (int year : removed) {
+                    partitions.deletePartition(year);
+                }
+                io.recordWrite();
+            } catch (IOException | RuntimeException e) {
+                LOGGER.log(Level.SEVERE, "Failed to persist budgets", e);
+                invalidateCache();
+                return;
+            }
+            if (fresh) {
+                publishWrite(List.of(), removed, partitions);
             } else {
-                LOGGER.
-                warning("Cannot delete a budget because it doesn't exist");
+                invalidateCache();
+            }
+        } finally {
+            LOCK.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Retrieves the budgets of the given years with at most one read of
+     * the stored budgets.
+     * @param years the years to look up, {@code null} elements are skipped
+     * @return copies of the matching budgets in the order of {@code years}
+     */
+    @Override
+    public List<Budget> findAllById(final List<Integer> years) {
+        if (years == null) {
+            LOGGER.warning("Cannot search with a null list of years");
+            return Collections.emptyList();
+        }
+        BudgetSnapshot current = currentSnapshot();
+        List<Budget> found = new ArrayList<>();
+        for (Integer year : new LinkedHashSet<>(years)) {
+            if (year != null) {
+                current.findByYear(year)
+                    .map(BudgetRepository::copyBudget)
+                    .ifPresent(found::add);
             }
         }
+        return found;
     }
+
     /**
      * Retrieves the Budget associated with the specified year.
      * If a matching entry exists, it is returned wrapped in an Optional;
@@ -592,37 +1278,194 @@ public class BudgetRepository
     */
    @Override
    public Optional<Budget> findById(final Integer year) {
-       synchronized (LOCK) {
-           if (year == null || year < Limits.MIN_BUDGET_YEAR) {
-               LOGGER
-               .warning("Cannot search for a budget with null year"
-               + " or earlier than 2000");
-               return Optional.empty();
-            }
-            return load()
-            .stream()
-            .filter(b -> year.equals(b.getYear()))
-            .findFirst();
+       if (year == null || year < Limits.MIN_BUDGET_YEAR) {
+           LOGGER
+           .warning("Cannot search for a budget with null year"
+           + " or earlier than 2000");
+           return Optional.empty();
+        }
+        if (!isCacheFresh()) {
+            importNewerSource();
+            LOCK.readLock().lock();
+            try {
+                BudgetPartitions partitions = BudgetPartitions.current();
+                if (!isCacheFresh() && partitions.exists()) {
+                    // read only the requested year instead of every partition
+                    return findUncachedPartition(partitions, year);
+                }
+            } finally {
+                LOCK.readLock().unlock();
+            }
+        }
+        return currentSnapshot()
+            .findByYear(year)
+            .map(BudgetRepository::copyBudget);
+    }
+
+    /**
+     * Changes the budget of a year and saves it in one step with respect
+     * to other writers, so concurrent updates of the same year are not
+     * lost. The change is applied to a private copy of the current budget,
+     * which is then persisted and published in the next snapshot. When the
+     * change throws, nothing is saved and the exception is propagated.
+     * @param year the year of the budget to change
+     * @param change the modification to apply to the copy
+     * @return {@code true} if the budget was changed and saved,
+     *         {@code false} if no budget is stored for the year
+     */
+    public boolean updateBudget(
+        final int year,
+        final Consumer<Budget> change
+    ) {
+        if (change == null) {
+            LOGGER.warning("Cannot update a budget with a null change");
+            return false;
+        }
+        LOCK.writeLock().lock();
+        try {
+            importNewerSource();
+            Optional<Budget> current = getCachedSnapshot().findByYear(year);
+            if (current.isEmpty()) {
+                return false;
+            }
+            Budget copy = copyBudget(current.get());
+            change.accept(copy);
+            saveAll(List.of(copy));
+            return true;
+        } finally {
+            LOCK.writeLock().unlock();
         }
     }
+
     /**
-    * Serializes the supplied budgets collection to the backing JSON file
-    * using the configured {@link Gson} instance.
+     * Reads a year while the cache is stale. When the binary snapshot
+     * matches the partitions, every year is decoded from it and published
+     * as the cached snapshot, so the following reads are answered from
+     * memory instead of verifying the snapshot file again. Otherwise only
+     * the partition of the year is parsed, reusing the bill-ministry map
+     * of the stale snapshot while that file is unchanged. Must be called
+     * while holding the read lock.
+     * @param partitions the partition layout
+     * @param year the budget year
+     * @return the budget of the year, or empty if it is not stored
+     */
+    private Optional<Budget> findUncachedPartition(
+        BudgetPartitions partitions,
+        int year
+    ) {
+        cacheMisses.incrementAndGet();
+        io.recordRead();
+        List<FileStamp> budgetStamp = stampOf(partitions);
+        FileStamp ministryStamp =
+                    FileStamp.of(PathsUtil.getBillMinistryWritablePath());
+        BudgetSnapshot stale = snapshot.get();
+        MinistryLookup ministries = stale != null
+            && ministryStamp.equals(stale.ministryStamp())
+            ? stale.ministries() : readMinistryLookup();
+        if (ministries == null) {
+            return Optional.empty();
+        }
+        Optional<List<Budget>> decoded = BudgetSnapshotFile.open(
+            PathsUtil.getBudgetSnapshotPath(), true)
+            .flatMap(file -> decodeAll(file, ministries));
+        if (decoded.isPresent()) {
+            BudgetSnapshot loaded = new BudgetSnapshot(
+                decoded.get(), ministries, budgetStamp, ministryStamp);
+            synchronized (refreshLock) {
+                if (!isCacheFresh()) {
+                    snapshot.set(loaded);
+                }
+            }
+            return loaded.findByYear(year).map(BudgetRepository::copyBudget);
+        }
+        try {
+            if (!partitions.readYears().contains(year)) {
+                return Optional.empty();
+            }
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.SEVERE, "Failed to read budget manifest", e);
+            return Optional.empty();
+        }
+        return readPartition(partitions, year, ministries);
+    }
+
+    /**
+     * Returns the I/O counters of this repository.
+     * @return the counters
+     */
+    IoCounters ioCounters() {
+        return io;
+    }
+
+    /**
+     * Exports every stored budget in the single-file budget.json format.
+     * @param target the file to write
+     * @return {@code true} if the file was written, {@code false} otherwise
+     */
+    public boolean exportToFile(final Path target) {
+        if (target == null) {
+            LOGGER.warning("Cannot export budgets to a null path");
+            return false;
+        }
+        return saveToFile(currentSnapshot().getBudgets(), target);
+    }
+
+    /**
+     * Replaces all stored budgets with the contents of a file in the
+     * single-file budget.json format. Years that are not in the file are
+     * removed. Nothing is changed when the file cannot be parsed.
+     * @param source the file to read
+     * @return {@code true} if the budgets were imported
+     */
+    public boolean importFromFile(final Path source) {
+        LOCK.writeLock().lock();
+        try {
+            if (source == null) {
+                LOGGER.warning("Cannot import budgets from a null path");
+                return false;
+            }
+            MinistryLookup ministries = readMinistryLookup();
+            if (ministries == null) {
+                return false;
+            }
+            List<Budget> budgets;
+            try (JsonReader reader = GSON.newJsonReader(
+                    Files.newBufferedReader(source, StandardCharsets.UTF_8))) {
+                budgets = parseBudgets(reader, ministries);
+            } catch (IOException | RuntimeException e) {
+                LOGGER.log(Level.SEVERE, "Failed to import " + source, e);
+                return false;
+            }
+            invalidateCache();
+            return writeAllPartitions(BudgetPartitions.current(), budgets);
+        } finally {
+            LOCK.writeLock().unlock();
+        }
+    }
+    /**
+    * Serializes the supplied budgets collection to a single JSON file
+    * using the configured {@link Gson} instance. The file is replaced
+    * atomically through the shared {@link GroupCommitWriter}.
     * Converts Budget objects back to the original JSON structure with
     * years as keys and esoda/eksoda arrays.
     * Any I/O failure is logged and swallowed so that callers are not
     * forced to handle checked exceptions.
     *
     * @param budgets the collection of budgets that should be persisted
+    * @param target the file to write
+    * @return {@code true} if the file was written, {@code false} otherwise
     */
-    private void saveToFile(List<Budget> budgets) {
-        Path target = PathsUtil.getBudgetWritablePath();
-        try (Writer writer = Files.
-                newBufferedWriter(target, StandardCharsets.UTF_8)) {
+    boolean saveToFile(List<Budget> budgets, Path target) {
+        try {
             JsonObject root = buildJsonFromBudgets(budgets);
-            GSON.toJson(root, writer);
+            GroupCommitWriter.shared().writeAndWait(
+                target,
+                writer -> GSON.toJson(root, writer)
+            );
+            return true;
         } catch (IOException e) {
             LOGGER.log(Level.SEVERE, "Failed to persist budgets", e);
+            return false;
         }
     }
 
@@ -0,0 +1,201 @@
+package budget.backend.repository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import budget.backend.model.domain.Budget;
+
+/**
+ * Immutable view of every stored budget at one point in time, published by
+ * {@link BudgetRepository#snapshot()}. A snapshot is never changed after it
+ * is published: writers build the next snapshot from a copy and swap it in,
+ * so a computation that reads several years from one snapshot sees a
+ * consistent state while other threads keep saving budgets.
+ *
+ * <p>The budgets are shared by every reader of the snapshot and are
+ * {@link Budget#freeze() frozen} when the snapshot is created, so any
+ * attempt to modify them or their items throws; use
+ * {@link BudgetRepository#findById(Integer)} to obtain a private copy that
+ * can be edited and saved.
+ *
+ * <p>Every snapshot also holds the {@link BudgetTotals} of its years. The
+ * snapshot that follows a write reuses the totals of the years the write
+ * did not touch and takes those of the written years from the writer,
+ * which collects them while it stores the budgets.
+ */
+public final class BudgetSnapshot {
+
+    private final List<Budget> budgets;
+    private final Map<Integer, Budget> byYear;
+    private final Map<Integer, BudgetTotals> totals;
+    private final MinistryLookup ministries;
+    private final List<FileStamp> budgetStamp;
+    private final FileStamp ministryStamp;
+
+    /**
+     * Creates a snapshot of the given budgets.
+     *
+     * @param budgets the budgets in storage order, copied
+     * @param ministries the compiled bill-ministry map, {@code null} when
+     *                   the map could not be read
+     * @param budgetStamp the stamp of the budget storage
+     * @param ministryStamp the stamp of bill-ministry-map.json
+     */
+    BudgetSnapshot(
+        final List<Budget> budgets,
+        final MinistryLookup ministries,
+        final List<FileStamp> budgetStamp,
+        final FileStamp ministryStamp
+    ) {
+        this(budgets, null, Map.of(), ministries, budgetStamp, ministryStamp);
+    }
+
+    /**
+     * Creates a snapshot of the given budgets, reusing the totals of a
+     * previous snapshot for the years whose budget is the same instance.
+     * The totals of the other years are taken from the given ones, or
+     * computed when missing.
+     *
+     * @param budgets the budgets in storage order, copied
+     * @param previous the totals to reuse by year, {@code null} for none
+     * @param written the totals of the written years
+     * @param ministries the compiled bill-ministry map, may be null
+     * @param budgetStamp the stamp of the budget storage
+     * @param ministryStamp the stamp of bill-ministry-map.json
+     */
+    private BudgetSnapshot(
+        final List<Budget> budgets,
+        final BudgetSnapshot previous,
+        final Map<Integer, BudgetTotals> written,
+        final MinistryLookup ministries,
+        final List<FileStamp> budgetStamp,
+        final FileStamp ministryStamp
+    ) {
+        this.budgets = Collections.unmodifiableList(new ArrayList<>(budgets));
+        Map<Integer, Budget> index = new HashMap<>();
+        Map<Integer, BudgetTotals> yearTotals = new HashMap<>();
+        for (Budget budget : budgets) {
+            budget.freeze();
+            int year = budget.getYear();
+            if (index.putIfAbsent(year, budget) != null) {
+                continue;
+            }
+            if (previous != null && previous.byYear.get(year) == budget) {
+                yearTotals.put(year, previous.totals.get(year));
+            } else if (written.containsKey(year)) {
+                yearTotals.put(year, written.get(year));
+            } else {
+                yearTotals.put(year, BudgetTotals.of(budget));
+            }
+        }
+        this.byYear = index;
+        this.totals = yearTotals;
+        this.ministries = ministries;
+        this.budgetStamp = budgetStamp;
+        this.ministryStamp = ministryStamp;
+    }
+
+    /**
+     * Returns every budget of the snapshot.
+     *
+     * @return an unmodifiable list of the frozen budgets in storage order
+     */
+    public List<Budget> getBudgets() {
+        return budgets;
+    }
+
+    /**
+     * Finds the budget of a year.
+     *
+     * @param year the budget year
+     * @return the shared, frozen budget of the year, or empty if it is not
+     *         stored
+     */
+    public Optional<Budget> findByYear(final int year) {
+        return Optional.ofNullable(byYear.get(year));
+    }
+
+    /**
+     * Finds the totals of a year.
+     *
+     * @param year the budget year
+     * @return the totals of the year, or empty if it is not stored
+     */
+    public Optional<BudgetTotals> findTotals(final int year) {
+        return Optional.ofNullable(totals.get(year));
+    }
+
+    /**
+     * Returns the budgets of a range of years, indexed by year.
+     *
+     * @param startYear the first year (inclusive)
+     * @param endYear the end of the range (exclusive)
+     * @return the range of this snapshot
+     * @throws IllegalArgumentException if endYear is before startYear
+     */
+    public BudgetYearRange range(final int startYear, final int endYear) {
+        return new BudgetYearRange(this, startYear, endYear);
+    }
+
+    /**
+     * Tells whether a budget is stored for a year.
+     *
+     * @param year the budget year
+     * @return {@code true} if the snapshot holds the year
+     */
+    public boolean containsYear(final int year) {
+        return byYear.containsKey(year);
+    }
+
+    /**
+     * Returns the compiled bill-ministry map the budgets were read with.
+     *
+     * @return the lookup, {@code null} when the map could not be read
+     */
+    MinistryLookup ministries() {
+        return ministries;
+    }
+
+    /**
+     * Returns the stamp of the budget storage the snapshot matches.
+     *
+     * @return the budget storage stamp
+     */
+    List<FileStamp> budgetStamp() {
+        return budgetStamp;
+    }
+
+    /**
+     * Returns the stamp of bill-ministry-map.json the snapshot matches.
+     *
+     * @return the ministry map stamp
+     */
+    FileStamp ministryStamp() {
+        return ministryStamp;
+    }
+
+    /**
+     * Returns the next snapshot holding the given budgets, read with the
+     * same ministry map. The totals of the budgets that are not in this
+     * snapshot are taken from the given ones, and only computed when
+     * missing.
+     *
+     * @param next the budgets of the next snapshot
+     * @param written the totals of the written budgets by year
+     * @param stamp the stamp of the budget storage after the write
+     * @return the new snapshot
+     */
+    BudgetSnapshot withBudgets(
+        final List<Budget> next,
+        final Map<Integer, BudgetTotals> written,
+        final List<FileStamp> stamp
+    ) {
+        return new BudgetSnapshot(
+            next, this, written, ministries, stamp, ministryStamp);
+    }
+
+}
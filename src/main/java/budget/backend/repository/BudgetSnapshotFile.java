@@ -0,0 +1,367 @@
+package budget.backend.repository;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+import budget.backend.model.domain.Budget;
+import budget.backend.model.domain.BudgetItem;
+
+/**
+ * Binary copy of the stored budgets, kept next to the JSON files so that a
+ * cold start does not have to parse them. The JSON files stay the source of
+ * truth: the snapshot records the size and modification time of every file
+ * it was built from and is ignored as soon as one of them changes, after
+ * which the repository parses the JSON again and rebuilds it.
+ *
+ * <p>The file is read into a heap buffer in one pass and only its tables
+ * are parsed when it is opened; bill names and the items of a year are
+ * decoded when they are requested. The file is not memory-mapped: the
+ * checksum scans all of it anyway, and a live mapping would keep Windows
+ * from renaming a rebuilt snapshot over it. Layout, all numbers
+ * big-endian:
+ * <pre>
+ * header  int magic, int version, long CRC32 of everything that follows
+ * sources byte layout, int count, per file: string path, long size,
+ *         long seconds, int nanos
+ * strings int count, per string: int length, UTF-8 bytes
+ * years   int count, per year: int year, int revenue items, int items
+ * columns int ids[], int names[], double values[] over all items
+ * </pre>
+ * Items are stored year after year with the revenue items first, and the
+ * names column refers to the string table, so a bill that appears in every
+ * year stores its name once.
+ *
+ * <p>An opened snapshot is used by a single read and is not thread-safe.
+ */
+final class BudgetSnapshotFile {
+
+    /** Format version, increased whenever the layout changes. */
+    static final int VERSION = 1;
+
+    private static final Logger LOGGER =
+            Logger.getLogger(BudgetSnapshotFile.class.getName());
+    private static final int MAGIC = 0x42534e50;
+    private static final int CHECKED_OFFSET =
+            Integer.BYTES + Integer.BYTES + Long.BYTES;
+    private static final int CHECKSUM_OFFSET = Integer.BYTES + Integer.BYTES;
+    private static final byte SINGLE_FILE = 0;
+    private static final byte PARTITIONED = 1;
+
+    private final ByteBuffer buffer;
+    private final int[] stringOffsets;
+    private final String[] strings;
+    private final Map<Integer, Integer> yearIndex;
+    private final int[] years;
+    private final int[] revenueCounts;
+    private final int[] itemCounts;
+    private final int[] firstItems;
+    private final int idColumn;
+    private final int nameColumn;
+    private final int valueColumn;
+
+    private BudgetSnapshotFile(final ByteBuffer buffer) {
+        this.buffer = buffer;
+        int stringCount = buffer.getInt();
+        stringOffsets = new int[stringCount];
+        strings = new String[stringCount];
+        for (int i = 0; i < stringCount; i++) {
+            stringOffsets[i] = buffer.position();
+            int length = buffer.getInt();
+            buffer.position(buffer.position() + length);
+        }
+        int yearCount = buffer.getInt();
+        years = new int[yearCount];
+        revenueCounts = new int[yearCount];
+        itemCounts = new int[yearCount];
+        firstItems = new int[yearCount];
+        yearIndex = new LinkedHashMap<>();
+        int totalItems = 0;
+        for (int i = 0; i < yearCount; i++) {
+            years[i] = buffer.getInt();
+            revenueCounts[i] = buffer.getInt();
+            itemCounts[i] = buffer.getInt();
+            firstItems[i] = totalItems;
+            totalItems += itemCounts[i];
+            yearIndex.putIfAbsent(years[i], i);
+        }
+        idColumn = buffer.position();
+        nameColumn = idColumn + totalItems * Integer.BYTES;
+        valueColumn = nameColumn + totalItems * Integer.BYTES;
+        if (valueColumn + (long) totalItems * Double.BYTES
+                != buffer.limit()) {
+            throw new IllegalArgumentException(
+                "Budget snapshot columns do not match the year table");
+        }
+    }
+
+    /**
+     * Opens the snapshot if it was written by this version for the given
+     * storage layout and every file it was built from is unchanged.
+     *
+     * @param file the snapshot file
+     * @param partitioned {@code true} if the budgets are currently stored
+     *                    one file per year
+     * @return the snapshot, or empty if it is missing, stale or damaged
+     */
+    static Optional<BudgetSnapshotFile> open(
+        final Path file,
+        final boolean partitioned
+    ) {
+        if (!Files.isRegularFile(file)) {
+            return Optional.empty();
+        }
+        try (FileChannel channel =
+                FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < CHECKED_OFFSET || size > Integer.MAX_VALUE) {
+                return Optional.empty();
+            }
+            ByteBuffer content = ByteBuffer.allocate((int) size);
+            while (content.hasRemaining() && channel.read(content) >= 0) {
+                continue;
+            }
+            if (content.hasRemaining()) {
+                return Optional.empty();
+            }
+            content.flip();
+            if (content.getInt(0) != MAGIC
+                    || content.getInt(Integer.BYTES) != VERSION) {
+                return Optional.empty();
+            }
+            ByteBuffer checked = content.slice(
+                CHECKED_OFFSET, (int) size - CHECKED_OFFSET);
+            CRC32 crc = new CRC32();
+            crc.update(checked.duplicate());
+            if (crc.getValue() != content.getLong(CHECKSUM_OFFSET)) {
+                LOGGER.warning("Ignoring budget snapshot with bad checksum");
+                return Optional.empty();
+            }
+            byte layout = checked.get();
+            if (layout != (partitioned ? PARTITIONED : SINGLE_FILE)
+                    || !sourcesUnchanged(checked, file.getParent())) {
+                return Optional.empty();
+            }
+            return Optional.of(new BudgetSnapshotFile(checked.slice()));
+        } catch (IOException | BufferUnderflowException
+                | IllegalArgumentException | IndexOutOfBoundsException e) {
+            LOGGER.log(Level.WARNING, "Ignoring unreadable budget snapshot", e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Returns the years held by the snapshot.
+     *
+     * @return the years in storage order
+     */
+    List<Integer> years() {
+        List<Integer> list = new ArrayList<>(years.length);
+        for (int year : years) {
+            list.add(year);
+        }
+        return list;
+    }
+
+    /**
+     * Decodes the items of one year, revenue items first.
+     *
+     * @param year the budget year
+     * @param ministries the compiled bill-ministry map
+     * @return the items of the year, or empty if the year is not stored
+     * @throws IndexOutOfBoundsException if the snapshot is damaged
+     */
+    Optional<List<BudgetItem>> items(
+        final int year,
+        final MinistryLookup ministries
+    ) {
+        Integer index = yearIndex.get(year);
+        if (index == null) {
+            return Optional.empty();
+        }
+        int first = firstItems[index];
+        int count = itemCounts[index];
+        List<BudgetItem> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int item = first + i;
+            int id = buffer.getInt(idColumn + item * Integer.BYTES);
+            String name =
+                string(buffer.getInt(nameColumn + item * Integer.BYTES));
+            double value = buffer.getDouble(valueColumn + item * Double.BYTES);
+            items.add(new BudgetItem(
+                id, year, name, value, i < revenueCounts[index],
+                ministries.ministriesFor(id, name)
+            ));
+        }
+        return Optional.of(items);
+    }
+
+    /**
+     * Writes a snapshot of the given budgets through the shared
+     * {@link GroupCommitWriter}, replacing any previous snapshot.
+     *
+     * @param file the snapshot file
+     * @param partitioned {@code true} if the budgets were read from the
+     *                    partitioned layout
+     * @param sources stamps of every file the budgets were read from,
+     *                taken before they were read
+     * @param budgets the budgets as read from the JSON files
+     * @throws IOException if the snapshot cannot be written
+     */
+    static void write(
+        final Path file,
+        final boolean partitioned,
+        final List<FileStamp> sources,
+        final List<Budget> budgets
+    ) throws IOException {
+        byte[] checked =
+            encode(file.getParent(), partitioned, sources, budgets);
+        CRC32 crc = new CRC32();
+        crc.update(checked);
+        GroupCommitWriter.await(List.of(
+            GroupCommitWriter.shared().writeBytes(file, out -> {
+                DataOutputStream data = new DataOutputStream(out);
+                data.writeInt(MAGIC);
+                data.writeInt(VERSION);
+                data.writeLong(crc.getValue());
+                data.write(checked);
+                data.flush();
+            })
+        ));
+    }
+
+    private static byte[] encode(
+        final Path directory,
+        final boolean partitioned,
+        final List<FileStamp> sources,
+        final List<Budget> budgets
+    ) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(partitioned ? PARTITIONED : SINGLE_FILE);
+        out.writeInt(sources.size());
+        for (FileStamp source : sources) {
+            Instant modified = source.lastModified().toInstant();
+            writeString(out, directory.relativize(source.path()).toString());
+            out.writeLong(source.size());
+            out.writeLong(modified.getEpochSecond());
+            out.writeInt(modified.getNano());
+        }
+
+        Map<String, Integer> names = new LinkedHashMap<>();
+        List<BudgetItem> items = new ArrayList<>();
+        List<int[]> yearTable = new ArrayList<>(budgets.size());
+        for (Budget budget : budgets) {
+            int revenue = 0;
+            for (BudgetItem item : budget.getItems()) {
+                if (item.getIsRevenue()) {
+                    items.add(item);
+                    revenue++;
+                }
+            }
+            for (BudgetItem item : budget.getItems()) {
+                if (!item.getIsRevenue()) {
+                    items.add(item);
+                }
+            }
+            for (BudgetItem item : budget.getItems()) {
+                names.putIfAbsent(item.getName(), names.size());
+            }
+            yearTable.add(new int[] {
+                budget.getYear(), revenue, budget.getItems().size()
+            });
+        }
+
+        out.writeInt(names.size());
+        for (String name : names.keySet()) {
+            writeString(out, name);
+        }
+        out.writeInt(yearTable.size());
+        for (int[] year : yearTable) {
+            for (int field : year) {
+                out.writeInt(field);
+            }
+        }
+        for (BudgetItem item : items) {
+            out.writeInt(item.getId());
+        }
+        for (BudgetItem item : items) {
+            out.writeInt(names.get(item.getName()));
+        }
+        for (BudgetItem item : items) {
+            out.writeDouble(item.getValue());
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Reads the source table and compares every entry with the file on
+     * disk.
+     *
+     * @param in the buffer positioned at the source count
+     * @param directory the directory the source paths are relative to
+     * @return {@code true} if every source is unchanged
+     */
+    private static boolean sourcesUnchanged(
+        final ByteBuffer in,
+        final Path directory
+    ) {
+        int count = in.getInt();
+        boolean unchanged = count > 0;
+        for (int i = 0; i < count; i++) {
+            Path path = directory.resolve(readString(in));
+            long size = in.getLong();
+            long seconds = in.getLong();
+            int nanos = in.getInt();
+            FileStamp current = FileStamp.of(path);
+            unchanged = unchanged
+                && current.exists()
+                && current.size() == size
+                && current.lastModified().equals(
+                    FileTime.from(Instant.ofEpochSecond(seconds, nanos)));
+        }
+        return unchanged;
+    }
+
+    private String string(final int index) {
+        String value = strings[index];
+        if (value == null) {
+            ByteBuffer in = buffer.duplicate();
+            in.position(stringOffsets[index]);
+            value = readString(in);
+            strings[index] = value;
+        }
+        return value;
+    }
+
+    private static String readString(final ByteBuffer in) {
+        byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeString(final DataOutputStream out, final String s)
+            throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+}
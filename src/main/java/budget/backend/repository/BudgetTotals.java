@@ -0,0 +1,99 @@
+package budget.backend.repository;
+
+import budget.backend.model.domain.Budget;
+import budget.backend.model.domain.BudgetItem;
+import budget.frontend.constants.Constants;
+
+/**
+ * The aggregates of one budget year that the trend and regression charts
+ * are drawn from. They are kept with every {@link BudgetSnapshot} and
+ * recomputed only for the years a write touches, so a chart over many
+ * years reads one small record per year instead of the item lists.
+ *
+ * @param year the budget year
+ * @param totalRevenue the total revenue recorded on the budget
+ * @param totalExpense the total expense recorded on the budget
+ * @param netResult the net result recorded on the budget
+ * @param loansRevenue the sum of the revenue items named
+ *                     {@link Constants#LOANS_ITEM_NAME}
+ * @param loansExpense the sum of the expense items named
+ *                     {@link Constants#LOANS_ITEM_NAME}
+ * @param itemCount the number of items of the budget
+ */
+public record BudgetTotals(
+    int year,
+    double totalRevenue,
+    double totalExpense,
+    double netResult,
+    double loansRevenue,
+    double loansExpense,
+    int itemCount
+) {
+
+    /**
+     * Computes the aggregates of a budget in one pass over its items.
+     *
+     * @param budget the budget, not modified
+     * @return the aggregates of the budget
+     */
+    static BudgetTotals of(final Budget budget) {
+        Accumulator accumulator = new Accumulator();
+        for (BudgetItem item : budget.getItems()) {
+            accumulator.add(item);
+        }
+        return accumulator.totals(budget);
+    }
+
+    /**
+     * Collects the loans and the item count of a budget from its items one
+     * at a time, so a pass over the items made for another reason can
+     * compute them as well.
+     */
+    static final class Accumulator {
+        private double loansRevenue;
+        private double loansExpense;
+        private int itemCount;
+
+        /**
+         * Adds an item of the budget.
+         *
+         * @param item the item, ignored when {@code null}
+         */
+        void add(final BudgetItem item) {
+            if (item == null) {
+                return;
+            }
+            itemCount++;
+            if (Constants.LOANS_ITEM_NAME.equals(item.getName())) {
+                if (item.getIsRevenue()) {
+                    loansRevenue += item.getValue();
+                } else {
+                    loansExpense += item.getValue();
+                }
+            }
+        }
+
+        /**
+         * Returns the aggregates of the budget whose items were added.
+         *
+         * @param budget the budget, whose recorded totals are taken as
+         *               they are
+         * @return the aggregates of the budget
+         */
+        BudgetTotals totals(final Budget budget) {
+            return new BudgetTotals(budget.getYear(), budget.getTotalRevenue(),
+                budget.getTotalExpense(), budget.getNetResult(),
+                loansRevenue, loansExpense, itemCount);
+        }
+    }
+
+    /**
+     * Returns the loans of one side of the budget.
+     *
+     * @param isRevenue true for revenue loans, false for expense loans
+     * @return the sum of the loan items of that side
+     */
+    public double loans(final boolean isRevenue) {
+        return isRevenue ? loansRevenue : loansExpense;
+    }
+}
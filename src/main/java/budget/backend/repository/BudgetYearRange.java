@@ -0,0 +1,145 @@
+package budget.backend.repository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import budget.backend.model.domain.Budget;
+
+/**
+ * The budgets of a range of consecutive years, indexed by year, taken from
+ * one {@link BudgetSnapshot}. Returned by
+ * {@link BudgetRepository#findByYearRange(int, int)} so that a chart over
+ * several years reads the stored budgets once and then looks every year up
+ * by its position in the range. The {@link BudgetTotals} of the years are
+ * indexed the same way, for charts that need no items.
+ *
+ * <p>Like the snapshot it comes from, a range is never changed and its
+ * budgets are shared and must not be modified.
+ */
+public final class BudgetYearRange {
+
+    private final int startYear;
+    // indexed by year - startYear, null for a year without a budget
+    private final Budget[] budgets;
+    private final BudgetTotals[] totals;
+
+    /**
+     * Creates the range of the given years of a snapshot.
+     *
+     * @param snapshot the snapshot to take the budgets from
+     * @param startYear the first year of the range (inclusive)
+     * @param endYear the end of the range (exclusive)
+     * @throws IllegalArgumentException if endYear is before startYear
+     */
+    BudgetYearRange(
+        final BudgetSnapshot snapshot,
+        final int startYear,
+        final int endYear
+    ) {
+        if (endYear < startYear) {
+            throw new IllegalArgumentException(
+                "endYear must not be before startYear, but was: startYear="
+                + startYear + ", endYear=" + endYear);
+        }
+        this.startYear = startYear;
+        this.budgets = new Budget[endYear - startYear];
+        this.totals = new BudgetTotals[budgets.length];
+        for (int year = startYear; year < endYear; year++) {
+            budgets[year - startYear] = snapshot.findByYear(year).orElse(null);
+            totals[year - startYear] = snapshot.findTotals(year).orElse(null);
+        }
+    }
+
+    /**
+     * Returns the first year of the range.
+     *
+     * @return the start year (inclusive)
+     */
+    public int getStartYear() {
+        return startYear;
+    }
+
+    /**
+     * Returns the end of the range.
+     *
+     * @return the end year (exclusive)
+     */
+    public int getEndYear() {
+        return startYear + budgets.length;
+    }
+
+    /**
+     * Finds the budget of a year of the range.
+     *
+     * @param year the budget year
+     * @return the shared budget of the year, or empty if it is not stored
+     *         or lies outside the range
+     */
+    public Optional<Budget> findByYear(final int year) {
+        int index = year - startYear;
+        if (index < 0 || index >= budgets.length) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(budgets[index]);
+    }
+
+    /**
+     * Finds the totals of a year of the range.
+     *
+     * @param year the budget year
+     * @return the totals of the year, or empty if it is not stored or lies
+     *         outside the range
+     */
+    public Optional<BudgetTotals> findTotals(final int year) {
+        int index = year - startYear;
+        if (index < 0 || index >= totals.length) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(totals[index]);
+    }
+
+    /**
+     * Returns the totals of the stored years of the range.
+     *
+     * @return an unmodifiable list of the totals in year order, skipping
+     *         the years without a budget
+     */
+    public List<BudgetTotals> getTotals() {
+        List<BudgetTotals> stored = new ArrayList<>(totals.length);
+        for (BudgetTotals yearTotals : totals) {
+            if (yearTotals != null) {
+                stored.add(yearTotals);
+            }
+        }
+        return Collections.unmodifiableList(stored);
+    }
+
+    /**
+     * Builds the values of the items of one side of the budgets across
+     * the range, reading every item of the range once.
+     *
+     * @param isRevenue true for revenue items, false for expense items
+     * @return the item-by-year values of the range
+     */
+    public ItemValueMatrix itemValues(final boolean isRevenue) {
+        return new ItemValueMatrix(this, isRevenue);
+    }
+
+    /**
+     * Returns the stored budgets of the range.
+     *
+     * @return an unmodifiable list of the budgets in year order, skipping
+     *         the years without a budget
+     */
+    public List<Budget> getBudgets() {
+        List<Budget> stored = new ArrayList<>(budgets.length);
+        for (Budget budget : budgets) {
+            if (budget != null) {
+                stored.add(budget);
+            }
+        }
+        return Collections.unmodifiableList(stored);
+    }
+}
@@ -1,5 +1,6 @@
 package budget.backend.repository;
 
+import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.InputStream;
@@ -8,25 +9,54 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.OptionalInt;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.stream.IntStream;
 
+import com.google.gson.ExclusionStrategy;
+import com.google.gson.FieldAttributes;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
 
 import budget.backend.model.domain.ChangeLog;
 import budget.backend.util.PathsUtil;
 /**
  * Repository for managing ChangeLog persistence.
- * Stateless implementation (load-on-demand).
+ * Logs are stored as a base array followed by an append-only journal,
+ * which a background thread folds back into the array, and are looked up
+ * through an in-memory index shared by all instances.
+ * <p>
+ * Records are stored in two segments that are read in order: the
+ * budget-changes.json array (base segment) and the append-only
+ * budget-changes.jsonl journal, one {@link JournalEntry} per line.
+ * Saving a log is a single append to the journal. Deletes append a
+ * tombstone and schedule a background compaction, which folds the journal
+ * into the base array and truncates it. Existing array files are read as
+ * the base segment as they are, so no explicit migration step is needed.
+ * <p>
+ * Lookups by id, {@link #getLogsForItem(Integer)} and
+ * {@link #getLogsByUser(UUID)} are answered from a {@link LogIndex} shared
+ * by all instances. It is built with one read of both segments and then
+ * kept in step with every save and delete made through this class, so
+ * looking up the history of a heavily edited item costs the size of that
+ * history, not of the whole log. The index is stamped with both segment
+ * files and rebuilt when either changes behind its back.
  */
 public class ChangeLogRepository
     implements GenericInterfaceRepository<ChangeLog, Integer>  {
@@ -34,41 +64,427 @@ public class ChangeLogRepository
     private static final Logger LOGGER =
     Logger.getLogger(ChangeLogRepository.class.getName());
 
+    /**
+     * Keeps the parsed timestamp of a log out of the files, which only
+     * store its ISO date.
+     */
+    private static final ExclusionStrategy DERIVED_FIELDS =
+        new ExclusionStrategy() {
+            @Override
+            public boolean shouldSkipField(FieldAttributes field) {
+                return field.getDeclaringClass() == ChangeLog.class
+                    && "submittedAt".equals(field.getName());
+            }
+
+            @Override
+            public boolean shouldSkipClass(Class<?> type) {
+                return false;
+            }
+        };
+
     /** Gson instance used for JSON serialization and deserialization. */
     private static final Gson GSON =
      new GsonBuilder()
      .setPrettyPrinting()
+     .addSerializationExclusionStrategy(DERIVED_FIELDS)
      .create();
 
-    private static final Object LOCK = new Object(); // for thread-safety
+    /** Gson instance for journal lines, which must fit on a single line. */
+    private static final Gson JOURNAL_GSON = new GsonBuilder()
+        .addSerializationExclusionStrategy(DERIVED_FIELDS)
+        .create();
+
+    // reads share the read lock, saves and deletes take the write lock
+    private static final ReentrantReadWriteLock LOCK =
+            new ReentrantReadWriteLock();
+
+    private static final String PUT = "PUT";
+    private static final String DELETE = "DELETE";
+    /** The journal is compacted once it outgrows the base segment. */
+    private static final long MIN_COMPACTION_BYTES = 64 * 1024;
+
+    private static final ExecutorService COMPACTOR =
+        Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "changelog-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+    private static final AtomicReference<Future<?>> PENDING_COMPACTION =
+        new AtomicReference<>();
+    // rebuilds of the index under the read lock are serialized by this lock
+    private static final Object REFRESH_LOCK = new Object();
+    private static final AtomicReference<LogIndex> INDEX =
+        new AtomicReference<>();
+
+    private final IoCounters io = new IoCounters();
 
     /**
-     * Loads all ChangeLog records from the JSON file.
+     * A single line of the journal: either the full record to insert or
+     * replace ({@code PUT}) or the id of a deleted record ({@code DELETE}).
+     * @param op the operation, {@code PUT} or {@code DELETE}
+     * @param id the id of the affected ChangeLog
+     * @param log the record for {@code PUT}, {@code null} for {@code DELETE}
+     */
+    private record JournalEntry(String op, int id, ChangeLog log) { }
+
+    /**
+     * Every stored log keyed by id, with multimaps from budget item id and
+     * from actor id to the ids of their logs and the sorted views that
+     * {@link #findPage(ChangeQuery, String)} reads. Each id list keeps the
+     * order in which the logs were first stored, matching {@link #load()}.
+     * The index is only read under the read lock and only changed under the
+     * write lock of {@code LOCK}.
+     */
+    private static final class LogIndex {
+        private final Map<Integer, ChangeLog> byId;
+        private final Map<Integer, List<Integer>> idsByItem = new HashMap<>();
+        private final Map<UUID, List<Integer>> idsByActor = new HashMap<>();
+        private final ChangePager.SortedViews<ChangeLog> sorted =
+            new ChangePager.SortedViews<>(ChangePager.Row::of);
+        private FileStamp baseStamp;
+        private FileStamp journalStamp;
+
+        /**
+         * Indexes the supplied logs.
+         * @param logs the logs keyed by id in load order, kept by the index
+         * @param baseStamp the stamp of budget-changes.json
+         * @param journalStamp the stamp of budget-changes.jsonl
+         */
+        LogIndex(
+            Map<Integer, ChangeLog> logs,
+            FileStamp baseStamp,
+            FileStamp journalStamp
+        ) {
+            this.byId = logs;
+            this.baseStamp = baseStamp;
+            this.journalStamp = journalStamp;
+            for (ChangeLog log : logs.values()) {
+                link(log);
+            }
+        }
+
+        /**
+         * Tells whether the index still matches both segment files, as
+         * they are resolved now: an index built from the files of another
+         * data directory is stale even if those files are unchanged.
+         * @return {@code true} if the index can be used without a reload
+         */
+        boolean isFresh() {
+            return baseStamp.equals(
+                    FileStamp.of(PathsUtil.getBudgetChangesWritablePath()))
+                && journalStamp.equals(
+                    FileStamp.of(PathsUtil.getBudgetChangesJournalPath()));
+        }
+
+        /**
+         * Takes new stamps of both segment files after this class wrote
+         * them.
+         */
+        void restamp() {
+            baseStamp = FileStamp.of(PathsUtil.getBudgetChangesWritablePath());
+            journalStamp =
+                FileStamp.of(PathsUtil.getBudgetChangesJournalPath());
+        }
+
+        boolean contains(int id) {
+            return byId.containsKey(id);
+        }
+
+        Optional<ChangeLog> find(int id) {
+            return Optional.ofNullable(byId.get(id));
+        }
+
+        /**
+         * Inserts or replaces a log. A replaced log keeps its place in the
+         * id lists unless it moved to another item or actor.
+         * @param log the log to store
+         */
+        void put(ChangeLog log) {
+            ChangeLog previous = byId.put(log.id(), log);
+            if (previous == null) {
+                link(log);
+                return;
+            }
+            sorted.remove(previous);
+            sorted.add(log);
+            if (previous.budgetItemId() != log.budgetItemId()) {
+                unlink(idsByItem, previous.budgetItemId(), log.id());
+                idsByItem.computeIfAbsent(
+                    log.budgetItemId(), key -> new ArrayList<>()
+                ).add(log.id());
+            }
+            if (!Objects.equals(previous.actorId(), log.actorId())) {
+                unlink(idsByActor, previous.actorId(), log.id());
+                if (log.actorId() != null) {
+                    idsByActor.computeIfAbsent(
+                        log.actorId(), key -> new ArrayList<>()
+                    ).add(log.id());
+                }
+            }
+        }
+
+        /**
+         * Removes a log and its index entries.
+         * @param id the id of the log
+         */
+        void remove(int id) {
+            ChangeLog previous = byId.remove(id);
+            if (previous != null) {
+                sorted.remove(previous);
+                unlink(idsByItem, previous.budgetItemId(), id);
+                unlink(idsByActor, previous.actorId(), id);
+            }
+        }
+
+        /**
+         * Returns one page of the logs of a budget item.
+         * @param itemId the budget item id
+         * @param offset the number of logs to skip
+         * @param limit the maximum number of logs to return
+         * @return the logs of the page
+         */
+        List<ChangeLog> forItem(int itemId, int offset, int limit) {
+            return page(idsByItem.get(itemId), offset, limit);
+        }
+
+        /**
+         * Returns one page of the logs of an actor.
+         * @param actorId the actor id
+         * @param offset the number of logs to skip
+         * @param limit the maximum number of logs to return
+         * @return the logs of the page
+         */
+        List<ChangeLog> byActor(UUID actorId, int offset, int limit) {
+            return page(idsByActor.get(actorId), offset, limit);
+        }
+
+        /**
+         * Reads one page of a query. Queries on an item or an actor only
+         * sort the logs of that item or actor, the others seek into the
+         * sorted view of all logs.
+         * @param query the query
+         * @param cursor the cursor of the previous page, or {@code null}
+         * @return the page
+         */
+        Page<ChangeLog> page(ChangeQuery query, String cursor) {
+            List<Integer> ids = null;
+            if (query.itemId() != null) {
+                ids = idsByItem.getOrDefault(query.itemId(), List.of());
+            }
+            if (query.actorId() != null) {
+                List<Integer> ofActor =
+                    idsByActor.getOrDefault(query.actorId(), List.of());
+                if (ids == null || ofActor.size() < ids.size()) {
+                    ids = ofActor;
+                }
+            }
+            if (ids == null) {
+                return sorted.page(query, cursor);
+            }
+            List<ChangeLog> candidates = new ArrayList<>(ids.size());
+            for (Integer id : ids) {
+                candidates.add(byId.get(id));
+            }
+            return ChangePager.page(
+                candidates, query, cursor, ChangePager.Row::of);
+        }
+
+        private List<ChangeLog> page(List<Integer> ids, int offset, int limit) {
+            if (ids == null || offset >= ids.size()) {
+                return List.of();
+            }
+            int end = (int) Math.min(ids.size(), (long) offset + limit);
+            List<ChangeLog> logs = new ArrayList<>(end - offset);
+            for (Integer id : ids.subList(offset, end)) {
+                logs.add(byId.get(id));
+            }
+            return logs;
+        }
+
+        private void link(ChangeLog log) {
+            sorted.add(log);
+            idsByItem.computeIfAbsent(
+                log.budgetItemId(), key -> new ArrayList<>()
+            ).add(log.id());
+            if (log.actorId() != null) {
+                idsByActor.computeIfAbsent(
+                    log.actorId(), key -> new ArrayList<>()
+                ).add(log.id());
+            }
+        }
+
+        private static <K> void unlink(
+            Map<K, List<Integer>> index,
+            K key,
+            int id
+        ) {
+            List<Integer> ids = key == null ? null : index.get(key);
+            if (ids == null) {
+                return;
+            }
+            ids.remove(Integer.valueOf(id));
+            if (ids.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Re-reads the segment files if they changed since they were indexed
+     * and publishes the new index, so that the next read is answered from
+     * memory. Does nothing while the index is fresh. Meant to be called off
+     * the UI thread, see {@link DataFileWatcher}.
+     */
+    public void reload() {
+        LOCK.readLock().lock();
+        try {
+            index();
+        } finally {
+            LOCK.readLock().unlock();
+        }
+    }
+
+    /**
+     * Loads all ChangeLog records from the JSON file and replays the
+     * journal on top of them.
      *
      * @return a list of ChangeLog entries;
      * returns an empty list if not found.
      */
     @Override
     public List<ChangeLog> load() {
-        synchronized (LOCK) {
-            InputStream in = PathsUtil.getBudgetChangesInputStream();
+        LOCK.readLock().lock();
+        try {
+            return new ArrayList<>(readSegments().values());
+        } finally {
+            LOCK.readLock().unlock();
+        }
+    }
+
+    /**
+     * Reads the base segment and replays the journal on top of it.
+     * @return the records keyed by id in load order
+     */
+    private Map<Integer, ChangeLog> readSegments() {
+        io.recordRead();
+        Map<Integer, ChangeLog> logs = readBaseSegment();
+        applyJournal(logs);
+        return logs;
+    }
+
+    /**
+     * Returns the index, rebuilding it when nothing is indexed yet or a
+     * segment file changed since it was built. Must be called while
+     * holding the read or the write lock of {@code LOCK}; concurrent
+     * readers that find the index stale read the files once.
+     * @return the up-to-date index
+     */
+    private LogIndex index() {
+        LogIndex index = INDEX.get();
+        if (index != null && index.isFresh()) {
+            return index;
+        }
+        synchronized (REFRESH_LOCK) {
+            index = INDEX.get();
+            if (index != null && index.isFresh()) {
+                return index;
+            }
+            FileStamp base =
+                FileStamp.of(PathsUtil.getBudgetChangesWritablePath());
+            FileStamp journal =
+                FileStamp.of(PathsUtil.getBudgetChangesJournalPath());
+            index = new LogIndex(readSegments(), base, journal);
+            INDEX.set(index);
+            return index;
+        }
+    }
+
+    /**
+     * Returns the index only if it matches the segment files. Must be
+     * called while holding the write lock of {@code LOCK}.
+     * @return the index, or {@code null} if it has to be rebuilt anyway
+     */
+    private static LogIndex freshIndex() {
+        LogIndex index = INDEX.get();
+        return index != null && index.isFresh() ? index : null;
+    }
 
-            if (in == null) {
-                LOGGER
-                .warning("budget-changes.json not found. "
-                                + "Returning empty list.");
-                return Collections.emptyList();
+    /**
+     * Reads the budget-changes.json array, keyed by id in file order.
+     * @return the base records, empty if the base segment is missing
+     *         or malformed
+     */
+    private Map<Integer, ChangeLog> readBaseSegment() {
+        InputStream in = PathsUtil.getBudgetChangesInputStream();
+
+        if (in == null) {
+            LOGGER
+            .warning("budget-changes.json not found. "
+                            + "Returning empty list.");
+            return new LinkedHashMap<>();
+        }
+
+        try (in; InputStreamReader reader =
+            new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            ChangeLog[] logs = GSON.fromJson(reader, ChangeLog[].class);
+            Map<Integer, ChangeLog> byId = new LinkedHashMap<>();
+            if (logs != null) {
+                for (ChangeLog log : logs) {
+                    byId.putIfAbsent(log.id(), log);
+                }
+            }
+            return byId;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.SEVERE, "Failed to load ChangeLog data", e);
+            return new LinkedHashMap<>();
+        }
+    }
+
+    /**
+     * Replays the journal on top of the base records, line by line.
+     * A {@code PUT} replaces the record in place or appends it,
+     * a {@code DELETE} removes it. Lines that cannot be parsed, such as a
+     * torn final line after a crash, are skipped.
+     * @param logs the base records, updated in place
+     */
+    private void applyJournal(Map<Integer, ChangeLog> logs) {
+        Path journal = PathsUtil.getBudgetChangesJournalPath();
+        if (!Files.isRegularFile(journal)) {
+            return;
+        }
+        try (BufferedReader reader =
+                Files.newBufferedReader(journal, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                applyJournalLine(logs, line);
             }
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Failed to read ChangeLog journal", e);
+        }
+    }
 
-            try (in; InputStreamReader reader =
-                new InputStreamReader(in, StandardCharsets.UTF_8)) {
-                ChangeLog[] logs = GSON.fromJson(reader, ChangeLog[].class);
-                return logs != null ? new ArrayList<>(Arrays.asList(logs))
-                                    : Collections.emptyList();
-            } catch (IOException | RuntimeException e) {
-                LOGGER.log(Level.SEVERE, "Failed to load ChangeLog data", e);
-                return Collections.emptyList();
+    /**
+     * Applies a single journal line to the records.
+     * @param logs the records, updated in place
+     * @param line the JSON line to apply
+     */
+    private void applyJournalLine(Map<Integer, ChangeLog> logs, String line) {
+        try {
+            JournalEntry entry =
+                JOURNAL_GSON.fromJson(line, JournalEntry.class);
+            if (entry == null) {
+                return;
+            }
+            if (PUT.equals(entry.op()) && entry.log() != null) {
+                logs.put(entry.log().id(), entry.log());
+            } else if (DELETE.equals(entry.op())) {
+                logs.remove(entry.id());
             }
+        } catch (JsonParseException e) {
+            LOGGER.log(Level.WARNING, "Skipping corrupt journal line", e);
         }
     }
 
@@ -76,6 +492,7 @@ public class ChangeLogRepository
      * Saves or updates a ChangeLog record.
      * If a record with the same ID exists,
      * it is updated; otherwise, it is inserted.
+     * Either way this is a single append to the journal.
      * @param entity the ChangeLog record to save or update.
      */
     @Override
@@ -84,37 +501,49 @@ public class ChangeLogRepository
             LOGGER.warning("Cannot save a null ChangeLog");
             return;
         }
-        synchronized (LOCK) {
-            List<ChangeLog> logs = new ArrayList<>(load());
-            OptionalInt index = findIndexById(logs, entity.id());
-
-            if (index.isPresent()) {
-                logs.set(index.getAsInt(), entity);
-            } else {
-                logs.add(entity);
-            }
-            saveListToFile(logs);
-        }
+        saveAll(List.of(entity));
     }
 
     /**
-    * Helper method that finds the index of a ChangeLog in a list by its ID.
-    * This is a utility method used internally by other repository operations
-    * to locate existing changes for update or deletion purposes.
-    *
-    * @param logs the list of change logs to search through
-    * @param id the ID of the change log to locate
-    * @return an OptionalInt containing the index if found, or empty if no
-    *         change with the specified ID exists in the list
-    */
-    private OptionalInt findIndexById(
-        final List<ChangeLog> logs,
-        final int id
-    ) {
-            return IntStream
-                    .range(0, logs.size())
-                    .filter(i -> logs.get(i).id() == id)
-                    .findFirst();
+     * Saves or updates a batch of ChangeLog records with a single append
+     * of one journal line per record. Nothing is read.
+     * @param entities the records to save; ignored when {@code null},
+     * {@code null} elements are skipped.
+     */
+    @Override
+    public void saveAll(List<ChangeLog> entities) {
+        if (entities == null) {
+            LOGGER.warning("Cannot save a null list of ChangeLogs");
+            return;
+        }
+        List<JournalEntry> entries = new ArrayList<>();
+        for (ChangeLog entity : entities) {
+            if (entity != null) {
+                entries.add(new JournalEntry(PUT, entity.id(), entity));
+            }
+        }
+        if (entries.isEmpty()) {
+            return;
+        }
+        LOCK.writeLock().lock();
+        try {
+            LogIndex index = freshIndex();
+            boolean appended = appendToJournal(entries);
+            if (index != null && appended) {
+                for (JournalEntry entry : entries) {
+                    index.put(entry.log());
+                }
+                index.restamp();
+            }
+            for (JournalEntry entry : entries) {
+                sequence().observe(entry.id());
+            }
+            if (journalOutgrewBase()) {
+                scheduleCompaction();
+            }
+        } finally {
+            LOCK.writeLock().unlock();
+        }
     }
     /**
      * Checks if a ChangeLog record with the given ID exists.
@@ -128,8 +557,11 @@ public class ChangeLogRepository
             LOGGER.warning("Cannot search with a null id");
             return false;
         }
-        synchronized (LOCK) {
-            return load().stream().anyMatch(log -> log.id() == id);
+        LOCK.readLock().lock();
+        try {
+            return index().contains(id);
+        } finally {
+            LOCK.readLock().unlock();
         }
     }
 
@@ -145,10 +577,11 @@ public class ChangeLogRepository
             LOGGER.warning("Cannot search with a null id");
             return Optional.empty();
         }
-        synchronized (LOCK) {
-            return load().stream()
-                    .filter(log -> log.id() == id)
-                    .findFirst();
+        LOCK.readLock().lock();
+        try {
+            return index().find(id);
+        } finally {
+            LOCK.readLock().unlock();
         }
     }
     /**
@@ -159,18 +592,38 @@ public class ChangeLogRepository
      * @throws IllegalArgumentException if itemId is null
      */
     public List<ChangeLog> getLogsForItem(Integer itemId) {
-        synchronized (LOCK) {
-            if (itemId == null) {
-                throw new IllegalArgumentException(
-                        "Item ID cannot be null");
-            }
+        return getLogsForItem(itemId, 0, Integer.MAX_VALUE);
+    }
 
-            return  load()
-                    .stream()
-                    .filter(log -> log.budgetItemId() == itemId)
-                    .toList();
+    /**
+     * Retrieves one page of the logs related to a specific budget item,
+     * in the order they were stored.
+     *
+     * @param itemId ID of the budget item
+     * @param offset number of logs to skip
+     * @param limit maximum number of logs to return
+     * @return the logs of the page, empty past the last log
+     * @throws IllegalArgumentException if itemId is null or offset or
+     *         limit is negative
+     */
+    public List<ChangeLog> getLogsForItem(
+        Integer itemId,
+        int offset,
+        int limit
+    ) {
+        if (itemId == null) {
+            throw new IllegalArgumentException(
+                    "Item ID cannot be null");
+        }
+        checkPage(offset, limit);
+        LOCK.readLock().lock();
+        try {
+            return index().forItem(itemId, offset, limit);
+        } finally {
+            LOCK.readLock().unlock();
         }
     }
+
     /**
      * Retrieves logs created by a specific user.
      *
@@ -179,16 +632,73 @@ public class ChangeLogRepository
      * @throws IllegalArgumentException if userId is null
      */
     public List<ChangeLog> getLogsByUser(UUID userId) {
-        synchronized (LOCK) {
-            if (userId == null) {
-                throw new IllegalArgumentException(
-                        "User ID cannot be null");
-            }
+        return getLogsByUser(userId, 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Retrieves one page of the logs created by a specific user, in the
+     * order they were stored.
+     *
+     * @param userId ID of the user
+     * @param offset number of logs to skip
+     * @param limit maximum number of logs to return
+     * @return the logs of the page, empty past the last log
+     * @throws IllegalArgumentException if userId is null or offset or
+     *         limit is negative
+     */
+    public List<ChangeLog> getLogsByUser(UUID userId, int offset, int limit) {
+        if (userId == null) {
+            throw new IllegalArgumentException(
+                    "User ID cannot be null");
+        }
+        checkPage(offset, limit);
+        LOCK.readLock().lock();
+        try {
+            return index().byActor(userId, offset, limit);
+        } finally {
+            LOCK.readLock().unlock();
+        }
+    }
 
-            return  load()
-                    .stream()
-                    .filter(log -> Objects.equals(log.actorId(), userId))
-                    .toList();
+    /**
+     * Reads one page of change logs. The first page is requested with a
+     * {@code null} cursor, each following one with the
+     * {@link Page#nextCursor()} of the page before. Served from the index,
+     * so paging through the log does not read the files again.
+     *
+     * @param query the filters, order and page size
+     * @param cursor the cursor of the previous page, or {@code null}
+     * @return the page
+     * @throws IllegalArgumentException if query is null or the cursor is
+     *         invalid for the query
+     */
+    public Page<ChangeLog> findPage(ChangeQuery query, String cursor) {
+        if (query == null) {
+            throw new IllegalArgumentException("Query cannot be null");
+        }
+        LOCK.readLock().lock();
+        try {
+            return index().page(query, cursor);
+        } finally {
+            LOCK.readLock().unlock();
+        }
+    }
+
+    /**
+     * Validates the bounds of a page.
+     *
+     * @param offset number of logs to skip
+     * @param limit maximum number of logs to return
+     * @throws IllegalArgumentException if offset or limit is negative
+     */
+    static void checkPage(int offset, int limit) {
+        if (offset < 0) {
+            throw new IllegalArgumentException(
+                    "Offset cannot be negative");
+        }
+        if (limit < 0) {
+            throw new IllegalArgumentException(
+                    "Limit cannot be negative");
         }
     }
     /**
@@ -202,41 +712,221 @@ public class ChangeLogRepository
             LOGGER.warning("Cannot delete a null ChangeLog");
             return;
         }
-        synchronized (LOCK) {
-            List<ChangeLog> logs = new ArrayList<>(load());
-            boolean removed = logs.removeIf(log -> log.id() == entity.id());
-            if (removed) {
-                saveListToFile(logs);
+        deleteAll(List.of(entity));
+    }
+
+    /**
+     * Deletes a batch of ChangeLog records. The records are looked up in
+     * the index, which costs a single load when it has to be rebuilt, and
+     * the existing ones are removed with a single append of one tombstone
+     * per record.
+     *
+     * @param entities the records to delete; ignored when {@code null},
+     * {@code null} elements are skipped.
+     */
+    @Override
+    public void deleteAll(List<ChangeLog> entities) {
+        if (entities == null) {
+            LOGGER.warning("Cannot delete a null list of ChangeLogs");
+            return;
+        }
+        LOCK.writeLock().lock();
+        try {
+            LogIndex index = index();
+            Set<Integer> seen = new HashSet<>();
+            List<JournalEntry> entries = new ArrayList<>();
+            for (ChangeLog entity : entities) {
+                if (entity != null && index.contains(entity.id())
+                        && seen.add(entity.id())) {
+                    entries.add(new JournalEntry(DELETE, entity.id(), null));
+                }
+            }
+            if (!entries.isEmpty()) {
+                if (appendToJournal(entries)) {
+                    for (JournalEntry entry : entries) {
+                        index.remove(entry.id());
+                    }
+                    index.restamp();
+                }
+                scheduleCompaction();
             }
+        } finally {
+            LOCK.writeLock().unlock();
         }
     }
 
     /**
-     * Saves all ChangeLog records to the JSON file.
-     * @param logs list of logs to store.
+     * Finds the ChangeLog records with the given IDs in the
+     * {@link LogIndex}, which is read at most once.
+     *
+     * @param ids the IDs to look up; {@code null} elements are skipped
+     * @return the records found, in the order of {@code ids}
+     */
+    @Override
+    public List<ChangeLog> findAllById(List<Integer> ids) {
+        if (ids == null) {
+            LOGGER.warning("Cannot search with a null list of ids");
+            return new ArrayList<>();
+        }
+        LOCK.readLock().lock();
+        try {
+            LogIndex index = index();
+            List<ChangeLog> found = new ArrayList<>();
+            for (Integer id : new LinkedHashSet<>(ids)) {
+                if (id != null) {
+                    index.find(id).ifPresent(found::add);
+                }
+            }
+            return found;
+        } finally {
+            LOCK.readLock().unlock();
+        }
+    }
+
+    /**
+     * Folds the journal into budget-changes.json and truncates the journal.
+     * The new array is written to a temporary file and atomically moved
+     * over the base segment first; replaying the journal on top of it is
+     * idempotent, so a crash before the journal is removed loses nothing.
+     */
+    public void compact() {
+        LOCK.writeLock().lock();
+        try {
+            Path journal = PathsUtil.getBudgetChangesJournalPath();
+            if (!Files.exists(journal)) {
+                return;
+            }
+            LogIndex index = freshIndex();
+            if (!saveListToFile(load())) {
+                return;
+            }
+            try {
+                Files.delete(journal);
+            } catch (IOException e) {
+                LOGGER.log(Level.SEVERE, "Failed to truncate journal", e);
+            }
+            // the records are unchanged, only the segments they live in
+            if (index != null) {
+                index.restamp();
+            }
+        } finally {
+            LOCK.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Blocks until the currently scheduled background compaction, if any,
+     * has finished.
+     */
+    public void awaitCompaction() {
+        Future<?> pending = PENDING_COMPACTION.get();
+        if (pending == null) {
+            return;
+        }
+        try {
+            pending.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            LOGGER.log(Level.SEVERE, "ChangeLog compaction failed", e);
+        }
+    }
+
+    /**
+     * Queues a background compaction unless one is already waiting to run.
+     */
+    private void scheduleCompaction() {
+        Future<?> pending = PENDING_COMPACTION.get();
+        if (pending != null && !pending.isDone()) {
+            return;
+        }
+        PENDING_COMPACTION.set(COMPACTOR.submit(this::compact));
+    }
+
+    /**
+     * Checks, from file sizes only, whether the journal has grown larger
+     * than the base segment so that compaction pays off.
+     * @return true if a compaction should be scheduled
      */
-    private void saveListToFile(List<ChangeLog> logs) {
+    private boolean journalOutgrewBase() {
+        try {
+            long journalSize =
+                Files.size(PathsUtil.getBudgetChangesJournalPath());
+            Path base = PathsUtil.getBudgetChangesWritablePath();
+            long baseSize = Files.exists(base) ? Files.size(base) : 0;
+            return journalSize > Math.max(baseSize, MIN_COMPACTION_BYTES);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Appends entries to the journal in one write, creating it if needed.
+     * A torn last line left by a crash is terminated first, see
+     * {@link LineAppender}.
+     * @param entries the journal entries to append
+     * @return {@code true} if every entry was written
+     */
+    private boolean appendToJournal(List<JournalEntry> entries) {
+        Path journal = PathsUtil.getBudgetChangesJournalPath();
+        try (BufferedWriter writer = LineAppender.open(journal)) {
+            for (JournalEntry entry : entries) {
+                writer.write(JOURNAL_GSON.toJson(entry));
+                writer.newLine();
+            }
+            io.recordWrite();
+            return true;
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Failed to save ChangeLog data", e);
+            return false;
+        }
+    }
 
+    /**
+     * Saves all ChangeLog records to the JSON file. The file is replaced
+     * atomically through the shared {@link GroupCommitWriter}.
+     * @param logs list of logs to store.
+     * @return {@code true} if the file was replaced, {@code false} otherwise
+     */
+    private boolean saveListToFile(List<ChangeLog> logs) {
         Path output = PathsUtil.getBudgetChangesWritablePath();
-        try (BufferedWriter writer =
-            Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
-             GSON.toJson(logs, writer);
+        try {
+            GroupCommitWriter.shared().writeAndWait(
+                output,
+                writer -> GSON.toJson(logs, writer)
+            );
+            io.recordWrite();
+            return true;
         } catch (IOException e) {
             LOGGER.log(Level.SEVERE, "Failed to save ChangeLog data", e);
+            return false;
         }
     }
 
     /**
-     * Generates a new unique ID based on the highest current ID in the list.
+     * Allocates a new unique ID from the persistent id sequence. The data is
+     * only read the first time an id is requested for the current data
+     * directory, afterwards allocation needs no I/O apart from reserving a
+     * new block of ids every {@value IdSequence#DEFAULT_BLOCK_SIZE} calls.
      * @return a new unique integer ID
      */
     public int generateId() {
-        synchronized (LOCK) {
-            return load()
-                    .stream()
-                    .mapToInt(ChangeLog::id)
-                    .max()
-                    .orElse(0) + 1;
-        }
+        return sequence().next(() -> load()
+                .stream()
+                .mapToInt(ChangeLog::id)
+                .max()
+                .orElse(0));
+    }
+
+    private static IdSequence sequence() {
+        return IdSequence.forFile(PathsUtil.getBudgetChangesSequencePath());
+    }
+
+    /**
+     * Returns the I/O counters of this repository.
+     * @return the counters
+     */
+    IoCounters ioCounters() {
+        return io;
     }
 }
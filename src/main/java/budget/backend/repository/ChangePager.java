@@ -0,0 +1,298 @@
+package budget.backend.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.Function;
+
+import budget.backend.model.domain.ChangeLog;
+import budget.backend.model.domain.PendingChange;
+
+/**
+ * Keyset pagination of change logs and change requests for
+ * {@link ChangeQuery}. Rows are kept in one sorted map per sort field, so
+ * a page is read by seeking to the position stored in the cursor and
+ * walking forward, without counting or skipping the rows before it.
+ *
+ * <p>A cursor encodes the sort and the position of the last row returned:
+ * the sort value and the id. It stays valid while rows are added or
+ * removed; the next page simply starts after that position.
+ */
+final class ChangePager {
+
+    private static final String SEPARATOR = "|";
+    private static final int CURSOR_PARTS = 4;
+    private static final int CURSOR_SORT = 0;
+    private static final int CURSOR_NUMBER = 1;
+    private static final int CURSOR_ID = 2;
+    private static final int CURSOR_TEXT = 3;
+
+    /** The value a {@link ChangeQuery.Sort} orders by. */
+    enum Field {
+        /** The submission timestamp. */
+        DATE,
+        /** The absolute change of the value. */
+        AMOUNT,
+        /** The actor name. */
+        NAME
+    }
+
+    /**
+     * The attributes of a change log or change request that queries filter
+     * and sort on.
+     *
+     * @param id the id of the row
+     * @param itemId the budget item id
+     * @param actorId the actor id, may be {@code null}
+     * @param actorName the actor name, may be {@code null}
+     * @param submittedAt the submission timestamp
+     * @param oldValue the value before the change
+     * @param newValue the value after the change
+     */
+    record Row(
+        int id,
+        int itemId,
+        UUID actorId,
+        String actorName,
+        long submittedAt,
+        double oldValue,
+        double newValue
+    ) {
+        static Row of(final ChangeLog log) {
+            return new Row(log.id(), log.budgetItemId(), log.actorId(),
+                log.actorName(), log.submittedAt(), log.oldValue(),
+                log.newValue());
+        }
+
+        static Row of(final PendingChange change) {
+            return new Row(change.getId(), change.getBudgetItemId(),
+                change.getRequestById(), change.getRequestByName(),
+                change.getSubmittedAt(), change.getOldValue(),
+                change.getNewValue());
+        }
+    }
+
+    /**
+     * Position of a row in the ascending order of one field: the numeric
+     * or the text sort value, then the id.
+     *
+     * @param number the timestamp, or the bits of the absolute change,
+     *               which order like the value since it is never negative
+     * @param text the actor name, empty for numeric fields
+     * @param id the id of the row
+     */
+    record Key(long number, String text, int id) implements Comparable<Key> {
+        static Key of(final Field field, final Row row) {
+            return switch (field) {
+                case DATE -> new Key(row.submittedAt(), "", row.id());
+                case AMOUNT -> new Key(Double.doubleToLongBits(
+                    Math.abs(row.newValue() - row.oldValue())), "", row.id());
+                default -> new Key(0,
+                    row.actorName() == null ? "" : row.actorName(), row.id());
+            };
+        }
+
+        @Override
+        public int compareTo(final Key other) {
+            int order = Long.compare(number, other.number);
+            if (order == 0) {
+                order = text.compareTo(other.text);
+            }
+            return order != 0 ? order : Integer.compare(id, other.id);
+        }
+    }
+
+    /**
+     * Rows kept in one sorted map per field, updated as rows are added
+     * and removed. Not thread-safe; the repositories guard it with their
+     * locks.
+     *
+     * @param <T> the type of the rows
+     */
+    static final class SortedViews<T> {
+        private final Function<T, Row> rows;
+        private final Map<Field, TreeMap<Key, T>> views =
+            new EnumMap<>(Field.class);
+
+        /**
+         * Creates empty views.
+         *
+         * @param rows reads the sort and filter attributes of a row
+         */
+        SortedViews(final Function<T, Row> rows) {
+            this.rows = rows;
+            for (Field field : Field.values()) {
+                views.put(field, new TreeMap<>());
+            }
+        }
+
+        void add(final T value) {
+            Row row = rows.apply(value);
+            for (Map.Entry<Field, TreeMap<Key, T>> view : views.entrySet()) {
+                view.getValue().put(Key.of(view.getKey(), row), value);
+            }
+        }
+
+        void remove(final T value) {
+            Row row = rows.apply(value);
+            for (Map.Entry<Field, TreeMap<Key, T>> view : views.entrySet()) {
+                view.getValue().remove(Key.of(view.getKey(), row));
+            }
+        }
+
+        /**
+         * Returns every row in ascending order of a field.
+         *
+         * @param field the field
+         * @return a live view of the rows
+         */
+        NavigableMap<Key, T> ascending(final Field field) {
+            return views.get(field);
+        }
+
+        /**
+         * Reads one page over every row.
+         *
+         * @param query the query
+         * @param cursor the cursor of the previous page, {@code null} for
+         *               the first page
+         * @return the page
+         */
+        Page<T> page(final ChangeQuery query, final String cursor) {
+            return ChangePager.page(
+                ascending(query.sort().field()), query, cursor, rows);
+        }
+    }
+
+    private ChangePager() {
+        // Utility class - prevent instantiation
+    }
+
+    /**
+     * Reads one page over a subset of the rows, which is sorted first.
+     * Meant for the few rows of one item or actor.
+     *
+     * @param candidates the rows that may match
+     * @param query the query
+     * @param cursor the cursor of the previous page, {@code null} for the
+     *               first page
+     * @param rows reads the sort and filter attributes of a row
+     * @param <T> the type of the rows
+     * @return the page
+     */
+    static <T> Page<T> page(
+        final Iterable<T> candidates,
+        final ChangeQuery query,
+        final String cursor,
+        final Function<T, Row> rows
+    ) {
+        TreeMap<Key, T> sorted = new TreeMap<>();
+        for (T value : candidates) {
+            sorted.put(Key.of(query.sort().field(), rows.apply(value)), value);
+        }
+        return page(sorted, query, cursor, rows);
+    }
+
+    /**
+     * Reads one page from rows sorted in ascending order of the query's
+     * sort field.
+     *
+     * @param ascending the rows
+     * @param query the query
+     * @param cursor the cursor of the previous page, {@code null} for the
+     *               first page
+     * @param rows reads the sort and filter attributes of a row
+     * @param <T> the type of the rows
+     * @return the page
+     * @throws IllegalArgumentException if the cursor is malformed or was
+     *         issued for another sort
+     */
+    static <T> Page<T> page(
+        final NavigableMap<Key, T> ascending,
+        final ChangeQuery query,
+        final String cursor,
+        final Function<T, Row> rows
+    ) {
+        ChangeQuery.Sort sort = query.sort();
+        NavigableMap<Key, T> view = ascending;
+        if (sort.field() == Field.DATE
+                && (query.from() != null || query.to() != null)) {
+            // timestamps bound the date order directly
+            view = view.subMap(
+                new Key(query.fromMillis(), "", Integer.MIN_VALUE), true,
+                new Key(query.toMillis(), "", Integer.MIN_VALUE), false);
+        }
+        if (sort.descending()) {
+            view = view.descendingMap();
+        }
+        if (cursor != null) {
+            view = view.tailMap(decode(sort, cursor), false);
+        }
+        List<T> items = new ArrayList<>();
+        Key last = null;
+        for (Map.Entry<Key, T> entry : view.entrySet()) {
+            if (!query.matches(rows.apply(entry.getValue()))) {
+                continue;
+            }
+            if (items.size() == query.pageSize()) {
+                return new Page<>(items, encode(sort, last));
+            }
+            items.add(entry.getValue());
+            last = entry.getKey();
+        }
+        return new Page<>(items, null);
+    }
+
+    /**
+     * Encodes the position of a row as the cursor of the next page.
+     *
+     * @param sort the sort of the query
+     * @param key the position of the last row of the page
+     * @return the opaque cursor
+     */
+    static String encode(final ChangeQuery.Sort sort, final Key key) {
+        String plain = sort.name() + SEPARATOR + key.number() + SEPARATOR
+            + key.id() + SEPARATOR + key.text();
+        return Base64.getUrlEncoder().withoutPadding()
+            .encodeToString(plain.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor issued by {@link #encode(ChangeQuery.Sort, Key)}.
+     *
+     * @param sort the sort of the query the cursor is used with
+     * @param cursor the cursor
+     * @return the position of the last row of the previous page
+     * @throws IllegalArgumentException if the cursor is malformed or was
+     *         issued for another sort
+     */
+    static Key decode(
+        final ChangeQuery.Sort sort,
+        final String cursor
+    ) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(cursor),
+                StandardCharsets.UTF_8).split("\\|", CURSOR_PARTS);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+        if (parts.length != CURSOR_PARTS
+                || !sort.name().equals(parts[CURSOR_SORT])) {
+            throw new IllegalArgumentException(
+                "Cursor does not belong to this query");
+        }
+        try {
+            return new Key(Long.parseLong(parts[CURSOR_NUMBER]),
+                parts[CURSOR_TEXT], Integer.parseInt(parts[CURSOR_ID]));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package budget.backend.repository;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import budget.backend.util.TimestampUtils;
+
+/**
+ * A paged query over change logs or change requests: optional filters, the
+ * order of the rows and the number of rows per page. Start with
+ * {@link #sortedBy(Sort, int)} and narrow it with the {@code with} methods;
+ * every method returns a new query.
+ *
+ * @param sort the order of the rows
+ * @param pageSize the maximum number of rows per page, positive
+ * @param actorId only rows of this actor, or {@code null} for all
+ * @param itemId only rows of this budget item, or {@code null} for all
+ * @param from only rows submitted at or after this date, or {@code null}
+ * @param to only rows submitted before this date, or {@code null}
+ * @param direction only increases or decreases of the value, or any
+ */
+public record ChangeQuery(
+    Sort sort,
+    int pageSize,
+    UUID actorId,
+    Integer itemId,
+    LocalDateTime from,
+    LocalDateTime to,
+    Direction direction
+) {
+
+    /**
+     * Order of the rows. Rows with an equal sort value follow the same
+     * direction by id.
+     */
+    public enum Sort {
+        /** Latest submission first. */
+        NEWEST_FIRST(ChangePager.Field.DATE, true),
+        /** Earliest submission first. */
+        OLDEST_FIRST(ChangePager.Field.DATE, false),
+        /** Smallest absolute change of the value first. */
+        AMOUNT_ASC(ChangePager.Field.AMOUNT, false),
+        /** Largest absolute change of the value first. */
+        AMOUNT_DESC(ChangePager.Field.AMOUNT, true),
+        /** Actor name in alphabetical order. */
+        NAME_ASC(ChangePager.Field.NAME, false),
+        /** Actor name in reverse alphabetical order. */
+        NAME_DESC(ChangePager.Field.NAME, true);
+
+        private final ChangePager.Field field;
+        private final boolean descending;
+
+        Sort(final ChangePager.Field field, final boolean descending) {
+            this.field = field;
+            this.descending = descending;
+        }
+
+        ChangePager.Field field() {
+            return field;
+        }
+
+        boolean descending() {
+            return descending;
+        }
+    }
+
+    /**
+     * Sign of the change of the value.
+     */
+    public enum Direction {
+        /** Every change. */
+        ANY,
+        /** Only changes that raise the value. */
+        INCREASES,
+        /** Only changes that lower the value. */
+        DECREASES
+    }
+
+    /**
+     * Validates the query.
+     *
+     * @throws IllegalArgumentException if the sort or direction is
+     *         {@code null}, the page size is not positive or the date range
+     *         is empty
+     */
+    public ChangeQuery {
+        if (sort == null) {
+            throw new IllegalArgumentException("Sort cannot be null");
+        }
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        if (direction == null) {
+            throw new IllegalArgumentException("Direction cannot be null");
+        }
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new IllegalArgumentException(
+                "Date range must end after it starts");
+        }
+    }
+
+    /**
+     * Creates a query over every row.
+     *
+     * @param sort the order of the rows
+     * @param pageSize the maximum number of rows per page
+     * @return the query
+     * @throws IllegalArgumentException if the sort is {@code null} or the
+     *         page size is not positive
+     */
+    public static ChangeQuery sortedBy(final Sort sort, final int pageSize) {
+        return new ChangeQuery(
+            sort, pageSize, null, null, null, null, Direction.ANY);
+    }
+
+    /**
+     * Restricts the query to one actor.
+     *
+     * @param actor the actor id, or {@code null} for all actors
+     * @return the narrowed query
+     */
+    public ChangeQuery withActor(final UUID actor) {
+        return new ChangeQuery(
+            sort, pageSize, actor, itemId, from, to, direction);
+    }
+
+    /**
+     * Restricts the query to one budget item.
+     *
+     * @param item the budget item id, or {@code null} for all items
+     * @return the narrowed query
+     */
+    public ChangeQuery withItem(final Integer item) {
+        return new ChangeQuery(
+            sort, pageSize, actorId, item, from, to, direction);
+    }
+
+    /**
+     * Restricts the query to rows submitted in {@code [start, end)}.
+     *
+     * @param start the first date, or {@code null} for no lower bound
+     * @param end the date after the range, or {@code null} for no upper
+     *            bound
+     * @return the narrowed query
+     * @throws IllegalArgumentException if {@code end} is not after
+     *         {@code start}
+     */
+    public ChangeQuery withDateRange(
+        final LocalDateTime start,
+        final LocalDateTime end
+    ) {
+        return new ChangeQuery(
+            sort, pageSize, actorId, itemId, start, end, direction);
+    }
+
+    /**
+     * Restricts the query to increases or decreases of the value.
+     *
+     * @param sign the sign of the change
+     * @return the narrowed query
+     * @throws IllegalArgumentException if {@code sign} is {@code null}
+     */
+    public ChangeQuery withDirection(final Direction sign) {
+        return new ChangeQuery(
+            sort, pageSize, actorId, itemId, from, to, sign);
+    }
+
+    /**
+     * Returns the same query in another order.
+     *
+     * @param order the order of the rows
+     * @return the reordered query
+     * @throws IllegalArgumentException if {@code order} is {@code null}
+     */
+    public ChangeQuery withSort(final Sort order) {
+        return new ChangeQuery(
+            order, pageSize, actorId, itemId, from, to, direction);
+    }
+
+    /**
+     * Returns the lower date bound as a timestamp.
+     *
+     * @return the timestamp of {@code from}, {@code Long.MIN_VALUE} if none
+     */
+    long fromMillis() {
+        return from == null
+            ? Long.MIN_VALUE : TimestampUtils.toEpochMillis(from);
+    }
+
+    /**
+     * Returns the upper date bound as a timestamp.
+     *
+     * @return the timestamp of {@code to}, {@code Long.MAX_VALUE} if none
+     */
+    long toMillis() {
+        return to == null ? Long.MAX_VALUE : TimestampUtils.toEpochMillis(to);
+    }
+
+    /**
+     * Tells whether a row passes every filter of the query.
+     *
+     * @param row the row
+     * @return {@code true} if the row belongs to the result
+     */
+    boolean matches(final ChangePager.Row row) {
+        if (actorId != null && !actorId.equals(row.actorId())) {
+            return false;
+        }
+        if (itemId != null && itemId != row.itemId()) {
+            return false;
+        }
+        if ((from != null || to != null)
+                && (row.submittedAt() == TimestampUtils.UNKNOWN
+                    || row.submittedAt() < fromMillis()
+                    || row.submittedAt() >= toMillis())) {
+            return false;
+        }
+        double change = row.newValue() - row.oldValue();
+        return switch (direction) {
+            case INCREASES -> change > 0;
+            case DECREASES -> change < 0;
+            default -> true;
+        };
+    }
+}
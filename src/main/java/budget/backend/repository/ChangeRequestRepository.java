@@ -1,145 +1,694 @@
 package budget.backend.repository;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.OptionalInt;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.stream.IntStream;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
 
 import budget.backend.model.domain.PendingChange;
+import budget.backend.model.enums.Status;
 import budget.backend.util.PathsUtil;
 
 /**
  * Repository that encapsulates data-access operations for {@link PendingChange}
  * records. Responsible for retrieving and persisting pending change requests,
  * hiding the underlying storage details from higher layers of the application.
+ * <p>
+ * Requests are partitioned by {@link Status}. Requests still waiting for a
+ * decision form the hot segment and are kept in memory in a review queue
+ * ordered by submission date, shared by all instances and rebuilt only when
+ * the hot segment changes behind its back. Approved and rejected requests
+ * are appended to pending-changes-archive.jsonl (cold segment), one record
+ * per line, and removed from the hot segment; the archive is only read when
+ * a request is not found among the pending ones. Decided requests found in
+ * an older hot segment are moved to the archive on the next write.
+ * <p>
+ * The hot segment is the pending-changes.json array followed by the
+ * append-only pending-changes.jsonl journal, one {@link JournalEntry} per
+ * line, so submitting or deciding a request appends a line instead of
+ * rewriting every pending request. Once the journal outgrows the array it
+ * is folded into it and removed.
+ * <p>
+ * A decided request is appended to the archive before it is removed from
+ * the hot segment, so a crash in between leaves it in both segments rather
+ * than losing it. The copy in the hot segment wins, for {@link #load()} as
+ * for {@link #findById(Integer)}.
  */
 public class ChangeRequestRepository
 implements GenericInterfaceRepository<PendingChange, Integer> {
 
     private static final Gson GSON =
             new GsonBuilder().setPrettyPrinting().create();
+    /**
+     * Gson instance for archive and journal lines, which must fit on a
+     * single line.
+     */
+    private static final Gson ARCHIVE_GSON = new Gson();
     private static final Logger LOGGER =
             Logger.getLogger(ChangeRequestRepository.class.getName());
-    private static final Object LOCK = new Object();
+    // reads share the read lock, saves and deletes take the write lock
+    private static final ReentrantReadWriteLock LOCK =
+            new ReentrantReadWriteLock();
+    // rebuilds of the store under the read lock are serialized by this lock
+    private static final Object REFRESH_LOCK = new Object();
+    private static final AtomicReference<PendingStore> STORE =
+            new AtomicReference<>();
+
+    private static final String PUT = "PUT";
+    private static final String DELETE = "DELETE";
+    /** The journal is folded into the array once it outgrows it. */
+    private static final long MIN_COMPACTION_BYTES = 64 * 1024;
+
+    private final IoCounters io = new IoCounters();
 
     /**
-     * Loads every pending change request from the JSON resource.
+     * A single line of the hot segment journal: either the pending request
+     * to insert or replace ({@code PUT}) or the id of a request that left
+     * the hot segment ({@code DELETE}).
+     *
+     * @param op the operation, {@code PUT} or {@code DELETE}
+     * @param id the id of the affected request
+     * @param change the request for {@code PUT}, {@code null} for
+     *               {@code DELETE}
+     */
+    private record JournalEntry(String op, int id, PendingChange change) { }
+
+    /**
+     * In-memory copy of the hot segment: the pending requests in file order
+     * and the sorted views over them that serve the review queue, plus any
+     * decided requests the file still holds from before the archive existed.
+     * Only read under the read lock and only changed under the write lock of
+     * {@code LOCK}.
+     */
+    private static final class PendingStore {
+        private final Map<Integer, PendingChange> pending =
+            new LinkedHashMap<>();
+        private final ChangePager.SortedViews<PendingChange> sorted =
+            new ChangePager.SortedViews<>(ChangePager.Row::of);
+        private final Map<Integer, PendingChange> unarchived =
+            new LinkedHashMap<>();
+        private FileStamp baseStamp;
+        private FileStamp journalStamp;
+
+        /**
+         * Partitions the requests read from the hot segment. When several
+         * requests share an id the first one in file order is kept.
+         *
+         * @param stored the requests in file order
+         * @param baseStamp the stamp of pending-changes.json
+         * @param journalStamp the stamp of pending-changes.jsonl
+         */
+        PendingStore(
+            final List<PendingChange> stored,
+            final FileStamp baseStamp,
+            final FileStamp journalStamp
+        ) {
+            this.baseStamp = baseStamp;
+            this.journalStamp = journalStamp;
+            for (PendingChange change : stored) {
+                if (change == null || contains(change.getId())) {
+                    continue;
+                }
+                if (change.getStatus() == Status.PENDING) {
+                    put(change);
+                } else {
+                    unarchived.put(change.getId(), change);
+                }
+            }
+        }
+
+        /**
+         * Tells whether the store still matches both files of the hot
+         * segment as they are resolved now, so switching the data directory
+         * reloads it.
+         *
+         * @return {@code true} if the store can be used without a reload
+         */
+        boolean isFresh() {
+            return baseStamp.equals(
+                    FileStamp.of(PathsUtil.getPendingChangesWritablePath()))
+                && journalStamp.equals(
+                    FileStamp.of(PathsUtil.getPendingChangesJournalPath()));
+        }
+
+        /**
+         * Takes new stamps of both files of the hot segment after this
+         * class wrote them.
+         */
+        void restamp() {
+            baseStamp =
+                FileStamp.of(PathsUtil.getPendingChangesWritablePath());
+            journalStamp =
+                FileStamp.of(PathsUtil.getPendingChangesJournalPath());
+        }
+
+        boolean contains(final int id) {
+            return pending.containsKey(id) || unarchived.containsKey(id);
+        }
+
+        PendingChange get(final int id) {
+            PendingChange change = pending.get(id);
+            return change != null ? change : unarchived.get(id);
+        }
+
+        /**
+         * Inserts or replaces a pending request. A replaced request keeps
+         * its place in file order.
+         *
+         * @param change the request, owned by the store from now on
+         */
+        void put(final PendingChange change) {
+            unarchived.remove(change.getId());
+            PendingChange previous = pending.put(change.getId(), change);
+            if (previous != null) {
+                sorted.remove(previous);
+            }
+            sorted.add(change);
+        }
+
+        /**
+         * Removes a request from the store.
+         *
+         * @param id the id of the request
+         */
+        void remove(final int id) {
+            unarchived.remove(id);
+            PendingChange previous = pending.remove(id);
+            if (previous != null) {
+                sorted.remove(previous);
+            }
+        }
+
+        /**
+         * Returns the content of the hot segment after the pending requests
+         * are changed as described, in file order.
+         *
+         * @param puts pending requests to insert or replace
+         * @param removed ids to drop
+         * @return the pending requests to write
+         */
+        List<PendingChange> nextSegment(
+            final Collection<PendingChange> puts,
+            final Set<Integer> removed
+        ) {
+            Map<Integer, PendingChange> next = new LinkedHashMap<>(pending);
+            next.keySet().removeAll(removed);
+            for (PendingChange change : puts) {
+                next.put(change.getId(), change);
+            }
+            return new ArrayList<>(next.values());
+        }
+    }
+
+    /**
+     * Re-reads the hot segment if it changed since it was cached and
+     * publishes the result, so that the next read is answered from memory.
+     * Does nothing while the cache is fresh. Meant to be called off the UI
+     * thread, see {@link DataFileWatcher}.
+     */
+    public void reload() {
+        LOCK.readLock().lock();
+        try {
+            store();
+        } finally {
+            LOCK.readLock().unlock();
+        }
+    }
+
+    /**
+     * Loads every change request, pending and decided, from both segments.
+     * A request found in both is reported as the hot segment holds it.
      *
      * @return a collection of {@link PendingChange} or an empty list when no
      *         records are found or a read error occurs.
      */
     @Override
     public List<PendingChange> load() {
-        synchronized (LOCK) {
-            // try with resources --> closes automatically reader, input
-            InputStream input = PathsUtil.getPendingChangesInputStream();
-            if (input == null) {
-                LOGGER.log(
-                    Level.WARNING,
-                    "Resource {0} not found, returning empty list.",
-                    PathsUtil.PENDING_CHANGES_RESOURCE
-                );
-                return Collections.emptyList();
+        LOCK.readLock().lock();
+        try {
+            PendingStore store = store();
+            List<PendingChange> changes = new ArrayList<>();
+            for (PendingChange change : store.pending.values()) {
+                changes.add(new PendingChange(change));
+            }
+            for (PendingChange change : store.unarchived.values()) {
+                changes.add(new PendingChange(change));
+            }
+            for (PendingChange change : readArchive().values()) {
+                if (!store.contains(change.getId())) {
+                    changes.add(change);
+                }
+            }
+            return changes;
+        } finally {
+            LOCK.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the requests still waiting for a decision, newest submission
+     * first; requests submitted at the same time by descending id and
+     * requests without a readable date last. Served from the in-memory
+     * review queue; the archive is not read.
+     *
+     * @return copies of the pending requests in review order
+     */
+    public List<PendingChange> findPendingSortedByDate() {
+        LOCK.readLock().lock();
+        try {
+            List<PendingChange> changes = new ArrayList<>();
+            for (PendingChange change : store().sorted
+                    .ascending(ChangePager.Field.DATE).descendingMap()
+                    .values()) {
+                changes.add(new PendingChange(change));
+            }
+            return changes;
+        } finally {
+            LOCK.readLock().unlock();
+        }
+    }
+
+    /**
+     * Reads one page of the requests still waiting for a decision. The
+     * first page is requested with a {@code null} cursor, each following
+     * one with the {@link Page#nextCursor()} of the page before. Served from
+     * the in-memory review queue; the archive is not read.
+     *
+     * @param query the filters, order and page size
+     * @param cursor the cursor of the previous page, or {@code null}
+     * @return copies of the pending requests of the page
+     * @throws IllegalArgumentException if query is null or the cursor is
+     *         invalid for the query
+     */
+    public Page<PendingChange> findPendingPage(
+        ChangeQuery query,
+        String cursor
+    ) {
+        if (query == null) {
+            throw new IllegalArgumentException("Query cannot be null");
+        }
+        LOCK.readLock().lock();
+        try {
+            Page<PendingChange> page = store().sorted.page(query, cursor);
+            List<PendingChange> changes =
+                new ArrayList<>(page.items().size());
+            for (PendingChange change : page.items()) {
+                changes.add(new PendingChange(change));
+            }
+            return new Page<>(changes, page.nextCursor());
+        } finally {
+            LOCK.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the current hot segment store, re-reading the hot segment
+     * when nothing is cached or one of its files changed since it was read.
+     * Must be called while holding the read or the write lock of
+     * {@code LOCK}; concurrent readers that find the store stale read the
+     * files once.
+     *
+     * @return the up-to-date store
+     */
+    private PendingStore store() {
+        PendingStore store = STORE.get();
+        if (store != null && store.isFresh()) {
+            return store;
+        }
+        synchronized (REFRESH_LOCK) {
+            store = STORE.get();
+            if (store != null && store.isFresh()) {
+                return store;
             }
-                try (input; InputStreamReader reader =
-                        new InputStreamReader(input, StandardCharsets.UTF_8)) {
-                        PendingChange[] changes = GSON.fromJson(
-                                                reader, PendingChange[].class);
-                        return changes == null ? Collections.emptyList()
-                                                : Arrays.asList(changes);
-                } catch (IOException io) {
-                    LOGGER.log(
-                        Level.SEVERE,
-                        "Error reading " + PathsUtil.PENDING_CHANGES_RESOURCE,
-                        io
-                    );
-                    return Collections.emptyList();
-                } catch (RuntimeException e) {
-                    LOGGER.log(
-                        Level.SEVERE,
-                        "Malformed pending changes payload",
-                        e
-                    );
-                    return Collections.emptyList();
+            FileStamp base =
+                FileStamp.of(PathsUtil.getPendingChangesWritablePath());
+            FileStamp journal =
+                FileStamp.of(PathsUtil.getPendingChangesJournalPath());
+            store = new PendingStore(readHotSegment(), base, journal);
+            STORE.set(store);
+            return store;
+        }
+    }
+
+    /**
+     * Reads the hot segment: the pending-changes.json array with the
+     * journal replayed on top of it.
+     *
+     * @return the stored requests in file order, the array being empty
+     *         when its file is missing or malformed
+     */
+    private List<PendingChange> readHotSegment() {
+        Map<Integer, PendingChange> changes = new LinkedHashMap<>();
+        for (PendingChange change : readBaseSegment()) {
+            if (change != null) {
+                changes.putIfAbsent(change.getId(), change);
+            }
+        }
+        applyJournal(changes);
+        return new ArrayList<>(changes.values());
+    }
+
+    /**
+     * Parses the pending-changes.json array.
+     *
+     * @return the stored requests in file order, empty when the file is
+     *         missing or malformed
+     */
+    private List<PendingChange> readBaseSegment() {
+        io.recordRead();
+        // try with resources --> closes automatically reader, input
+        InputStream input = PathsUtil.getPendingChangesInputStream();
+        if (input == null) {
+            LOGGER.log(
+                Level.WARNING,
+                "Resource {0} not found, returning empty list.",
+                PathsUtil.PENDING_CHANGES_RESOURCE
+            );
+            return Collections.emptyList();
+        }
+        try (input; InputStreamReader reader =
+                new InputStreamReader(input, StandardCharsets.UTF_8)) {
+            PendingChange[] changes =
+                GSON.fromJson(reader, PendingChange[].class);
+            return changes == null ? Collections.emptyList()
+                                    : List.of(changes);
+        } catch (IOException io) {
+            LOGGER.log(
+                Level.SEVERE,
+                "Error reading " + PathsUtil.PENDING_CHANGES_RESOURCE,
+                io
+            );
+            return Collections.emptyList();
+        } catch (RuntimeException e) {
+            LOGGER.log(
+                Level.SEVERE,
+                "Malformed pending changes payload",
+                e
+            );
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Replays the journal on top of the requests of the array, line by
+     * line. A {@code PUT} replaces the request in place or appends it, a
+     * {@code DELETE} removes it. Lines that cannot be parsed, such as a
+     * torn final line after a crash, are skipped.
+     *
+     * @param changes the requests of the array, updated in place
+     */
+    private void applyJournal(final Map<Integer, PendingChange> changes) {
+        Path journal = PathsUtil.getPendingChangesJournalPath();
+        if (!Files.isRegularFile(journal)) {
+            return;
+        }
+        try (BufferedReader reader =
+                Files.newBufferedReader(journal, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    JournalEntry entry =
+                        ARCHIVE_GSON.fromJson(line, JournalEntry.class);
+                    if (entry == null) {
+                        continue;
+                    }
+                    if (PUT.equals(entry.op()) && entry.change() != null) {
+                        changes.put(entry.id(), entry.change());
+                    } else if (DELETE.equals(entry.op())) {
+                        changes.remove(entry.id());
+                    }
+                } catch (JsonParseException e) {
+                    LOGGER.log(Level.WARNING,
+                        "Skipping corrupt journal line", e);
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Failed to read change journal", e);
+        }
+    }
+
+    /**
+     * Reads the archive of decided requests. A request archived more than
+     * once keeps its first position and its latest content. Lines that
+     * cannot be parsed, such as a torn final line after a crash, are
+     * skipped.
+     *
+     * @return the archived requests keyed by id, empty if there is no
+     *         archive
+     */
+    private Map<Integer, PendingChange> readArchive() {
+        Map<Integer, PendingChange> archived = new LinkedHashMap<>();
+        Path archive = PathsUtil.getPendingChangesArchivePath();
+        if (!Files.isRegularFile(archive)) {
+            return archived;
+        }
+        io.recordRead();
+        try (BufferedReader reader =
+                Files.newBufferedReader(archive, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    PendingChange change =
+                        ARCHIVE_GSON.fromJson(line, PendingChange.class);
+                    if (change != null) {
+                        archived.put(change.getId(), change);
+                    }
+                } catch (JsonParseException e) {
+                    LOGGER.log(Level.WARNING,
+                        "Skipping corrupt archive line", e);
                 }
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Failed to read change archive", e);
         }
+        return archived;
     }
 
     /**
-     * Persists a pending change to the backing JSON file. If a change with the
-     * same identifier already exists, that entry is replaced with the provided
-     * instance, otherwise the change is appended to the collection.
+     * Persists a pending change. If a change with the same identifier
+     * already exists, that entry is replaced with the provided instance,
+     * otherwise the change is added to the collection.
      *
      * @param change the pending change to persist; ignored when {@code null}
      */
     @Override
     public void save(final PendingChange change) {
-        synchronized (LOCK) {
-            if (change == null) {
-                LOGGER.warning("Cannot save a null PendingChange");
+        if (change == null) {
+            LOGGER.warning("Cannot save a null PendingChange");
+            return;
+        }
+        saveAll(List.of(change));
+    }
+
+    /**
+     * Persists a batch of pending changes. Requests that are still pending
+     * replace the entry with the same identifier in the hot segment or are
+     * added to it. Decided requests are appended to the archive with a
+     * single append and leave the hot segment and the review queue. The
+     * hot segment changes with a single append to its journal. Nothing is
+     * read while the in-memory store matches the hot segment.
+     *
+     * @param changes the pending changes to persist; ignored when
+     *                {@code null}, {@code null} elements are skipped
+     */
+    @Override
+    public void saveAll(final List<PendingChange> changes) {
+        LOCK.writeLock().lock();
+        try {
+            if (changes == null) {
+                LOGGER.warning("Cannot save a null list of PendingChanges");
                 return;
             }
 
-            List<PendingChange> pendingChanges = new ArrayList<>(load());
-            OptionalInt index = findIndexById(pendingChanges, change.getId());
-            if (index.isPresent()) {
-                pendingChanges.set(index.getAsInt(), change);
-            } else {
-                pendingChanges.add(change);
+            PendingStore store = store();
+            Map<Integer, PendingChange> puts = new LinkedHashMap<>();
+            Map<Integer, PendingChange> decided = new LinkedHashMap<>();
+            for (PendingChange change : changes) {
+                if (change == null) {
+                    continue;
+                }
+                PendingChange copy = new PendingChange(change);
+                if (copy.getStatus() == Status.PENDING) {
+                    decided.remove(copy.getId());
+                    puts.put(copy.getId(), copy);
+                } else {
+                    puts.remove(copy.getId());
+                    decided.put(copy.getId(), copy);
+                }
+            }
+            if (puts.isEmpty() && decided.isEmpty()) {
+                return;
+            }
+            boolean hotChanged = !puts.isEmpty();
+            for (Integer id : decided.keySet()) {
+                hotChanged |= store.contains(id);
+            }
+            if (!writeSegments(store, puts.values(), decided.values(),
+                    decided.keySet(), hotChanged)) {
+                return;
+            }
+            for (Integer id : decided.keySet()) {
+                store.remove(id);
+            }
+            for (PendingChange change : puts.values()) {
+                store.put(change);
+            }
+            for (PendingChange change : changes) {
+                if (change != null) {
+                    sequence().observe(change.getId());
+                }
             }
-            saveToFile(pendingChanges);
+        } finally {
+            LOCK.writeLock().unlock();
         }
     }
+
     /**
-    * Helper method that finds the index of a PendingChange in a list by its ID.
-    * This is a utility method used internally by other repository operations
-    * to locate existing changes for update or deletion purposes.
-    *
-    * @param changes the list of pending changes to search through
-    * @param id the ID of the pending change to locate
-    * @return an OptionalInt containing the index if found, or empty if no
-    *         change with the specified ID exists in the list
-    */
-    private OptionalInt findIndexById(
-        final List<PendingChange> changes,
-        final int id
+     * Appends decided requests to the archive and then changes the hot
+     * segment, by appending to its journal or, once the journal outgrew
+     * the array, by folding both into a new array. Decided requests still
+     * held by the hot segment from before the archive existed are archived
+     * along with them and the array is rewritten without them. On success
+     * the store no longer holds any such request and is stamped with the
+     * new hot segment.
+     *
+     * @param store the current store, not changed apart from its stamp and
+     *              the archived requests
+     * @param puts pending requests to insert or replace
+     * @param decided decided requests to archive
+     * @param removed ids to drop from the hot segment
+     * @param changeHot {@code true} if the hot segment has to be changed
+     * @return {@code true} if every write succeeded
+     */
+    private boolean writeSegments(
+        final PendingStore store,
+        final Collection<PendingChange> puts,
+        final Collection<PendingChange> decided,
+        final Set<Integer> removed,
+        final boolean changeHot
     ) {
-        return IntStream.range(0, changes.size())
-                .filter(i -> changes.get(i).getId() == id)
-                .findFirst();
+        List<PendingChange> archive = new ArrayList<>(decided);
+        if (changeHot) {
+            for (PendingChange change : store.unarchived.values()) {
+                if (!removed.contains(change.getId())) {
+                    archive.add(change);
+                }
+            }
+        }
+        if (!archive.isEmpty() && !appendToArchive(archive)) {
+            return false;
+        }
+        if (!changeHot) {
+            return true;
+        }
+        if (store.unarchived.isEmpty()) {
+            List<JournalEntry> entries = new ArrayList<>();
+            for (Integer id : removed) {
+                if (store.contains(id)) {
+                    entries.add(new JournalEntry(DELETE, id, null));
+                }
+            }
+            for (PendingChange change : puts) {
+                entries.add(new JournalEntry(PUT, change.getId(), change));
+            }
+            if (!appendToJournal(entries)) {
+                return false;
+            }
+            if (journalOutgrewBase()) {
+                compact(store.nextSegment(puts, removed));
+            }
+        } else if (!compact(store.nextSegment(puts, removed))) {
+            return false;
+        }
+        store.unarchived.clear();
+        store.restamp();
+        return true;
+    }
+
+    /**
+     * Replaces pending-changes.json with the given requests and removes the
+     * journal. The array is replaced atomically first; replaying the
+     * journal on top of it is idempotent, so a crash before the journal is
+     * removed loses nothing. Must be called while holding the write lock of
+     * {@code LOCK}.
+     *
+     * @param pending the pending requests of the hot segment, in file order
+     * @return {@code true} if the array was replaced
+     */
+    private boolean compact(final List<PendingChange> pending) {
+        if (!saveToFile(pending)) {
+            return false;
+        }
+        try {
+            Files.deleteIfExists(PathsUtil.getPendingChangesJournalPath());
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Failed to truncate change journal", e);
+        }
+        return true;
+    }
+
+    /**
+     * Checks, from file sizes only, whether the journal has grown larger
+     * than pending-changes.json so that folding it in pays off.
+     *
+     * @return {@code true} if the hot segment should be compacted
+     */
+    private static boolean journalOutgrewBase() {
+        try {
+            long journalSize =
+                Files.size(PathsUtil.getPendingChangesJournalPath());
+            Path base = PathsUtil.getPendingChangesWritablePath();
+            long baseSize = Files.exists(base) ? Files.size(base) : 0;
+            return journalSize > Math.max(baseSize, MIN_COMPACTION_BYTES);
+        } catch (IOException e) {
+            return false;
+        }
     }
+
     /**
-     * Checks if a PendingChange exists in pending-changes.json
-     * through its id.
+     * Checks if a PendingChange exists through its id. The archive is only
+     * read when the id is not among the pending requests.
      * @return {@code true} if it exists {@code false} otherwise.
      */
     @Override
     public boolean existsById(Integer id) {
-        synchronized (LOCK) {
+        LOCK.readLock().lock();
+        try {
             if (id == null) {
                 LOGGER.warning("Cannot search with a null id");
                 return false;
             }
-            /* το id τυπου Integer γινεται auto-unboxing σε int
-            για αυτο ειναι εγκυρη η συγκριση*/
-            return load()
-                    .stream()
-                    .anyMatch(change -> change.getId() == id);
+            return store().contains(id) || readArchive().containsKey(id);
+        } finally {
+            LOCK.readLock().unlock();
         }
     }
 
@@ -152,26 +701,75 @@ implements GenericInterfaceRepository<PendingChange, Integer> {
      */
     @Override
     public void delete(PendingChange change) {
-        synchronized (LOCK) {
-            if (change == null) {
-                LOGGER.warning("Cannot delete a null PendingChange");
+        if (change == null) {
+            LOGGER.warning("Cannot delete a null PendingChange");
+            return;
+        }
+        deleteAll(List.of(change));
+    }
+
+    /**
+     * Deletes a batch of pending changes. The hot segment is rewritten once
+     * if it held any of them; the archive is only read, and rewritten once,
+     * for changes that were not found in the hot segment.
+     *
+     * @param changes the pending changes to remove; ignored when
+     *                {@code null}, {@code null} elements are skipped
+     */
+    @Override
+    public void deleteAll(List<PendingChange> changes) {
+        LOCK.writeLock().lock();
+        try {
+            if (changes == null) {
+                LOGGER.warning("Cannot delete a null list of PendingChanges");
                 return;
             }
 
-            List<PendingChange> pendingChanges = new ArrayList<>(load());
-            OptionalInt index = findIndexById(pendingChanges, change.getId());
-            if (index.isPresent()) {
-                pendingChanges.remove(index.getAsInt());
-                saveToFile(pendingChanges);
-            } else {
+            Set<Integer> ids = new HashSet<>();
+            for (PendingChange change : changes) {
+                if (change != null) {
+                    ids.add(change.getId());
+                }
+            }
+            PendingStore store = store();
+            Set<Integer> hot = new HashSet<>();
+            Set<Integer> cold = new HashSet<>();
+            for (Integer id : ids) {
+                if (store.contains(id)) {
+                    hot.add(id);
+                } else {
+                    cold.add(id);
+                }
+            }
+            int removed = 0;
+            if (!hot.isEmpty() && writeSegments(
+                    store, List.of(), List.of(), hot, true)) {
+                for (Integer id : hot) {
+                    store.remove(id);
+                }
+                removed += hot.size();
+            }
+            if (!cold.isEmpty()) {
+                Map<Integer, PendingChange> archived = readArchive();
+                cold.retainAll(archived.keySet());
+                archived.keySet().removeAll(cold);
+                if (!cold.isEmpty() && rewriteArchive(archived.values())) {
+                    removed += cold.size();
+                }
+            }
+            if (removed < ids.size()) {
                 LOGGER
                 .warning("Can't delete PendingChange cause it doesn't exist");
             }
+        } finally {
+            LOCK.writeLock().unlock();
         }
     }
 
     /**
      * Retrieves the pending change associated with the supplied identifier.
+     * The archive is only read when the id is not among the pending
+     * requests.
      *
      * @param id the unique identifier of the pending change to look up
      *           must not be {@code null}
@@ -181,49 +779,184 @@ implements GenericInterfaceRepository<PendingChange, Integer> {
      */
     @Override
     public Optional<PendingChange> findById(Integer id) {
-        synchronized (LOCK) {
+        LOCK.readLock().lock();
+        try {
             if (id == null) {
                 LOGGER.warning("Cannot search with a null id");
                 return Optional.empty();
             }
-            return load()
-                    .stream()
-                    .filter(change -> change.getId() == id)
-                    .findFirst();
+            PendingChange change = store().get(id);
+            if (change != null) {
+                return Optional.of(new PendingChange(change));
+            }
+            return Optional.ofNullable(readArchive().get(id));
+        } finally {
+            LOCK.readLock().unlock();
+        }
+    }
+
+    /**
+     * Retrieves the pending changes with the supplied identifiers. The
+     * archive is read at most once, and only if some of the ids are not
+     * among the pending requests.
+     *
+     * @param ids the identifiers to look up; {@code null} elements are
+     *            skipped
+     * @return the matching changes in the order of {@code ids}, or an empty
+     *         list when {@code ids} is {@code null}
+     */
+    @Override
+    public List<PendingChange> findAllById(List<Integer> ids) {
+        LOCK.readLock().lock();
+        try {
+            if (ids == null) {
+                LOGGER.warning("Cannot search with a null list of ids");
+                return Collections.emptyList();
+            }
+            PendingStore store = store();
+            Map<Integer, PendingChange> archived = null;
+            List<PendingChange> found = new ArrayList<>();
+            for (Integer id : new LinkedHashSet<>(ids)) {
+                if (id == null) {
+                    continue;
+                }
+                PendingChange change = store.get(id);
+                if (change != null) {
+                    found.add(new PendingChange(change));
+                    continue;
+                }
+                if (archived == null) {
+                    archived = readArchive();
+                }
+                change = archived.get(id);
+                if (change != null) {
+                    found.add(change);
+                }
+            }
+            return found;
+        } finally {
+            LOCK.readLock().unlock();
         }
     }
 
     /**
-     * Generates a new unique ID based on the highest current ID in the list.
+     * Allocates a new unique ID from the persistent id sequence. The data is
+     * only read the first time an id is requested for the current data
+     * directory, afterwards allocation needs no I/O apart from reserving a
+     * new block of ids every {@value IdSequence#DEFAULT_BLOCK_SIZE} calls.
      * @return a new unique integer ID
      */
     public int generateId() {
-        synchronized (LOCK) {
-            return load()
-                    .stream()
-                    .mapToInt(PendingChange::getId)
-                    .max()
-                    .orElse(0) + 1;
+        return sequence().next(() -> load()
+                .stream()
+                .mapToInt(PendingChange::getId)
+                .max()
+                .orElse(0));
+    }
+
+    private static IdSequence sequence() {
+        return IdSequence.forFile(PathsUtil.getPendingChangesSequencePath());
+    }
+
+    /**
+     * Returns the I/O counters of this repository.
+     * @return the counters
+     */
+    IoCounters ioCounters() {
+        return io;
+    }
+
+    /**
+     * Appends decided requests to the archive in one write, creating it if
+     * needed. A torn last line left by a crash is terminated first, see
+     * {@link LineAppender}.
+     *
+     * @param changes the requests to archive
+     * @return {@code true} if every request was written
+     */
+    private boolean appendToArchive(List<PendingChange> changes) {
+        Path archive = PathsUtil.getPendingChangesArchivePath();
+        try (BufferedWriter writer = LineAppender.open(archive)) {
+            for (PendingChange change : changes) {
+                writer.write(ARCHIVE_GSON.toJson(change));
+                writer.newLine();
+            }
+            io.recordWrite();
+            return true;
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Failed to archive pending changes", e);
+            return false;
+        }
+    }
+
+    /**
+     * Appends entries to the hot segment journal in one write, creating it
+     * if needed. A torn last line is terminated first, as for the archive.
+     *
+     * @param entries the journal entries to append
+     * @return {@code true} if every entry was written
+     */
+    private boolean appendToJournal(final List<JournalEntry> entries) {
+        Path journal = PathsUtil.getPendingChangesJournalPath();
+        try (BufferedWriter writer = LineAppender.open(journal)) {
+            for (JournalEntry entry : entries) {
+                writer.write(ARCHIVE_GSON.toJson(entry));
+                writer.newLine();
+            }
+            io.recordWrite();
+            return true;
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Failed to journal pending changes", e);
+            return false;
+        }
+    }
+
+    /**
+     * Replaces the archive with the supplied requests through the shared
+     * {@link GroupCommitWriter}.
+     *
+     * @param changes the archived requests to keep
+     * @return {@code true} if the archive was replaced
+     */
+    private boolean rewriteArchive(Collection<PendingChange> changes) {
+        Path archive = PathsUtil.getPendingChangesArchivePath();
+        try {
+            GroupCommitWriter.shared().writeAndWait(archive, writer -> {
+                for (PendingChange change : changes) {
+                    writer.write(ARCHIVE_GSON.toJson(change));
+                    writer.write(System.lineSeparator());
+                }
+            });
+            io.recordWrite();
+            return true;
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Failed to rewrite change archive", e);
+            return false;
         }
     }
 
     /**
      * Serializes the supplied pending changes collection to the backing JSON
-     * file using the configured {@link Gson} instance. Any I/O failure is
-     * logged and swallowed so that callers are not forced to handle checked
-     * exceptions.
+     * file using the configured {@link Gson} instance. The file is replaced
+     * atomically through the shared {@link GroupCommitWriter}. Any I/O
+     * failure is logged and swallowed so that callers are not forced to
+     * handle checked exceptions.
      *
      * @param pendingChanges the collection of changes that should be persisted
+     * @return {@code true} if the file was replaced, {@code false} otherwise
      */
-    private void saveToFile(List<PendingChange> pendingChanges) {
+    private boolean saveToFile(List<PendingChange> pendingChanges) {
         Path target = PathsUtil.getPendingChangesWritablePath();
-        try (Writer writer = Files.newBufferedWriter(
-                            target,
-                            StandardCharsets.UTF_8)) {
-            GSON.toJson(pendingChanges, writer);
-
+        try {
+            GroupCommitWriter.shared().writeAndWait(
+                target,
+                writer -> GSON.toJson(pendingChanges, writer)
+            );
+            io.recordWrite();
+            return true;
         } catch (IOException e) {
             LOGGER.log(Level.SEVERE, "Failed to persist pending changes", e);
+            return false;
         }
     }
 }
@@ -0,0 +1,261 @@
+package budget.backend.repository;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import budget.backend.util.PathsUtil;
+
+/**
+ * Watches the data directory (see {@link PathsUtil#resolveDataFile(String)})
+ * and refreshes the cache of a repository as soon as one of its files is
+ * changed by another process, for example a regenerated budget.json or an
+ * edited users.json. The reload runs on a background thread and swaps the
+ * cached copy in one step, so the next read on the UI thread is answered
+ * from memory instead of parsing the file.
+ *
+ * <p>Events are debounced per repository: a burst of events, such as a
+ * file being written in several chunks, leads to a single reload once the
+ * file has been quiet for the debounce delay. The repositories still check
+ * their files before answering from the cache, so a read made before the
+ * reload has run never sees stale data.
+ */
+public final class DataFileWatcher implements AutoCloseable {
+
+    /** Quiet time after the last event before a repository is reloaded. */
+    static final long DEFAULT_DEBOUNCE_MILLIS = 250;
+
+    private static final Logger LOGGER =
+            Logger.getLogger(DataFileWatcher.class.getName());
+
+    private final WatchService watchService;
+    private final Path directory;
+    private final Path partitionDirectory;
+    private final Runnable budgetReload;
+    // file name in the data directory -> reload of the repository
+    private final Map<Path, Runnable> reloads = new HashMap<>();
+    private final Map<Runnable, ScheduledFuture<?>> scheduled =
+            new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+    private final long debounceMillis;
+
+    private DataFileWatcher(
+        final WatchService watchService,
+        final StorageBackend backend,
+        final long debounceMillis
+    ) {
+        this.watchService = watchService;
+        this.directory =
+            PathsUtil.getUsersWritablePath().toAbsolutePath().getParent();
+        this.partitionDirectory =
+            PathsUtil.getBudgetPartitionDirectory().toAbsolutePath();
+        this.debounceMillis = debounceMillis;
+        BudgetRepository budgets = backend.budgets();
+        UserRepository users = backend.users();
+        ChangeRequestRepository requests = backend.changeRequests();
+        ChangeLogRepository logs = backend.changeLogs();
+        this.budgetReload = budgets::reload;
+        Runnable userReload = users::reload;
+        Runnable requestReload = requests::reload;
+        Runnable logReload = logs::reload;
+        watchFile(PathsUtil.getBudgetWritablePath(), budgetReload);
+        watchFile(PathsUtil.getBillMinistryWritablePath(), budgetReload);
+        watchFile(PathsUtil.getUsersWritablePath(), userReload);
+        watchFile(PathsUtil.getPendingChangesWritablePath(), requestReload);
+        watchFile(PathsUtil.getPendingChangesJournalPath(), requestReload);
+        watchFile(PathsUtil.getPendingChangesArchivePath(), requestReload);
+        watchFile(PathsUtil.getBudgetChangesWritablePath(), logReload);
+        watchFile(PathsUtil.getBudgetChangesJournalPath(), logReload);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "data-file-reload");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts watching the data directory for the repositories of a
+     * backend.
+     *
+     * @param backend the backend whose repositories are reloaded
+     * @return the running watcher, to be closed when no longer needed
+     * @throws IOException if the data directory cannot be watched
+     * @throws IllegalArgumentException if backend is null
+     */
+    public static DataFileWatcher start(final StorageBackend backend)
+            throws IOException {
+        return start(backend, DEFAULT_DEBOUNCE_MILLIS);
+    }
+
+    /**
+     * Starts watching the data directory with a custom debounce delay.
+     *
+     * @param backend the backend whose repositories are reloaded
+     * @param debounceMillis the quiet time before a reload, in milliseconds
+     * @return the running watcher
+     * @throws IOException if the data directory cannot be watched
+     * @throws IllegalArgumentException if backend is null or the delay is
+     *         negative
+     */
+    static DataFileWatcher start(
+        final StorageBackend backend,
+        final long debounceMillis
+    ) throws IOException {
+        if (backend == null) {
+            throw new IllegalArgumentException("Backend cannot be null");
+        }
+        if (debounceMillis < 0) {
+            throw new IllegalArgumentException(
+                "Debounce delay cannot be negative");
+        }
+        WatchService service = FileSystems.getDefault().newWatchService();
+        DataFileWatcher watcher =
+            new DataFileWatcher(service, backend, debounceMillis);
+        try {
+            watcher.directory.register(service,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY,
+                StandardWatchEventKinds.ENTRY_DELETE);
+            watcher.watchPartitions();
+        } catch (IOException | RuntimeException e) {
+            watcher.close();
+            throw e;
+        }
+        Thread thread = new Thread(watcher::watch, "data-file-watcher");
+        thread.setDaemon(true);
+        thread.start();
+        return watcher;
+    }
+
+    /**
+     * Stops watching and drops the reloads that have not run yet.
+     */
+    @Override
+    public void close() {
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to close the file watcher", e);
+        }
+        scheduler.shutdownNow();
+    }
+
+    private void watchFile(final Path file, final Runnable reload) {
+        Path absolute = file.toAbsolutePath();
+        if (directory.equals(absolute.getParent())) {
+            reloads.put(absolute.getFileName(), reload);
+        }
+    }
+
+    /**
+     * Watches the budget partition directory too once it exists, since a
+     * change to a year file raises no event in the data directory.
+     */
+    private void watchPartitions() {
+        if (!Files.isDirectory(partitionDirectory)) {
+            return;
+        }
+        try {
+            partitionDirectory.register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY,
+                StandardWatchEventKinds.ENTRY_DELETE);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING,
+                "Cannot watch " + partitionDirectory, e);
+        } catch (ClosedWatchServiceException e) {
+            // closed meanwhile
+        }
+    }
+
+    /**
+     * Dispatches the events of the watch service until it is closed.
+     */
+    private void watch() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean partitions =
+                    partitionDirectory.equals(key.watchable());
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    dispatch(event, partitions);
+                }
+                if (!key.reset() && !partitions) {
+                    LOGGER.warning("Data directory is no longer watched");
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // closed, stop watching
+        }
+    }
+
+    private void dispatch(final WatchEvent<?> event, final boolean partitions) {
+        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+            // events were lost, any file may have changed
+            Set<Runnable> all = new LinkedHashSet<>(reloads.values());
+            all.forEach(this::schedule);
+            return;
+        }
+        if (partitions) {
+            schedule(budgetReload);
+            return;
+        }
+        Path name = (Path) event.context();
+        if (name.equals(partitionDirectory.getFileName())) {
+            watchPartitions();
+            schedule(budgetReload);
+            return;
+        }
+        Runnable reload = reloads.get(name);
+        if (reload != null) {
+            schedule(reload);
+        }
+    }
+
+    /**
+     * Schedules a reload after the debounce delay, replacing a reload of
+     * the same repository that has not run yet.
+     *
+     * @param reload the reload to run
+     */
+    private void schedule(final Runnable reload) {
+        scheduled.compute(reload, (key, previous) -> {
+            if (previous != null) {
+                previous.cancel(false);
+            }
+            if (scheduler.isShutdown()) {
+                return null;
+            }
+            return scheduler.schedule(() -> run(reload),
+                debounceMillis, TimeUnit.MILLISECONDS);
+        });
+    }
+
+    private void run(final Runnable reload) {
+        try {
+            reload.run();
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Failed to reload a data file", e);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package budget.backend.repository;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+
+/**
+ * Identifies the on-disk state of a data file through its size,
+ * last-modified time and file key. Repositories compare stamps to decide
+ * whether an in-memory copy is still in sync with the backing file,
+ * without re-reading the file itself.
+ *
+ * @param path the file the stamp was taken from
+ * @param exists {@code true} if the file existed when stamped
+ * @param size the file size in bytes, {@code -1} when missing
+ * @param lastModified the last-modified time, {@code null} when missing
+ * @param fileKey the platform file key (inode), may be {@code null}
+ */
+record FileStamp(
+    Path path,
+    boolean exists,
+    long size,
+    FileTime lastModified,
+    Object fileKey
+) {
+    /**
+     * Takes a stamp of the supplied file. Missing or unreadable files
+     * produce a stamp with {@code exists == false}, so that they compare
+     * equal as long as the file stays missing.
+     *
+     * @param path the file to stamp
+     * @return the current stamp of the file
+     */
+    static FileStamp of(Path path) {
+        try {
+            BasicFileAttributes attrs =
+                Files.readAttributes(path, BasicFileAttributes.class);
+            return new FileStamp(
+                path,
+                true,
+                attrs.size(),
+                attrs.lastModifiedTime(),
+                attrs.fileKey()
+            );
+        } catch (IOException e) {
+            return new FileStamp(path, false, -1, null, null);
+        }
+    }
+}
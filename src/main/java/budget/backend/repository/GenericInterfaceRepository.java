@@ -37,4 +37,31 @@ public interface GenericInterfaceRepository<T, ID> {
      * otherwise an empty Optional.
      */
     Optional<T> findById(ID id);
+
+    /**
+     * Saves a batch of entities with a single read and a single write of
+     * the backing storage. Entities are applied in list order, exactly as
+     * if {@link #save(Object)} was called for each of them.
+     * @param entities the entities to be saved, {@code null} elements are
+     * skipped.
+     */
+    void saveAll(List<T> entities);
+
+    /**
+     * Deletes a batch of entities with a single read and a single write of
+     * the backing storage.
+     * @param entities the entities to be deleted, {@code null} elements are
+     * skipped.
+     */
+    void deleteAll(List<T> entities);
+
+    /**
+     * Finds the entities with the given identifiers with a single read of
+     * the backing storage.
+     * @param ids the identifiers to look up, {@code null} elements are
+     * skipped.
+     * @return the entities found, in the order of their first identifier in
+     * {@code ids}; identifiers without an entity are left out.
+     */
+    List<T> findAllById(List<ID> ids);
 }
@@ -0,0 +1,398 @@
+package budget.backend.repository;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Shared writer through which the repositories replace their data files.
+ * Every file is written to a temporary sibling, forced to disk and moved
+ * over the target with an atomic rename, so a crash leaves either the old
+ * or the new content and never a truncated file. The directory is forced
+ * after the rename where the platform allows it, so that the rename itself
+ * survives a crash.
+ *
+ * <p>Writes are group committed: requests that arrive within the linger
+ * window, or while the previous batch is still being flushed, are written
+ * together by a single background thread. The repositories always write
+ * the complete content of a file, so when the same file is requested more
+ * than once in a batch only the latest content is written and every
+ * request for it completes with that write.
+ */
+final class GroupCommitWriter {
+
+    /** Time a batch stays open for further requests, in milliseconds. */
+    static final long DEFAULT_LINGER_MILLIS = 1;
+
+    private static final GroupCommitWriter SHARED =
+            new GroupCommitWriter(DEFAULT_LINGER_MILLIS);
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    /**
+     * Produces the content of a file.
+     */
+    @FunctionalInterface
+    interface Content {
+        /**
+         * Writes the content to the supplied writer.
+         *
+         * @param writer the writer over the temporary file
+         * @throws IOException if the content cannot be written
+         */
+        void writeTo(Writer writer) throws IOException;
+    }
+
+    /**
+     * Produces the content of a binary file.
+     */
+    @FunctionalInterface
+    interface BinaryContent {
+        /**
+         * Writes the content to the supplied stream.
+         *
+         * @param out the stream over the temporary file
+         * @throws IOException if the content cannot be written
+         */
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    /**
+     * Counters of the flushes done so far.
+     *
+     * @param flushes number of batches written
+     * @param requests number of write requests received
+     * @param filesWritten number of files replaced, lower than
+     *                     {@code requests} when requests were coalesced
+     * @param maxBatchSize largest number of requests in one batch
+     * @param totalFlushNanos time spent writing batches
+     * @param maxFlushNanos longest time spent writing one batch
+     */
+    record Metrics(
+        long flushes,
+        long requests,
+        long filesWritten,
+        long maxBatchSize,
+        long totalFlushNanos,
+        long maxFlushNanos
+    ) {
+        /**
+         * Returns the mean number of requests per batch.
+         *
+         * @return the average batch size, {@code 0} before the first flush
+         */
+        double averageBatchSize() {
+            return flushes == 0 ? 0 : (double) requests / flushes;
+        }
+
+        /**
+         * Returns the mean time spent writing one batch.
+         *
+         * @return the average flush latency in nanoseconds
+         */
+        double averageFlushNanos() {
+            return flushes == 0 ? 0 : (double) totalFlushNanos / flushes;
+        }
+    }
+
+    /**
+     * The latest content requested for one file and everyone waiting for
+     * it to be written.
+     */
+    private static final class PendingWrite {
+        private BinaryContent content;
+        private final List<CompletableFuture<Void>> waiters =
+                new ArrayList<>();
+        private boolean written;
+        private Throwable failure;
+    }
+
+    private final long lingerMillis;
+    private final ScheduledExecutorService flusher =
+        Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "repository-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    private final Object lock = new Object();
+    private Map<Path, PendingWrite> pending = new LinkedHashMap<>();
+    private int pendingRequests;
+    private boolean flushScheduled;
+
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong filesWritten = new AtomicLong();
+    private final AtomicLong maxBatchSize = new AtomicLong();
+    private final AtomicLong totalFlushNanos = new AtomicLong();
+    private final AtomicLong maxFlushNanos = new AtomicLong();
+
+    /**
+     * Creates a writer with its own flush thread.
+     *
+     * @param lingerMillis time a batch stays open, must not be negative
+     */
+    GroupCommitWriter(final long lingerMillis) {
+        if (lingerMillis < 0) {
+            throw new IllegalArgumentException(
+                "Linger time must not be negative");
+        }
+        this.lingerMillis = lingerMillis;
+    }
+
+    /**
+     * Returns the writer shared by all repositories.
+     *
+     * @return the shared writer
+     */
+    static GroupCommitWriter shared() {
+        return SHARED;
+    }
+
+    /**
+     * Queues the replacement of a file.
+     *
+     * @param target the file to replace
+     * @param content produces the new content, called on the flush thread
+     * @return a handle that completes once the file has been replaced, or
+     *         completes exceptionally with the {@link IOException} of a
+     *         failed write
+     */
+    CompletableFuture<Void> write(final Path target, final Content content) {
+        return writeBytes(target, out -> {
+            Writer writer = new BufferedWriter(
+                new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            content.writeTo(writer);
+            writer.flush();
+        });
+    }
+
+    /**
+     * Queues the replacement of a binary file.
+     *
+     * @param target the file to replace
+     * @param content produces the new content, called on the flush thread
+     * @return a handle that completes once the file has been replaced, or
+     *         completes exceptionally with the {@link IOException} of a
+     *         failed write
+     */
+    CompletableFuture<Void> writeBytes(
+        final Path target,
+        final BinaryContent content
+    ) {
+        Path key = target.toAbsolutePath().normalize();
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        synchronized (lock) {
+            PendingWrite write =
+                pending.computeIfAbsent(key, path -> new PendingWrite());
+            write.content = content;
+            write.waiters.add(done);
+            pendingRequests++;
+            requests.incrementAndGet();
+            if (!flushScheduled) {
+                flushScheduled = true;
+                flusher.schedule(
+                    this::flush, lingerMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+        return done;
+    }
+
+    /**
+     * Replaces a file and waits until it is written.
+     *
+     * @param target the file to replace
+     * @param content produces the new content
+     * @throws IOException if the file cannot be written
+     */
+    void writeAndWait(final Path target, final Content content)
+            throws IOException {
+        await(List.of(write(target, content)));
+    }
+
+    /**
+     * Waits for the supplied writes to finish.
+     *
+     * @param writes handles returned by {@link #write(Path, Content)}
+     * @throws IOException the failure of the first write that failed
+     */
+    static void await(final List<CompletableFuture<Void>> writes)
+            throws IOException {
+        IOException failure = null;
+        for (CompletableFuture<Void> write : writes) {
+            try {
+                write.join();
+            } catch (CompletionException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof IOException io
+                        ? io : new IOException(e.getCause());
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Returns a snapshot of the flush counters.
+     *
+     * @return the current metrics
+     */
+    Metrics metrics() {
+        return new Metrics(
+            flushes.get(),
+            requests.get(),
+            filesWritten.get(),
+            maxBatchSize.get(),
+            totalFlushNanos.get(),
+            maxFlushNanos.get()
+        );
+    }
+
+    /**
+     * Writes every file requested since the previous flush. Runs on the
+     * flush thread; requests arriving meanwhile schedule the next flush.
+     * Every request of the batch is completed even when an {@link Error}
+     * aborts the flush, failing those whose file was not written.
+     */
+    private void flush() {
+        Map<Path, PendingWrite> batch;
+        int batchSize;
+        synchronized (lock) {
+            batch = pending;
+            batchSize = pendingRequests;
+            pending = new LinkedHashMap<>();
+            pendingRequests = 0;
+            flushScheduled = false;
+        }
+        long start = System.nanoTime();
+        Throwable aborted = null;
+        try {
+            for (Map.Entry<Path, PendingWrite> entry : batch.entrySet()) {
+                PendingWrite write = entry.getValue();
+                try {
+                    replace(entry.getKey(), write.content);
+                    write.written = true;
+                    filesWritten.incrementAndGet();
+                } catch (IOException | RuntimeException e) {
+                    write.failure = e;
+                }
+            }
+        } catch (Error e) {
+            aborted = e;
+            throw e;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            flushes.incrementAndGet();
+            maxBatchSize.accumulateAndGet(batchSize, Math::max);
+            totalFlushNanos.addAndGet(elapsed);
+            maxFlushNanos.accumulateAndGet(elapsed, Math::max);
+            // complete after the metrics, so waiters observe this flush
+            complete(batch.values(), aborted);
+        }
+    }
+
+    /**
+     * Completes every request of a flushed batch.
+     *
+     * @param batch the writes of the batch
+     * @param aborted the error that aborted the flush, or {@code null}
+     */
+    private static void complete(
+        final Collection<PendingWrite> batch,
+        final Throwable aborted
+    ) {
+        for (PendingWrite write : batch) {
+            Throwable failure = write.failure;
+            if (failure == null && !write.written) {
+                failure = aborted != null
+                    ? aborted : new IOException("File was not written");
+            }
+            for (CompletableFuture<Void> done : write.waiters) {
+                if (failure == null) {
+                    done.complete(null);
+                } else {
+                    done.completeExceptionally(failure);
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the content to a temporary sibling of the target, forces it
+     * to disk, renames it over the target and forces the directory.
+     *
+     * @param target the file to replace
+     * @param content produces the new content
+     * @throws IOException if the file cannot be written or moved
+     */
+    private static void replace(
+        final Path target,
+        final BinaryContent content
+    ) throws IOException {
+        Path temp = target.resolveSibling(target.getFileName() + TEMP_SUFFIX);
+        try (FileChannel channel = FileChannel.open(
+                temp,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+             OutputStream out = new BufferedOutputStream(
+                Channels.newOutputStream(channel))) {
+            content.writeTo(out);
+            out.flush();
+            channel.force(true);
+        } catch (IOException | RuntimeException | Error e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, target,
+            StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+        forceDirectory(target.getParent());
+    }
+
+    /**
+     * Forces the entry of a renamed file to disk by forcing its directory.
+     * Platforms that cannot open a directory as a channel, such as
+     * Windows, are left to their own guarantees for the rename.
+     *
+     * @param directory the directory of the renamed file, may be
+     *                  {@code null}
+     * @throws IOException if the directory was opened but not forced
+     */
+    private static void forceDirectory(final Path directory)
+            throws IOException {
+        if (directory == null) {
+            return;
+        }
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(directory, StandardOpenOption.READ);
+        } catch (IOException | UnsupportedOperationException e) {
+            return;
+        }
+        try (channel) {
+            channel.force(true);
+        }
+    }
+}
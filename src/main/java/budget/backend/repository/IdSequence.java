@@ -0,0 +1,203 @@
+package budget.backend.repository;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Allocates increasing integer ids for a repository without reading its
+ * data file on every call. The sequence is seeded once from the highest id
+ * in the data and hands out ids from an {@link AtomicInteger}. Ids are
+ * reserved in blocks whose upper bound (the high-water mark) is persisted
+ * next to the data file, so only one allocation per block touches the disk
+ * and ids are never reused after a restart, even when the last block was
+ * not fully consumed.
+ *
+ * <p>There is a single instance per high-water mark file, shared by every
+ * repository instance that works on the same data directory.
+ */
+final class IdSequence {
+
+    /** Number of ids reserved with every write of the high-water mark. */
+    static final int DEFAULT_BLOCK_SIZE = 64;
+
+    private static final Logger LOGGER =
+            Logger.getLogger(IdSequence.class.getName());
+    private static final Map<Path, IdSequence> SEQUENCES =
+            new ConcurrentHashMap<>();
+
+    private final Path highWaterMarkFile;
+    private final int blockSize;
+    private final AtomicInteger lastIssued = new AtomicInteger();
+    private volatile int reservedFrom = 1;
+    private volatile int reservedUpTo;
+    private volatile boolean seeded;
+
+    /**
+     * Creates a sequence that persists its high-water mark to the given file.
+     *
+     * @param highWaterMarkFile the file holding the highest reserved id
+     * @param blockSize number of ids reserved at once, must be positive
+     */
+    IdSequence(final Path highWaterMarkFile, final int blockSize) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Block size must be positive");
+        }
+        this.highWaterMarkFile = highWaterMarkFile;
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Returns the shared sequence for the given high-water mark file,
+     * creating it on first use.
+     *
+     * @param highWaterMarkFile the file holding the highest reserved id
+     * @return the sequence bound to that file
+     */
+    static IdSequence forFile(final Path highWaterMarkFile) {
+        Path key = highWaterMarkFile.toAbsolutePath().normalize();
+        return SEQUENCES.computeIfAbsent(
+            key,
+            path -> new IdSequence(path, DEFAULT_BLOCK_SIZE)
+        );
+    }
+
+    /**
+     * Returns the next unique id. The supplier is only consulted the first
+     * time the sequence is used, to find the highest id already stored.
+     *
+     * @param maxExistingId supplies the highest id present in the data
+     * @return a positive id that has not been issued before
+     */
+    int next(final IntSupplier maxExistingId) {
+        seed(maxExistingId);
+        // read the bound before drawing, so a drawn id below it is
+        // guaranteed to fall in a block this sequence reserved
+        int limit = reservedUpTo;
+        int id = lastIssued.incrementAndGet();
+        if (id <= limit) {
+            return id;
+        }
+        return nextFromNewBlock(id);
+    }
+
+    /**
+     * Makes sure the sequence never issues an id lower than or equal to the
+     * supplied one. Used when records with caller-chosen ids are saved.
+     *
+     * @param id an id that is now in use
+     */
+    void observe(final int id) {
+        lastIssued.accumulateAndGet(id, Math::max);
+    }
+
+    private void seed(final IntSupplier maxExistingId) {
+        if (seeded) {
+            return;
+        }
+        synchronized (this) {
+            if (!seeded) {
+                observe(maxExistingId.getAsInt());
+                seeded = true;
+            }
+        }
+    }
+
+    private synchronized int nextFromNewBlock(final int drawn) {
+        int id = drawn;
+        while (true) {
+            if (id >= reservedFrom && id <= reservedUpTo) {
+                return id;
+            }
+            if (id > reservedUpTo) {
+                reserveBlock(id);
+            } else {
+                // the id fell into a range reserved by another process
+                id = lastIssued.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Reserves the next block starting no lower than {@code from} and
+     * persists its upper bound. Called with the monitor held.
+     *
+     * @param from the lowest id the new block may start at
+     */
+    private void reserveBlock(final int from) {
+        int start = from;
+        try (FileChannel channel = FileChannel.open(
+                highWaterMarkFile,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            FileLock lock = channel.lock();
+            try {
+                start = Math.max(from, readHighWaterMark(channel) + 1);
+                writeHighWaterMark(channel, start + blockSize - 1);
+            } finally {
+                lock.release();
+            }
+        } catch (IOException e) {
+            LOGGER.log(
+                Level.SEVERE,
+                "Failed to persist id high-water mark, continuing in memory",
+                e
+            );
+        }
+        // publish the counter before the bound, see next()
+        observe(start - 1);
+        reservedFrom = start;
+        reservedUpTo = start + blockSize - 1;
+    }
+
+    private int readHighWaterMark(final FileChannel channel)
+            throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+        while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+            continue;
+        }
+        String text = new String(
+            buffer.array(),
+            0,
+            buffer.position(),
+            StandardCharsets.UTF_8
+        ).trim();
+        if (text.isEmpty()) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(text);
+        } catch (NumberFormatException e) {
+            LOGGER.log(
+                Level.WARNING,
+                "Ignoring malformed id high-water mark in {0}",
+                highWaterMarkFile
+            );
+            return 0;
+        }
+    }
+
+    private void writeHighWaterMark(final FileChannel channel, final int mark)
+            throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(
+            String.valueOf(mark).getBytes(StandardCharsets.UTF_8)
+        );
+        channel.truncate(0);
+        channel.position(0);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        channel.force(false);
+    }
+}
@@ -0,0 +1,40 @@
+package budget.backend.repository;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts how often a repository reads and writes its backing files, so
+ * tests can check that cached and batched operations stay within their
+ * I/O budget.
+ */
+final class IoCounters {
+
+    private final AtomicLong reads = new AtomicLong();
+    private final AtomicLong writes = new AtomicLong();
+
+    /** Records one read of the backing storage. */
+    void recordRead() {
+        reads.incrementAndGet();
+    }
+
+    /** Records one write of the backing storage. */
+    void recordWrite() {
+        writes.incrementAndGet();
+    }
+
+    /**
+     * Returns the number of recorded reads.
+     * @return the read count
+     */
+    long reads() {
+        return reads.get();
+    }
+
+    /**
+     * Returns the number of recorded writes.
+     * @return the write count
+     */
+    long writes() {
+        return writes.get();
+    }
+}
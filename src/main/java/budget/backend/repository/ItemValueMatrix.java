@@ -0,0 +1,118 @@
+package budget.backend.repository;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import budget.backend.model.domain.Budget;
+import budget.backend.model.domain.BudgetItem;
+
+/**
+ * The values of the items of one side of the budget across a range of
+ * years, stored as one {@code double[]} row per item name. Built by
+ * {@link BudgetYearRange#itemValues(boolean)} in a single pass over the
+ * items of every year, so the trend of any number of items is then sliced
+ * from its row without searching the budgets again.
+ *
+ * <p>A year in which the budget or the item does not exist holds 0. When
+ * a budget has several items of the same name, the first one counts, like
+ * a search through its item list.
+ */
+public final class ItemValueMatrix {
+
+    private final int startYear;
+    private final int years;
+    // row[year - startYear] is the value of the item in that year
+    private final Map<String, double[]> rows;
+
+    /**
+     * Builds the matrix of one side of the budgets of a range.
+     *
+     * @param range the years to read
+     * @param isRevenue true for revenue items, false for expense items
+     */
+    ItemValueMatrix(final BudgetYearRange range, final boolean isRevenue) {
+        this.startYear = range.getStartYear();
+        this.years = range.getEndYear() - startYear;
+        this.rows = new HashMap<>();
+        for (int column = 0; column < years; column++) {
+            Budget budget =
+                range.findByYear(startYear + column).orElse(null);
+            if (budget == null) {
+                continue;
+            }
+            List<BudgetItem> items = budget.getItems();
+            // backwards, so the first item of a name is written last
+            for (int i = items.size() - 1; i >= 0; i--) {
+                BudgetItem item = items.get(i);
+                if (item == null || item.getName() == null
+                    || item.getIsRevenue() != isRevenue) {
+                    continue;
+                }
+                double[] row = rows.computeIfAbsent(
+                    item.getName(), name -> new double[years]);
+                row[column] = item.getValue();
+            }
+        }
+    }
+
+    /**
+     * Returns the first year of the matrix.
+     *
+     * @return the start year (inclusive)
+     */
+    public int getStartYear() {
+        return startYear;
+    }
+
+    /**
+     * Returns the end of the years of the matrix.
+     *
+     * @return the end year (exclusive)
+     */
+    public int getEndYear() {
+        return startYear + years;
+    }
+
+    /**
+     * Returns the names of the items found in any year of the range.
+     *
+     * @return an unmodifiable set of the item names
+     */
+    public Set<String> getItemNames() {
+        return Set.copyOf(rows.keySet());
+    }
+
+    /**
+     * Returns the values of an item in every year of the range.
+     *
+     * @param itemName the item name
+     * @return a copy of the row, one value per year starting at the start
+     *         year; all 0 when the item is not found
+     */
+    public double[] getValues(final String itemName) {
+        double[] row = rows.get(itemName);
+        if (row == null) {
+            return new double[years];
+        }
+        return Arrays.copyOf(row, years);
+    }
+
+    /**
+     * Returns the value of an item in one year.
+     *
+     * @param itemName the item name
+     * @param year the budget year
+     * @return the value, 0 when the item or the year is not found
+     */
+    public double getValue(final String itemName, final int year) {
+        double[] row = rows.get(itemName);
+        int column = year - startYear;
+        if (row == null || column < 0 || column >= years) {
+            return 0;
+        }
+        return row[column];
+    }
+}
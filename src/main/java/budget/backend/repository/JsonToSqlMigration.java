@@ -0,0 +1,102 @@
+package budget.backend.repository;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import budget.backend.model.domain.Budget;
+import budget.backend.model.domain.ChangeLog;
+import budget.backend.model.domain.PendingChange;
+import budget.backend.model.domain.user.User;
+
+/**
+ * Copies the JSON data files of the data directory into an embedded
+ * {@link SqlDatabase}. Everything is read through the JSON repositories
+ * and written through the matching {@code Sql*Repository}, so the database
+ * ends up holding exactly what the JSON backend returns: budgets with the
+ * ministries of the bill-ministry map, users with their stored ids and
+ * every change request and change log with its id. Records already in the
+ * database are replaced, which makes running the migration again safe.
+ *
+ * <p>Run {@link #main(String[])} to migrate into the database file next to
+ * the JSON files (see
+ * {@link budget.backend.util.PathsUtil#getDatabasePath()}).
+ */
+public final class JsonToSqlMigration {
+
+    private static final Logger LOGGER =
+            Logger.getLogger(JsonToSqlMigration.class.getName());
+
+    /**
+     * Number of records copied of every kind.
+     *
+     * @param budgets the number of budgets
+     * @param users the number of users
+     * @param changeRequests the number of change requests
+     * @param changeLogs the number of change logs
+     */
+    public record Counts(
+        int budgets,
+        int users,
+        int changeRequests,
+        int changeLogs
+    ) { }
+
+    private JsonToSqlMigration() {
+        // Utility class - prevent instantiation
+    }
+
+    /**
+     * Copies every JSON record of the data directory into a database.
+     *
+     * @param database the open database to fill
+     * @return the number of records copied
+     * @throws IllegalArgumentException if database is null
+     */
+    public static Counts migrate(final SqlDatabase database) {
+        if (database == null) {
+            throw new IllegalArgumentException("Database cannot be null");
+        }
+        BudgetRepository budgets = new BudgetRepository();
+        UserRepository users = new UserRepository();
+        ChangeRequestRepository requests = new ChangeRequestRepository();
+        ChangeLogRepository logs = new ChangeLogRepository();
+        try {
+            List<Budget> budgetList = budgets.load();
+            List<User> userList = users.load();
+            List<PendingChange> requestList = requests.load();
+            List<ChangeLog> logList = logs.load();
+            new SqlBudgetRepository(database).saveAll(budgetList);
+            new SqlUserRepository(database).saveAll(userList);
+            new SqlChangeRequestRepository(database).saveAll(requestList);
+            new SqlChangeLogRepository(database).saveAll(logList);
+            return new Counts(budgetList.size(), userList.size(),
+                requestList.size(), logList.size());
+        } finally {
+            logs.awaitCompaction();
+        }
+    }
+
+    /**
+     * Migrates the JSON files of the data directory into its database
+     * file.
+     *
+     * @param args ignored
+     */
+    public static void main(final String[] args) {
+        try (SqlDatabase database = SqlDatabase.openDefault()) {
+            Counts counts = migrate(database);
+            LOGGER.log(Level.INFO,
+                "Migrated {0} budgets, {1} users, {2} change requests and "
+                + "{3} change logs into {4}",
+                new Object[] {
+                    counts.budgets(), counts.users(),
+                    counts.changeRequests(), counts.changeLogs(),
+                    database.getUrl()
+                });
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Failed to open the database", e);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package budget.backend.repository;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Opens the append-only files of the repositories, which hold one JSON
+ * record per line. A crash during an append can leave a torn last line
+ * without its line separator; appending right after it would glue the
+ * next record onto that line and the reader would skip both as one
+ * corrupt line. The appender therefore terminates such a line first, so
+ * only the torn record is lost.
+ */
+final class LineAppender {
+
+    private LineAppender() {
+    }
+
+    /**
+     * Opens a writer that appends to a line file, creating it if needed.
+     * When the file does not end with a line separator the writer starts
+     * with one.
+     *
+     * @param file the file to append to
+     * @return a buffered UTF-8 writer positioned at a line start, to be
+     *         closed by the caller
+     * @throws IOException if the file cannot be read or opened
+     */
+    static BufferedWriter open(final Path file) throws IOException {
+        boolean torn = endsInsideLine(file);
+        BufferedWriter writer = Files.newBufferedWriter(
+            file,
+            StandardCharsets.UTF_8,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.APPEND);
+        if (torn) {
+            writer.newLine();
+        }
+        return writer;
+    }
+
+    /**
+     * Tells whether a file is non-empty and its last byte is not a line
+     * feed.
+     *
+     * @param file the file to check
+     * @return {@code true} if the last line of the file is unterminated,
+     *         {@code false} for a missing or empty file
+     * @throws IOException if the file cannot be read
+     */
+    private static boolean endsInsideLine(final Path file)
+            throws IOException {
+        try (SeekableByteChannel channel =
+                Files.newByteChannel(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0) {
+                return false;
+            }
+            ByteBuffer last = ByteBuffer.allocate(1);
+            channel.position(size - 1);
+            while (last.hasRemaining() && channel.read(last) >= 0) {
+                continue;
+            }
+            return last.get(0) != '\n';
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+    }
+}
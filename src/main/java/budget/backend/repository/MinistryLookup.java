@@ -0,0 +1,152 @@
+package budget.backend.repository;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import budget.backend.model.enums.Ministry;
+
+/**
+ * Precompiled form of {@code bill-ministry-map.json}. The ministry names
+ * are converted to {@link Ministry} constants once, when the map is read,
+ * so resolving the ministries of a budget item is a single hash lookup by
+ * bill id, falling back to the bill name.
+ */
+final class MinistryLookup {
+
+    private static final Logger LOGGER =
+            Logger.getLogger(MinistryLookup.class.getName());
+    private static final String BY_ID_KEY = "byId";
+    private static final String BY_NAME_KEY = "byName";
+
+    private final Map<Integer, List<Ministry>> byId;
+    private final Map<String, List<Ministry>> byName;
+
+    private MinistryLookup(
+        final Map<Integer, List<Ministry>> byId,
+        final Map<String, List<Ministry>> byName
+    ) {
+        this.byId = byId;
+        this.byName = byName;
+    }
+
+    /**
+     * Reads the ministry map from the supplied reader, which must be
+     * positioned at the root object of the document.
+     *
+     * @param reader the reader over {@code bill-ministry-map.json}
+     * @return the compiled lookup
+     * @throws IOException if the document cannot be read
+     */
+    static MinistryLookup read(final JsonReader reader) throws IOException {
+        Map<Integer, List<Ministry>> byId = new HashMap<>();
+        Map<String, List<Ministry>> byName = new HashMap<>();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String key = reader.nextName();
+            if (BY_ID_KEY.equals(key)) {
+                readIdSection(reader, byId);
+            } else if (BY_NAME_KEY.equals(key)) {
+                byName.clear();
+                readSection(reader, byName);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return new MinistryLookup(byId, byName);
+    }
+
+    /**
+     * Returns the ministries of a budget item. An entry for the bill id
+     * takes precedence over an entry for the bill name, even when it is
+     * empty.
+     *
+     * @param id the bill id
+     * @param name the bill name
+     * @return an unmodifiable list of ministries in the order of the map,
+     *         empty when neither the id nor the name are mapped
+     */
+    List<Ministry> ministriesFor(final int id, final String name) {
+        List<Ministry> ministries = byId.get(id);
+        if (ministries == null) {
+            ministries = byName.get(name);
+        }
+        return ministries == null ? List.of() : ministries;
+    }
+
+    private static void readIdSection(
+        final JsonReader reader,
+        final Map<Integer, List<Ministry>> target
+    ) throws IOException {
+        Map<String, List<Ministry>> section = new HashMap<>();
+        readSection(reader, section);
+        target.clear();
+        for (Map.Entry<String, List<Ministry>> entry : section.entrySet()) {
+            Integer id = toBillId(entry.getKey());
+            if (id != null) {
+                target.put(id, entry.getValue());
+            }
+        }
+    }
+
+    private static void readSection(
+        final JsonReader reader,
+        final Map<String, List<Ministry>> target
+    ) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            reader.skipValue();
+            return;
+        }
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String key = reader.nextName();
+            target.put(key, readMinistries(reader));
+        }
+        reader.endObject();
+    }
+
+    private static List<Ministry> readMinistries(final JsonReader reader)
+            throws IOException {
+        List<Ministry> ministries = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            String ministryStr = reader.nextString();
+            try {
+                ministries.add(Ministry.valueOf(ministryStr));
+            } catch (IllegalArgumentException e) {
+                LOGGER.log(
+                    Level.WARNING,
+                    "Unknown ministry: {0}",
+                    ministryStr
+                );
+            }
+        }
+        reader.endArray();
+        return List.copyOf(ministries);
+    }
+
+    /**
+     * Converts a {@code byId} key to a bill id. Only keys in the canonical
+     * form produced by {@link String#valueOf(int)} can match a bill, so
+     * anything else is ignored.
+     *
+     * @param key the {@code byId} key
+     * @return the bill id, or {@code null} if the key cannot match a bill
+     */
+    private static Integer toBillId(final String key) {
+        try {
+            int id = Integer.parseInt(key);
+            return String.valueOf(id).equals(key) ? id : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
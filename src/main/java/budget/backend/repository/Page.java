@@ -0,0 +1,30 @@
+package budget.backend.repository;
+
+import java.util.List;
+
+/**
+ * One page of a cursor-paged query.
+ *
+ * @param items the rows of the page, in query order
+ * @param nextCursor opaque position after the last row, to be passed back
+ *                   for the next page; {@code null} on the last page
+ * @param <T> the type of the rows
+ */
+public record Page<T>(List<T> items, String nextCursor) {
+
+    /**
+     * Creates a page holding an unmodifiable copy of the rows.
+     */
+    public Page {
+        items = List.copyOf(items);
+    }
+
+    /**
+     * Tells whether more rows follow this page.
+     *
+     * @return {@code true} if {@link #nextCursor()} leads to another page
+     */
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
@@ -0,0 +1,224 @@
+package budget.backend.repository;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import budget.backend.util.PathsUtil;
+
+/**
+ * Creates the {@link StorageBackend} of the application and hands out its
+ * repositories as shared singletons, so that the caches of a repository
+ * are reused by every controller and service instead of being rebuilt per
+ * screen.
+ *
+ * <p>The backend is chosen by the {@code budget.storage} system property
+ * (see {@link PathsUtil#getStorageName()}) when it is first requested:
+ * <ul>
+ *   <li>{@code json}, the default: the JSON files of the data directory,
+ *       read through the in-memory cache and the binary budget snapshot,
+ *       reloaded in the background by a {@link DataFileWatcher} when a
+ *       file is changed outside the application;</li>
+ *   <li>{@code sql}: the embedded database of the data directory;</li>
+ *   <li>{@code memory}: an in-memory database filled from the JSON files
+ *       on start, whose changes are discarded on exit.</li>
+ * </ul>
+ * An unknown value, or a database that cannot be opened, falls back to
+ * the JSON files.
+ */
+public final class RepositoryFactory {
+
+    private static final Logger LOGGER =
+            Logger.getLogger(RepositoryFactory.class.getName());
+    private static final String MEMORY_URL_PREFIX = "jdbc:h2:mem:budget-";
+    // keep the in-memory database until the backend is closed
+    private static final String MEMORY_URL_OPTIONS = ";DB_CLOSE_DELAY=-1";
+
+    private static StorageBackend shared;
+
+    /**
+     * The storage engines a backend can be created for.
+     */
+    public enum Storage {
+        /** The JSON files of the data directory. */
+        JSON,
+        /** The embedded database file of the data directory. */
+        SQL,
+        /** An in-memory database filled from the JSON files. */
+        MEMORY;
+
+        /**
+         * Returns the storage named by a {@code budget.storage} value,
+         * ignoring case.
+         *
+         * @param name the name, {@code null} for the default
+         * @return the storage, {@link #JSON} when name is {@code null} or
+         *         unknown
+         */
+        public static Storage fromName(final String name) {
+            if (name == null) {
+                return JSON;
+            }
+            try {
+                return valueOf(name.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                LOGGER.log(Level.WARNING,
+                    "Unknown storage {0}, using json", name);
+                return JSON;
+            }
+        }
+    }
+
+    private RepositoryFactory() {
+        // Utility class - prevent instantiation
+    }
+
+    /**
+     * Returns the backend shared by the application, creating it from the
+     * {@code budget.storage} property on first use.
+     *
+     * @return the shared backend
+     */
+    public static synchronized StorageBackend shared() {
+        if (shared == null) {
+            shared = create(Storage.fromName(PathsUtil.getStorageName()));
+        }
+        return shared;
+    }
+
+    /**
+     * Returns the budget repository of the shared backend.
+     *
+     * @return the shared budget repository
+     */
+    public static BudgetRepository budgets() {
+        return shared().budgets();
+    }
+
+    /**
+     * Returns the user repository of the shared backend.
+     *
+     * @return the shared user repository
+     */
+    public static UserRepository users() {
+        return shared().users();
+    }
+
+    /**
+     * Returns the change request repository of the shared backend.
+     *
+     * @return the shared change request repository
+     */
+    public static ChangeRequestRepository changeRequests() {
+        return shared().changeRequests();
+    }
+
+    /**
+     * Returns the change log repository of the shared backend.
+     *
+     * @return the shared change log repository
+     */
+    public static ChangeLogRepository changeLogs() {
+        return shared().changeLogs();
+    }
+
+    /**
+     * Closes the shared backend, if one was created. The next call to
+     * {@link #shared()} creates a new backend from the current value of
+     * the {@code budget.storage} property.
+     */
+    public static synchronized void shutdown() {
+        if (shared != null) {
+            shared.close();
+            shared = null;
+        }
+    }
+
+    /**
+     * Creates a new backend that is not shared. Falls back to the JSON
+     * files when a database cannot be opened.
+     *
+     * @param storage the storage engine
+     * @return the new backend, to be closed by the caller
+     * @throws IllegalArgumentException if storage is null
+     */
+    public static StorageBackend create(final Storage storage) {
+        if (storage == null) {
+            throw new IllegalArgumentException("Storage cannot be null");
+        }
+        try {
+            if (storage == Storage.SQL) {
+                return sql(SqlDatabase.openDefault());
+            }
+            if (storage == Storage.MEMORY) {
+                SqlDatabase memory = SqlDatabase.open(MEMORY_URL_PREFIX
+                    + UUID.randomUUID() + MEMORY_URL_OPTIONS);
+                JsonToSqlMigration.migrate(memory);
+                return sql(memory);
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE,
+                "Failed to open the " + storage + " database, using json", e);
+        }
+        return json();
+    }
+
+    private static StorageBackend json() {
+        Repositories files = new Repositories(new BudgetRepository(),
+            new UserRepository(), new ChangeRequestRepository(),
+            new ChangeLogRepository(), null, null);
+        try {
+            return new Repositories(files.budgets(), files.users(),
+                files.changeRequests(), files.changeLogs(), null,
+                DataFileWatcher.start(files));
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING,
+                "Cannot watch the data directory, files changed outside "
+                + "the application are read on next access", e);
+            return files;
+        }
+    }
+
+    private static StorageBackend sql(final SqlDatabase database) {
+        return new Repositories(new SqlBudgetRepository(database),
+            new SqlUserRepository(database),
+            new SqlChangeRequestRepository(database),
+            new SqlChangeLogRepository(database), database, null);
+    }
+
+    /**
+     * The repositories of one backend.
+     *
+     * @param budgets the budget repository
+     * @param users the user repository
+     * @param changeRequests the change request repository
+     * @param changeLogs the change log repository
+     * @param database the database of the repositories, {@code null} for
+     *                 the JSON files
+     * @param watcher the watcher reloading the JSON files, {@code null}
+     *                when none is running
+     */
+    private record Repositories(
+        BudgetRepository budgets,
+        UserRepository users,
+        ChangeRequestRepository changeRequests,
+        ChangeLogRepository changeLogs,
+        SqlDatabase database,
+        DataFileWatcher watcher
+    ) implements StorageBackend {
+
+        @Override
+        public void close() {
+            if (watcher != null) {
+                watcher.close();
+            }
+            changeLogs.awaitCompaction();
+            if (database != null) {
+                database.close();
+            }
+        }
+    }
+}
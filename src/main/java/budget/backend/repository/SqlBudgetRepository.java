@@ -0,0 +1,628 @@
+package budget.backend.repository;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.google.gson.stream.JsonReader;
+
+import budget.backend.model.domain.Budget;
+import budget.backend.model.domain.BudgetItem;
+import budget.backend.model.enums.Ministry;
+import budget.constants.Limits;
+import budget.constants.Message;
+
+/**
+ * {@link BudgetRepository} backed by the {@code budgets} and
+ * {@code budget_items} tables of an embedded {@link SqlDatabase} instead
+ * of the JSON partitions. Lookups of a year, an item id or an item name
+ * read only the matching rows through the indexes of the tables, and a
+ * budget is saved with its items in a single transaction.
+ *
+ * <p>Budgets are stored the way they are read back from budget.json:
+ * revenue items before expense items, every item carrying the budget's
+ * year and the totals recomputed from the items. The ministries of an item
+ * are stored as given, so budgets should be saved with the ministries the
+ * bill-ministry map assigns, as {@link BudgetRepository#load()} returns
+ * them. Budgets are listed by year.
+ *
+ * <p>Database errors are logged and reported like missing data: reads
+ * return empty results and writes are dropped.
+ */
+public final class SqlBudgetRepository extends BudgetRepository {
+
+    private static final Logger LOGGER =
+            Logger.getLogger(SqlBudgetRepository.class.getName());
+    private static final String SELECT = "SELECT b.budget_year, i.id, "
+        + "i.name, i.amount, i.is_revenue, i.ministries FROM budgets b "
+        + "LEFT JOIN budget_items i ON i.budget_year = b.budget_year";
+    private static final String ORDER =
+        " ORDER BY b.budget_year, i.item_order";
+    private static final String SELECT_ITEM = "SELECT budget_year, id, "
+        + "name, amount, is_revenue, ministries FROM budget_items "
+        + "WHERE budget_year = ? AND id = ? AND is_revenue = ? "
+        + "ORDER BY item_order LIMIT 1";
+    private static final String UPSERT_BUDGET = "MERGE INTO budgets "
+        + "(budget_year, total_revenue, total_expense, net_result) "
+        + "KEY (budget_year) VALUES (?, ?, ?, ?)";
+    private static final String INSERT_ITEM = "INSERT INTO budget_items "
+        + "(budget_year, item_order, id, name, amount, is_revenue, "
+        + "ministries) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String MINISTRY_SEPARATOR = ",";
+
+    private final SqlDatabase database;
+
+    /**
+     * Creates a repository over the tables of a database.
+     *
+     * @param database the open database
+     * @throws IllegalArgumentException if database is null
+     */
+    public SqlBudgetRepository(final SqlDatabase database) {
+        if (database == null) {
+            throw new IllegalArgumentException("Database cannot be null");
+        }
+        this.database = database;
+    }
+
+    /**
+     * Loads every stored budget with a single query.
+     *
+     * @return the budgets by year, or an empty list when the database
+     *         cannot be read
+     */
+    @Override
+    public List<Budget> load() {
+        return read(SELECT + ORDER);
+    }
+
+    /**
+     * Does nothing: the database is read on every call, there is no cached
+     * copy to refresh.
+     */
+    @Override
+    public void reload() {
+        // nothing is cached
+    }
+
+    /**
+     * Returns a snapshot of every stored budget. The budgets are read
+     * from the database on every call, in one query.
+     *
+     * @return a new snapshot
+     */
+    @Override
+    public BudgetSnapshot snapshot() {
+        return new BudgetSnapshot(load(), null, null, null);
+    }
+
+    /**
+     * Saves a budget, replacing the stored budget of the same year.
+     *
+     * @param budget the budget to save, ignored when {@code null}
+     */
+    @Override
+    public void save(final Budget budget) {
+        if (budget == null) {
+            LOGGER.warning("Cannot save a null budget");
+            return;
+        }
+        saveAll(List.of(budget));
+    }
+
+    /**
+     * Saves a batch of budgets in one transaction. When the batch holds
+     * several budgets of the same year the last one is stored. Null budgets
+     * are skipped.
+     *
+     * @param budgets the budgets to save, ignored when {@code null}
+     */
+    @Override
+    public void saveAll(final List<Budget> budgets) {
+        if (budgets == null) {
+            LOGGER.warning("Cannot save a null list of budgets");
+            return;
+        }
+        Map<Integer, Budget> byYear = new LinkedHashMap<>();
+        for (Budget budget : budgets) {
+            if (budget == null) {
+                LOGGER.warning("Cannot save a null budget");
+                continue;
+            }
+            byYear.put(budget.getYear(), budget);
+        }
+        if (byYear.isEmpty()) {
+            return;
+        }
+        write("Failed to persist budgets", connection -> {
+            for (Budget budget : byYear.values()) {
+                store(connection, budget);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Checks if a budget exists for the given year.
+     *
+     * @param year the year to check for existence; may be null.
+     * @return true if a budget with the specified year exists,
+     *         false otherwise.
+     */
+    @Override
+    public boolean existsById(final Integer year) {
+        if (year == null) {
+            LOGGER.warning("Cannot search with a null year");
+            return false;
+        }
+        return exists("SELECT 1 FROM budgets WHERE budget_year = ?", year);
+    }
+
+    /**
+     * Checks if a budget item with the specified name exists in a given
+     * year (case-sensitive comparison).
+     *
+     * @param itemName the name of the budget item to search for
+     * @param year the year of the budget to search within
+     * @return true if a budget item with the specified name exists
+     *         in the given year, false otherwise or if itemName is null
+     */
+    @Override
+    public boolean existsByName(final String itemName, final int year) {
+        if (itemName == null) {
+            LOGGER.warning("Cannot search with a null item name");
+            return false;
+        }
+        return exists("SELECT 1 FROM budget_items "
+            + "WHERE budget_year = ? AND name = ?", year, itemName);
+    }
+
+    /**
+     * Checks if a budget item with the specified ID exists in a given year.
+     *
+     * @param itemId the ID of the budget item to search for
+     * @param year the year of the Budget we are searching in
+     * @return true if a budget item with the specified ID exists,
+     *         false otherwise or if itemId is <= 0
+     */
+    @Override
+    public boolean existsByItemId(final int itemId, final int year) {
+        if (itemId <= 0) {
+            LOGGER.warning(Message.INVALID_ITEM_ID);
+            return false;
+        }
+        if (year < Limits.MIN_BUDGET_YEAR) {
+            LOGGER.warning("Cannot search with year earlier than 2000");
+            return false;
+        }
+        return exists("SELECT 1 FROM budget_items "
+            + "WHERE budget_year = ? AND id = ?", year, itemId);
+    }
+
+    /**
+     * Finds a BudgetItem of a year by id, reading only the matching row.
+     *
+     * @param id the item id.
+     * @param year the year of the budget to search in.
+     * @param isRevenue item type
+     * @return an Optional containing the BudgetItem if found, or empty if not
+     */
+    @Override
+    public Optional<BudgetItem> findItemById(
+        final int id,
+        final int year,
+        final boolean isRevenue
+    ) {
+        if (id <= 0) {
+            LOGGER.warning(Message.INVALID_ITEM_ID);
+            return Optional.empty();
+        }
+        if (year < Limits.MIN_BUDGET_YEAR) {
+            LOGGER.warning("Cannot search with year earlier than 2000");
+            return Optional.empty();
+        }
+        try {
+            ioCounters().recordRead();
+            return database.query(connection -> SqlSupport.list(
+                connection, SELECT_ITEM, SqlBudgetRepository::mapItem,
+                year, id, isRevenue)).stream().findFirst();
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Failed to read budget items", e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Deletes the budget of the year of the provided budget, if stored.
+     *
+     * @param budget the budget to remove, ignored when {@code null}.
+     */
+    @Override
+    public void delete(final Budget budget) {
+        if (budget == null) {
+            LOGGER.warning("Cannot delete a null budget");
+            return;
+        }
+        deleteAll(List.of(budget));
+    }
+
+    /**
+     * Deletes a batch of budgets, identified by their year, together with
+     * their items in one transaction.
+     *
+     * @param budgets the budgets to remove, ignored when {@code null}.
+     */
+    @Override
+    public void deleteAll(final List<Budget> budgets) {
+        if (budgets == null) {
+            LOGGER.warning("Cannot delete a null list of budgets");
+            return;
+        }
+        Set<Integer> years = new LinkedHashSet<>();
+        for (Budget budget : budgets) {
+            if (budget != null) {
+                years.add(budget.getYear());
+            }
+        }
+        if (years.isEmpty()) {
+            return;
+        }
+        Integer removed = write("Failed to delete budgets", connection -> {
+            int count = 0;
+            try (PreparedStatement delete = connection.prepareStatement(
+                    "DELETE FROM budgets WHERE budget_year = ?")) {
+                for (int year : years) {
+                    delete.setInt(1, year);
+                    count += delete.executeUpdate();
+                }
+            }
+            return count;
+        });
+        if (removed != null && removed < years.size()) {
+            LOGGER.warning("Cannot delete a budget because it doesn't exist");
+        }
+    }
+
+    /**
+     * Retrieves the budgets of the given years with a single query.
+     *
+     * @param years the years to look up, {@code null} elements are skipped
+     * @return the matching budgets in the order of {@code years}
+     */
+    @Override
+    public List<Budget> findAllById(final List<Integer> years) {
+        if (years == null) {
+            LOGGER.warning("Cannot search with a null list of years");
+            return Collections.emptyList();
+        }
+        List<Integer> wanted = new ArrayList<>();
+        for (Integer year : new LinkedHashSet<>(years)) {
+            if (year != null) {
+                wanted.add(year);
+            }
+        }
+        if (wanted.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Integer, Budget> byYear = new LinkedHashMap<>();
+        for (Budget budget : read(SELECT + " WHERE b.budget_year = ANY(?)"
+                + ORDER, (Object) wanted.toArray(new Integer[0]))) {
+            byYear.put(budget.getYear(), budget);
+        }
+        List<Budget> found = new ArrayList<>();
+        for (Integer year : wanted) {
+            Budget budget = byYear.get(year);
+            if (budget != null) {
+                found.add(budget);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Retrieves the Budget of the specified year, reading only its rows.
+     *
+     * @param year the year of the budget to search for;
+     * ignored when {@code null}.
+     * @return an Optional containing the matching Budget,
+     * or Optional.empty() if none is found.
+     */
+    @Override
+    public Optional<Budget> findById(final Integer year) {
+        if (year == null || year < Limits.MIN_BUDGET_YEAR) {
+            LOGGER
+            .warning("Cannot search for a budget with null year"
+            + " or earlier than 2000");
+            return Optional.empty();
+        }
+        return read(SELECT + " WHERE b.budget_year = ?" + ORDER, year)
+            .stream().findFirst();
+    }
+
+    /**
+     * Changes the budget of a year and saves it in one transaction, which
+     * holds a lock on the budget row, so concurrent updates of the same
+     * year are not lost. When the change throws, nothing is saved and the
+     * exception is propagated.
+     *
+     * @param year the year of the budget to change
+     * @param change the modification to apply to the budget
+     * @return {@code true} if the budget was changed and saved,
+     *         {@code false} if no budget is stored for the year or the
+     *         database cannot be written
+     */
+    @Override
+    public boolean updateBudget(
+        final int year,
+        final Consumer<Budget> change
+    ) {
+        if (change == null) {
+            LOGGER.warning("Cannot update a budget with a null change");
+            return false;
+        }
+        Boolean updated = write("Failed to persist budgets", connection -> {
+            try (PreparedStatement lock = connection.prepareStatement(
+                    "SELECT budget_year FROM budgets "
+                    + "WHERE budget_year = ? FOR UPDATE")) {
+                lock.setInt(1, year);
+                try (ResultSet rows = lock.executeQuery()) {
+                    if (!rows.next()) {
+                        return false;
+                    }
+                }
+            }
+            List<Budget> current = group(SqlSupport.list(connection,
+                SELECT + " WHERE b.budget_year = ?" + ORDER,
+                SqlBudgetRepository::mapRow, year));
+            Budget budget = current.get(0);
+            change.accept(budget);
+            store(connection, budget);
+            return true;
+        });
+        return Boolean.TRUE.equals(updated);
+    }
+
+    /**
+     * Exports every stored budget in the single-file budget.json format.
+     *
+     * @param target the file to write
+     * @return {@code true} if the file was written, {@code false} otherwise
+     */
+    @Override
+    public boolean exportToFile(final Path target) {
+        if (target == null) {
+            LOGGER.warning("Cannot export budgets to a null path");
+            return false;
+        }
+        return saveToFile(load(), target);
+    }
+
+    /**
+     * Replaces all stored budgets with the contents of a file in the
+     * single-file budget.json format, in one transaction. Years that are
+     * not in the file are removed. Nothing is changed when the file cannot
+     * be parsed.
+     *
+     * @param source the file to read
+     * @return {@code true} if the budgets were imported
+     */
+    @Override
+    public boolean importFromFile(final Path source) {
+        if (source == null) {
+            LOGGER.warning("Cannot import budgets from a null path");
+            return false;
+        }
+        MinistryLookup ministries = readMinistryLookup();
+        if (ministries == null) {
+            return false;
+        }
+        List<Budget> budgets;
+        try (JsonReader reader = new JsonReader(
+                Files.newBufferedReader(source, StandardCharsets.UTF_8))) {
+            budgets = parseBudgets(reader, ministries);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.SEVERE, "Failed to import " + source, e);
+            return false;
+        }
+        Boolean imported = write("Failed to persist budgets", connection -> {
+            try (PreparedStatement delete =
+                    connection.prepareStatement("DELETE FROM budgets")) {
+                delete.executeUpdate();
+            }
+            for (Budget budget : budgets) {
+                store(connection, budget);
+            }
+            return true;
+        });
+        return Boolean.TRUE.equals(imported);
+    }
+
+    private List<Budget> read(final String sql, final Object... values) {
+        try {
+            ioCounters().recordRead();
+            return group(database.query(connection -> SqlSupport.list(
+                connection, sql, SqlBudgetRepository::mapRow, values)));
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Failed to read budgets", e);
+            return Collections.emptyList();
+        }
+    }
+
+    private boolean exists(final String sql, final Object... values) {
+        try {
+            ioCounters().recordRead();
+            return !database.query(connection -> SqlSupport.list(
+                connection, sql + " LIMIT 1", rows -> Boolean.TRUE, values))
+                .isEmpty();
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Failed to read budgets", e);
+            return false;
+        }
+    }
+
+    private <T> T write(
+        final String failure,
+        final SqlDatabase.Work<T> work
+    ) {
+        try {
+            T result = database.inTransaction(work);
+            ioCounters().recordWrite();
+            return result;
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, failure, e);
+            return null;
+        }
+    }
+
+    /**
+     * Replaces the stored budget of a year and its items.
+     *
+     * @param connection the connection of the transaction
+     * @param budget the budget to store
+     * @throws SQLException if a statement fails
+     */
+    private static void store(
+        final Connection connection,
+        final Budget budget
+    ) throws SQLException {
+        List<BudgetItem> items = new ArrayList<>();
+        List<BudgetItem> expenses = new ArrayList<>();
+        for (BudgetItem item : budget.getItems()) {
+            if (item == null) {
+                continue;
+            }
+            if (item.getIsRevenue()) {
+                items.add(item);
+            } else {
+                expenses.add(item);
+            }
+        }
+        items.addAll(expenses);
+        Budget stored = buildBudgetFromItems(items, budget.getYear());
+        try (PreparedStatement upsert =
+                connection.prepareStatement(UPSERT_BUDGET)) {
+            int column = 0;
+            upsert.setInt(++column, stored.getYear());
+            upsert.setDouble(++column, stored.getTotalRevenue());
+            upsert.setDouble(++column, stored.getTotalExpense());
+            upsert.setDouble(++column, stored.getNetResult());
+            upsert.executeUpdate();
+        }
+        try (PreparedStatement delete = connection.prepareStatement(
+                "DELETE FROM budget_items WHERE budget_year = ?")) {
+            delete.setInt(1, stored.getYear());
+            delete.executeUpdate();
+        }
+        try (PreparedStatement insert =
+                connection.prepareStatement(INSERT_ITEM)) {
+            int order = 0;
+            for (BudgetItem item : items) {
+                int column = 0;
+                insert.setInt(++column, stored.getYear());
+                insert.setInt(++column, order++);
+                insert.setInt(++column, item.getId());
+                insert.setString(++column, item.getName());
+                insert.setDouble(++column, item.getValue());
+                insert.setBoolean(++column, item.getIsRevenue());
+                insert.setString(++column,
+                    toText(item.getMinistries()));
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+    }
+
+    /**
+     * Groups the rows of the budget query into budgets, recomputing the
+     * totals from the items.
+     *
+     * @param rows the year and, unless the year has no items, the item of
+     *             every row, ordered by year
+     * @return the budgets in row order
+     */
+    private static List<Budget> group(final List<BudgetRow> rows) {
+        Map<Integer, List<BudgetItem>> byYear = new LinkedHashMap<>();
+        for (BudgetRow row : rows) {
+            List<BudgetItem> items = byYear.computeIfAbsent(
+                row.year(), year -> new ArrayList<>());
+            if (row.item() != null) {
+                items.add(row.item());
+            }
+        }
+        List<Budget> budgets = new ArrayList<>(byYear.size());
+        for (Map.Entry<Integer, List<BudgetItem>> entry
+                : byYear.entrySet()) {
+            budgets.add(buildBudgetFromItems(entry.getValue(),
+                entry.getKey()));
+        }
+        return budgets;
+    }
+
+    /**
+     * A row of the budget query: a year and one of its items, or
+     * {@code null} for a year without items.
+     *
+     * @param year the budget year
+     * @param item the item, or {@code null}
+     */
+    private record BudgetRow(int year, BudgetItem item) { }
+
+    private static BudgetRow mapRow(final ResultSet rows)
+            throws SQLException {
+        int year = rows.getInt("budget_year");
+        if (rows.getObject("id") == null) {
+            return new BudgetRow(year, null);
+        }
+        return new BudgetRow(year, mapItem(rows));
+    }
+
+    private static BudgetItem mapItem(final ResultSet rows)
+            throws SQLException {
+        return new BudgetItem(
+            rows.getInt("id"),
+            rows.getInt("budget_year"),
+            rows.getString("name"),
+            rows.getDouble("amount"),
+            rows.getBoolean("is_revenue"),
+            toMinistries(rows.getString("ministries"))
+        );
+    }
+
+    private static String toText(final List<Ministry> ministries) {
+        StringJoiner text = new StringJoiner(MINISTRY_SEPARATOR);
+        for (Ministry ministry : ministries) {
+            if (ministry != null) {
+                text.add(ministry.name());
+            }
+        }
+        return text.toString();
+    }
+
+    private static List<Ministry> toMinistries(final String text) {
+        List<Ministry> ministries = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return ministries;
+        }
+        for (String name : text.split(MINISTRY_SEPARATOR)) {
+            ministries.add(Ministry.valueOf(name));
+        }
+        return ministries;
+    }
+}
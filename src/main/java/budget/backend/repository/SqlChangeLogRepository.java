@@ -0,0 +1,405 @@
+package budget.backend.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import budget.backend.model.domain.ChangeLog;
+
+/**
+ * {@link ChangeLogRepository} backed by the {@code change_logs} table of an
+ * embedded {@link SqlDatabase} instead of the JSON segments. Lookups by
+ * item, actor and date use the indexes of the table, batches are written
+ * in a single transaction, and logs are listed in the order they were
+ * first stored, like the JSON backend does.
+ *
+ * <p>Database errors are logged and reported like missing data: reads
+ * return empty results and writes are dropped.
+ */
+public final class SqlChangeLogRepository extends ChangeLogRepository {
+
+    private static final Logger LOGGER =
+            Logger.getLogger(SqlChangeLogRepository.class.getName());
+    private static final String TABLE = "change_logs";
+    private static final String SELECT = "SELECT id, budget_item_id, "
+        + "old_value, new_value, submitted_date, actor_name, actor_id, "
+        + "submitted_at FROM change_logs";
+    private static final String UPSERT = "MERGE INTO change_logs (id, "
+        + "budget_item_id, old_value, new_value, abs_change, "
+        + "submitted_date, submitted_at, actor_name, actor_id) KEY (id) "
+        + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final SqlDatabase database;
+
+    /**
+     * Creates a repository over the tables of a database.
+     *
+     * @param database the open database
+     * @throws IllegalArgumentException if database is null
+     */
+    public SqlChangeLogRepository(final SqlDatabase database) {
+        if (database == null) {
+            throw new IllegalArgumentException("Database cannot be null");
+        }
+        this.database = database;
+    }
+
+    /**
+     * Loads every change log in the order the logs were first stored.
+     *
+     * @return the logs, or an empty list when the database cannot be read
+     */
+    @Override
+    public List<ChangeLog> load() {
+        return list(SELECT + " ORDER BY seq");
+    }
+
+    /**
+     * Does nothing: the database is read on every call, there is no cached
+     * copy to refresh.
+     */
+    @Override
+    public void reload() {
+        // nothing is cached
+    }
+
+    /**
+     * Saves or updates a ChangeLog record.
+     *
+     * @param entity the ChangeLog record to save or update
+     */
+    @Override
+    public void save(final ChangeLog entity) {
+        if (entity == null) {
+            LOGGER.warning("Cannot save a null ChangeLog");
+            return;
+        }
+        saveAll(List.of(entity));
+    }
+
+    /**
+     * Saves or updates a batch of ChangeLog records in one transaction.
+     * A replaced record keeps its place in the storage order.
+     *
+     * @param entities the records to save; ignored when {@code null},
+     * {@code null} elements are skipped.
+     */
+    @Override
+    public void saveAll(final List<ChangeLog> entities) {
+        if (entities == null) {
+            LOGGER.warning("Cannot save a null list of ChangeLogs");
+            return;
+        }
+        List<ChangeLog> logs = new ArrayList<>();
+        for (ChangeLog entity : entities) {
+            if (entity != null) {
+                logs.add(entity);
+            }
+        }
+        if (logs.isEmpty()) {
+            return;
+        }
+        write("Failed to save ChangeLog data", connection -> {
+            try (PreparedStatement upsert =
+                    connection.prepareStatement(UPSERT)) {
+                for (ChangeLog log : logs) {
+                    bind(upsert, log);
+                    upsert.addBatch();
+                }
+                upsert.executeBatch();
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Checks if a ChangeLog record with the given ID exists.
+     *
+     * @param id the ID to search for.
+     * @return true if an entry exists, false otherwise
+     */
+    @Override
+    public boolean existsById(final Integer id) {
+        if (id == null) {
+            LOGGER.warning("Cannot search with a null id");
+            return false;
+        }
+        return findById(id).isPresent();
+    }
+
+    /**
+     * Finds a ChangeLog record by its ID.
+     *
+     * @param id the unique ID of the ChangeLog
+     * @return an Optional containing the ChangeLog if found, otherwise empty
+     */
+    @Override
+    public Optional<ChangeLog> findById(final Integer id) {
+        if (id == null) {
+            LOGGER.warning("Cannot search with a null id");
+            return Optional.empty();
+        }
+        return list(SELECT + " WHERE id = ?", id).stream().findFirst();
+    }
+
+    /**
+     * Retrieves one page of the logs related to a specific budget item,
+     * in the order they were stored.
+     *
+     * @param itemId ID of the budget item
+     * @param offset number of logs to skip
+     * @param limit maximum number of logs to return
+     * @return the logs of the page, empty past the last log
+     * @throws IllegalArgumentException if itemId is null or offset or
+     *         limit is negative
+     */
+    @Override
+    public List<ChangeLog> getLogsForItem(
+        final Integer itemId,
+        final int offset,
+        final int limit
+    ) {
+        if (itemId == null) {
+            throw new IllegalArgumentException(
+                    "Item ID cannot be null");
+        }
+        checkPage(offset, limit);
+        return list(SELECT + " WHERE budget_item_id = ? ORDER BY seq"
+            + " LIMIT ? OFFSET ?", itemId, limit, offset);
+    }
+
+    /**
+     * Retrieves one page of the logs created by a specific user, in the
+     * order they were stored.
+     *
+     * @param userId ID of the user
+     * @param offset number of logs to skip
+     * @param limit maximum number of logs to return
+     * @return the logs of the page, empty past the last log
+     * @throws IllegalArgumentException if userId is null or offset or
+     *         limit is negative
+     */
+    @Override
+    public List<ChangeLog> getLogsByUser(
+        final UUID userId,
+        final int offset,
+        final int limit
+    ) {
+        if (userId == null) {
+            throw new IllegalArgumentException(
+                    "User ID cannot be null");
+        }
+        checkPage(offset, limit);
+        return list(SELECT + " WHERE actor_id = ? ORDER BY seq"
+            + " LIMIT ? OFFSET ?", userId.toString(), limit, offset);
+    }
+
+    /**
+     * Reads one page of change logs with a single query.
+     *
+     * @param query the filters, order and page size
+     * @param cursor the cursor of the previous page, or {@code null}
+     * @return the page, empty when the database cannot be read
+     * @throws IllegalArgumentException if query is null or the cursor is
+     *         invalid for the query
+     */
+    @Override
+    public Page<ChangeLog> findPage(
+        final ChangeQuery query,
+        final String cursor
+    ) {
+        if (query == null) {
+            throw new IllegalArgumentException("Query cannot be null");
+        }
+        try {
+            ioCounters().recordRead();
+            return database.query(connection -> SqlChangePager.page(
+                connection, SELECT, null, query, cursor,
+                SqlChangeLogRepository::map, ChangePager.Row::of));
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Failed to read ChangeLog data", e);
+            return new Page<>(List.of(), null);
+        }
+    }
+
+    /**
+     * Deletes a ChangeLog record.
+     *
+     * @param entity the ChangeLog record to delete
+     */
+    @Override
+    public void delete(final ChangeLog entity) {
+        if (entity == null) {
+            LOGGER.warning("Cannot delete a null ChangeLog");
+            return;
+        }
+        deleteAll(List.of(entity));
+    }
+
+    /**
+     * Deletes a batch of ChangeLog records in one transaction.
+     *
+     * @param entities the records to delete; ignored when {@code null},
+     * {@code null} elements are skipped.
+     */
+    @Override
+    public void deleteAll(final List<ChangeLog> entities) {
+        if (entities == null) {
+            LOGGER.warning("Cannot delete a null list of ChangeLogs");
+            return;
+        }
+        List<Integer> ids = new ArrayList<>();
+        for (ChangeLog entity : entities) {
+            if (entity != null) {
+                ids.add(entity.id());
+            }
+        }
+        if (ids.isEmpty()) {
+            return;
+        }
+        write("Failed to delete ChangeLog data", connection -> {
+            try (PreparedStatement delete = connection.prepareStatement(
+                    "DELETE FROM change_logs WHERE id = ?")) {
+                for (int id : ids) {
+                    delete.setInt(1, id);
+                    delete.addBatch();
+                }
+                delete.executeBatch();
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Finds the ChangeLog records with the given IDs using a single query.
+     *
+     * @param ids the IDs to look up; {@code null} elements are skipped
+     * @return the records found, in the order of {@code ids}
+     */
+    @Override
+    public List<ChangeLog> findAllById(final List<Integer> ids) {
+        if (ids == null) {
+            LOGGER.warning("Cannot search with a null list of ids");
+            return new ArrayList<>();
+        }
+        List<Integer> wanted = new ArrayList<>();
+        for (Integer id : new LinkedHashSet<>(ids)) {
+            if (id != null) {
+                wanted.add(id);
+            }
+        }
+        if (wanted.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Integer, ChangeLog> byId = new HashMap<>();
+        for (ChangeLog log : list(SELECT + " WHERE id = ANY(?)",
+                (Object) wanted.toArray(new Integer[0]))) {
+            byId.put(log.id(), log);
+        }
+        List<ChangeLog> found = new ArrayList<>();
+        for (Integer id : wanted) {
+            ChangeLog log = byId.get(id);
+            if (log != null) {
+                found.add(log);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Does nothing: the table needs no compaction.
+     */
+    @Override
+    public void compact() {
+        // rows are updated in place
+    }
+
+    /**
+     * Does nothing: no compaction is ever scheduled.
+     */
+    @Override
+    public void awaitCompaction() {
+        // nothing runs in the background
+    }
+
+    /**
+     * Allocates a new unique ID from the id counter of the table.
+     *
+     * @return a new unique integer ID, or {@code -1} when the database
+     *         cannot be written
+     */
+    @Override
+    public int generateId() {
+        try {
+            return database.inTransaction(
+                connection -> SqlDatabase.nextId(connection, TABLE));
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Failed to allocate a ChangeLog id", e);
+            return -1;
+        }
+    }
+
+    private List<ChangeLog> list(final String sql, final Object... values) {
+        try {
+            ioCounters().recordRead();
+            return database.query(connection ->
+                SqlSupport.list(connection, sql, SqlChangeLogRepository::map,
+                    values));
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Failed to read ChangeLog data", e);
+            return Collections.emptyList();
+        }
+    }
+
+    private void write(
+        final String failure,
+        final SqlDatabase.Work<Void> work
+    ) {
+        try {
+            database.inTransaction(work);
+            ioCounters().recordWrite();
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, failure, e);
+        }
+    }
+
+    private static void bind(
+        final PreparedStatement statement,
+        final ChangeLog log
+    ) throws SQLException {
+        int column = 0;
+        statement.setInt(++column, log.id());
+        statement.setInt(++column, log.budgetItemId());
+        statement.setDouble(++column, log.oldValue());
+        statement.setDouble(++column, log.newValue());
+        statement.setDouble(++column,
+            Math.abs(log.newValue() - log.oldValue()));
+        statement.setString(++column, log.submittedDate());
+        statement.setLong(++column, log.submittedAt());
+        statement.setString(++column, log.actorName());
+        statement.setString(++column, SqlSupport.toText(log.actorId()));
+    }
+
+    private static ChangeLog map(final ResultSet rows) throws SQLException {
+        return new ChangeLog(
+            rows.getInt("id"),
+            rows.getInt("budget_item_id"),
+            rows.getDouble("old_value"),
+            rows.getDouble("new_value"),
+            rows.getString("submitted_date"),
+            rows.getString("actor_name"),
+            SqlSupport.toUuid(rows.getString("actor_id")),
+            rows.getLong("submitted_at")
+        );
+    }
+}
@@ -0,0 +1,141 @@
+package budget.backend.repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import budget.backend.util.TimestampUtils;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+/**
+ * Keyset pagination of {@link ChangeQuery} over the {@code change_logs} and
+ * {@code pending_changes} tables of {@link SqlDatabase}, which share the
+ * column names the queries filter and sort on. The filters and the
+ * position of the cursor become the {@code WHERE} clause, so a page reads
+ * only its own rows. Cursors are those of {@link ChangePager}: a cursor of
+ * the JSON backend continues on the SQL backend and the other way around.
+ */
+final class SqlChangePager {
+
+    private SqlChangePager() {
+        // Utility class - prevent instantiation
+    }
+
+    /**
+     * Reads one page of a query.
+     *
+     * @param connection the connection to query
+     * @param select the {@code SELECT ... FROM table} of the entity columns
+     * @param condition a fixed condition on the rows, or {@code null}
+     * @param query the query
+     * @param cursor the cursor of the previous page, {@code null} for the
+     *               first page
+     * @param mapper reads an entity from a row
+     * @param rows reads the sort attributes of an entity
+     * @param <T> the type of the entities
+     * @return the page
+     * @throws SQLException if the query fails
+     * @throws IllegalArgumentException if the cursor is invalid for the query
+     */
+    @SuppressFBWarnings(
+        value = "SQL_PREPARED_STATEMENT_GENERATED_FROM_NONCONSTANT_STRING",
+        justification = "Only constant fragments are concatenated, every "
+            + "value is bound as a parameter."
+    )
+    static <T> Page<T> page(
+        final Connection connection,
+        final String select,
+        final String condition,
+        final ChangeQuery query,
+        final String cursor,
+        final SqlSupport.RowMapper<T> mapper,
+        final Function<T, ChangePager.Row> rows
+    ) throws SQLException {
+        ChangeQuery.Sort sort = query.sort();
+        ChangePager.Key after =
+            cursor == null ? null : ChangePager.decode(sort, cursor);
+        String key = sortColumn(sort.field());
+        StringBuilder sql = new StringBuilder(select).append(" WHERE 1 = 1");
+        List<Object> parameters = new ArrayList<>();
+        if (condition != null) {
+            sql.append(" AND ").append(condition);
+        }
+        if (query.actorId() != null) {
+            sql.append(" AND actor_id = ?");
+            parameters.add(query.actorId().toString());
+        }
+        if (query.itemId() != null) {
+            sql.append(" AND budget_item_id = ?");
+            parameters.add(query.itemId());
+        }
+        if (query.from() != null || query.to() != null) {
+            sql.append(" AND submitted_at <> ?"
+                + " AND submitted_at >= ? AND submitted_at < ?");
+            parameters.add(TimestampUtils.UNKNOWN);
+            parameters.add(query.fromMillis());
+            parameters.add(query.toMillis());
+        }
+        switch (query.direction()) {
+            case INCREASES -> sql.append(" AND new_value > old_value");
+            case DECREASES -> sql.append(" AND new_value < old_value");
+            default -> { }
+        }
+        String order = sort.descending() ? " DESC" : "";
+        if (after != null) {
+            sql.append(" AND (").append(key).append(", id) ")
+                .append(sort.descending() ? "<" : ">").append(" (?, ?)");
+            parameters.add(keyValue(sort.field(), after));
+            parameters.add(after.id());
+        }
+        sql.append(" ORDER BY ").append(key).append(order)
+            .append(", id").append(order).append(" LIMIT ?");
+        parameters.add(query.pageSize() + 1);
+
+        List<T> items = new ArrayList<>();
+        boolean more = false;
+        try (PreparedStatement statement =
+                connection.prepareStatement(sql.toString())) {
+            for (int i = 0; i < parameters.size(); i++) {
+                statement.setObject(i + 1, parameters.get(i));
+            }
+            try (ResultSet result = statement.executeQuery()) {
+                while (result.next()) {
+                    if (items.size() == query.pageSize()) {
+                        more = true;
+                        break;
+                    }
+                    items.add(mapper.map(result));
+                }
+            }
+        }
+        if (!more) {
+            return new Page<>(items, null);
+        }
+        T last = items.get(items.size() - 1);
+        return new Page<>(items, ChangePager.encode(sort,
+            ChangePager.Key.of(sort.field(), rows.apply(last))));
+    }
+
+    private static String sortColumn(final ChangePager.Field field) {
+        return switch (field) {
+            case DATE -> "submitted_at";
+            case AMOUNT -> "abs_change";
+            default -> "COALESCE(actor_name, '')";
+        };
+    }
+
+    private static Object keyValue(
+        final ChangePager.Field field,
+        final ChangePager.Key key
+    ) {
+        return switch (field) {
+            case DATE -> key.number();
+            case AMOUNT -> Double.longBitsToDouble(key.number());
+            default -> key.text();
+        };
+    }
+}
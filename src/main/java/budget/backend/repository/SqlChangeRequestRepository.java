@@ -0,0 +1,375 @@
+package budget.backend.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import budget.backend.model.domain.PendingChange;
+import budget.backend.model.enums.Status;
+
+/**
+ * {@link ChangeRequestRepository} backed by the {@code pending_changes}
+ * table of an embedded {@link SqlDatabase} instead of the JSON segments.
+ * Pending and decided requests share the table; the review queue is read
+ * through the index on status and submission time, so decided requests
+ * are never scanned. Requests are listed in the order they were first
+ * stored.
+ *
+ * <p>Database errors are logged and reported like missing data: reads
+ * return empty results and writes are dropped.
+ */
+public final class SqlChangeRequestRepository extends ChangeRequestRepository {
+
+    private static final Logger LOGGER =
+            Logger.getLogger(SqlChangeRequestRepository.class.getName());
+    private static final String TABLE = "pending_changes";
+    private static final String SELECT = "SELECT id, budget_item_id, "
+        + "budget_item_year, budget_item_name, actor_name, actor_id, "
+        + "old_value, new_value, status, submitted_date "
+        + "FROM pending_changes";
+    private static final String PENDING = "status = 'PENDING'";
+    private static final String UPSERT = "MERGE INTO pending_changes (id, "
+        + "budget_item_id, budget_item_year, budget_item_name, actor_name, "
+        + "actor_id, old_value, new_value, abs_change, status, "
+        + "submitted_date, submitted_at) KEY (id) "
+        + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final SqlDatabase database;
+
+    /**
+     * Creates a repository over the tables of a database.
+     *
+     * @param database the open database
+     * @throws IllegalArgumentException if database is null
+     */
+    public SqlChangeRequestRepository(final SqlDatabase database) {
+        if (database == null) {
+            throw new IllegalArgumentException("Database cannot be null");
+        }
+        this.database = database;
+    }
+
+    /**
+     * Loads every change request, pending and decided.
+     *
+     * @return the requests in the order they were first stored, or an empty
+     *         list when the database cannot be read
+     */
+    @Override
+    public List<PendingChange> load() {
+        return list(SELECT + " ORDER BY seq");
+    }
+
+    /**
+     * Does nothing: the database is read on every call, there is no cached
+     * copy to refresh.
+     */
+    @Override
+    public void reload() {
+        // nothing is cached
+    }
+
+    /**
+     * Returns the requests still waiting for a decision, newest submission
+     * first; requests submitted at the same time by descending id and
+     * requests without a readable date last.
+     *
+     * @return the pending requests in review order
+     */
+    @Override
+    public List<PendingChange> findPendingSortedByDate() {
+        return list(SELECT + " WHERE " + PENDING
+            + " ORDER BY submitted_at DESC, id DESC");
+    }
+
+    /**
+     * Reads one page of the requests still waiting for a decision with a
+     * single query.
+     *
+     * @param query the filters, order and page size
+     * @param cursor the cursor of the previous page, or {@code null}
+     * @return the page, empty when the database cannot be read
+     * @throws IllegalArgumentException if query is null or the cursor is
+     *         invalid for the query
+     */
+    @Override
+    public Page<PendingChange> findPendingPage(
+        final ChangeQuery query,
+        final String cursor
+    ) {
+        if (query == null) {
+            throw new IllegalArgumentException("Query cannot be null");
+        }
+        try {
+            ioCounters().recordRead();
+            return database.query(connection -> SqlChangePager.page(
+                connection, SELECT, PENDING, query, cursor,
+                SqlChangeRequestRepository::map, ChangePager.Row::of));
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Failed to read PendingChange data", e);
+            return new Page<>(List.of(), null);
+        }
+    }
+
+    /**
+     * Persists a pending change, replacing the one with the same id.
+     *
+     * @param change the pending change to persist; ignored when {@code null}
+     */
+    @Override
+    public void save(final PendingChange change) {
+        if (change == null) {
+            LOGGER.warning("Cannot save a null PendingChange");
+            return;
+        }
+        saveAll(List.of(change));
+    }
+
+    /**
+     * Persists a batch of pending changes in one transaction. A replaced
+     * request keeps its place in the storage order.
+     *
+     * @param changes the pending changes to persist; ignored when
+     *                {@code null}, {@code null} elements are skipped
+     */
+    @Override
+    public void saveAll(final List<PendingChange> changes) {
+        if (changes == null) {
+            LOGGER.warning("Cannot save a null list of PendingChanges");
+            return;
+        }
+        List<PendingChange> puts = new ArrayList<>();
+        for (PendingChange change : changes) {
+            if (change != null) {
+                puts.add(change);
+            }
+        }
+        if (puts.isEmpty()) {
+            return;
+        }
+        try {
+            database.inTransaction(connection -> {
+                try (PreparedStatement upsert =
+                        connection.prepareStatement(UPSERT)) {
+                    for (PendingChange change : puts) {
+                        bind(upsert, change);
+                        upsert.addBatch();
+                    }
+                    upsert.executeBatch();
+                }
+                return null;
+            });
+            ioCounters().recordWrite();
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Failed to persist pending changes", e);
+        }
+    }
+
+    /**
+     * Checks if a PendingChange exists through its id.
+     *
+     * @param id the id to look up
+     * @return {@code true} if it exists {@code false} otherwise.
+     */
+    @Override
+    public boolean existsById(final Integer id) {
+        if (id == null) {
+            LOGGER.warning("Cannot search with a null id");
+            return false;
+        }
+        return findById(id).isPresent();
+    }
+
+    /**
+     * Deletes the provided pending change, if present.
+     *
+     * @param change the pending change to remove, ignored when {@code null}
+     */
+    @Override
+    public void delete(final PendingChange change) {
+        if (change == null) {
+            LOGGER.warning("Cannot delete a null PendingChange");
+            return;
+        }
+        deleteAll(List.of(change));
+    }
+
+    /**
+     * Deletes a batch of pending changes in one transaction.
+     *
+     * @param changes the pending changes to remove; ignored when
+     *                {@code null}, {@code null} elements are skipped
+     */
+    @Override
+    public void deleteAll(final List<PendingChange> changes) {
+        if (changes == null) {
+            LOGGER.warning("Cannot delete a null list of PendingChanges");
+            return;
+        }
+        List<Integer> ids = new ArrayList<>();
+        for (PendingChange change : changes) {
+            if (change != null) {
+                ids.add(change.getId());
+            }
+        }
+        if (ids.isEmpty()) {
+            return;
+        }
+        try {
+            int removed = database.inTransaction(connection -> {
+                int count = 0;
+                try (PreparedStatement delete = connection.prepareStatement(
+                        "DELETE FROM pending_changes WHERE id = ?")) {
+                    for (int id : ids) {
+                        delete.setInt(1, id);
+                        count += delete.executeUpdate();
+                    }
+                }
+                return count;
+            });
+            ioCounters().recordWrite();
+            if (removed < new LinkedHashSet<>(ids).size()) {
+                LOGGER
+                .warning("Can't delete PendingChange cause it doesn't exist");
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Failed to delete pending changes", e);
+        }
+    }
+
+    /**
+     * Retrieves the pending change associated with the supplied identifier.
+     *
+     * @param id the unique identifier of the pending change to look up
+     * @return an {@link Optional} containing the matching
+     * {@link PendingChange} or {@link Optional#empty()}
+     * when the id is null or no entry exists
+     */
+    @Override
+    public Optional<PendingChange> findById(final Integer id) {
+        if (id == null) {
+            LOGGER.warning("Cannot search with a null id");
+            return Optional.empty();
+        }
+        return list(SELECT + " WHERE id = ?", id).stream().findFirst();
+    }
+
+    /**
+     * Retrieves the pending changes with the supplied identifiers with a
+     * single query.
+     *
+     * @param ids the identifiers to look up; {@code null} elements are
+     *            skipped
+     * @return the matching changes in the order of {@code ids}, or an empty
+     *         list when {@code ids} is {@code null}
+     */
+    @Override
+    public List<PendingChange> findAllById(final List<Integer> ids) {
+        if (ids == null) {
+            LOGGER.warning("Cannot search with a null list of ids");
+            return Collections.emptyList();
+        }
+        List<Integer> wanted = new ArrayList<>();
+        for (Integer id : new LinkedHashSet<>(ids)) {
+            if (id != null) {
+                wanted.add(id);
+            }
+        }
+        if (wanted.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Integer, PendingChange> byId = new HashMap<>();
+        for (PendingChange change : list(SELECT + " WHERE id = ANY(?)",
+                (Object) wanted.toArray(new Integer[0]))) {
+            byId.put(change.getId(), change);
+        }
+        List<PendingChange> found = new ArrayList<>();
+        for (Integer id : wanted) {
+            PendingChange change = byId.get(id);
+            if (change != null) {
+                found.add(change);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Allocates a new unique ID from the id counter of the table.
+     *
+     * @return a new unique integer ID, or {@code -1} when the database
+     *         cannot be written
+     */
+    @Override
+    public int generateId() {
+        try {
+            return database.inTransaction(
+                connection -> SqlDatabase.nextId(connection, TABLE));
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE,
+                "Failed to allocate a PendingChange id", e);
+            return -1;
+        }
+    }
+
+    private List<PendingChange> list(
+        final String sql,
+        final Object... values
+    ) {
+        try {
+            ioCounters().recordRead();
+            return database.query(connection -> SqlSupport.list(
+                connection, sql, SqlChangeRequestRepository::map, values));
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Failed to read PendingChange data", e);
+            return Collections.emptyList();
+        }
+    }
+
+    private static void bind(
+        final PreparedStatement statement,
+        final PendingChange change
+    ) throws SQLException {
+        int column = 0;
+        statement.setInt(++column, change.getId());
+        statement.setInt(++column, change.getBudgetItemId());
+        statement.setInt(++column, change.getBudgetItemYear());
+        statement.setString(++column, change.getBudgetItemName());
+        statement.setString(++column, change.getRequestByName());
+        statement.setString(++column,
+            SqlSupport.toText(change.getRequestById()));
+        statement.setDouble(++column, change.getOldValue());
+        statement.setDouble(++column, change.getNewValue());
+        statement.setDouble(++column,
+            Math.abs(change.getNewValue() - change.getOldValue()));
+        statement.setString(++column, change.getStatus() == null
+            ? null : change.getStatus().name());
+        statement.setString(++column, change.getSubmittedDate());
+        statement.setLong(++column, change.getSubmittedAt());
+    }
+
+    private static PendingChange map(final ResultSet rows)
+            throws SQLException {
+        String status = rows.getString("status");
+        return new PendingChange(
+            rows.getInt("id"),
+            rows.getInt("budget_item_id"),
+            rows.getInt("budget_item_year"),
+            rows.getString("budget_item_name"),
+            rows.getString("actor_name"),
+            SqlSupport.toUuid(rows.getString("actor_id")),
+            rows.getDouble("old_value"),
+            rows.getDouble("new_value"),
+            status == null ? null : Status.valueOf(status),
+            rows.getString("submitted_date")
+        );
+    }
+}
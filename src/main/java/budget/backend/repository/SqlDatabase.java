@@ -0,0 +1,272 @@
+package budget.backend.repository;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import budget.backend.util.PathsUtil;
+
+/**
+ * Embedded, in-process SQL database backing the {@code Sql*Repository}
+ * implementations. The database is an H2 file next to the JSON data files
+ * (see {@link PathsUtil#getDatabasePath()}), reached through plain JDBC, so
+ * no server has to run.
+ *
+ * <p>Opening a database creates any missing table and index. Every table
+ * is indexed on the columns the repositories look rows up by: budget items
+ * by year and item id, users by username and role, change requests by
+ * status and submission time, change logs by item, actor and submission
+ * time. Rows that are listed in storage order carry a {@code seq} column
+ * assigned on insert and kept when the row is updated.
+ *
+ * <p>Repositories run each operation on its own connection and group
+ * writes in {@link #inTransaction(Work) transactions}; the database stays
+ * open between connections until {@link #close()} is called.
+ */
+public final class SqlDatabase implements AutoCloseable {
+
+    private static final Logger LOGGER =
+            Logger.getLogger(SqlDatabase.class.getName());
+    private static final String URL_PREFIX = "jdbc:h2:file:";
+    // keep the database open between connections until close()
+    private static final String URL_OPTIONS = ";DB_CLOSE_DELAY=-1";
+
+    private static final String[] SCHEMA = {
+        "CREATE TABLE IF NOT EXISTS budgets ("
+            + "budget_year INT PRIMARY KEY, "
+            + "total_revenue DOUBLE PRECISION NOT NULL, "
+            + "total_expense DOUBLE PRECISION NOT NULL, "
+            + "net_result DOUBLE PRECISION NOT NULL)",
+        "CREATE TABLE IF NOT EXISTS budget_items ("
+            + "budget_year INT NOT NULL, "
+            + "item_order INT NOT NULL, "
+            + "id INT NOT NULL, "
+            + "name VARCHAR(1000), "
+            + "amount DOUBLE PRECISION NOT NULL, "
+            + "is_revenue BOOLEAN NOT NULL, "
+            + "ministries VARCHAR(1000) NOT NULL, "
+            + "PRIMARY KEY (budget_year, item_order), "
+            + "FOREIGN KEY (budget_year) REFERENCES budgets (budget_year) "
+            + "ON DELETE CASCADE)",
+        "CREATE INDEX IF NOT EXISTS budget_items_by_id "
+            + "ON budget_items (budget_year, id, is_revenue)",
+        "CREATE INDEX IF NOT EXISTS budget_items_by_name "
+            + "ON budget_items (budget_year, name)",
+        "CREATE TABLE IF NOT EXISTS users ("
+            + "id CHAR(36) PRIMARY KEY, "
+            + "seq BIGINT GENERATED ALWAYS AS IDENTITY, "
+            + "user_name VARCHAR(255), "
+            + "user_name_key VARCHAR(255), "
+            + "full_name VARCHAR(255), "
+            + "password VARCHAR(255), "
+            + "user_role VARCHAR(32), "
+            + "ministry VARCHAR(64))",
+        "CREATE INDEX IF NOT EXISTS users_by_name ON users (user_name_key)",
+        "CREATE INDEX IF NOT EXISTS users_by_role ON users (user_role)",
+        "CREATE TABLE IF NOT EXISTS pending_changes ("
+            + "id INT PRIMARY KEY, "
+            + "seq BIGINT GENERATED ALWAYS AS IDENTITY, "
+            + "budget_item_id INT NOT NULL, "
+            + "budget_item_year INT NOT NULL, "
+            + "budget_item_name VARCHAR(1000), "
+            + "actor_name VARCHAR(255), "
+            + "actor_id CHAR(36), "
+            + "old_value DOUBLE PRECISION NOT NULL, "
+            + "new_value DOUBLE PRECISION NOT NULL, "
+            + "abs_change DOUBLE PRECISION NOT NULL, "
+            + "status VARCHAR(16), "
+            + "submitted_date VARCHAR(64), "
+            + "submitted_at BIGINT NOT NULL)",
+        "CREATE INDEX IF NOT EXISTS pending_changes_by_status "
+            + "ON pending_changes (status, submitted_at, id)",
+        "CREATE INDEX IF NOT EXISTS pending_changes_by_actor "
+            + "ON pending_changes (actor_id)",
+        "CREATE INDEX IF NOT EXISTS pending_changes_by_item "
+            + "ON pending_changes (budget_item_id)",
+        "CREATE TABLE IF NOT EXISTS change_logs ("
+            + "id INT PRIMARY KEY, "
+            + "seq BIGINT GENERATED ALWAYS AS IDENTITY, "
+            + "budget_item_id INT NOT NULL, "
+            + "old_value DOUBLE PRECISION NOT NULL, "
+            + "new_value DOUBLE PRECISION NOT NULL, "
+            + "abs_change DOUBLE PRECISION NOT NULL, "
+            + "submitted_date VARCHAR(64), "
+            + "submitted_at BIGINT NOT NULL, "
+            + "actor_name VARCHAR(255), "
+            + "actor_id CHAR(36))",
+        "CREATE INDEX IF NOT EXISTS change_logs_by_item "
+            + "ON change_logs (budget_item_id, seq)",
+        "CREATE INDEX IF NOT EXISTS change_logs_by_actor "
+            + "ON change_logs (actor_id, seq)",
+        "CREATE INDEX IF NOT EXISTS change_logs_by_date "
+            + "ON change_logs (submitted_at, id)",
+        "CREATE INDEX IF NOT EXISTS change_logs_by_amount "
+            + "ON change_logs (abs_change, id)",
+        "CREATE TABLE IF NOT EXISTS id_sequences ("
+            + "name VARCHAR(64) PRIMARY KEY, "
+            + "next_id INT NOT NULL)"
+    };
+
+    private final String url;
+
+    /**
+     * Work done on a connection of the database.
+     *
+     * @param <T> the type of the result
+     */
+    @FunctionalInterface
+    interface Work<T> {
+        /**
+         * Runs the work.
+         *
+         * @param connection the connection to use, not to be closed
+         * @return the result
+         * @throws SQLException if a statement fails
+         */
+        T run(Connection connection) throws SQLException;
+    }
+
+    private SqlDatabase(final String url) {
+        this.url = url;
+    }
+
+    /**
+     * Opens the database at a JDBC URL and creates its schema if needed.
+     *
+     * @param url the JDBC URL, for example {@code jdbc:h2:mem:budget}
+     * @return the open database
+     * @throws SQLException if the database cannot be opened or its schema
+     *         cannot be created
+     * @throws IllegalArgumentException if url is null or blank
+     */
+    public static SqlDatabase open(final String url) throws SQLException {
+        if (url == null || url.isBlank()) {
+            throw new IllegalArgumentException("Database URL cannot be empty");
+        }
+        SqlDatabase database = new SqlDatabase(url);
+        database.inTransaction(connection -> {
+            try (Statement statement = connection.createStatement()) {
+                for (String ddl : SCHEMA) {
+                    statement.execute(ddl);
+                }
+            }
+            return null;
+        });
+        return database;
+    }
+
+    /**
+     * Opens the database file of the data directory, creating it on first
+     * use.
+     *
+     * @return the open database
+     * @throws SQLException if the database cannot be opened
+     */
+    public static SqlDatabase openDefault() throws SQLException {
+        return open(URL_PREFIX
+            + PathsUtil.getDatabasePath().toAbsolutePath() + URL_OPTIONS);
+    }
+
+    /**
+     * Returns the JDBC URL of the database.
+     *
+     * @return the URL
+     */
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * Runs work on a new connection in auto-commit mode.
+     *
+     * @param work the work, usually a single query
+     * @param <T> the type of the result
+     * @return the result of the work
+     * @throws SQLException if the work fails
+     */
+    <T> T query(final Work<T> work) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(url)) {
+            return work.run(connection);
+        }
+    }
+
+    /**
+     * Runs work in a single transaction, which is committed when the work
+     * returns and rolled back when it throws.
+     *
+     * @param work the work
+     * @param <T> the type of the result
+     * @return the result of the work
+     * @throws SQLException if the work or the commit fails
+     */
+    <T> T inTransaction(final Work<T> work) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(url)) {
+            connection.setAutoCommit(false);
+            try {
+                T result = work.run(connection);
+                connection.commit();
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Allocates the next id of a table. Ids are handed out from a stored
+     * counter, which is moved past the highest id in the table first, so
+     * an id is never issued twice even when it was not saved. Must run in
+     * a transaction.
+     *
+     * @param connection the connection of the transaction
+     * @param table the table whose {@code id} column the id is for
+     * @return the new id
+     * @throws SQLException if the counter cannot be read or written
+     */
+    static int nextId(final Connection connection, final String table)
+            throws SQLException {
+        int next = 1;
+        try (PreparedStatement select = connection.prepareStatement(
+                "SELECT next_id FROM id_sequences WHERE name = ? FOR UPDATE")) {
+            select.setString(1, table);
+            try (ResultSet rows = select.executeQuery()) {
+                if (rows.next()) {
+                    next = rows.getInt(1);
+                }
+            }
+        }
+        try (Statement statement = connection.createStatement();
+                ResultSet rows = statement.executeQuery(
+                    "SELECT COALESCE(MAX(id), 0) + 1 FROM " + table)) {
+            rows.next();
+            next = Math.max(next, rows.getInt(1));
+        }
+        try (PreparedStatement update = connection.prepareStatement(
+                "MERGE INTO id_sequences (name, next_id) KEY (name) "
+                + "VALUES (?, ?)")) {
+            update.setString(1, table);
+            update.setInt(2, next + 1);
+            update.executeUpdate();
+        }
+        return next;
+    }
+
+    /**
+     * Closes the database. Connections opened afterwards open it again.
+     */
+    @Override
+    public void close() {
+        try (Connection connection = DriverManager.getConnection(url);
+                Statement statement = connection.createStatement()) {
+            statement.execute("SHUTDOWN");
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, "Failed to close database " + url, e);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package budget.backend.repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Small JDBC helpers shared by the {@code Sql*Repository} classes.
+ */
+final class SqlSupport {
+
+    /**
+     * Reads the entity of the current row of a result set.
+     *
+     * @param <T> the type of the entity
+     */
+    @FunctionalInterface
+    interface RowMapper<T> {
+        /**
+         * Maps the current row.
+         *
+         * @param rows the result set, positioned on a row
+         * @return the entity
+         * @throws SQLException if a column cannot be read
+         */
+        T map(ResultSet rows) throws SQLException;
+    }
+
+    private SqlSupport() {
+        // Utility class - prevent instantiation
+    }
+
+    /**
+     * Runs a prepared query and maps every row.
+     *
+     * @param connection the connection to query
+     * @param sql the query, a constant with {@code ?} placeholders
+     * @param mapper reads an entity from a row
+     * @param values the values of the placeholders, in order
+     * @param <T> the type of the entities
+     * @return the entities in row order
+     * @throws SQLException if the query fails
+     */
+    static <T> List<T> list(
+        final Connection connection,
+        final String sql,
+        final RowMapper<T> mapper,
+        final Object... values
+    ) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = 0; i < values.length; i++) {
+                statement.setObject(i + 1, values[i]);
+            }
+            List<T> found = new ArrayList<>();
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    found.add(mapper.map(rows));
+                }
+            }
+            return found;
+        }
+    }
+
+    /**
+     * Converts an id to the text stored in the {@code CHAR(36)} id columns.
+     *
+     * @param id the id, may be {@code null}
+     * @return the text, or {@code null}
+     */
+    static String toText(final UUID id) {
+        return id == null ? null : id.toString();
+    }
+
+    /**
+     * Converts the text of an id column back to an id.
+     *
+     * @param text the stored text, may be {@code null}
+     * @return the id, or {@code null}
+     */
+    static UUID toUuid(final String text) {
+        return text == null ? null : UUID.fromString(text.trim());
+    }
+}
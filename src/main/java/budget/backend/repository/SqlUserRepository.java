@@ -0,0 +1,417 @@
+package budget.backend.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+
+import budget.backend.model.domain.user.Citizen;
+import budget.backend.model.domain.user.GovernmentMember;
+import budget.backend.model.domain.user.PrimeMinister;
+import budget.backend.model.domain.user.User;
+import budget.backend.model.enums.UserRole;
+
+/**
+ * {@link UserRepository} backed by the {@code users} table of an embedded
+ * {@link SqlDatabase} instead of {@code users.json}. Usernames are matched
+ * case-insensitively through an indexed, case-folded copy of the username.
+ * Like {@code users.json}, the table holds at most one prime minister, and
+ * users are listed citizens first, then government members, then the prime
+ * minister.
+ *
+ * <p>Database errors are logged and reported like missing data: reads
+ * return empty results and writes are dropped.
+ */
+public final class SqlUserRepository extends UserRepository {
+
+    private static final Gson GSON = new Gson();
+    private static final Logger LOGGER =
+            Logger.getLogger(SqlUserRepository.class.getName());
+    private static final String SELECT = "SELECT id, user_name, full_name, "
+        + "password, user_role, ministry FROM users";
+    private static final String ORDER = " ORDER BY CASE user_role"
+        + " WHEN 'CITIZEN' THEN 0 WHEN 'GOVERNMENT_MEMBER' THEN 1"
+        + " ELSE 2 END, seq";
+    private static final String UPSERT = "MERGE INTO users (id, user_name, "
+        + "user_name_key, full_name, password, user_role, ministry) "
+        + "KEY (id) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final SqlDatabase database;
+
+    /**
+     * Creates a repository over the tables of a database.
+     *
+     * @param database the open database
+     * @throws IllegalArgumentException if database is null
+     */
+    public SqlUserRepository(final SqlDatabase database) {
+        if (database == null) {
+            throw new IllegalArgumentException("Database cannot be null");
+        }
+        this.database = database;
+    }
+
+    /**
+     * Loads all users.
+     *
+     * @return list of {@link User}, or empty list when no records are found
+     * or a read error occurs.
+     */
+    @Override
+    public List<User> load() {
+        return list(SELECT + ORDER);
+    }
+
+    /**
+     * Does nothing: the database is read on every call, there is no cached
+     * copy to refresh.
+     */
+    @Override
+    public void reload() {
+        // nothing is cached
+    }
+
+    /**
+     * Retrieves the User associated with the supplied identifier.
+     *
+     * @param id the unique identifier of the User to look up
+     * @return an {@link Optional} containing the matching
+     * {@link User} or {@link Optional#empty()}
+     * when the id is null or no entry exists
+     */
+    @Override
+    public Optional<User> findById(final UUID id) {
+        if (id == null) {
+            LOGGER.warning("Cannot search with a null id");
+            return Optional.empty();
+        }
+        return list(SELECT + " WHERE id = ?", id.toString())
+            .stream().findFirst();
+    }
+
+    /**
+     * Finds a user by username, ignoring case.
+     *
+     * @param username the username to search for
+     * @return an {@link Optional} containing the matching
+     * {@link User} or {@link Optional#empty()}
+     * when the userName is null or no entry exists
+     */
+    @Override
+    public Optional<User> findByUsername(final String username) {
+        if (username == null || username.isBlank()) {
+            LOGGER.warning("Cannot search with a null or blank userName");
+            return Optional.empty();
+        }
+        return list(SELECT + " WHERE user_name_key = ?" + ORDER,
+            foldCase(username)).stream().findFirst();
+    }
+
+    /**
+     * Saves a user, replacing the user with the same {@code id}.
+     *
+     * @param user the user to save;
+     * must not be null and must have a valid username
+     */
+    @Override
+    public void save(final User user) {
+        if (user == null || user.getUserName() == null
+                || user.getUserName().isBlank()) {
+            LOGGER.warning("Cannot save user: null or invalid username.");
+            return;
+        }
+        saveAll(List.of(user));
+    }
+
+    /**
+     * Saves a batch of users in one transaction. Every user replaces the
+     * stored user with the same {@code id} or is added; a saved prime
+     * minister replaces any other. Null users and users without a valid
+     * username are skipped.
+     *
+     * @param users the users to save, ignored when {@code null}
+     */
+    @Override
+    public void saveAll(final List<User> users) {
+        if (users == null) {
+            LOGGER.warning("Cannot save a null list of users");
+            return;
+        }
+        List<User> valid = new ArrayList<>();
+        for (User user : users) {
+            if (user == null || user.getUserName() == null
+                    || user.getUserName().isBlank()) {
+                LOGGER.warning("Cannot save user: null or invalid username.");
+                continue;
+            }
+            valid.add(user);
+        }
+        if (valid.isEmpty()) {
+            return;
+        }
+        try {
+            database.inTransaction(connection -> {
+                try (PreparedStatement dropOther = connection.prepareStatement(
+                        "DELETE FROM users WHERE user_role = ? AND id <> ?");
+                        PreparedStatement upsert =
+                            connection.prepareStatement(UPSERT)) {
+                    for (User user : valid) {
+                        if (user instanceof PrimeMinister) {
+                            dropOther.setString(1,
+                                UserRole.PRIME_MINISTER.name());
+                            dropOther.setString(2,
+                                SqlSupport.toText(user.getId()));
+                            dropOther.executeUpdate();
+                        }
+                        bind(upsert, user);
+                        upsert.executeUpdate();
+                    }
+                }
+                return null;
+            });
+            ioCounters().recordWrite();
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Failed to persist users", e);
+        }
+    }
+
+    /**
+     * Checks if a User exists through its id.
+     *
+     * @param id the unique identifier of the User to check
+     * @return {@code true} if it exists {@code false} otherwise.
+     */
+    @Override
+    public boolean existsById(final UUID id) {
+        if (id == null) {
+            LOGGER.warning("Cannot search with a null id");
+            return false;
+        }
+        return findById(id).isPresent();
+    }
+
+    /**
+     * Checks if a username already exists, ignoring case.
+     *
+     * @param username the username to check
+     * @return true if the username exists, false otherwise
+     */
+    @Override
+    public boolean usernameExists(final String username) {
+        if (username == null || username.isBlank()) {
+            return false;
+        }
+        return findByUsername(username).isPresent();
+    }
+
+    /**
+     * Checks if a Prime Minister user already exists.
+     *
+     * @return true if there is a user with role PRIME_MINISTER
+     */
+    @Override
+    public boolean primeMinisterExists() {
+        return !list(SELECT + " WHERE user_role = ?",
+            UserRole.PRIME_MINISTER.name()).isEmpty();
+    }
+
+    /**
+     * Deletes the provided user, if present.
+     *
+     * @param user the user to remove, ignored when {@code null}
+     */
+    @Override
+    public void delete(final User user) {
+        if (user == null) {
+            LOGGER.warning("Cannot delete a null user");
+            return;
+        }
+        deleteAll(List.of(user));
+    }
+
+    /**
+     * Deletes a batch of users in one transaction.
+     *
+     * @param users the users to remove, ignored when {@code null}
+     */
+    @Override
+    public void deleteAll(final List<User> users) {
+        if (users == null) {
+            LOGGER.warning("Cannot delete a null list of users");
+            return;
+        }
+        List<UUID> ids = new ArrayList<>();
+        for (User user : users) {
+            if (user != null) {
+                ids.add(user.getId());
+            }
+        }
+        if (ids.isEmpty()) {
+            return;
+        }
+        try {
+            int removed = database.inTransaction(connection -> {
+                int count = 0;
+                try (PreparedStatement delete = connection.prepareStatement(
+                        "DELETE FROM users WHERE id = ?")) {
+                    for (UUID id : ids) {
+                        delete.setString(1, SqlSupport.toText(id));
+                        count += delete.executeUpdate();
+                    }
+                }
+                return count;
+            });
+            ioCounters().recordWrite();
+            if (removed < new LinkedHashSet<>(ids).size()) {
+                LOGGER.warning("Can't delete User cause it doesn't exist");
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Failed to delete users", e);
+        }
+    }
+
+    /**
+     * Retrieves the users with the supplied identifiers with a single
+     * query.
+     *
+     * @param ids the identifiers to look up, {@code null} elements are
+     *            skipped
+     * @return the matching users in the order of {@code ids}
+     */
+    @Override
+    public List<User> findAllById(final List<UUID> ids) {
+        if (ids == null) {
+            LOGGER.warning("Cannot search with a null list of ids");
+            return Collections.emptyList();
+        }
+        List<String> wanted = new ArrayList<>();
+        for (UUID id : new LinkedHashSet<>(ids)) {
+            if (id != null) {
+                wanted.add(id.toString());
+            }
+        }
+        if (wanted.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<UUID, User> byId = new HashMap<>();
+        for (User user : list(SELECT + " WHERE id = ANY(?)",
+                (Object) wanted.toArray(new String[0]))) {
+            byId.put(user.getId(), user);
+        }
+        List<User> found = new ArrayList<>();
+        for (String id : wanted) {
+            User user = byId.get(UUID.fromString(id));
+            if (user != null) {
+                found.add(user);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Deletes all users.
+     */
+    @Override
+    public void deleteAllUsers() {
+        try {
+            database.inTransaction(connection -> {
+                try (PreparedStatement delete =
+                        connection.prepareStatement("DELETE FROM users")) {
+                    delete.executeUpdate();
+                }
+                return null;
+            });
+            ioCounters().recordWrite();
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Failed to delete users", e);
+        }
+    }
+
+    private List<User> list(final String sql, final Object... values) {
+        try {
+            ioCounters().recordRead();
+            List<User> users = database.query(connection ->
+                SqlSupport.list(connection, sql, SqlUserRepository::map,
+                    values));
+            users.removeIf(user -> user == null);
+            return users;
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Failed to read users", e);
+            return Collections.emptyList();
+        }
+    }
+
+    private static void bind(
+        final PreparedStatement statement,
+        final User user
+    ) throws SQLException {
+        int column = 0;
+        statement.setString(++column, SqlSupport.toText(user.getId()));
+        statement.setString(++column, user.getUserName());
+        statement.setString(++column, foldCase(user.getUserName()));
+        statement.setString(++column, user.getFullName());
+        statement.setString(++column, user.getHashPassword());
+        statement.setString(++column, user.getUserRole() == null
+            ? null : user.getUserRole().name());
+        statement.setString(++column, user instanceof GovernmentMember member
+            && member.getMinistry() != null
+            ? member.getMinistry().name() : null);
+    }
+
+    /**
+     * Rebuilds a user from its row the way {@code users.json} is read, so
+     * the stored id is kept.
+     *
+     * @param rows the result set, positioned on a row
+     * @return the user, or {@code null} for a row of an unknown role
+     * @throws SQLException if a column cannot be read
+     */
+    private static User map(final ResultSet rows) throws SQLException {
+        JsonObject json = new JsonObject();
+        json.addProperty("id", rows.getString("id").trim());
+        json.addProperty("userName", rows.getString("user_name"));
+        json.addProperty("fullName", rows.getString("full_name"));
+        json.addProperty("password", rows.getString("password"));
+        String role = rows.getString("user_role");
+        json.addProperty("userRole", role);
+        json.addProperty("ministry", rows.getString("ministry"));
+        try {
+            if (UserRole.CITIZEN.name().equals(role)) {
+                return GSON.fromJson(json, Citizen.class);
+            }
+            if (UserRole.GOVERNMENT_MEMBER.name().equals(role)) {
+                return GSON.fromJson(json, GovernmentMember.class);
+            }
+            if (UserRole.PRIME_MINISTER.name().equals(role)) {
+                PrimeMinister pm = GSON.fromJson(json, PrimeMinister.class);
+                try {
+                    PrimeMinister.setInstance(pm);
+                } catch (IllegalStateException e) {
+                    LOGGER.log(
+                        Level.FINE,
+                        "PrimeMinister already set, skipping setInstance."
+                    );
+                }
+                return pm;
+            }
+        } catch (JsonParseException e) {
+            LOGGER.log(Level.WARNING, "Failed to read user row", e);
+            return null;
+        }
+        LOGGER.log(Level.WARNING, "Unknown user role: {0}", role);
+        return null;
+    }
+}
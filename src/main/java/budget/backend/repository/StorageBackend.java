@@ -0,0 +1,45 @@
+package budget.backend.repository;
+
+/**
+ * A storage engine for the application data: one repository of every kind,
+ * all reading and writing the same store. Obtain the backend selected for
+ * the application from {@link RepositoryFactory#shared()}, so every screen
+ * shares the same repositories and their caches.
+ */
+public interface StorageBackend extends AutoCloseable {
+
+    /**
+     * Returns the budget repository of this backend.
+     *
+     * @return the budget repository, the same instance on every call
+     */
+    BudgetRepository budgets();
+
+    /**
+     * Returns the user repository of this backend.
+     *
+     * @return the user repository, the same instance on every call
+     */
+    UserRepository users();
+
+    /**
+     * Returns the change request repository of this backend.
+     *
+     * @return the change request repository, the same instance on every call
+     */
+    ChangeRequestRepository changeRequests();
+
+    /**
+     * Returns the change log repository of this backend.
+     *
+     * @return the change log repository, the same instance on every call
+     */
+    ChangeLogRepository changeLogs();
+
+    /**
+     * Finishes pending background work and releases the store. The
+     * repositories must not be used afterwards.
+     */
+    @Override
+    void close();
+}
@@ -3,19 +3,26 @@ package budget.backend.repository;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.io.Writer;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
-import java.util.OptionalInt;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Function;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.stream.IntStream;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
@@ -35,6 +42,13 @@ import budget.backend.util.PathsUtil;
 /**
  * Repository class for managing user data. Handles loading, saving, and
  * validation of users from JSON storage.
+ *
+ * <p>Users are parsed once into an in-memory store that indexes them by id,
+ * by case-folded username and by role. The store is shared by all
+ * repository instances, refreshed whenever {@code users.json} changes on
+ * disk and replaced by every write of this class. Since a store is never
+ * modified once published, reads run without locking as long as no write
+ * is in progress.
  */
 public class UserRepository
 implements GenericInterfaceRepository<User, UUID> {
@@ -43,10 +57,72 @@ implements GenericInterfaceRepository<User, UUID> {
                     new GsonBuilder().setPrettyPrinting().create();
     private static final Logger LOGGER =
                     Logger.getLogger(UserRepository.class.getName());
-    private static final Object LOCK = new Object();
+    // reads validate an optimistic stamp, saves and deletes take the write
+    // lock and refreshes of the store are serialized by REFRESH_LOCK
+    private static final StampedLock LOCK = new StampedLock();
+    private static final Object REFRESH_LOCK = new Object();
     private static final String CITIZENS_KEY = "citizens";
     private static final String GOVMEMBERS_KEY = "governmentMembers";
     private static final String PRIMEMINISTER_KEY = "primeMinister";
+    private static final AtomicReference<UserStore> STORE =
+            new AtomicReference<>();
+    private static final AtomicLong CACHE_HITS = new AtomicLong();
+    private static final AtomicLong CACHE_MISSES = new AtomicLong();
+
+    private final IoCounters io = new IoCounters();
+
+    /**
+     * Snapshot of the stored users together with their lookup indexes.
+     * When several users share an id or a username the first one in file
+     * order is indexed, matching the linear search it replaces.
+     *
+     * @param stamp the stamp of {@code users.json} the snapshot reflects
+     * @param users every stored user in file order
+     * @param byId users keyed by id
+     * @param byUsername users keyed by case-folded username
+     * @param byRole users grouped by role
+     */
+    private record UserStore(
+        FileStamp stamp,
+        List<User> users,
+        Map<UUID, User> byId,
+        Map<String, User> byUsername,
+        Map<UserRole, List<User>> byRole
+    ) {
+        /**
+         * Indexes the supplied users.
+         *
+         * @param stamp the stamp of the file the users were read from
+         * @param users the users in file order
+         * @return the indexed snapshot
+         */
+        static UserStore of(final FileStamp stamp, final List<User> users) {
+            Map<UUID, User> byId = new HashMap<>();
+            Map<String, User> byUsername = new HashMap<>();
+            Map<UserRole, List<User>> byRole = new EnumMap<>(UserRole.class);
+            for (User user : users) {
+                if (user.getId() != null) {
+                    byId.putIfAbsent(user.getId(), user);
+                }
+                if (user.getUserName() != null) {
+                    byUsername.putIfAbsent(foldCase(user.getUserName()), user);
+                }
+                if (user.getUserRole() != null) {
+                    byRole.computeIfAbsent(
+                        user.getUserRole(),
+                        role -> new ArrayList<>()
+                    ).add(user);
+                }
+            }
+            return new UserStore(
+                stamp,
+                List.copyOf(users),
+                byId,
+                byUsername,
+                byRole
+            );
+        }
+    }
 
     /**
      * Loads all users from the JSON resource.
@@ -56,27 +132,138 @@ implements GenericInterfaceRepository<User, UUID> {
      */
     @Override
     public List<User> load() {
-        synchronized (LOCK) {
-            JsonObject jsonObject = loadJsonObject();
-            if (jsonObject == null || jsonObject.isEmpty()) {
-                LOGGER.warning("JsonObject is null or empty");
-                return Collections.emptyList();
+        return read(store -> {
+            List<User> users = new ArrayList<>();
+            for (User user : store.users()) {
+                users.add(copyUser(user));
             }
+            return users;
+        });
+    }
 
-            List<Citizen> citizens = loadCitizens(jsonObject);
-            List<GovernmentMember> members = loadGovernmentMembers(jsonObject);
-            PrimeMinister pm = loadPrimeMinister(jsonObject);
+    /**
+     * Returns the number of reads answered from the in-memory store.
+     * The count is shared by all repository instances.
+     * @return the cache hit count
+     */
+    public long getCacheHits() {
+        return CACHE_HITS.get();
+    }
 
-            List<User> users = new ArrayList<>();
-            users.addAll(citizens);
-            users.addAll(members);
-            if (pm != null) {
-                users.add(pm);
+    /**
+     * Returns the number of reads that had to parse {@code users.json}.
+     * The count is shared by all repository instances.
+     * @return the cache miss count
+     */
+    public long getCacheMisses() {
+        return CACHE_MISSES.get();
+    }
+
+    /**
+     * Re-reads {@code users.json} if it changed since it was cached and
+     * publishes the result, so that the next read is answered from memory.
+     * Does nothing while the cache is fresh. Meant to be called off the UI
+     * thread, see {@link DataFileWatcher}.
+     */
+    public void reload() {
+        long stamp = LOCK.readLock();
+        try {
+            getStore();
+        } finally {
+            LOCK.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Runs a query against the current user store. The query first runs
+     * under an optimistic stamp: when no write is in progress and the store
+     * matches {@code users.json} it needs no lock at all. Otherwise it runs
+     * under the read lock, after the store has been refreshed if needed.
+     * The query only sees an immutable store, so it may run concurrently
+     * with other readers.
+     * @param query the lookup to run
+     * @param <T> the type of the result
+     * @return the result of the query
+     */
+    private <T> T read(final Function<UserStore, T> query) {
+        long stamp = LOCK.tryOptimisticRead();
+        UserStore store = STORE.get();
+        if (stamp != 0 && isFresh(store) && LOCK.validate(stamp)) {
+            CACHE_HITS.incrementAndGet();
+            return query.apply(store);
+        }
+        stamp = LOCK.readLock();
+        try {
+            return query.apply(getStore());
+        } finally {
+            LOCK.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Tells whether a store still matches {@code users.json} on disk.
+     * @param store the store to check, may be {@code null}
+     * @return {@code true} if the store can be used without re-parsing
+     */
+    private static boolean isFresh(final UserStore store) {
+        return store != null && store.stamp().equals(
+            FileStamp.of(PathsUtil.getUsersWritablePath()));
+    }
+
+    /**
+     * Returns the current user store, re-parsing {@code users.json} when
+     * nothing is cached or the file changed since it was read. Must be
+     * called while holding the read or the write lock of {@code LOCK};
+     * concurrent readers that find the store stale parse the file once.
+     * @return the up-to-date store
+     */
+    private UserStore getStore() {
+        UserStore store = STORE.get();
+        if (isFresh(store)) {
+            CACHE_HITS.incrementAndGet();
+            return store;
+        }
+        synchronized (REFRESH_LOCK) {
+            FileStamp current =
+                FileStamp.of(PathsUtil.getUsersWritablePath());
+            store = STORE.get();
+            if (store != null && store.stamp().equals(current)) {
+                CACHE_HITS.incrementAndGet();
+                return store;
             }
+            CACHE_MISSES.incrementAndGet();
+            io.recordRead();
+            store = UserStore.of(current, readUsers());
+            STORE.set(store);
+            return store;
+        }
+    }
 
-            return users;
+    /**
+     * Parses every user from {@code users.json}.
+     * @return the users grouped as citizens, government members and the
+     *         prime minister, or an empty list when nothing can be read
+     */
+    private List<User> readUsers() {
+        JsonObject jsonObject = loadJsonObject();
+        if (jsonObject == null || jsonObject.isEmpty()) {
+            LOGGER.warning("JsonObject is null or empty");
+            return Collections.emptyList();
+        }
+
+        List<Citizen> citizens = loadCitizens(jsonObject);
+        List<GovernmentMember> members = loadGovernmentMembers(jsonObject);
+        PrimeMinister pm = loadPrimeMinister(jsonObject);
+
+        List<User> users = new ArrayList<>();
+        users.addAll(citizens);
+        users.addAll(members);
+        if (pm != null) {
+            users.add(pm);
         }
+        return users;
     }
+
     /**
     * Loads all Citizen users from the JSON object.
     *
@@ -175,16 +362,12 @@ implements GenericInterfaceRepository<User, UUID> {
      */
     @Override
     public Optional<User> findById(UUID id) {
-        synchronized (LOCK) {
-            if (id == null) {
-                LOGGER.warning("Cannot search with a null id");
-                return Optional.empty();
-            }
-            return load()
-                    .stream()
-                    .filter(user -> user.getId().equals(id))
-                    .findFirst();
+        if (id == null) {
+            LOGGER.warning("Cannot search with a null id");
+            return Optional.empty();
         }
+        return read(store -> Optional.ofNullable(store.byId().get(id))
+                .map(UserRepository::copyUser));
     }
 
     /**
@@ -196,16 +379,13 @@ implements GenericInterfaceRepository<User, UUID> {
      * when the userName is null or no entry exists
      */
     public Optional<User> findByUsername(final String username) {
-        synchronized (LOCK) {
-            if (username == null || username.isBlank()) {
-                LOGGER.warning("Cannot search with a null or blank userName");
-                return Optional.empty();
-            }
-            return load()
-                    .stream()
-                    .filter(u -> u.getUserName().equalsIgnoreCase(username))
-                    .findFirst();
+        if (username == null || username.isBlank()) {
+            LOGGER.warning("Cannot search with a null or blank userName");
+            return Optional.empty();
         }
+        String key = foldCase(username);
+        return read(store -> Optional.ofNullable(store.byUsername().get(key))
+                .map(UserRepository::copyUser));
     }
 
     /**
@@ -218,41 +398,70 @@ implements GenericInterfaceRepository<User, UUID> {
      */
     @Override
     public void save(final User user) {
-        synchronized (LOCK) {
-            if (user == null || user.getUserName() == null
-                    || user.getUserName().isBlank()) {
-                LOGGER.warning("Cannot save user: null or invalid username.");
+        if (user == null || user.getUserName() == null
+                || user.getUserName().isBlank()) {
+            LOGGER.warning("Cannot save user: null or invalid username.");
+            return;
+        }
+        saveAll(List.of(user));
+    }
+
+    /**
+     * Saves a batch of users with a single write of {@code users.json}.
+     * Every user replaces the stored user with the same {@code id} or is
+     * added. Null users and users without a valid username are skipped.
+     * @param users the users to save, ignored when {@code null}
+     */
+    @Override
+    public void saveAll(final List<User> users) {
+        long stamp = LOCK.writeLock();
+        try {
+            if (users == null) {
+                LOGGER.warning("Cannot save a null list of users");
                 return;
             }
-            List<User> users = new ArrayList<>(load());
-            OptionalInt index = findIndexById(users, user.getId());
-            if (index.isPresent()) {
-                users.set(index.getAsInt(), user);
-            } else {
-                users.add(user);
+            List<User> stored = new ArrayList<>(getStore().users());
+            Map<UUID, Integer> positions = indexById(stored);
+            boolean changed = false;
+            for (User user : users) {
+                if (user == null || user.getUserName() == null
+                        || user.getUserName().isBlank()) {
+                    LOGGER.warning(
+                        "Cannot save user: null or invalid username.");
+                    continue;
+                }
+                Integer index = positions.get(user.getId());
+                if (index != null) {
+                    stored.set(index, copyUser(user));
+                } else {
+                    positions.put(user.getId(), stored.size());
+                    stored.add(copyUser(user));
+                }
+                changed = true;
+            }
+            if (changed) {
+                saveToFile(stored);
             }
-            saveToFile(users);
+        } finally {
+            LOCK.unlockWrite(stamp);
         }
     }
 
     /**
-    * Helper method that finds the index of a User in a list by its ID.
+    * Helper method that maps the ID of every user in a list to its index.
     * This is a utility method used internally by other repository operations
-    * to locate existing users for update or deletion purposes.
+    * to locate existing users for update purposes. When several users share
+    * an ID the first one is kept, like the id index of the store does.
     *
-    * @param users the list of users to search through
-    * @param id the ID of the user to locate
-    * @return an OptionalInt containing the index if found, or empty if no
-    *         user with the specified ID exists in the list
+    * @param users the users to index
+    * @return a map from user ID to list index
     */
-    private OptionalInt findIndexById(
-        final List<User> users,
-        final UUID id
-    ) {
-        return IntStream
-                .range(0, users.size())
-                .filter(i -> users.get(i).getId().equals(id))
-                .findFirst();
+    private static Map<UUID, Integer> indexById(final List<User> users) {
+        Map<UUID, Integer> positions = new HashMap<>();
+        for (int i = 0; i < users.size(); i++) {
+            positions.putIfAbsent(users.get(i).getId(), i);
+        }
+        return positions;
     }
 
     /**
@@ -263,15 +472,11 @@ implements GenericInterfaceRepository<User, UUID> {
      */
     @Override
     public boolean existsById(UUID id) {
-        synchronized (LOCK) {
-            if (id == null) {
-                LOGGER.warning("Cannot search with a null id");
-                return false;
-            }
-            return load()
-                    .stream()
-                    .anyMatch(user -> user.getId().equals(id));
+        if (id == null) {
+            LOGGER.warning("Cannot search with a null id");
+            return false;
         }
+        return read(store -> store.byId().containsKey(id));
     }
 
     /**
@@ -281,14 +486,11 @@ implements GenericInterfaceRepository<User, UUID> {
      * @return true if the username exists, false otherwise
      */
     public boolean usernameExists(final String username) {
-        synchronized (LOCK) {
-            if (username == null || username.isBlank()) {
-                return false;
-            }
-            return load()
-                    .stream()
-                    .anyMatch(u -> u.getUserName().equalsIgnoreCase(username));
+        if (username == null || username.isBlank()) {
+            return false;
         }
+        String key = foldCase(username);
+        return read(store -> store.byUsername().containsKey(key));
     }
 
     /**
@@ -297,11 +499,8 @@ implements GenericInterfaceRepository<User, UUID> {
      * @return true if there is at least one user with role PRIME_MINISTER
      */
     public boolean primeMinisterExists() {
-        synchronized (LOCK) {
-            return load()
-                    .stream()
-                    .anyMatch(u -> u.getUserRole() == UserRole.PRIME_MINISTER);
-        }
+        return read(
+            store -> store.byRole().containsKey(UserRole.PRIME_MINISTER));
     }
 
     /**
@@ -313,21 +512,75 @@ implements GenericInterfaceRepository<User, UUID> {
      */
     @Override
     public void delete(User user) {
-        synchronized (LOCK) {
-            if (user == null) {
-                LOGGER.warning("Cannot delete a null user");
+        if (user == null) {
+            LOGGER.warning("Cannot delete a null user");
+            return;
+        }
+        deleteAll(List.of(user));
+    }
+
+    /**
+     * Deletes a batch of users with at most one write of {@code users.json}.
+     * The file is only rewritten when at least one of the users exists.
+     *
+     * @param users the users to remove, ignored when {@code null}
+     */
+    @Override
+    public void deleteAll(List<User> users) {
+        long stamp = LOCK.writeLock();
+        try {
+            if (users == null) {
+                LOGGER.warning("Cannot delete a null list of users");
                 return;
             }
-
-            List<User> users = new ArrayList<>(load());
-            OptionalInt index = findIndexById(users, user.getId());
-            if (index.isPresent()) {
-                users.remove(index.getAsInt());
-                saveToFile(users);
-            } else {
-                LOGGER.warning("Can't delete User cause it doesn't exist");
+            UserStore store = getStore();
+            Set<User> removed = Collections.newSetFromMap(
+                new IdentityHashMap<>());
+            for (User user : users) {
+                if (user == null) {
+                    continue;
+                }
+                User stored = store.byId().get(user.getId());
+                if (stored != null) {
+                    removed.add(stored);
+                } else {
+                    LOGGER.warning("Can't delete User cause it doesn't exist");
+                }
+            }
+            if (removed.isEmpty()) {
+                return;
             }
+            List<User> remaining = new ArrayList<>(store.users());
+            remaining.removeIf(removed::contains);
+            saveToFile(remaining);
+        } finally {
+            LOCK.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Retrieves the users with the supplied identifiers.
+     *
+     * @param ids the identifiers to look up, {@code null} elements are
+     *            skipped
+     * @return copies of the matching users in the order of {@code ids}
+     */
+    @Override
+    public List<User> findAllById(List<UUID> ids) {
+        if (ids == null) {
+            LOGGER.warning("Cannot search with a null list of ids");
+            return Collections.emptyList();
         }
+        return read(store -> {
+            List<User> found = new ArrayList<>();
+            for (UUID id : new LinkedHashSet<>(ids)) {
+                User user = id == null ? null : store.byId().get(id);
+                if (user != null) {
+                    found.add(copyUser(user));
+                }
+            }
+            return found;
+        });
     }
 
     /**
@@ -335,27 +588,30 @@ implements GenericInterfaceRepository<User, UUID> {
      * Clears list and updates the JSON file.
      */
     public void deleteAllUsers() {
-        synchronized (LOCK) {
-            List<User> users = new ArrayList<>(load());
-            users.clear();
-            saveToFile(users);
+        long stamp = LOCK.writeLock();
+        try {
+            saveToFile(new ArrayList<>());
+        } finally {
+            LOCK.unlockWrite(stamp);
         }
     }
 
     /**
      * Serializes the supplied users collection to the backing JSON
-     * file using the configured {@link Gson} instance. Any I/O failure is
+     * file using the configured {@link Gson} instance. The file is replaced
+     * atomically through the shared {@link GroupCommitWriter}. Any I/O
+     * failure is
      * logged and swallowed so that callers are not forced to handle checked
-     * exceptions.
+     * exceptions. On success the in-memory store is replaced by the written
+     * users, grouped the way a reload would return them. On failure it is
+     * dropped so that the next read goes back to the file.
      *
      * @param users the collection of users that should be persisted
      */
     private void saveToFile(List<User> users) {
         Path target = PathsUtil.getUsersWritablePath();
-        try (Writer writer = Files.newBufferedWriter(
-                            target,
-                            StandardCharsets.UTF_8)) {
-
+        List<User> written = new ArrayList<>();
+        try {
             List<Citizen> citizens = new ArrayList<>();
             List<GovernmentMember> governmentMembers = new ArrayList<>();
             PrimeMinister primeMinister = null;
@@ -402,11 +658,53 @@ implements GenericInterfaceRepository<User, UUID> {
                 rootObject.add(PRIMEMINISTER_KEY, pmObject);
             }
 
-            GSON.toJson(rootObject, writer);
+            GroupCommitWriter.shared().writeAndWait(
+                target,
+                writer -> GSON.toJson(rootObject, writer)
+            );
 
+            written.addAll(citizens);
+            written.addAll(governmentMembers);
+            if (primeMinister != null) {
+                written.add(primeMinister);
+            }
         } catch (IOException e) {
             LOGGER.log(Level.SEVERE, "Failed to persist users", e);
+            STORE.set(null);
+            return;
         }
+        io.recordWrite();
+        STORE.set(UserStore.of(FileStamp.of(target), written));
+    }
+
+    /**
+     * Returns the I/O counters of this repository.
+     * @return the counters
+     */
+    IoCounters ioCounters() {
+        return io;
+    }
+
+    /**
+     * Folds a username to the key of the username index, so that lookups
+     * are case-insensitive.
+     *
+     * @param username the username to fold
+     * @return the index key
+     */
+    static String foldCase(final String username) {
+        return username.toUpperCase(Locale.ROOT).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Creates a detached copy of a user, so that callers cannot modify the
+     * instances held by the store.
+     *
+     * @param user the user to copy
+     * @return the copy, of the same concrete type
+     */
+    private static User copyUser(final User user) {
+        return GSON.fromJson(GSON.toJsonTree(user), user.getClass());
     }
     /**
     * Loads the JSON object from the users.json file.
@@ -1,16 +1,25 @@
 package budget.backend.service;
 
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
 import budget.backend.model.domain.Budget;
 import budget.backend.model.domain.BudgetItem;
 import budget.backend.repository.BudgetRepository;
+import budget.backend.repository.BudgetSnapshot;
+import budget.backend.repository.BudgetTotals;
+import budget.backend.repository.BudgetYearRange;
+import budget.backend.repository.ItemValueMatrix;
 import budget.backend.util.Regression;
+import budget.backend.util.TopN;
 import budget.constants.Limits;
 import budget.frontend.constants.Constants;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
@@ -26,13 +35,62 @@ import javafx.scene.chart.XYChart.Series;
  *                                  (revenue, expense, net result)
  * when budget items are modified, and preparing data
  *                                  for JavaFX charts and tables.
+ * Every chart is computed from a single {@link BudgetSnapshot}, so it shows
+ * one consistent state of the budgets even while changes are approved.
+ * Charts over several years read their years as one {@link BudgetYearRange}
+ * and build every series in a single pass over it; the trend charts of
+ * totals, net results and loans are answered from the {@link BudgetTotals}
+ * of the years without reading any items. The top items of a year are
+ * selected once per year, side, loan option and count, and reused until
+ * the budget of that year changes.
+ * A change of one item moves the totals of its budget by the difference
+ * (see {@link #applyItemValue(Budget, BudgetItem, double)}); a full
+ * recomputation checks them every {@value #VERIFY_INTERVAL} changes made
+ * through any instance, or after every change when the
+ * {@value #VERIFY_TOTALS_PROPERTY} system property is {@code true}.
  */
 public class BudgetService {
 
+    /** System property that checks the totals after every item change. */
+    public static final String VERIFY_TOTALS_PROPERTY = "budget.verifyTotals";
+    /** Number of item changes between two checks of the totals. */
+    public static final int VERIFY_INTERVAL = 64;
+    private static final Logger LOGGER =
+            Logger.getLogger(BudgetService.class.getName());
+    // totals may differ from the items by this fraction of their magnitude
+    private static final double TOTALS_TOLERANCE = 1e-9;
+    // shared, since each service counts the changes it applies
+    private static final AtomicLong ITEM_CHANGES = new AtomicLong();
+
     private final BudgetRepository budgetRepository;
     private static final int REGRESSION_START_YEAR = 2019;
     private static final int REGRESSION_END_YEAR = 2029;
+    // valid while the snapshot holds the same budget instance for the year
+    private final Map<TopItemsKey, TopItems> topItemsCache =
+            new ConcurrentHashMap<>();
 
+    /**
+     * Identifies a top items selection.
+     *
+     * @param year the budget year
+     * @param isRevenue true for revenue items, false for expense items
+     * @param includeLoans true if loan items are included
+     * @param topN the number of items selected
+     */
+    private record TopItemsKey(
+        int year,
+        boolean isRevenue,
+        boolean includeLoans,
+        int topN
+    ) { }
+
+    /**
+     * A cached top items selection.
+     *
+     * @param budget the budget the items were selected from
+     * @param items the selected items, largest value first
+     */
+    private record TopItems(Budget budget, List<BudgetItem> items) { }
 
     /**
      * Constructs a BudgetService with the specified repository.
@@ -74,6 +132,77 @@ public class BudgetService {
         budget.setNetResult(netResult);
     }
 
+    /**
+     * Sets the value of a budget item and moves the budget totals by the
+     * difference, without summing the other items. The totals are checked
+     * against a full recomputation periodically, or after every change
+     * when {@value #VERIFY_TOTALS_PROPERTY} is set.
+     *
+     * @param budget the budget containing the item; must not be null
+     * @param item the item to change; must not be null
+     * @param newValue the new value of the item
+     * @return the previous value of the item
+     * @throws IllegalArgumentException if budget or item is null
+     */
+    public double applyItemValue(
+            Budget budget,
+            BudgetItem item,
+            double newValue) {
+        if (budget == null) {
+            throw new IllegalArgumentException("Budget cannot be null");
+        }
+        double oldValue = budget.applyItemValue(item, newValue);
+        if (Boolean.getBoolean(VERIFY_TOTALS_PROPERTY)
+            || ITEM_CHANGES.incrementAndGet() % VERIFY_INTERVAL == 0) {
+            verifyTotals(budget);
+        }
+        return oldValue;
+    }
+
+    /**
+     * Checks the totals of a budget against a full recomputation from its
+     * items and corrects them when they drifted apart by more than a
+     * rounding error relative to their size.
+     *
+     * @param budget the budget to check; must not be null
+     * @return true if the totals matched the items, false if they were
+     *         corrected
+     * @throws IllegalArgumentException if budget is null
+     */
+    public boolean verifyTotals(Budget budget) {
+        if (budget == null) {
+            throw new IllegalArgumentException("Budget cannot be null");
+        }
+        double totalRevenue = calculateTotalRevenue(budget);
+        double totalExpense = calculateTotalExpense(budget);
+        boolean consistent =
+            isClose(totalRevenue, budget.getTotalRevenue())
+            && isClose(totalExpense, budget.getTotalExpense())
+            && isClose(totalRevenue - totalExpense, budget.getNetResult());
+        if (!consistent) {
+            LOGGER.warning(String.format(
+                "Totals of budget %d drifted from its items, recalculating",
+                budget.getYear()));
+            recalculateBudgetTotals(budget);
+        }
+        return consistent;
+    }
+
+    /**
+     * Tells whether two totals differ by no more than
+     * {@link #TOTALS_TOLERANCE} of the larger one, or of 1 for totals
+     * below 1.
+     *
+     * @param expected the total computed from the items
+     * @param actual the total recorded on the budget
+     * @return true if the totals are equal up to rounding
+     */
+    private static boolean isClose(double expected, double actual) {
+        double scale = Math.max(1.0,
+            Math.max(Math.abs(expected), Math.abs(actual)));
+        return Math.abs(expected - actual) <= TOTALS_TOLERANCE * scale;
+    }
+
     /**
      * Calculates the total revenue by summing all revenue budget items.
      *
@@ -177,13 +306,13 @@ public class BudgetService {
                                                             int year,
                                                             boolean isRevenue
     ) {
+        Budget budget = getBudgetForYear(budgetRepository.snapshot(), year);
         Series<String, Number> series =
-                                getTopBudgetItemsSeries(year,
+                                createTopBudgetItemsSeries(budget,
                                                         Constants.TOP_N_ITEMS,
                                                         isRevenue,
                                                         true
                                                     );
-        Budget budget = getBudgetForYear(year);
 
         double total = isRevenue
         ? calculateTotalRevenue(budget)
@@ -203,7 +332,7 @@ public class BudgetService {
 
     /**
      * Creates a Series for displaying loans trend over years.
-     * Filters budget items that are "Loans".
+     * The loans of a year are read from its totals.
      *
      * @param startYear the starting year (inclusive)
      * @param endYear the ending year (exclusive)
@@ -225,25 +354,14 @@ public class BudgetService {
                             : Constants.EXPENSE_LOANS_LABEL
                         );
 
+        BudgetYearRange range =
+                budgetRepository.findByYearRange(startYear, endYear);
         for (int year = startYear; year < endYear; year++) {
-            Optional<Budget> budgetOpt = budgetRepository.findById(year);
-
-            if (budgetOpt.isPresent()) {
-                Budget budget = budgetOpt.get();
-
-                // Sum all loan items for this year
-                double totalLoans = budget.getItems().stream()
-                    .filter(item -> item != null
-                        && item.getIsRevenue() == isRevenue
-                        && item.getName().equals(Constants.LOANS_ITEM_NAME))
-                    .mapToDouble(BudgetItem::getValue)
-                    .sum();
-
-                loansSeries.getData().add(new Data<>(year, totalLoans));
-            } else {
-                // Budget doesn't exist for this year, add 0
-                loansSeries.getData().add(new Data<>(year, 0.0));
-            }
+            // a year without a budget has no loans
+            double totalLoans = range.findTotals(year)
+                .map(totals -> totals.loans(isRevenue))
+                .orElse(0.0);
+            loansSeries.getData().add(new Data<>(year, totalLoans));
         }
 
         return loansSeries;
@@ -296,62 +414,89 @@ public class BudgetService {
             Budget budget,
             int topN,
             boolean isRevenue) {
-        return budget.getItems().stream()
-            .filter(item -> item != null
-                && item.getIsRevenue() == isRevenue
-                && !item.getName().equals(Constants.LOANS_ITEM_NAME))
-            .sorted(Comparator.comparingDouble(BudgetItem::getValue).reversed())
-            .limit(topN)
+        return getTopItems(budget, topN, isRevenue, false).stream()
             .map(BudgetItem::getName)
             .collect(Collectors.toList());
     }
 
     /**
-     * Finds the value of a specific budget item in a budget.
+     * Returns the top N items of a budget by value, from the cache while
+     * the budget of the year has not changed since they were selected.
      *
-     * @param budget the budget to search in
-     * @param itemName the name of the item to find
+     * @param budget the budget of the snapshot to select from
+     * @param topN the number of top items to select
      * @param isRevenue true for revenue items, false for expense items
-     * @return Optional containing the item value if found, empty otherwise
+     * @param includeLoans true to include loan items, false to exclude them
+     * @return unmodifiable list of the items, largest value first
      */
-    private Optional<Double> findItemValueInBudget(
+    private List<BudgetItem> getTopItems(
             Budget budget,
-            String itemName,
-            boolean isRevenue) {
-        return budget.getItems().stream()
-            .filter(item -> item != null
+            int topN,
+            boolean isRevenue,
+            boolean includeLoans) {
+        TopItemsKey key = new TopItemsKey(
+            budget.getYear(), isRevenue, includeLoans, topN);
+        TopItems cached = topItemsCache.get(key);
+        if (cached != null && cached.budget() == budget) {
+            return cached.items();
+        }
+        List<BudgetItem> items =
+            selectTopItems(budget, topN, isRevenue, includeLoans);
+        topItemsCache.put(key, new TopItems(budget, items));
+        return items;
+    }
+
+    /**
+     * Selects the top N items of a budget by value with a bounded heap.
+     * Items of equal value keep their order in the budget.
+     *
+     * @param budget the budget to select from
+     * @param topN the number of top items to select
+     * @param isRevenue true for revenue items, false for expense items
+     * @param includeLoans true to include loan items, false to exclude them
+     * @return unmodifiable list of the items, largest value first
+     */
+    private static List<BudgetItem> selectTopItems(
+            Budget budget,
+            int topN,
+            boolean isRevenue,
+            boolean includeLoans) {
+        List<BudgetItem> items = budget.getItems();
+        TopN top = new TopN(topN);
+        for (int i = 0; i < items.size(); i++) {
+            BudgetItem item = items.get(i);
+            if (item != null
                 && item.getIsRevenue() == isRevenue
-                && itemName.equals(item.getName()))
-            .findFirst()
-            .map(BudgetItem::getValue);
+                && (includeLoans
+                    || !Constants.LOANS_ITEM_NAME.equals(item.getName()))) {
+                top.offer(item.getValue(), i);
+            }
+        }
+        List<BudgetItem> selected = new ArrayList<>();
+        for (int position : top.positions()) {
+            selected.add(items.get(position));
+        }
+        return List.copyOf(selected);
     }
 
     /**
      * Creates a Series for a specific item showing its trend over years.
      *
+     * @param values the item values of the years to show
      * @param itemName the name of the item
-     * @param startYear the starting year (inclusive)
-     * @param endYear the ending year (exclusive)
-     * @param isRevenue true for revenue items, false for expense items
-     * @return Series containing the item's values across years
+     * @return Series containing the item's values across years, 0 for the
+     *         years without the item
      */
     private Series<Number, Number> createItemTrendSeries(
-            String itemName,
-            int startYear,
-            int endYear,
-            boolean isRevenue) {
+            ItemValueMatrix values,
+            String itemName) {
         Series<Number, Number> itemSeries = new Series<>();
         itemSeries.setName(itemName);
 
-        for (int year = startYear; year < endYear; year++) {
-            Optional<Budget> budgetOpt = budgetRepository.findById(year);
-
-            double value = budgetOpt
-                .flatMap(budget ->
-                            findItemValueInBudget(budget, itemName, isRevenue))
-                .orElse(0.0);
-
-            itemSeries.getData().add(new Data<>(year, value));
+        double[] row = values.getValues(itemName);
+        for (int i = 0; i < row.length; i++) {
+            itemSeries.getData()
+                .add(new Data<>(values.getStartYear() + i, row[i]));
         }
 
         return itemSeries;
@@ -384,15 +529,18 @@ public class BudgetService {
         validateYear(referenceYear);
         validateTopN(topN);
 
-        Budget referenceBudget = getBudgetForYear(referenceYear);
+        BudgetSnapshot snapshot = budgetRepository.snapshot();
+        Budget referenceBudget = getBudgetForYear(snapshot, referenceYear);
         List<String> topItemNames =
                 getTopItemNames(referenceBudget, topN, isRevenue);
+        ItemValueMatrix values =
+                snapshot.range(startYear, endYear).itemValues(isRevenue);
 
         Map<String, Series<Number, Number>> seriesMap = new HashMap<>();
 
         for (String itemName : topItemNames) {
-            Series<Number, Number> itemSeries = createItemTrendSeries(
-                itemName, startYear, endYear, isRevenue);
+            Series<Number, Number> itemSeries =
+                    createItemTrendSeries(values, itemName);
             seriesMap.put(itemName, itemSeries);
         }
 
@@ -419,18 +567,14 @@ public class BudgetService {
         Series<Number, Number> expenseSeries = new Series<>();
         expenseSeries.setName(Constants.EXPENSES_LABEL);
 
-        for (int year = startYear; year < endYear; year++) {
-            Optional<Budget> budgetOpt = budgetRepository.findById(year);
-
-            if (budgetOpt.isEmpty()) {
-                continue;
-            }
-
-            Budget budget = budgetOpt.get();
+        for (BudgetTotals totals : budgetRepository
+                                .findByYearRange(startYear, endYear)
+                                .getTotals()) {
+            int year = totals.year();
             revenueSeries.getData()
-                            .add(new Data<>(year, budget.getTotalRevenue()));
+                            .add(new Data<>(year, totals.totalRevenue()));
             expenseSeries.getData()
-                            .add(new Data<>(year, budget.getTotalExpense()));
+                            .add(new Data<>(year, totals.totalExpense()));
         }
         return Map.of(Constants.REVENUE_LABEL,
                         revenueSeries,
@@ -456,15 +600,11 @@ public class BudgetService {
         Series<Number, Number> netSeries = new Series<>();
         netSeries.setName(Constants.NET_RESULT_LABEL);
 
-        for (int year = startYear; year < endYear; year++) {
-            Optional<Budget> budgetOpt = budgetRepository.findById(year);
-
-            if (budgetOpt.isEmpty()) {
-                continue;
-            }
-
-            Budget budget = budgetOpt.get();
-            netSeries.getData().add(new Data<>(year, budget.getNetResult()));
+        for (BudgetTotals totals : budgetRepository
+                                .findByYearRange(startYear, endYear)
+                                .getTotals()) {
+            netSeries.getData()
+                .add(new Data<>(totals.year(), totals.netResult()));
         }
         return netSeries;
     }
@@ -491,23 +631,36 @@ public class BudgetService {
         validateYear(year);
         validateTopN(topN);
 
+        Budget budget = getBudgetForYear(budgetRepository.snapshot(), year);
+        return createTopBudgetItemsSeries(
+                                    budget, topN, isRevenue, includeLoans);
+    }
+
+    /**
+     * Creates the Series of the top N items of a budget.
+     *
+     * @param budget the budget to take the items from
+     * @param topN the number of top items to include
+     * @param isRevenue true for revenue items, false for expense items
+     * @param includeLoans true to include loan items, false to exclude them
+     * @return Series containing top N items
+     */
+    private Series<String, Number> createTopBudgetItemsSeries(
+                                        Budget budget,
+                                        int topN,
+                                        boolean isRevenue,
+                                        boolean includeLoans
+    ) {
         Series<String, Number> series = new Series<>();
         series.setName(isRevenue
                         ? Constants.TOP_REVENUE_LABEL
                         : Constants.TOP_EXPENSE_LABEL
                     );
 
-        Budget budget = getBudgetForYear(year);
-        budget.getItems().stream()
-            .filter(item -> item != null
-                && item.getIsRevenue() == isRevenue
-                && (includeLoans
-                    || !item.getName().equals(Constants.LOANS_ITEM_NAME)))
-            .sorted(Comparator.comparingDouble(BudgetItem::getValue).reversed())
-            .limit(topN)
-            .forEach(item -> series.getData().add(
-                new Data<>(item.getName(), item.getValue())
-            ));
+        for (BudgetItem item
+                : getTopItems(budget, topN, isRevenue, includeLoans)) {
+            series.getData().add(new Data<>(item.getName(), item.getValue()));
+        }
         return  series;
     }
 
@@ -555,13 +708,16 @@ public class BudgetService {
      * Creates a Series for year comparison by loading budget
      *                                                      and adding metrics.
      *
+     * @param snapshot the budgets to read the year from
      * @param year the year to create Series for
      * @return Series containing Revenue and Expense data points
      * @throws IllegalArgumentException if budget doesn't exist
      *                                                       or year is invalid
      */
-    private Series<String, Number> createYearComparisonSeries(int year) {
-        Budget budget = getBudgetForYear(year);
+    private Series<String, Number> createYearComparisonSeries(
+            BudgetSnapshot snapshot,
+            int year) {
+        Budget budget = getBudgetForYear(snapshot, year);
         Series<String, Number> series = createYearSeries(year);
         addBudgetMetricsToSeries(series, budget);
         return series;
@@ -587,8 +743,11 @@ public class BudgetService {
         validateYear(year1);
         validateYear(year2);
 
-        Series<String, Number> year1Series = createYearComparisonSeries(year1);
-        Series<String, Number> year2Series = createYearComparisonSeries(year2);
+        BudgetSnapshot snapshot = budgetRepository.snapshot();
+        Series<String, Number> year1Series =
+                                createYearComparisonSeries(snapshot, year1);
+        Series<String, Number> year2Series =
+                                createYearComparisonSeries(snapshot, year2);
 
         return Map.of(
             String.valueOf(year1), year1Series,
@@ -609,7 +768,7 @@ public class BudgetService {
     throws IllegalArgumentException {
         validateYear(year);
 
-        Budget budget = getBudgetForYear(year);
+        Budget budget = getBudgetForYear(budgetRepository.snapshot(), year);
         Series<String, Number> series = new Series<>();
         series.setName(Constants.BUDGET_OVERVIEW_LABEL);
 
@@ -636,7 +795,7 @@ public class BudgetService {
             throws IllegalArgumentException {
         validateYear(year);
 
-        Budget budget = getBudgetForYear(year);
+        Budget budget = getBudgetForYear(budgetRepository.snapshot(), year);
         var revenueData = new PieChart.Data(
                             Constants.REVENUE_LABEL, budget.getTotalRevenue());
         var expenseData = new PieChart.Data(
@@ -724,14 +883,15 @@ public class BudgetService {
     /**
      * Retrieves and validates budget for a given year.
      *
+     * @param snapshot the budgets to read the year from
      * @param year the year to retrieve budget for
      * @return the Budget for the specified year
      * @throws IllegalArgumentException if budget doesn't exist
      *                                              or year is invalid
      */
-    private Budget getBudgetForYear(int year) {
+    private Budget getBudgetForYear(BudgetSnapshot snapshot, int year) {
         validateYear(year);
-        Optional<Budget> budgetOpt = budgetRepository.findById(year);
+        Optional<Budget> budgetOpt = snapshot.findByYear(year);
 
         if (budgetOpt.isEmpty()) {
             throw new IllegalArgumentException(
@@ -741,8 +901,10 @@ public class BudgetService {
     }
     /**
      * Updates the value of a specific budget item,
-     * recalculates the budget totals,
+     * moves the budget totals by the difference,
      * and persists the changes using the repository.
+     * The change is made on a copy of the current budget and saved as one
+     * step, so concurrent updates of the same year are not lost.
      *
      * @param itemId   the ID of the item to update
      * @param year     the year of the budget containing the item
@@ -755,31 +917,24 @@ public class BudgetService {
     ) throws IllegalArgumentException {
         validateYear(year);
 
-        Optional<Budget> budgetOpt = budgetRepository.findById(year);
-
-        if (budgetOpt.isEmpty()) {
+        boolean updated = budgetRepository.updateBudget(year, budget -> {
+            BudgetItem item = budgetRepository
+                .findItemById(itemId, budget, isRevenue)
+                .orElseThrow(() -> new IllegalArgumentException(
+                    String.format(
+                        "Item with ID %d not found in budget year %d",
+                        itemId, year
+                    )
+                ));
+            applyItemValue(budget, item, newValue);
+        });
+
+        if (!updated) {
             throw new IllegalArgumentException(
                 String.format(
                     "Cannot update item. Budget for year %d not found.", year
                 )
             );
         }
-        Budget budget = budgetOpt.get();
-        Optional<BudgetItem> itemOpt =
-                    budgetRepository.findItemById(itemId, budget, isRevenue);
-
-        if (itemOpt.isPresent()) {
-            BudgetItem item = itemOpt.get();
-            item.setValue(newValue);
-            recalculateBudgetTotals(budget);
-            budgetRepository.save(budget);
-        } else {
-            throw new IllegalArgumentException(
-                String.format(
-                    "Item with ID %d not found in budget year %d",
-                    itemId, year
-                )
-            );
-        }
     }
 }
@@ -10,6 +10,9 @@ import budget.backend.model.domain.PendingChange;
 import budget.backend.model.domain.user.User;
 import budget.backend.model.enums.Status;
 import budget.backend.repository.ChangeLogRepository;
+import budget.backend.repository.ChangeQuery;
+import budget.backend.repository.Page;
+import budget.backend.util.TimestampUtils;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -58,16 +61,17 @@ public class ChangeLogService {
         }
         validateRecordChangeInputs(change, user);
 
-        String timestamp = LocalDateTime.now().format(FORMATTER);
+        LocalDateTime now = LocalDateTime.now();
         int logId = changeLogRepository.generateId();
         ChangeLog log = new ChangeLog(
                 logId,
                 change.getBudgetItemId(),
                 change.getOldValue(),
                 change.getNewValue(),
-                timestamp,
+                now.format(FORMATTER),
                 user.getFullName(),
-                user.getId()
+                user.getId(),
+                TimestampUtils.toEpochMillis(now)
         );
 
         changeLogRepository.save(log);
@@ -132,13 +136,26 @@ public class ChangeLogService {
      */
     public ObservableList<ChangeLog> getAllChangeLogsSortedByDate() {
         return changeLogRepository.load().stream()
-                .sorted(Comparator.comparing((ChangeLog log) ->
-                    LocalDateTime.parse(
-                        log.submittedDate(),
-                        FORMATTER)).reversed())
+                .sorted(Comparator.comparingLong(ChangeLog::submittedAt)
+                    .reversed())
                 .collect(Collectors.collectingAndThen(
                     Collectors.toList(),
                     FXCollections::observableArrayList
                 ));
     }
+
+    /**
+     * Retrieves one page of ChangeLog entries. Pass {@code null} as the
+     * cursor for the first page and the cursor of the previous page after
+     * that.
+     *
+     * @param query the filters, order and page size
+     * @param cursor the cursor of the previous page, or {@code null}
+     * @return the page of ChangeLog entries
+     * @throws IllegalArgumentException if query is null or the cursor is
+     *         invalid for the query
+     */
+    public Page<ChangeLog> getChangeLogPage(ChangeQuery query, String cursor) {
+        return changeLogRepository.findPage(query, cursor);
+    }
 }
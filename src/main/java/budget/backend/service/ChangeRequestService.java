@@ -1,11 +1,7 @@
 package budget.backend.service;
 
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.Comparator;
 import java.util.Optional;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 import budget.backend.exceptions.ValidationException;
 import budget.backend.model.domain.Budget;
@@ -15,7 +11,9 @@ import budget.backend.model.domain.user.PrimeMinister;
 import budget.backend.model.domain.user.User;
 import budget.backend.model.enums.Status;
 import budget.backend.repository.BudgetRepository;
+import budget.backend.repository.ChangeQuery;
 import budget.backend.repository.ChangeRequestRepository;
+import budget.backend.repository.Page;
 import budget.backend.repository.UserRepository;
 import budget.constants.Limits;
 import budget.constants.Message;
@@ -36,8 +34,6 @@ public class ChangeRequestService {
     private final BudgetValidationService budgetValidationService;
     private final ChangeLogService changeLogService;
     private final BudgetService budgetService;
-    private static final DateTimeFormatter FORMATTER =
-    DateTimeFormatter.ISO_LOCAL_DATE_TIME;
 
     /**
      * Constructor for ChangeRequestService.
@@ -253,11 +249,11 @@ public class ChangeRequestService {
         validatePrimeMinister(pm);
         validateRequestStatus(change);
 
-        Budget budget = findBudget(change.getBudgetItemYear());
+        requireBudget(change.getBudgetItemYear());
         User userWhoProposedChange = findUser(change.getRequestById());
 
         if (newStatus == Status.APPROVED) {
-            processApprovedChange(change, budget, userWhoProposedChange);
+            processApprovedChange(change, userWhoProposedChange);
         } else if (newStatus == Status.REJECTED) {
             change.reject();
         }
@@ -295,17 +291,16 @@ public class ChangeRequestService {
     }
 
     /**
-     * Finds and retrieves a budget for the given year.
+     * Checks that a budget is stored for the given year.
      * @param year the year of the budget to find
-     * @return the Budget for the specified year
      * @throws IllegalStateException if the budget is not found
      */
-    private Budget findBudget(int year)
+    private void requireBudget(int year)
     throws IllegalStateException {
-        return budgetRepository.findById(year)
-            .orElseThrow(() -> new IllegalStateException(
-                "Budget not found for year " + year
-            ));
+        if (!budgetRepository.existsById(year)) {
+            throw new IllegalStateException(
+                "Budget not found for year " + year);
+        }
     }
 
     /**
@@ -328,56 +323,62 @@ public class ChangeRequestService {
     /**
      * Processes an approved change request by applying it to the budget.
      * Updates the budget item value and creates a change log entry.
+     * The value is changed through {@link BudgetRepository#updateBudget},
+     * so approvals of the same year made at the same time are not lost.
      *
      * @param change the approved change request
-     * @param budget the budget containing the item to be updated
      * @param userWhoProposedChange the user that sumbitted the PendingChange
      * @throws IllegalArgumentException if the budget item doesn't exist
      */
     private void processApprovedChange(
         PendingChange change,
-        Budget budget,
         User userWhoProposedChange)
         throws IllegalArgumentException {
-        Optional<BudgetItem> existingItem = findBudgetItem(
-            budget,
-            change.getBudgetItemId()
-        );
-
-        if (existingItem.isEmpty()) {
-            throw new IllegalArgumentException(
-                "Change doesn't affect existing BudgetItem");
+        int year = change.getBudgetItemYear();
+        double newValue = change.getNewValue();
+        // the value the item held before, kept for the rollback
+        double[] oldValue = new double[1];
+        boolean updated = budgetRepository.updateBudget(year, budget -> {
+            BudgetItem item = findBudgetItem(
+                budget,
+                change.getBudgetItemId()
+            ).orElseThrow(() -> new IllegalArgumentException(
+                "Change doesn't affect existing BudgetItem"));
+            oldValue[0] = updateExistingBudgetItem(item, newValue, budget);
+        });
+        if (!updated) {
+            throw new IllegalStateException(
+                "Budget not found for year " + year);
         }
 
-        // Store old value for potential rollback
-        double oldValue = existingItem.get().getValue();
-
         try {
-            updateExistingBudgetItem(
-                existingItem.get(), change.getNewValue(), budget);
-            budgetRepository.save(budget);
             change.approve();
             changeLogService.recordChange(change, userWhoProposedChange);
         } catch (Exception e) {
-            // Rollback: restore old value and recalculate totals
-            existingItem.get().setValue(oldValue);
-            budgetService.recalculateBudgetTotals(budget);
-            budgetRepository.save(budget);
+            // Rollback: take back the difference, the totals move with it,
+            // leaving changes approved meanwhile in place
+            budgetRepository.updateBudget(year, budget ->
+                findBudgetItem(budget, change.getBudgetItemId())
+                    .ifPresent(item -> updateExistingBudgetItem(
+                        item,
+                        item.getValue() - (newValue - oldValue[0]),
+                        budget)));
             throw new IllegalStateException(
                 "Failed to process approved change: " + e.getMessage(), e);
         }
     }
 
     /**
-     * Updates the value of an existing budget item.
+     * Updates the value of an existing budget item and moves the budget
+     * totals by the difference.
      * @param item the budget item to update
      * @param newValue the new value to set
-     * @param budget the budget to recalculate totals for
+     * @param budget the budget containing the item
+     * @return the previous value of the item
      */
-    private void updateExistingBudgetItem(
+    private double updateExistingBudgetItem(
         BudgetItem item, double newValue, Budget budget) {
-        item.setValue(newValue);
-        budgetService.recalculateBudgetTotals(budget);
+        return budgetService.applyItemValue(budget, item, newValue);
     }
 
     /**
@@ -387,26 +388,35 @@ public class ChangeRequestService {
      * @return an Optional containing the BudgetItem if found, otherwise empty
      */
     private Optional<BudgetItem> findBudgetItem(Budget budget, int itemId) {
-        return budget.getItems().stream()
-            .filter(item -> item.getId() == itemId)
-            .findFirst();
+        return budget.findItem(itemId);
     }
 
     /**
      * Retrieves all pending changes sorted by
      * submission date in descending order.
+     * The repository keeps the pending changes in this order,
+     * so decided changes are not read.
      * @return an ObservableList of PendingChange objects sorted by date
      */
     public ObservableList<PendingChange> getAllPendingChangesSortedByDate() {
-        return changeRequestRepository.load().stream()
-            .filter(change -> change.getStatus() == Status.PENDING)
-            .sorted(Comparator.comparing((PendingChange change) ->
-                LocalDateTime.parse(
-                        change.getSubmittedDate(),
-                        FORMATTER)).reversed())
-            .collect(Collectors.collectingAndThen(
-                Collectors.toList(),
-                FXCollections::observableArrayList
-            ));
+        return FXCollections.observableArrayList(
+            changeRequestRepository.findPendingSortedByDate());
+    }
+
+    /**
+     * Retrieves one page of the pending changes. Pass {@code null} as the
+     * cursor for the first page and the cursor of the previous page after
+     * that.
+     * @param query the filters, order and page size
+     * @param cursor the cursor of the previous page, or {@code null}
+     * @return the page of pending changes
+     * @throws IllegalArgumentException if query is null or the cursor is
+     *         invalid for the query
+     */
+    public Page<PendingChange> getPendingChangesPage(
+        ChangeQuery query,
+        String cursor
+    ) {
+        return changeRequestRepository.findPendingPage(query, cursor);
     }
 }
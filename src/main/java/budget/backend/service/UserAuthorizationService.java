@@ -32,7 +32,7 @@ public class UserAuthorizationService {
         if (item == null) {
             throw new IllegalArgumentException("Budget item cannot be null.");
         }
-        if (item.getMinistries() == null || item.getMinistries().isEmpty()) {
+        if (!item.hasMinistries()) {
             throw new IllegalArgumentException(
                 "Budget item must be associated with at least one ministry."
             );
@@ -44,7 +44,7 @@ public class UserAuthorizationService {
             );
         }
 
-        if (!item.getMinistries().contains(gm.getMinistry())) {
+        if (!item.hasMinistry(gm.getMinistry())) {
             throw new UserNotAuthorizedException(
                 "User's ministry (" + gm.getMinistry()
                 + ") is not authorized to submit change requests "
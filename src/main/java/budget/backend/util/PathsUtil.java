@@ -17,13 +17,27 @@ public final class PathsUtil {
     private static final Logger LOGGER =
                     Logger.getLogger(PathsUtil.class.getName());
     private static final String DATA_DIR_PROPERTY = "budget.data.dir";
+    private static final String STORAGE_PROPERTY = "budget.storage";
 
     private static final String BUDGET_FILE = "budget.json";
     private static final String BILL_MINISTRY_MAP_FILE =
                                     "bill-ministry-map.json";
     private static final String USERS_FILE = "users.json";
     private static final String PENDING_CHANGES_FILE = "pending-changes.json";
+    private static final String PENDING_CHANGES_ARCHIVE_FILE =
+                                    "pending-changes-archive.jsonl";
+    private static final String PENDING_CHANGES_JOURNAL_FILE =
+                                    "pending-changes.jsonl";
     private static final String BUDGET_CHANGES_FILE = "budget-changes.json";
+    private static final String BUDGET_CHANGES_JOURNAL_FILE =
+                                    "budget-changes.jsonl";
+    private static final String BUDGET_PARTITION_DIR = "budget";
+    private static final String BUDGET_SNAPSHOT_FILE = "budget.snapshot";
+    private static final String BUDGET_CHANGES_SEQUENCE_FILE =
+                                    "budget-changes.seq";
+    private static final String PENDING_CHANGES_SEQUENCE_FILE =
+                                    "pending-changes.seq";
+    private static final String DATABASE_FILE = "budget-db";
 
     // Classpath resource
     public static final String BUDGET_RESOURCE = "/" + BUDGET_FILE;
@@ -55,6 +69,21 @@ public final class PathsUtil {
         return Paths.get("src", "main", "resources", fileName);
     }
 
+    /**
+     * Returns the storage backend selected through the system property
+     * {@code budget.storage}, for example {@code json} or {@code sql}.
+     *
+     * @return the trimmed property value, or {@code null} when it is not
+     *         defined or blank
+     */
+    public static String getStorageName() {
+        String storage = System.getProperty(STORAGE_PROPERTY);
+        if (storage == null || storage.isBlank()) {
+            return null;
+        }
+        return storage.trim();
+    }
+
     /**
      * Attempts to open an {@link InputStream} from the external data directory
      * and falls back to the classpath resource if the file is missing or not
@@ -93,6 +122,39 @@ public final class PathsUtil {
         return resolveDataFile(BUDGET_FILE);
     }
 
+    /**
+     * Returns the directory of the year-partitioned budget storage, which
+     * holds one {@code <year>.json} file per budget year and a manifest.
+     * Like the other writable paths it lives in the data directory only.
+     *
+     * @return the path pointing to the {@code budget} directory
+     */
+    public static Path getBudgetPartitionDirectory() {
+        return resolveDataFile(BUDGET_PARTITION_DIR);
+    }
+
+    /**
+     * Returns the {@link Path} of the binary budget snapshot, a cache of the
+     * budget JSON files that is rebuilt from them whenever it is stale. Like
+     * the partition directory it only lives in the data directory.
+     *
+     * @return the path pointing to {@code budget.snapshot}
+     */
+    public static Path getBudgetSnapshotPath() {
+        return resolveDataFile(BUDGET_SNAPSHOT_FILE);
+    }
+
+    /**
+     * Returns the base {@link Path} of the embedded SQL database. The
+     * database engine appends its own file extension to it. Like the
+     * snapshot it only lives in the data directory.
+     *
+     * @return the path pointing to {@code budget-db}
+     */
+    public static Path getDatabasePath() {
+        return resolveDataFile(DATABASE_FILE);
+    }
+
     /**
      * Returns the writable {@link Path} for the bill-ministry map JSON file.
      *
@@ -120,6 +182,28 @@ public final class PathsUtil {
         return resolveDataFile(PENDING_CHANGES_FILE);
     }
 
+    /**
+     * Returns the writable {@link Path} of the archive of decided change
+     * requests, one JSON record per line. The archive only ever lives in the
+     * data directory, it has no classpath copy.
+     *
+     * @return the path pointing to {@code pending-changes-archive.jsonl}
+     */
+    public static Path getPendingChangesArchivePath() {
+        return resolveDataFile(PENDING_CHANGES_ARCHIVE_FILE);
+    }
+
+    /**
+     * Returns the writable {@link Path} for the append-only journal of the
+     * pending change requests. The journal only ever lives in the data
+     * directory, it has no classpath copy.
+     *
+     * @return the path pointing to {@code pending-changes.jsonl}
+     */
+    public static Path getPendingChangesJournalPath() {
+        return resolveDataFile(PENDING_CHANGES_JOURNAL_FILE);
+    }
+
     /**
      * Returns the writable {@link Path} for the budget changes JSON file.
      *
@@ -129,6 +213,37 @@ public final class PathsUtil {
         return resolveDataFile(BUDGET_CHANGES_FILE);
     }
 
+    /**
+     * Returns the writable {@link Path} for the append-only budget changes
+     * journal. The journal only ever lives in the data directory, it has no
+     * classpath copy.
+     *
+     * @return the path pointing to {@code budget-changes.jsonl}
+     */
+    public static Path getBudgetChangesJournalPath() {
+        return resolveDataFile(BUDGET_CHANGES_JOURNAL_FILE);
+    }
+
+    /**
+     * Returns the writable {@link Path} of the file holding the highest
+     * change log id reserved so far.
+     *
+     * @return the path pointing to {@code budget-changes.seq}
+     */
+    public static Path getBudgetChangesSequencePath() {
+        return resolveDataFile(BUDGET_CHANGES_SEQUENCE_FILE);
+    }
+
+    /**
+     * Returns the writable {@link Path} of the file holding the highest
+     * pending change id reserved so far.
+     *
+     * @return the path pointing to {@code pending-changes.seq}
+     */
+    public static Path getPendingChangesSequencePath() {
+        return resolveDataFile(PENDING_CHANGES_SEQUENCE_FILE);
+    }
+
     /**
      * Loads the budget JSON stream from the external data directory if present,
      * otherwise from the classpath resource.
@@ -0,0 +1,72 @@
+package budget.backend.util;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Converts the submission dates of change logs and change requests between
+ * the ISO strings they are stored as and primitive epoch timestamps, so that
+ * they are parsed once and compared as {@code long} values afterwards.
+ * <p>
+ * The stored dates are local date-times without a zone. They are placed on
+ * the UTC time line, which keeps their order and converts back to the same
+ * local date-time; the timestamps are only meant for ordering and display.
+ */
+public final class TimestampUtils {
+
+    /** Timestamp of a date that is missing or cannot be read. */
+    public static final long UNKNOWN = Long.MIN_VALUE;
+
+    private TimestampUtils() {
+        // Utility class - prevent instantiation
+    }
+
+    /**
+     * Parses a stored submission date. Besides the ISO form written by the
+     * application, a space between date and time is accepted.
+     *
+     * @param isoDate the date, for example {@code 2024-05-20T14:30:00}
+     * @return milliseconds since the epoch, or {@link #UNKNOWN} when the
+     *         date is {@code null} or cannot be read
+     */
+    public static long toEpochMillis(String isoDate) {
+        if (isoDate == null || isoDate.isBlank()) {
+            return UNKNOWN;
+        }
+        try {
+            return toEpochMillis(LocalDateTime.parse(
+                isoDate.trim().replace(' ', 'T'),
+                DateTimeFormatter.ISO_LOCAL_DATE_TIME
+            ));
+        } catch (DateTimeParseException e) {
+            return UNKNOWN;
+        }
+    }
+
+    /**
+     * Converts a submission date that is already parsed.
+     *
+     * @param dateTime the date, not {@code null}
+     * @return milliseconds since the epoch
+     */
+    public static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    /**
+     * Converts a timestamp back to the local date-time it was parsed from.
+     *
+     * @param epochMillis a timestamp returned by {@link #toEpochMillis}
+     * @return the local date-time, or {@code null} for {@link #UNKNOWN}
+     */
+    public static LocalDateTime toLocalDateTime(long epochMillis) {
+        if (epochMillis == UNKNOWN) {
+            return null;
+        }
+        return LocalDateTime.ofInstant(
+            Instant.ofEpochMilli(epochMillis), ZoneOffset.UTC);
+    }
+}
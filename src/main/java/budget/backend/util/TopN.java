@@ -0,0 +1,126 @@
+package budget.backend.util;
+
+/**
+ * Selects the positions of the N largest values of a sequence with a
+ * fixed-size min-heap of primitives, in O(n log N) time and O(N) space
+ * instead of sorting every value.
+ *
+ * <p>The result is ordered like a stable descending sort: larger values
+ * first, equal values in the order they were offered.
+ */
+public final class TopN {
+    private final double[] values;
+    private final int[] positions;
+    private int size;
+
+    /**
+     * Creates an empty selection.
+     *
+     * @param n the number of values to keep
+     * @throws IllegalArgumentException if n is not positive
+     */
+    public TopN(int n) {
+        if (n <= 0) {
+            throw new IllegalArgumentException(
+                "n must be greater than 0, but was: " + n);
+        }
+        this.values = new double[n];
+        this.positions = new int[n];
+    }
+
+    /**
+     * Offers a value. Positions must be offered in increasing order, so a
+     * value that only ties with the smallest kept value is dropped, as a
+     * stable sort would rank it after the kept one.
+     *
+     * @param value the value
+     * @param position the position of the value in the sequence
+     */
+    public void offer(double value, int position) {
+        if (size < values.length) {
+            values[size] = value;
+            positions[size] = position;
+            siftUp(size++);
+        } else if (Double.compare(value, values[0]) > 0) {
+            values[0] = value;
+            positions[0] = position;
+            siftDown(0);
+        }
+    }
+
+    /**
+     * Returns the positions of the kept values, largest value first.
+     *
+     * @return the positions, at most n of them
+     */
+    public int[] positions() {
+        double[] keptValues = values.clone();
+        int[] keptPositions = positions.clone();
+        int kept = size;
+        // pop the lowest entry into the last free slot of the result
+        int[] result = new int[size];
+        while (size > 0) {
+            result[size - 1] = positions[0];
+            swap(0, --size);
+            siftDown(0);
+        }
+        System.arraycopy(keptValues, 0, values, 0, kept);
+        System.arraycopy(keptPositions, 0, positions, 0, kept);
+        size = kept;
+        return result;
+    }
+
+    /**
+     * Tells whether the entry at heap slot a ranks below the one at b:
+     * a smaller value, or an equal value offered later.
+     *
+     * @param a a heap slot
+     * @param b another heap slot
+     * @return {@code true} if a ranks below b
+     */
+    private boolean isBelow(int a, int b) {
+        int compared = Double.compare(values[a], values[b]);
+        return compared < 0 || compared == 0 && positions[a] > positions[b];
+    }
+
+    private void siftUp(int slot) {
+        int child = slot;
+        while (child > 0) {
+            int parent = (child - 1) / 2;
+            if (!isBelow(child, parent)) {
+                return;
+            }
+            swap(child, parent);
+            child = parent;
+        }
+    }
+
+    private void siftDown(int slot) {
+        int parent = slot;
+        while (true) {
+            int left = 2 * parent + 1;
+            if (left >= size) {
+                return;
+            }
+            int lowest = left;
+            int right = left + 1;
+            if (right < size && isBelow(right, left)) {
+                lowest = right;
+            }
+            if (!isBelow(lowest, parent)) {
+                return;
+            }
+            swap(lowest, parent);
+            parent = lowest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        double value = values[a];
+        values[a] = values[b];
+        values[b] = value;
+        int position = positions[a];
+        positions[a] = positions[b];
+        positions[b] = position;
+    }
+}
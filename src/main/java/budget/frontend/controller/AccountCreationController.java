@@ -10,7 +10,7 @@ import budget.backend.model.domain.user.PrimeMinister;
 import budget.backend.model.domain.user.User;
 import budget.backend.model.enums.Ministry;
 import budget.backend.model.enums.UserRole;
-import budget.backend.repository.UserRepository;
+import budget.backend.repository.RepositoryFactory;
 import budget.backend.service.InputValidationService;
 import budget.backend.service.UserAuthenticationService;
 import budget.backend.util.InputValidator;
@@ -70,8 +70,7 @@ public class AccountCreationController {
                 Logger.getLogger(AccountCreationController.class.getName());
 
     private final UserAuthenticationService authService =
-        new UserAuthenticationService(new UserRepository()
-    );
+        new UserAuthenticationService(RepositoryFactory.users());
 
     /**
      * Initializes the controller by setting up UI components and bindings.
@@ -1,16 +1,14 @@
 package budget.frontend.controller;
 
 import java.text.NumberFormat;
-import java.util.Comparator;
 import java.util.Locale;
-import javafx.collections.ObservableList;
-import javafx.collections.transformation.FilteredList;
-import javafx.collections.transformation.SortedList;
 
 import budget.backend.model.domain.ChangeLog;
-import budget.backend.repository.ChangeLogRepository;
+import budget.backend.repository.ChangeQuery;
+import budget.backend.repository.RepositoryFactory;
 import budget.backend.service.ChangeLogService;
 import budget.frontend.util.DateUtils;
+import budget.frontend.util.PagedTableLoader;
 import budget.frontend.util.TableUtils;
 import javafx.beans.property.SimpleIntegerProperty;
 import javafx.beans.property.SimpleStringProperty;
@@ -32,12 +30,14 @@ public class ChangeLogController {
     @FXML private TableColumn<ChangeLog, Double> newValueColumn;
     @FXML private TableColumn<ChangeLog, Double> valueDifferenceColumn;
 
+    private static final int PAGE_SIZE = 100;
+    private static final ChangeQuery DEFAULT_QUERY =
+        ChangeQuery.sortedBy(ChangeQuery.Sort.NEWEST_FIRST, PAGE_SIZE);
+
     private final ChangeLogService changeLogService =
-        new ChangeLogService(new ChangeLogRepository());
+        new ChangeLogService(RepositoryFactory.changeLogs());
 
-    private ObservableList<ChangeLog> allItems;
-    private FilteredList<ChangeLog> filteredItems;
-    private SortedList<ChangeLog> sortedItems;
+    private PagedTableLoader<ChangeLog> loader;
 
     /**
      * Initializes the controller by setting up
@@ -56,7 +56,9 @@ public class ChangeLogController {
     private void setupTableColumns() {
 
         dateColumn.setCellValueFactory(cellData ->
-            DateUtils.formatIsoDate(cellData.getValue().submittedDate())
+            DateUtils.formatTimestamp(
+                cellData.getValue().submittedAt(),
+                cellData.getValue().submittedDate())
         );
 
         actorColumn.setCellValueFactory(cellData ->
@@ -90,68 +92,50 @@ public class ChangeLogController {
     }
 
     /**
-     * Loads change log history into the table view.
+     * Loads the first page of the change log history into the table view;
+     * further pages are loaded as the table is scrolled.
      */
     private void loadData() {
-        setupFilters();
-    }
-
-    private void setupFilters() {
-        allItems = changeLogService.getAllChangeLogsSortedByDate();
-        filteredItems = new FilteredList<>(allItems, p -> true);
-        sortedItems = new SortedList<>(filteredItems);
-        changeLogTable.setItems(sortedItems);
+        loader = new PagedTableLoader<>(
+            changeLogTable, changeLogService::getChangeLogPage);
+        loader.reset(DEFAULT_QUERY);
     }
 
     @FXML
-    private void  handleSortAmountAsc() {
-        sortedItems.setComparator(
-            Comparator.comparingDouble(changeLog ->
-                Math.abs(changeLog.newValue() - changeLog.oldValue())
-            )
-        );
+    private void handleSortAmountAsc() {
+        loader.reset(loader.getQuery().withSort(ChangeQuery.Sort.AMOUNT_ASC));
     }
 
     @FXML
     private void handleSortAmountDesc() {
-        sortedItems.setComparator(
-            Comparator.comparingDouble((ChangeLog c) ->
-                Math.abs(c.newValue() - c.oldValue())
-            ).reversed()
-        );
+        loader.reset(
+            loader.getQuery().withSort(ChangeQuery.Sort.AMOUNT_DESC));
     }
 
     @FXML
     private void handleFilterIncreasesOnly() {
-        filteredItems.setPredicate(
-            changeLog -> (changeLog.newValue() - changeLog.oldValue()) > 0
-        );
+        loader.reset(loader.getQuery()
+            .withDirection(ChangeQuery.Direction.INCREASES));
     }
 
     @FXML
     private void handleFilterDecreasesOnly() {
-        filteredItems.setPredicate(
-            changeLog -> (changeLog.newValue() - changeLog.oldValue()) < 0
-        );
+        loader.reset(loader.getQuery()
+            .withDirection(ChangeQuery.Direction.DECREASES));
     }
 
     @FXML
     private void handleSortByNameAsc() {
-        sortedItems.setComparator(
-            Comparator.comparing(ChangeLog::actorName)
-        );
+        loader.reset(loader.getQuery().withSort(ChangeQuery.Sort.NAME_ASC));
     }
 
     @FXML
     private void handleSortByNameDesc() {
-        sortedItems.setComparator(
-            Comparator.comparing(ChangeLog::actorName).reversed()
-        );
+        loader.reset(loader.getQuery().withSort(ChangeQuery.Sort.NAME_DESC));
     }
 
     @FXML
     private void handleClearFilters() {
-        filteredItems.setPredicate(p -> true);
-        sortedItems.setComparator(null);
+        loader.reset(DEFAULT_QUERY);
     }
 }
@@ -2,7 +2,6 @@ package budget.frontend.controller;
 
 import java.text.NumberFormat;
 import java.time.Year;
-import java.util.Comparator;
 import java.util.Locale;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -16,7 +15,9 @@ import budget.backend.model.domain.user.User;
 import budget.backend.model.enums.Ministry;
 import budget.backend.repository.BudgetRepository;
 import budget.backend.repository.ChangeLogRepository;
+import budget.backend.repository.ChangeQuery;
 import budget.backend.repository.ChangeRequestRepository;
+import budget.backend.repository.RepositoryFactory;
 import budget.backend.repository.UserRepository;
 import budget.backend.service.BudgetService;
 import budget.backend.service.BudgetValidationService;
@@ -26,6 +27,7 @@ import budget.backend.service.UserAuthorizationService;
 import budget.frontend.constants.Constants;
 import budget.frontend.util.AlertUtils;
 import budget.frontend.util.DateUtils;
+import budget.frontend.util.PagedTableLoader;
 import budget.frontend.util.TableUtils;
 import budget.frontend.util.WindowUtils;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
@@ -33,8 +35,6 @@ import javafx.beans.property.SimpleObjectProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
-import javafx.collections.transformation.FilteredList;
-import javafx.collections.transformation.SortedList;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
 import javafx.scene.control.TableColumn;
@@ -45,6 +45,10 @@ import javafx.scene.control.TableView;
  */
 public class GovMemberPendingChangesController {
 
+    private static final int PAGE_SIZE = 100;
+    private static final ChangeQuery DEFAULT_QUERY =
+        ChangeQuery.sortedBy(ChangeQuery.Sort.NEWEST_FIRST, PAGE_SIZE);
+
     private static final Logger LOGGER =
         Logger.getLogger(GovMemberPendingChangesController.class.getName());
 
@@ -62,9 +66,7 @@ public class GovMemberPendingChangesController {
 
     private ChangeRequestService changeRequestService;
     private UserAuthorizationService userAuthService;
-    private ObservableList<PendingChange> allItems;
-    private FilteredList<PendingChange> filteredItems;
-    private SortedList<PendingChange> sortedItems;
+    private PagedTableLoader<PendingChange> loader;
     private BudgetService budgetService;
     private User currentUser;
 
@@ -100,10 +102,11 @@ public class GovMemberPendingChangesController {
 
     private void initServices() {
         try {
-            ChangeRequestRepository reqRepo = new ChangeRequestRepository();
-            BudgetRepository budgetRepo = new BudgetRepository();
-            UserRepository userRepo = new UserRepository();
-            ChangeLogRepository logRepo = new ChangeLogRepository();
+            ChangeRequestRepository reqRepo =
+                RepositoryFactory.changeRequests();
+            BudgetRepository budgetRepo = RepositoryFactory.budgets();
+            UserRepository userRepo = RepositoryFactory.users();
+            ChangeLogRepository logRepo = RepositoryFactory.changeLogs();
 
             BudgetValidationService valService =
                 new BudgetValidationService(budgetRepo);
@@ -131,7 +134,9 @@ public class GovMemberPendingChangesController {
     private void setupTableColumns() {
 
         dateColumn.setCellValueFactory(cellData ->
-            DateUtils.formatIsoDate(cellData.getValue().getSubmittedDate())
+            DateUtils.formatTimestamp(
+                cellData.getValue().getSubmittedAt(),
+                cellData.getValue().getSubmittedDate())
         );
         actorColumn.setCellValueFactory(cell ->
             new SimpleStringProperty(cell.getValue().getRequestByName()));
@@ -171,24 +176,14 @@ public class GovMemberPendingChangesController {
         }
 
         try {
-            allItems = changeRequestService.getAllPendingChangesSortedByDate();
-
-            if (allItems == null) {
-                LOGGER.log(Level.WARNING, "No data found.");
-                return;
-            }
-            filteredItems = new FilteredList<>(allItems, p -> true);
-            sortedItems = new SortedList<>(filteredItems);
-            sortedItems.comparatorProperty().bind(
-                pendingChangesTable.comparatorProperty()
-            );
-            pendingChangesTable.setItems(sortedItems);
+            loader = new PagedTableLoader<>(pendingChangesTable,
+                changeRequestService::getPendingChangesPage);
+            loader.reset(DEFAULT_QUERY);
         } catch (Exception e) {
             LOGGER.log(
                 Level.SEVERE, "Failed to load table data.", e
             );
         }
-        setupFilters();
     }
 
     @FXML
@@ -219,8 +214,7 @@ public class GovMemberPendingChangesController {
                 Ministry myMinistry = gm.getMinistry();
 
                 allowedItems = allBudgetItems.stream()
-                    .filter(item -> item.getMinistries() != null
-                            && item.getMinistries().contains(myMinistry))
+                    .filter(item -> item.hasMinistry(myMinistry))
                     .collect(
                         Collectors.toCollection(
                             FXCollections::observableArrayList
@@ -322,10 +316,7 @@ public class GovMemberPendingChangesController {
      */
     private void refreshTable() {
         try {
-            allItems = changeRequestService.getAllPendingChangesSortedByDate();
-            filteredItems = new FilteredList<>(allItems, p -> true);
-            sortedItems = new SortedList<>(filteredItems);
-            pendingChangesTable.setItems(sortedItems);
+            loader.refresh();
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, "Failed to refresh table data.", e);
         }
@@ -343,18 +334,14 @@ public class GovMemberPendingChangesController {
         if (!isMyRequestsActive) {
 
             LOGGER.log(Level.INFO, "Filtering for My Requests only.");
-            filteredItems.setPredicate(change -> {
-                String requestUser = change.getRequestByName();
-                String myUser = currentUser.getFullName();
-                return requestUser != null && requestUser.equals(myUser);
-            });
+            loader.reset(loader.getQuery().withActor(currentUser.getId()));
 
             myRequestsButton.setText("Show All Requests");
             myRequestsButton.getStyleClass().add("btn-reject");
             isMyRequestsActive = true;
         } else {
             LOGGER.log(Level.INFO, "Showing All Requests.");
-            filteredItems.setPredicate(p -> true);
+            loader.reset(loader.getQuery().withActor(null));
 
             // Επαναφορά κουμπιού
             myRequestsButton.setText("My Requests");
@@ -363,66 +350,42 @@ public class GovMemberPendingChangesController {
         }
     }
 
-    /**
-     * Sets up filtering and sorting for the table.
-     */
-    private void setupFilters() {
-        allItems = changeRequestService.getAllPendingChangesSortedByDate();
-        filteredItems = new FilteredList<>(allItems, p -> true);
-        sortedItems = new SortedList<>(filteredItems);
-        pendingChangesTable.setItems(sortedItems);
-    }
 
     @FXML
     private void handleSortAmountAsc() {
-        sortedItems.setComparator(
-            Comparator.comparingDouble(
-                change -> change.getNewValue() - change.getOldValue()
-            )
-        );
+        loader.reset(loader.getQuery().withSort(ChangeQuery.Sort.AMOUNT_ASC));
     }
 
     @FXML
     private void handleSortAmountDesc() {
-        sortedItems.setComparator(
-            Comparator.comparingDouble(
-                (PendingChange change) ->
-                change.getNewValue() - change.getOldValue()
-            ).reversed()
-        );
+        loader.reset(
+            loader.getQuery().withSort(ChangeQuery.Sort.AMOUNT_DESC));
     }
 
     @FXML
     private void handleFilterIncreasesOnly() {
-        filteredItems.setPredicate(
-            change -> change.getNewValue() > change.getOldValue()
-        );
+        loader.reset(loader.getQuery()
+            .withDirection(ChangeQuery.Direction.INCREASES));
     }
 
     @FXML
     private void handleFilterDecreasesOnly() {
-        filteredItems.setPredicate(
-            change -> change.getNewValue() < change.getOldValue()
-        );
+        loader.reset(loader.getQuery()
+            .withDirection(ChangeQuery.Direction.DECREASES));
     }
 
     @FXML
     private void handleSortByNameAsc() {
-        sortedItems.setComparator(
-            Comparator.comparing(PendingChange::getRequestByName)
-        );
+        loader.reset(loader.getQuery().withSort(ChangeQuery.Sort.NAME_ASC));
     }
 
     @FXML
     private void handleSortByNameDesc() {
-        sortedItems.setComparator(
-            Comparator.comparing(PendingChange::getRequestByName).reversed()
-        );
+        loader.reset(loader.getQuery().withSort(ChangeQuery.Sort.NAME_DESC));
     }
 
     @FXML
     private void handleClearFilters() {
-        filteredItems.setPredicate(p -> true);
-        sortedItems.setComparator(null);
+        loader.reset(DEFAULT_QUERY.withActor(loader.getQuery().actorId()));
     }
 }
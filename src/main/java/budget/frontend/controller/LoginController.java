@@ -6,7 +6,7 @@ import java.util.logging.Logger;
 import budget.backend.exceptions.UserNotAuthorizedException;
 import budget.backend.exceptions.ValidationException;
 import budget.backend.model.domain.user.User;
-import budget.backend.repository.UserRepository;
+import budget.backend.repository.RepositoryFactory;
 import budget.backend.service.UserAuthenticationService;
 import budget.backend.util.InputValidator;
 import budget.constants.Message;
@@ -50,8 +50,7 @@ public class LoginController {
                             Logger.getLogger(LoginController.class.getName());
 
     private final UserAuthenticationService authService =
-        new UserAuthenticationService(new UserRepository()
-    );
+        new UserAuthenticationService(RepositoryFactory.users());
     /**
      * Initializes the controller class. This method is automatically called
      * after the FXML file has been loaded.
@@ -1,7 +1,6 @@
 package budget.frontend.controller;
 
 import java.text.NumberFormat;
-import java.util.Comparator;
 import java.util.Locale;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -10,7 +9,9 @@ import budget.backend.model.domain.PendingChange;
 import budget.backend.model.domain.user.PrimeMinister;
 import budget.backend.repository.BudgetRepository;
 import budget.backend.repository.ChangeLogRepository;
+import budget.backend.repository.ChangeQuery;
 import budget.backend.repository.ChangeRequestRepository;
+import budget.backend.repository.RepositoryFactory;
 import budget.backend.repository.UserRepository;
 import budget.backend.service.BudgetService;
 import budget.backend.service.BudgetValidationService;
@@ -18,13 +19,11 @@ import budget.backend.service.ChangeLogService;
 import budget.backend.service.ChangeRequestService;
 import budget.frontend.util.AlertUtils;
 import budget.frontend.util.DateUtils;
+import budget.frontend.util.PagedTableLoader;
 import budget.frontend.util.TableUtils;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.beans.property.SimpleStringProperty;
-import javafx.collections.ObservableList;
-import javafx.collections.transformation.FilteredList;
-import javafx.collections.transformation.SortedList;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
 import javafx.scene.control.TableCell;
@@ -38,6 +37,10 @@ import javafx.util.Callback;
  */
 public class PendingChangesController {
 
+    private static final int PAGE_SIZE = 100;
+    private static final ChangeQuery DEFAULT_QUERY =
+        ChangeQuery.sortedBy(ChangeQuery.Sort.NEWEST_FIRST, PAGE_SIZE);
+
     private static final Logger LOGGER =
         Logger.getLogger(PendingChangesController.class.getName());
 
@@ -53,9 +56,7 @@ public class PendingChangesController {
 
     private ChangeRequestService changeRequestService;
     private PrimeMinister currentUser;
-    private ObservableList<PendingChange> allItems;
-    private FilteredList<PendingChange> filteredItems;
-    private SortedList<PendingChange> sortedItems;
+    private PagedTableLoader<PendingChange> loader;
 
     /**
      * Initializes the controller by setting up
@@ -89,10 +90,11 @@ public class PendingChangesController {
     }
     private void initServices() {
         try {
-            ChangeRequestRepository reqRepo = new ChangeRequestRepository();
-            BudgetRepository budgetRepo = new BudgetRepository();
-            UserRepository userRepo = new UserRepository();
-            ChangeLogRepository logRepo = new ChangeLogRepository();
+            ChangeRequestRepository reqRepo =
+                RepositoryFactory.changeRequests();
+            BudgetRepository budgetRepo = RepositoryFactory.budgets();
+            UserRepository userRepo = RepositoryFactory.users();
+            ChangeLogRepository logRepo = RepositoryFactory.changeLogs();
 
             BudgetValidationService valService =
                 new BudgetValidationService(budgetRepo);
@@ -114,7 +116,9 @@ public class PendingChangesController {
 
      private void setupTableColumns() {
         dateColumn.setCellValueFactory(cellData ->
-            DateUtils.formatIsoDate(cellData.getValue().getSubmittedDate())
+            DateUtils.formatTimestamp(
+                cellData.getValue().getSubmittedAt(),
+                cellData.getValue().getSubmittedDate())
         );
 
         actorColumn.setCellValueFactory(cell ->
@@ -215,33 +219,14 @@ public class PendingChangesController {
         }
 
         try {
-            allItems = changeRequestService.getAllPendingChangesSortedByDate();
-
-            if (allItems == null) {
-                LOGGER.log(Level.WARNING, "No data found.");
-                return;
-            }
-            filteredItems = new FilteredList<>(allItems, p -> true);
-            sortedItems = new SortedList<>(filteredItems);
-            sortedItems.comparatorProperty().bind(
-                pendingChangesTable.comparatorProperty()
-            );
-            pendingChangesTable.setItems(sortedItems);
+            loader = new PagedTableLoader<>(pendingChangesTable,
+                changeRequestService::getPendingChangesPage);
+            loader.reset(DEFAULT_QUERY);
         } catch (Exception e) {
             LOGGER.log(
                 Level.SEVERE, "Failed to load table data.", e
             );
         }
-        setupFilters();
-    }
-    /**
-     * Sets up filtering and sorting for the table.
-     */
-    private void setupFilters() {
-        allItems = changeRequestService.getAllPendingChangesSortedByDate();
-        filteredItems = new FilteredList<>(allItems, p -> true);
-        sortedItems = new SortedList<>(filteredItems);
-        pendingChangesTable.setItems(sortedItems);
     }
     /**
      * Handles the approval of a pending change.
@@ -261,7 +246,7 @@ public class PendingChangesController {
                 );
             }
             changeRequestService.approveRequest(currentUser, change);
-            allItems.remove(change);
+            loader.getItems().remove(change);
             LOGGER.log(Level.INFO, "Request approved.");
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, "Approve failed", e);
@@ -278,7 +263,7 @@ public class PendingChangesController {
         );
         try {
             changeRequestService.rejectRequest(currentUser, change);
-            allItems.remove(change);
+            loader.getItems().remove(change);
             LOGGER.log(Level.INFO, "Request rejected.");
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, "Reject failed", e);
@@ -287,54 +272,39 @@ public class PendingChangesController {
 
     @FXML
     private void handleSortAmountAsc() {
-        sortedItems.setComparator(
-            Comparator.comparingDouble(
-                change -> change.getNewValue() - change.getOldValue()
-            )
-        );
+        loader.reset(loader.getQuery().withSort(ChangeQuery.Sort.AMOUNT_ASC));
     }
 
     @FXML
     private void handleSortAmountDesc() {
-        sortedItems.setComparator(
-            Comparator.comparingDouble(
-                (PendingChange change) ->
-                change.getNewValue() - change.getOldValue()
-            ).reversed()
-        );
+        loader.reset(
+            loader.getQuery().withSort(ChangeQuery.Sort.AMOUNT_DESC));
     }
 
     @FXML
     private void handleFilterIncreasesOnly() {
-        filteredItems.setPredicate(
-            change -> change.getNewValue() > change.getOldValue()
-        );
+        loader.reset(loader.getQuery()
+            .withDirection(ChangeQuery.Direction.INCREASES));
     }
 
     @FXML
     private void handleFilterDecreasesOnly() {
-        filteredItems.setPredicate(
-            change -> change.getNewValue() < change.getOldValue()
-        );
+        loader.reset(loader.getQuery()
+            .withDirection(ChangeQuery.Direction.DECREASES));
     }
 
     @FXML
     private void handleSortByNameAsc() {
-        sortedItems.setComparator(
-            Comparator.comparing(PendingChange::getRequestByName)
-        );
+        loader.reset(loader.getQuery().withSort(ChangeQuery.Sort.NAME_ASC));
     }
 
     @FXML
     private void handleSortByNameDesc() {
-        sortedItems.setComparator(
-            Comparator.comparing(PendingChange::getRequestByName).reversed()
-        );
+        loader.reset(loader.getQuery().withSort(ChangeQuery.Sort.NAME_DESC));
     }
 
     @FXML
     private void handleClearFilters() {
-        filteredItems.setPredicate(p -> true);
-        sortedItems.setComparator(null);
+        loader.reset(DEFAULT_QUERY);
     }
 }
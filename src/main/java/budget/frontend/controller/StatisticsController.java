@@ -2,7 +2,7 @@ package budget.frontend.controller;
 
 import java.util.Map;
 
-import budget.backend.repository.BudgetRepository;
+import budget.backend.repository.RepositoryFactory;
 import budget.backend.service.StatisticsService;
 import budget.frontend.constants.Constants;
 import budget.frontend.util.BarChartViewModel;
@@ -47,7 +47,7 @@ public class StatisticsController {
 
 
     private final StatisticsService statisticsService =
-                                new StatisticsService(new BudgetRepository());
+        new StatisticsService(RepositoryFactory.budgets());
     private static final int CURRENT_YEAR = 2026;
     private static final int DEFAULT_START_YEAR = 2019;
     private static final int DEFAULT_END_YEAR = 2027;
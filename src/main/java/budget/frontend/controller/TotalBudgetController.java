@@ -13,6 +13,7 @@ import budget.backend.model.domain.user.GovernmentMember;
 import budget.backend.model.domain.user.User;
 import budget.backend.model.enums.Ministry;
 import budget.backend.repository.BudgetRepository;
+import budget.backend.repository.RepositoryFactory;
 import budget.backend.service.BudgetService;
 import budget.backend.service.BudgetValidationService;
 import budget.frontend.constants.Constants;
@@ -51,7 +52,8 @@ public class TotalBudgetController {
     @FXML private TableColumn<BudgetItem, Void> actionColumn;
     @FXML private ComboBox<Integer> budgetYearComboBox;
 
-    private final BudgetRepository budgetRepository = new BudgetRepository();
+    private final BudgetRepository budgetRepository =
+                                RepositoryFactory.budgets();
     private final BudgetService budgetService =
                                 new BudgetService(budgetRepository);
     private final BudgetValidationService validationService =
@@ -4,11 +4,21 @@ import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.value.ObservableValue;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import budget.backend.util.TimestampUtils;
 
 public final class DateUtils {
 
     private static final DateTimeFormatter OUTPUT_FORMATTER =
         DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+    private static final long MILLIS_PER_MINUTE = TimeUnit.MINUTES.toMillis(1);
+    private static final int MAX_CACHED_MINUTES = 4096;
+    // formatted dates by minute, the resolution of OUTPUT_FORMATTER
+    private static final Map<Long, String> FORMATTED =
+        new ConcurrentHashMap<>();
 
     /**
      * Private constructor to prevent instantiation of this utility class.
@@ -38,4 +48,35 @@ public final class DateUtils {
             return new SimpleStringProperty(rawDate.replace("T", " "));
         }
     }
+
+    /**
+     * Formats a submission timestamp as "dd/MM/yyyy HH:mm" without parsing
+     * the date again. Formatted strings are cached per minute, so a table
+     * formats every distinct minute once however often its cells render.
+     *
+     * @param epochMillis the timestamp, see {@link TimestampUtils}
+     * @param rawDate the stored date, shown as in {@link #formatIsoDate}
+     *                when the timestamp is unknown
+     * @return a SimpleStringProperty containing the formatted date,
+     * suitable for use in a JavaFX TableColumn
+     */
+    public static ObservableValue<String> formatTimestamp(
+        long epochMillis,
+        String rawDate
+    ) {
+        if (epochMillis == TimestampUtils.UNKNOWN) {
+            return formatIsoDate(rawDate);
+        }
+        long minute = Math.floorDiv(epochMillis, MILLIS_PER_MINUTE);
+        String text = FORMATTED.get(minute);
+        if (text == null) {
+            text = TimestampUtils.toLocalDateTime(epochMillis)
+                .format(OUTPUT_FORMATTER);
+            if (FORMATTED.size() >= MAX_CACHED_MINUTES) {
+                FORMATTED.clear();
+            }
+            FORMATTED.put(minute, text);
+        }
+        return new SimpleStringProperty(text);
+    }
 }
@@ -0,0 +1,140 @@
+package budget.frontend.util;
+
+import java.util.function.BiFunction;
+
+import budget.backend.repository.ChangeQuery;
+import budget.backend.repository.Page;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.geometry.Orientation;
+import javafx.scene.Node;
+import javafx.scene.control.ScrollBar;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+
+/**
+ * Fills a TableView one page at a time from a cursor-paged query. The first
+ * page is loaded when a query is set, every following page when the table
+ * is scrolled to the bottom, so only the rows looked at are materialized.
+ *
+ * <p>The order of the rows comes from the query; the columns are therefore
+ * not sortable by their headers.
+ *
+ * @param <T> the type of the rows
+ */
+public final class PagedTableLoader<T> {
+
+    private final TableView<T> table;
+    private final BiFunction<ChangeQuery, String, Page<T>> fetcher;
+    private final ObservableList<T> items =
+        FXCollections.observableArrayList();
+
+    private ChangeQuery query;
+    private String cursor;
+    private boolean exhausted = true;
+    private ScrollBar scrollBar;
+
+    /**
+     * Binds the table to the rows of this loader.
+     *
+     * @param table the table to fill
+     * @param fetcher reads the page of a query after a cursor, for example
+     *                {@code service::getChangeLogPage}
+     */
+    @SuppressFBWarnings(
+        value = "EI_EXPOSE_REP2",
+        justification = "The loader fills the table it is given by design."
+    )
+    public PagedTableLoader(
+        TableView<T> table,
+        BiFunction<ChangeQuery, String, Page<T>> fetcher
+    ) {
+        this.table = table;
+        this.fetcher = fetcher;
+        for (TableColumn<T, ?> column : table.getColumns()) {
+            column.setSortable(false);
+        }
+        table.setItems(items);
+        // the scroll bar only exists once the skin is created
+        table.skinProperty().addListener((obs, oldSkin, newSkin) ->
+            attachScrollBar());
+        attachScrollBar();
+    }
+
+    /**
+     * Drops the loaded rows and loads the first page of another query.
+     *
+     * @param newQuery the query
+     */
+    public void reset(ChangeQuery newQuery) {
+        query = newQuery;
+        cursor = null;
+        exhausted = false;
+        items.clear();
+        loadNextPage();
+    }
+
+    /**
+     * Reloads the current query from its first page.
+     */
+    public void refresh() {
+        if (query != null) {
+            reset(query);
+        }
+    }
+
+    /**
+     * Appends the next page of the current query, if there is one.
+     */
+    public void loadNextPage() {
+        if (exhausted) {
+            return;
+        }
+        Page<T> page = fetcher.apply(query, cursor);
+        items.addAll(page.items());
+        cursor = page.nextCursor();
+        exhausted = !page.hasNext();
+    }
+
+    /**
+     * Returns the current query.
+     *
+     * @return the query, or {@code null} before the first reset
+     */
+    public ChangeQuery getQuery() {
+        return query;
+    }
+
+    /**
+     * Returns the loaded rows, which are also the rows of the table. Rows
+     * may be removed from it, for example once a request is decided.
+     *
+     * @return the live list of loaded rows
+     */
+    @SuppressFBWarnings(
+        value = "EI_EXPOSE_REP",
+        justification = "Returns the live row list of the table on purpose."
+    )
+    public ObservableList<T> getItems() {
+        return items;
+    }
+
+    private void attachScrollBar() {
+        if (scrollBar != null) {
+            return;
+        }
+        for (Node node : table.lookupAll(".scroll-bar")) {
+            if (node instanceof ScrollBar bar
+                    && bar.getOrientation() == Orientation.VERTICAL) {
+                scrollBar = bar;
+                bar.valueProperty().addListener((obs, oldValue, value) -> {
+                    if (value.doubleValue() >= bar.getMax()) {
+                        loadNextPage();
+                    }
+                });
+                return;
+            }
+        }
+    }
+}
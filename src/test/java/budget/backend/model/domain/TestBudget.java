@@ -4,8 +4,11 @@ import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -88,6 +91,53 @@ public class TestBudget {
         }
     }
 
+    @Nested
+    class TestItemLookups {
+
+        @Test
+        void findItemByIdAndType() {
+            Budget b = new Budget(sampleBudgetItems(), 2025);
+
+            assertEquals("Φόροι", b.findItem(11, true).orElseThrow().getName(),
+                                "Failure - wrong revenue item");
+            assertTrue(b.findItem(11, false).isEmpty(), "Failure - type must match");
+            assertEquals("Τόκοι", b.findItem(26).orElseThrow().getName(),
+                                "Failure - wrong item");
+            assertTrue(b.findItem(99).isEmpty(), "Failure - unknown id");
+        }
+        @Test
+        void sameIdOnBothSides() {
+            BudgetItem revenue = new BudgetItem(5, 2025, "R", 10.0, true, List.of());
+            BudgetItem expense = new BudgetItem(5, 2025, "E", 20.0, false, List.of());
+            Budget b = new Budget(List.of(expense, revenue), 2025);
+
+            assertSame(revenue, b.findItem(5, true).orElseThrow());
+            assertSame(expense, b.findItem(5, false).orElseThrow());
+            assertSame(expense, b.findItem(5).orElseThrow(),
+                                "Failure - first item in list order should win");
+        }
+        @Test
+        void findByName() {
+            Budget b = new Budget(sampleBudgetItems(), 2025);
+
+            assertTrue(b.containsItemName("Τόκοι"), "Failure - name should exist");
+            assertFalse(b.containsItemName("τόκοι"), "Failure - lookup is case-sensitive");
+            assertFalse(b.containsItemName(null), "Failure - null name");
+            assertTrue(b.containsItemId(11), "Failure - id should exist");
+        }
+        @Test
+        void indexesRebuiltOnSetItems() {
+            Budget b = new Budget(sampleBudgetItems(), 2025);
+            assertTrue(b.containsItemId(11));
+
+            b.setItems(List.of(new BudgetItem(40, 2025, "New", 1.0, true, List.of())));
+
+            assertFalse(b.containsItemId(11), "Failure - stale index");
+            assertTrue(b.findItem(40, true).isPresent(), "Failure - stale index");
+            assertTrue(b.containsItemName("New"), "Failure - stale index");
+        }
+    }
+
     @Nested
     class TestGettersSetters {
 
@@ -119,6 +169,68 @@ public class TestBudget {
         }
     }
 
+    @Nested
+    class TestApplyItemValue {
+
+        @Test
+        void movesTotalsByTheDifference() {
+            List<BudgetItem> items = sampleBudgetItems();
+            Budget b = new Budget(items, 2025, 1000.0, 3000.0, -2000.0);
+
+            assertEquals(1000.0, b.applyItemValue(items.get(0), 1500.0),
+                "Failure - should return the previous value");
+            assertEquals(3000.0, b.applyItemValue(items.get(1), 2500.0));
+
+            assertEquals(1500.0, items.get(0).getValue());
+            assertEquals(1500.0, b.getTotalRevenue(), "Failure - wrong totalRevenue");
+            assertEquals(2500.0, b.getTotalExpense(), "Failure - wrong totalExpense");
+            assertEquals(-1000.0, b.getNetResult(), "Failure - wrong netResult");
+        }
+
+        @Test
+        void rejectsItemOfAnotherBudget() {
+            List<BudgetItem> items = sampleBudgetItems();
+            Budget b = new Budget(items, 2025, 1000.0, 3000.0, -2000.0);
+            BudgetItem copy = new BudgetItem(items.get(0).getId(), 2025,
+                items.get(0).getName(), items.get(0).getValue(), true, List.of());
+
+            assertThrows(IllegalArgumentException.class,
+                () -> b.applyItemValue(copy, 1500.0));
+            assertEquals(1000.0, b.getTotalRevenue(),
+                "Failure - a rejected change should not move the totals");
+        }
+
+        @Test
+        void rejectsNullItem() {
+            Budget b = new Budget(sampleBudgetItems(), 2025);
+
+            assertThrows(IllegalArgumentException.class,
+                () -> b.applyItemValue(null, 1.0));
+        }
+    }
+
+    @Nested
+    class TestFreeze {
+
+        @Test
+        void frozenBudgetRejectsChanges() {
+            Budget b = new Budget(sampleBudgetItems(), 2025, 1000.0, 3000.0, -2000.0);
+            BudgetItem item = b.findItem(11).orElseThrow();
+            assertFalse(b.isFrozen());
+
+            b.freeze();
+
+            assertTrue(b.isFrozen());
+            assertThrows(IllegalStateException.class, () -> b.setItems(List.of()));
+            assertThrows(IllegalStateException.class, () -> b.applyItemValue(item, 5.0));
+            assertThrows(IllegalStateException.class, () -> b.setTotalRevenue(5.0));
+            assertThrows(IllegalStateException.class, () -> item.setValue(5.0));
+            assertThrows(IllegalStateException.class, () -> item.setName("x"));
+            assertEquals(1000.0, b.getTotalRevenue(), "Failure - frozen budget changed");
+            assertEquals(1000.0, item.getValue(), "Failure - frozen item changed");
+        }
+    }
+
     @Nested
     class TestToString {
 
@@ -1,6 +1,8 @@
 package budget.backend.model.domain;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -70,6 +72,29 @@ class TestBudgetItem {
         assertFalse(item.getMinistries().contains(Ministry.HEALTH), "Failure - ministries list was modified");
     }
 
+    @Test
+    void testHasMinistry() {
+        assertTrue(item.hasMinistry(Ministry.FINANCE), "Failure - ministry should be found");
+        assertFalse(item.hasMinistry(Ministry.HEALTH), "Failure - ministry should not be found");
+        assertFalse(item.hasMinistry(null), "Failure - null ministry should not be found");
+        assertTrue(item.hasMinistries(), "Failure - item should have ministries");
+        assertFalse(new BudgetItem(2, 2024, "Fees", 1.0, true, List.of()).hasMinistries(),
+            "Failure - item without ministries");
+    }
+
+    @Test
+    void testMinistriesKeepTheirOrder() {
+        List<Ministry> given = Arrays.asList(
+            Ministry.FINANCE, Ministry.HEALTH, null, Ministry.FINANCE);
+        BudgetItem shared = new BudgetItem(2, 2024, "Fees", 1.0, true, given);
+
+        assertEquals(given, shared.getMinistries(),
+            "Failure - ministries should be listed as the item was created with them");
+        assertEquals(EnumSet.of(Ministry.HEALTH, Ministry.FINANCE), shared.getMinistrySet());
+        shared.getMinistrySet().clear();
+        assertEquals(2, shared.getMinistrySet().size(), "Failure - ministries set was modified");
+    }
+
     // Test toString() formatting
 
     @Test
@@ -8,6 +8,8 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
+import budget.backend.util.TimestampUtils;
+
 public class TestChangeLog {
 
     private static ChangeLog changeLog;
@@ -62,6 +64,20 @@ public class TestChangeLog {
         assertNotEquals(changeLog, modified, "Failure - record should be immutable");
     }
 
+    // TEST submittedAt
+    @Test
+    void testSubmittedAtIsParsedOnce() {
+        ChangeLog earlier = new ChangeLog(ID, BUDGET_ITEM_ID, OLD_VALUE, NEW_VALUE,
+                "2025-11-25T12:00:00", ACTOR_USERNAME, ACTOR_ID);
+        ChangeLog later = new ChangeLog(ID, BUDGET_ITEM_ID, OLD_VALUE, NEW_VALUE,
+                "2025-11-25T12:00:01", ACTOR_USERNAME, ACTOR_ID);
+
+        assertEquals(1000, later.submittedAt() - earlier.submittedAt(),
+                "Failure - timestamps should follow the dates");
+        assertEquals(TimestampUtils.UNKNOWN, changeLog.submittedAt(),
+                "Failure - unreadable date should give an unknown timestamp");
+    }
+
     // TEST toString()
     @Test
     void testToString() {
@@ -10,6 +10,7 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.Test;
 
 import budget.backend.model.enums.Status;
+import budget.backend.util.TimestampUtils;
 
 public class TestPendingChange {
 
@@ -76,6 +77,28 @@ public class TestPendingChange {
         assertEquals(Status.REJECTED, pc.getStatus(), "Failure - wrong status after reject");
     }
 
+    @Test
+    void testSubmittedAtMatchesSubmittedDate() {
+        PendingChange pc = new PendingChange(1, BUDGET_ITEM_ID, BUDGET_ITEM_YEAR, BUDGET_ITEM_NAME, REQUESTER_NAME, REQUESTER_ID, OLD_VALUE, NEW_VALUE);
+
+        assertEquals(TimestampUtils.toEpochMillis(pc.getSubmittedDate()), pc.getSubmittedAt(),
+            "Failure - timestamp should match the stored date");
+        assertEquals(pc.getSubmittedAt(), new PendingChange(pc).getSubmittedAt(),
+            "Failure - copy should keep the timestamp");
+    }
+
+    @Test
+    void testCopyIsIndependent() {
+        PendingChange pc = new PendingChange(1, BUDGET_ITEM_ID, BUDGET_ITEM_YEAR, BUDGET_ITEM_NAME, REQUESTER_NAME, REQUESTER_ID, OLD_VALUE, NEW_VALUE);
+        pc.reject();
+
+        PendingChange copy = new PendingChange(pc);
+        assertEquals(pc.toString(), copy.toString(), "Failure - copy should keep every field");
+
+        copy.approve();
+        assertEquals(Status.REJECTED, pc.getStatus(), "Failure - original should not follow the copy");
+    }
+
     @Test
     void testToStringContainsAllFields() {
         PendingChange pc = new PendingChange(1, BUDGET_ITEM_ID, BUDGET_ITEM_YEAR, BUDGET_ITEM_NAME, REQUESTER_NAME, REQUESTER_ID, OLD_VALUE, NEW_VALUE);
@@ -0,0 +1,215 @@
+package budget.backend.repository;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import budget.backend.model.domain.Budget;
+import budget.backend.model.domain.BudgetItem;
+import budget.backend.model.enums.Ministry;
+
+/**
+ * Compares the streaming budget loader with the Gson tree-model loader it
+ * replaced and with decoding the binary snapshot, on a generated
+ * budget.json of several megabytes. Not part of
+ * the regular test run, start it with
+ * {@code mvn test -Dtest=BudgetLoadBenchmark -Dbudget.benchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "budget.benchmark", matches = "true")
+class BudgetLoadBenchmark {
+
+    private static final Gson GSON = new Gson();
+    private static final int YEARS = 120;
+    private static final int ITEMS_PER_YEAR = 600;
+    private static final int WARMUP_RUNS = 5;
+    private static final int MEASURED_RUNS = 10;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void compareStreamingWithTreeModel() throws IOException {
+        Path budgetFile = tempDir.resolve("budget.json");
+        Path ministryFile = Paths.get("src/main/resources/bill-ministry-map.json");
+        writeBudgetFile(budgetFile);
+
+        List<Budget> tree = loadWithTreeModel(budgetFile, ministryFile);
+        List<Budget> streamed = loadStreaming(budgetFile, ministryFile);
+        assertEquals(tree.size(), streamed.size());
+        for (int i = 0; i < tree.size(); i++) {
+            assertEquals(tree.get(i).getItems().size(),
+                streamed.get(i).getItems().size());
+            assertEquals(tree.get(i).getNetResult(),
+                streamed.get(i).getNetResult());
+        }
+
+        System.out.printf(Locale.ROOT, "budget.json: %.1f MB, %d items%n",
+            Files.size(budgetFile) / 1e6, YEARS * ITEMS_PER_YEAR);
+        Path snapshotFile = tempDir.resolve("budget.snapshot");
+        BudgetSnapshotFile.write(snapshotFile, false,
+            List.of(FileStamp.of(budgetFile)), streamed);
+        List<Budget> decoded = loadSnapshot(snapshotFile, ministryFile);
+        assertEquals(streamed.size(), decoded.size());
+        assertEquals(streamed.get(YEARS - 1).getNetResult(),
+            decoded.get(YEARS - 1).getNetResult());
+
+        System.out.printf(Locale.ROOT, "budget.snapshot: %.1f MB%n",
+            Files.size(snapshotFile) / 1e6);
+        report("tree model", () -> loadWithTreeModel(budgetFile, ministryFile));
+        report("streaming", () -> loadStreaming(budgetFile, ministryFile));
+        report("snapshot", () -> loadSnapshot(snapshotFile, ministryFile));
+    }
+
+    private interface Loader {
+        List<Budget> load() throws IOException;
+    }
+
+    private static void report(String name, Loader loader) throws IOException {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            loader.load();
+        }
+        com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+        long bytesBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            loader.load();
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - bytesBefore;
+        System.out.printf(Locale.ROOT, "%-10s %8.1f ms/load %8.1f MB allocated/load%n",
+            name, elapsed / 1e6 / MEASURED_RUNS, allocated / 1e6 / MEASURED_RUNS);
+    }
+
+    private static List<Budget> loadStreaming(Path budgetFile, Path ministryFile)
+            throws IOException {
+        try (JsonReader budget = GSON.newJsonReader(
+                Files.newBufferedReader(budgetFile, StandardCharsets.UTF_8));
+             JsonReader ministry = GSON.newJsonReader(
+                Files.newBufferedReader(ministryFile, StandardCharsets.UTF_8))) {
+            return BudgetRepository.parseBudgets(budget, MinistryLookup.read(ministry));
+        }
+    }
+
+    private static List<Budget> loadSnapshot(Path snapshotFile, Path ministryFile)
+            throws IOException {
+        MinistryLookup ministries;
+        try (JsonReader ministry = GSON.newJsonReader(
+                Files.newBufferedReader(ministryFile, StandardCharsets.UTF_8))) {
+            ministries = MinistryLookup.read(ministry);
+        }
+        BudgetSnapshotFile file =
+            BudgetSnapshotFile.open(snapshotFile, false).orElseThrow();
+        List<Budget> budgets = new ArrayList<>();
+        for (int year : file.years()) {
+            List<BudgetItem> items = file.items(year, ministries).orElseThrow();
+            double revenue = items.stream().filter(BudgetItem::getIsRevenue)
+                .mapToDouble(BudgetItem::getValue).sum();
+            double expense = items.stream().filter(item -> !item.getIsRevenue())
+                .mapToDouble(BudgetItem::getValue).sum();
+            budgets.add(new Budget(items, year, revenue, expense, revenue - expense));
+        }
+        return budgets;
+    }
+
+    // The loader used before streaming: whole-file JsonObject trees and
+    // JsonObject.has lookups in the ministry map for every item.
+    private static List<Budget> loadWithTreeModel(Path budgetFile, Path ministryFile)
+            throws IOException {
+        JsonObject budgetJson;
+        JsonObject ministryJson;
+        try (Reader budget = Files.newBufferedReader(budgetFile, StandardCharsets.UTF_8);
+             Reader ministry = Files.newBufferedReader(ministryFile, StandardCharsets.UTF_8)) {
+            budgetJson = GSON.fromJson(budget, JsonObject.class);
+            ministryJson = GSON.fromJson(ministry, JsonObject.class);
+        }
+        JsonObject byId = ministryJson.getAsJsonObject("byId");
+        JsonObject byName = ministryJson.getAsJsonObject("byName");
+        List<Budget> budgets = new ArrayList<>();
+        for (String yearStr : budgetJson.keySet()) {
+            int year = Integer.parseInt(yearStr);
+            JsonObject yearData = budgetJson.getAsJsonObject(yearStr);
+            List<BudgetItem> items = new ArrayList<>();
+            addTreeItems(items, yearData.getAsJsonArray("esoda"), year, true, byId, byName);
+            addTreeItems(items, yearData.getAsJsonArray("eksoda"), year, false, byId, byName);
+            double revenue = items.stream().filter(BudgetItem::getIsRevenue)
+                .mapToDouble(BudgetItem::getValue).sum();
+            double expense = items.stream().filter(item -> !item.getIsRevenue())
+                .mapToDouble(BudgetItem::getValue).sum();
+            budgets.add(new Budget(items, year, revenue, expense, revenue - expense));
+        }
+        return budgets;
+    }
+
+    private static void addTreeItems(List<BudgetItem> items, JsonArray array, int year,
+            boolean isRevenue, JsonObject byId, JsonObject byName) {
+        for (JsonElement element : array) {
+            JsonObject item = element.getAsJsonObject();
+            int id = item.get("ID").getAsInt();
+            String name = item.get("BILL").getAsString();
+            double value = item.get("VALUE").getAsDouble();
+            JsonArray mapped = byId.has(String.valueOf(id))
+                ? byId.getAsJsonArray(String.valueOf(id))
+                : byName.has(name) ? byName.getAsJsonArray(name) : new JsonArray();
+            List<Ministry> ministries = new ArrayList<>();
+            for (JsonElement ministry : mapped) {
+                ministries.add(Ministry.valueOf(ministry.getAsString()));
+            }
+            items.add(new BudgetItem(id, year, name, value, isRevenue, ministries));
+        }
+    }
+
+    private static void writeBudgetFile(Path target) throws IOException {
+        int[] mappedIds = {11, 12, 13, 14, 15, 21, 22, 23, 24};
+        try (Writer out = Files.newBufferedWriter(target, StandardCharsets.UTF_8);
+             JsonWriter writer = new JsonWriter(out)) {
+            writer.setIndent("  ");
+            writer.beginObject();
+            for (int y = 0; y < YEARS; y++) {
+                writer.name(String.valueOf(1900 + y)).beginObject();
+                writer.name("esoda").beginArray();
+                for (int i = 0; i < ITEMS_PER_YEAR / 2; i++) {
+                    writeItem(writer, mappedIds[i % mappedIds.length], "Revenue " + i, i * 1.5e6);
+                }
+                writer.endArray();
+                writer.name("eksoda").beginArray();
+                for (int i = 0; i < ITEMS_PER_YEAR / 2; i++) {
+                    writeItem(writer, 1000 + i, "Expense " + i, i * 1.2e6);
+                }
+                writer.endArray();
+                writer.endObject();
+            }
+            writer.endObject();
+        }
+    }
+
+    private static void writeItem(JsonWriter writer, int id, String bill, double value)
+            throws IOException {
+        writer.beginObject();
+        writer.name("ID").value(id);
+        writer.name("BILL").value(bill);
+        writer.name("VALUE").value(value);
+        writer.endObject();
+    }
+}
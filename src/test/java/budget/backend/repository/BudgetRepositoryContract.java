@@ -0,0 +1,506 @@
+package budget.backend.repository;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import budget.backend.model.domain.Budget;
+import budget.backend.model.domain.BudgetItem;
+import budget.backend.model.enums.Ministry;
+import budget.constants.Limits;
+
+/**
+ * The behaviour every {@link BudgetRepository} backend shares. A backend
+ * runs these tests by extending this class and creating its repository
+ * over the fresh data directory; how it stores the budgets is tested in
+ * the subclass.
+ */
+public abstract class BudgetRepositoryContract {
+
+    protected BudgetRepository repository;
+    protected Path dataDir;
+    private String originalDataDir;
+
+    /**
+     * Creates the repository under test, once the data directory holds an
+     * empty budget.json and bill-ministry map.
+     */
+    protected abstract BudgetRepository createRepository() throws Exception;
+
+    /**
+     * Releases what {@link #createRepository()} opened.
+     */
+    protected void closeRepository() {
+    }
+
+    @BeforeEach
+    void setUpDataDir(@TempDir Path tempDir) throws Exception {
+        // backup and set data dir so PathsUtil resolves files from tempDir
+        originalDataDir = System.getProperty("budget.data.dir");
+        System.setProperty("budget.data.dir", tempDir.toString());
+        dataDir = tempDir;
+        Files.writeString(tempDir.resolve("budget.json"), "{}",
+            StandardCharsets.UTF_8);
+        Files.writeString(tempDir.resolve("bill-ministry-map.json"),
+            "{ \"byId\": {}, \"byName\": {} }", StandardCharsets.UTF_8);
+        repository = createRepository();
+    }
+
+    @AfterEach
+    void tearDownDataDir() {
+        closeRepository();
+        if (originalDataDir == null) {
+            System.clearProperty("budget.data.dir");
+        } else {
+            System.setProperty("budget.data.dir", originalDataDir);
+        }
+    }
+
+    protected static Budget yearBudget(int year) {
+        BudgetItem item = new BudgetItem(1, year, "Item", 10, true, List.of());
+        return new Budget(List.of(item), year, 10, 0, 10);
+    }
+
+    protected static Budget createBudget(int year, double revenue) {
+        List<BudgetItem> items = new ArrayList<>();
+        items.add(new BudgetItem(2, year, "Defense", 300.0, false,
+            List.of(Ministry.DEFENSE, Ministry.FINANCE)));
+        items.add(new BudgetItem(1, year, "Taxes", revenue, true,
+            List.of(Ministry.FINANCE)));
+        items.add(new BudgetItem(3, year, "Health", 200.0, false,
+            List.of()));
+        return new Budget(items, year, revenue, 500.0, revenue - 500.0);
+    }
+
+    @Test
+    void testLoadEmpty() {
+        List<Budget> budgets = repository.load();
+        assertNotNull(budgets, "load() should never return null");
+        assertTrue(budgets.isEmpty(), "With empty JSON we expect empty list");
+    }
+
+    @Test
+    void testSaveAndReload() {
+        BudgetItem r = new BudgetItem(10, 2030, "RevenueX", 500.0, true, List.of(Ministry.FINANCE));
+        BudgetItem e = new BudgetItem(11, 2030, "ExpenseY", 200.0, false, List.of(Ministry.HEALTH));
+        Budget b = new Budget(List.of(r, e), 2030, 500.0, 200.0, 300.0);
+
+        repository.save(b);
+
+        // after save, repository.load() should read back the persisted budget.json
+        List<Budget> loaded = repository.load();
+        assertEquals(1, loaded.size(), "After save we should have one budget");
+        Budget read = loaded.get(0);
+        assertEquals(2030, read.getYear());
+        assertEquals(2, read.getItems().size());
+    }
+
+    @Test
+    void testSaveReplaceExistingYear() {
+        BudgetItem r1 = new BudgetItem(20, 2040, "R1", 100, true, List.of());
+        Budget b1 = new Budget(List.of(r1), 2040, 100, 0, 100);
+        repository.save(b1);
+
+        // replace with different content for same year
+        BudgetItem r2 = new BudgetItem(21, 2040, "R2", 200, true, List.of());
+        Budget b2 = new Budget(List.of(r2), 2040, 200, 0, 200);
+        repository.save(b2);
+
+        List<Budget> loaded = repository.load();
+        assertEquals(1, loaded.size(), "Year 2040 should be stored once");
+        Budget read = loaded.get(0);
+        assertEquals(1, read.getItems().size());
+        assertEquals(21, read.getItems().get(0).getId());
+    }
+
+    @Test
+    void testSaveNullDoesNotThrow() {
+        assertDoesNotThrow(() -> repository.save(null), "Saving null must not throw");
+        assertTrue(repository.load().isEmpty(), "No budgets should be present after saving null");
+    }
+
+    @Test
+    void testSaveAtMinYear() {
+        BudgetItem item = new BudgetItem(1, Limits.MIN_BUDGET_YEAR, "MinYear", 100, true, List.of());
+        Budget b = new Budget(List.of(item), Limits.MIN_BUDGET_YEAR, 100, 0, 100);
+
+        assertDoesNotThrow(() -> repository.save(b));
+        assertTrue(repository.existsById(Limits.MIN_BUDGET_YEAR));
+    }
+
+    @Test
+    void testExistsByIdAndFindById() {
+        BudgetItem item = new BudgetItem(30, 2050, "X", 100, true, List.of());
+        Budget b = new Budget(List.of(item), 2050, 100, 0, 100);
+        repository.save(b);
+
+        assertTrue(repository.existsById(2050));
+        Optional<Budget> found = repository.findById(2050);
+        assertTrue(found.isPresent());
+        assertEquals(2050, found.get().getYear());
+    }
+
+    @Test
+    void testExistsByIdNull() {
+        assertFalse(repository.existsById(null));
+    }
+
+    @Test
+    void testFindByIdNull() {
+        Optional<Budget> found = repository.findById(null);
+        assertTrue(found.isEmpty());
+    }
+
+    @Test
+    void testFindByIdBelowMinYear() {
+        Optional<Budget> found = repository.findById(Limits.MIN_BUDGET_YEAR - 1);
+        assertTrue(found.isEmpty());
+
+        Optional<Budget> found2 = repository.findById(1999);
+        assertTrue(found2.isEmpty());
+    }
+
+    @Test
+    void testExistsByNameAndExistsByItemIdFindItemById() {
+        BudgetItem i1 = new BudgetItem(40, 2060, "IncomeA", 100, true, List.of());
+        BudgetItem i2 = new BudgetItem(41, 2060, "ExpenseB", 50, false, List.of());
+        Budget b = new Budget(List.of(i1, i2), 2060, 100, 50, 50);
+        repository.save(b);
+
+        assertTrue(repository.existsByName("IncomeA", 2060));
+        assertFalse(repository.existsByName("NoSuch", 2060));
+
+        assertTrue(repository.existsByItemId(40, 2060));
+        assertFalse(repository.existsByItemId(999, 2060));
+
+        Optional<BudgetItem> found = repository.findItemById(41, 2060, false);
+        assertTrue(found.isPresent());
+        assertEquals("ExpenseB", found.get().getName());
+    }
+
+    @Test
+    void testExistsByNameWithNullName() {
+        assertFalse(repository.existsByName(null, 2025),
+                                "Failure - can't search with null name");
+    }
+
+    @Test
+    void testExistsByNameWhenBudgetForThatYearDoesntExist() {
+        BudgetItem i1 = new BudgetItem(40, 2060, "IncomeA", 100, true, List.of());
+        Budget b = new Budget(List.of(i1), 2060, 100, 50, 50);
+        repository.save(b);
+
+        assertFalse(repository.existsByName("IncomeA", 2025),
+                                "Failure - Item name doesn't exist for year 2025");
+    }
+
+    @Test
+    void testExistsByItemIdInvalidParams() {
+        // invalid id
+        assertFalse(repository.existsByItemId(0, 2060));
+        assertFalse(repository.existsByItemId(1, 2060));
+        // invalid year (< limits) - repository uses Limits.MIN_BUDGET_YEAR (= 2000),
+        // pass a year earlier than that to assert false behavior
+        assertFalse(repository.existsByItemId(1, 1900));
+    }
+
+    @Test
+    void testFindItemById() {
+        List<Optional<BudgetItem>> listOfBudgetItems = new ArrayList<>();
+        var b1 = repository.findItemById(-1, 2025, true);
+        var b2 = repository.findItemById(1, 1999, false);
+        var b3 = repository.findItemById(1, 2060, true);
+
+        listOfBudgetItems.addAll(List.of(b1,b2,b3));
+
+        for (var b : listOfBudgetItems) {
+            assertTrue(b.isEmpty(), "Failure - optional should be empty");
+        }
+    }
+
+    @Test
+    void testFindItemByIdWithBudgetFail() {
+        var opt1 = repository.findItemById(-1, new Budget(List.of(), 2025, 0, 0, 0), true);
+        assertTrue(opt1.isEmpty(),"Failure - negative id should return empty optional");
+        var opt2 = repository.findItemById(1,null, true);
+        assertTrue(opt2.isEmpty(), "Failure - null budget should return empty optional");
+    }
+
+    @Test
+    void testFindItemByIdWithBudget() {
+        BudgetItem r = new BudgetItem(10, 2025, "RevenueX", 500.0, true, List.of(Ministry.FINANCE));
+        BudgetItem e = new BudgetItem(11, 2025, "ExpenseY", 200.0, false, List.of(Ministry.HEALTH));
+        Budget b = new Budget(List.of(r, e), 2025, 500.0, 200.0, 300.0);
+
+        repository.save(b);
+
+        var itemOpt = repository.findItemById(r.getId(), b, r.getIsRevenue());
+        assertTrue(itemOpt.isPresent(), "Failure - findItemById not working properly");
+    }
+
+    @Test
+    void testDeleteExistingAndNonExistingAndNull() {
+        BudgetItem item = new BudgetItem(50, 2050, "D", 10, true, List.of());
+        Budget b = new Budget(List.of(item), 2050, 10, 0, 10);
+        repository.save(b);
+
+        // delete existing
+        repository.delete(b);
+        assertFalse(repository.existsById(2050));
+
+        // delete non-existing (should not throw)
+        assertDoesNotThrow(() -> repository.delete(new Budget(List.of(), 2000, 0, 0, 0)));
+
+        // delete null should not throw
+        assertDoesNotThrow(() -> repository.delete(null));
+    }
+
+    @Test
+    void testFullCrudCycle() {
+        // create
+        BudgetItem item = new BudgetItem(77, 2050, "Full", 111, true, List.of());
+        Budget b = new Budget(List.of(item), 2050, 111, 0, 111);
+        repository.save(b);
+        assertTrue(repository.existsById(2050));
+
+        // read
+        Optional<Budget> read = repository.findById(2050);
+        assertTrue(read.isPresent());
+        assertEquals(1, read.get().getItems().size());
+
+        // update (replace same year)
+        Budget updated = new Budget(List.of(new BudgetItem(78, 2050, "Full2", 222, false, List.of())), 2050, 0, 222, -222);
+        repository.save(updated);
+
+        Optional<Budget> afterUpdate = repository.findById(2050);
+        assertTrue(afterUpdate.isPresent());
+        assertEquals(78, afterUpdate.get().getItems().get(0).getId());
+
+        // delete
+        repository.delete(afterUpdate.get());
+        assertFalse(repository.existsById(2050));
+    }
+
+    @Test
+    void testMultipleBudgets() {
+        repository.save(new Budget(List.of(new BudgetItem(1, 2000, "A", 1, true, List.of())), 2000, 1, 0, 1));
+        repository.save(new Budget(List.of(new BudgetItem(2, 2001, "B", 2, true, List.of())), 2001, 2, 0, 2));
+        repository.save(new Budget(List.of(new BudgetItem(3, 2002, "C", 3, true, List.of())), 2002, 3, 0, 3));
+
+        List<Budget> all = repository.load();
+        assertEquals(3, all.size());
+
+        // delete middle one and ensure others remain
+        repository.delete(new Budget(List.of(), 2001, 0, 0, 0));
+        all = repository.load();
+        assertEquals(2, all.size());
+        assertTrue(repository.existsById(2000));
+        assertFalse(repository.existsById(2001));
+        assertTrue(repository.existsById(2002));
+    }
+
+    @Test
+    void testExportAndImportSingleFile(@TempDir Path exportDir) throws IOException {
+        BudgetItem a = new BudgetItem(1, 2025, "A", 10.0, true, List.of());
+        BudgetItem b = new BudgetItem(2, 2026, "B", 20.0, false, List.of());
+        repository.save(new Budget(List.of(a), 2025, 10.0, 0, 10.0));
+        repository.save(new Budget(List.of(b), 2026, 0, 20.0, -20.0));
+        Path exported = exportDir.resolve("export.json");
+
+        assertTrue(repository.exportToFile(exported));
+        repository.delete(repository.findById(2025).orElseThrow());
+        assertTrue(repository.importFromFile(exported));
+
+        List<Budget> loaded = repository.load();
+        assertEquals(List.of(2025, 2026),
+            loaded.stream().map(Budget::getYear).toList());
+        assertEquals(-20.0, loaded.get(1).getNetResult(), 0.0001);
+        assertFalse(repository.importFromFile(exportDir.resolve("missing.json")));
+        assertEquals(2, repository.load().size());
+    }
+
+    @Test
+    void testFindByYearRangeIndexesYears() {
+        repository.saveAll(List.of(yearBudget(2020), yearBudget(2022)));
+
+        BudgetYearRange range = repository.findByYearRange(2019, 2023);
+        assertEquals(2019, range.getStartYear());
+        assertEquals(2023, range.getEndYear());
+        assertEquals(List.of(2020, 2022),
+            range.getBudgets().stream().map(Budget::getYear).toList());
+        assertTrue(range.findByYear(2021).isEmpty());
+        assertTrue(range.findByYear(2023).isEmpty());
+        assertEquals(10.0, range.findByYear(2022).orElseThrow()
+            .getTotalRevenue(), 0.0001);
+        assertTrue(repository.findByYearRange(2023, 2019).getBudgets().isEmpty());
+    }
+
+    @Test
+    void testItemValuesAreIndexedByNameAndYear() {
+        BudgetItem tax = new BudgetItem(1, 2020, "Tax", 10.0, true, List.of());
+        BudgetItem duplicate = new BudgetItem(3, 2020, "Tax", 99.0, true, List.of());
+        BudgetItem roads = new BudgetItem(2, 2020, "Roads", 4.0, false, List.of());
+        BudgetItem tax22 = new BudgetItem(1, 2022, "Tax", 30.0, true, List.of());
+        repository.saveAll(List.of(
+            new Budget(List.of(tax, roads, duplicate), 2020, 109.0, 4.0, 105.0),
+            new Budget(List.of(tax22), 2022, 30.0, 0.0, 30.0)));
+
+        ItemValueMatrix revenue =
+            repository.findByYearRange(2020, 2023).itemValues(true);
+
+        assertEquals(Set.of("Tax"), revenue.getItemNames());
+        assertArrayEquals(new double[] {10.0, 0.0, 30.0},
+            revenue.getValues("Tax"), 0.0001);
+        assertArrayEquals(new double[3], revenue.getValues("Roads"), 0.0001);
+        assertEquals(30.0, revenue.getValue("Tax", 2022), 0.0001);
+        assertEquals(0.0, revenue.getValue("Tax", 2023), 0.0001);
+        assertEquals(4.0, repository.findByYearRange(2020, 2023)
+            .itemValues(false).getValue("Roads", 2020), 0.0001);
+    }
+
+    @Test
+    void testReadersRunAlongsideWriters() throws Exception {
+        repository.save(yearBudget(2020));
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int r = 0; r < 3; r++) {
+                tasks.add(pool.submit(() -> {
+                    for (int i = 0; i < 200; i++) {
+                        assertTrue(repository.existsById(2020));
+                        assertTrue(repository.findItemById(1, 2020, true).isPresent(),
+                            "Failure - readers must never see a partial budget");
+                    }
+                }));
+            }
+            tasks.add(pool.submit(() -> {
+                for (int year = 2021; year < 2041; year++) {
+                    repository.save(yearBudget(year));
+                }
+            }));
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(21, repository.load().size());
+    }
+
+    @Test
+    void testConcurrentUpdatesOfOneYearAreNotLost() throws Exception {
+        List<BudgetItem> items = new ArrayList<>();
+        for (int id = 1; id <= 4; id++) {
+            items.add(new BudgetItem(id, 2020, "Item " + id, 0, true, List.of()));
+        }
+        repository.save(new Budget(items, 2020, 0, 0, 0));
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int id = 1; id <= 4; id++) {
+                int itemId = id;
+                tasks.add(pool.submit(() -> {
+                    for (int i = 0; i < 10; i++) {
+                        assertTrue(repository.updateBudget(2020, budget -> {
+                            BudgetItem item =
+                                budget.findItem(itemId, true).orElseThrow();
+                            budget.applyItemValue(item, item.getValue() + 1);
+                        }));
+                    }
+                }));
+            }
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(40.0, repository.findById(2020).orElseThrow().getTotalRevenue(),
+            0.0001, "Failure - every update should be kept");
+        assertFalse(repository.updateBudget(2021, budget -> { }));
+    }
+
+    @Test
+    void testSaveAfterSaveAllReplacesYear() {
+        repository.saveAll(List.of(createBudget(2026, 1.0),
+            createBudget(2024, 2.0)));
+        repository.save(createBudget(2026, 5.0));
+
+        List<Budget> budgets = repository.load();
+        assertEquals(List.of(2024, 2026),
+            budgets.stream().map(Budget::getYear).sorted().toList());
+        assertEquals(5.0,
+            repository.findById(2026).orElseThrow().getTotalRevenue(), 0.0001);
+        assertEquals(2, repository.snapshot().getBudgets().size());
+    }
+
+    @Test
+    void testExistsAndFindItem() {
+        repository.save(createBudget(2025, 1000.0));
+
+        assertTrue(repository.existsById(2025));
+        assertFalse(repository.existsById(2024));
+        assertFalse(repository.existsById(null));
+        assertTrue(repository.existsByName("Health", 2025));
+        assertFalse(repository.existsByName("health", 2025));
+        assertTrue(repository.existsByItemId(3, 2025));
+        assertFalse(repository.existsByItemId(3, 2026));
+        assertEquals("Taxes",
+            repository.findItemById(1, 2025, true).orElseThrow().getName());
+        assertTrue(repository.findItemById(1, 2025, false).isEmpty());
+    }
+
+    @Test
+    void testDeleteRemovesItemsAndFindAllById() {
+        repository.saveAll(List.of(createBudget(2024, 1.0),
+            createBudget(2025, 2.0)));
+        repository.delete(createBudget(2024, 0.0));
+        repository.delete(createBudget(2030, 0.0));
+
+        assertFalse(repository.existsByItemId(1, 2024));
+        assertEquals(List.of(2025), repository.findAllById(
+            Arrays.asList(2024, null, 2025)).stream()
+            .map(Budget::getYear).toList());
+    }
+
+    @Test
+    void testUpdateBudgetAppliesChangeInOneStep() {
+        repository.save(createBudget(2025, 1000.0));
+
+        assertTrue(repository.updateBudget(2025,
+            budget -> budget.applyItemValue(
+                budget.findItem(1).orElseThrow(), 1500.0)));
+        assertFalse(repository.updateBudget(2030, budget -> { }));
+        assertEquals(1500.0,
+            repository.findById(2025).orElseThrow().getTotalRevenue(),
+            0.0001);
+        assertThrows(IllegalStateException.class,
+            () -> repository.updateBudget(2025, budget -> {
+                throw new IllegalStateException("rejected");
+            }));
+        assertEquals(1500.0,
+            repository.findById(2025).orElseThrow().getTotalRevenue(),
+            0.0001);
+    }
+}
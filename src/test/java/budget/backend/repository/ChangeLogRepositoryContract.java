@@ -0,0 +1,687 @@
+package budget.backend.repository;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import budget.backend.model.domain.ChangeLog;
+
+/**
+ * The behaviour every {@link ChangeLogRepository} backend shares. A backend
+ * runs these tests by extending this class and creating its repository
+ * over the fresh data directory; how it stores the logs is tested in the
+ * subclass.
+ */
+public abstract class ChangeLogRepositoryContract {
+
+    protected static final DateTimeFormatter DATE_FORMATTER =
+        DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    protected ChangeLogRepository repository;
+    protected Path dataDir;
+    private String originalDataDir;
+
+    protected ChangeLog testLog1;
+    protected ChangeLog testLog2;
+    protected ChangeLog testLog3;
+
+    protected UUID userId1;
+    protected UUID userId2;
+
+    /**
+     * Creates the repository under test, once the data directory holds an
+     * empty budget-changes.json.
+     */
+    protected abstract ChangeLogRepository createRepository() throws Exception;
+
+    /**
+     * Releases what {@link #createRepository()} opened.
+     */
+    protected void closeRepository() {
+    }
+
+    @BeforeEach
+    void setUpDataDir(@TempDir Path tempDir) throws Exception {
+        // Backup and set data dir so PathsUtil resolves files from tempDir
+        originalDataDir = System.getProperty("budget.data.dir");
+        System.setProperty("budget.data.dir", tempDir.toString());
+        dataDir = tempDir;
+        Files.writeString(tempDir.resolve("budget-changes.json"), "[]");
+        repository = createRepository();
+
+        // Create test data
+        userId1 = UUID.randomUUID();
+        userId2 = UUID.randomUUID();
+
+        String date1 = LocalDateTime.now().minusDays(2).format(DATE_FORMATTER);
+        String date2 = LocalDateTime.now().minusDays(1).format(DATE_FORMATTER);
+        String date3 = LocalDateTime.now().format(DATE_FORMATTER);
+
+        testLog1 = new ChangeLog(1, 100, 0.0, 1000.0, date1, "John Doe",
+            userId1);
+        testLog2 = new ChangeLog(2, 100, 1000.0, 1500.0, date2, "Jane Smith",
+            userId2);
+        testLog3 = new ChangeLog(3, 200, 500.0, 0.0, date3, "John Doe",
+            userId1);
+    }
+
+    @AfterEach
+    void tearDownDataDir() {
+        // let background compaction finish before the temp dir is removed
+        repository.awaitCompaction();
+        closeRepository();
+        if (originalDataDir == null) {
+            System.clearProperty("budget.data.dir");
+        } else {
+            System.setProperty("budget.data.dir", originalDataDir);
+        }
+    }
+
+    @Test
+    void testLoadEmptyFile() {
+        List<ChangeLog> result = repository.load();
+        
+        assertNotNull(result, "Failure - load should not return null");
+        assertTrue(result.isEmpty(), "Failure - should return empty list");
+    }
+
+    @Test
+    void testLoadValidJsonFile() {
+        repository.save(testLog1);
+        
+        List<ChangeLog> result = repository.load();
+        
+        assertNotNull(result, "Failure - load should not return null");
+        assertEquals(1, result.size(), "Failure - should return 1 log");
+        assertEquals(1, result.get(0).id(), "Failure - id should match");
+        assertEquals(100, result.get(0).budgetItemId(), "Failure - budgetItemId should match");
+        assertEquals(0.0, result.get(0).oldValue(), "Failure - oldValue should match");
+        assertEquals(1000.0, result.get(0).newValue(), "Failure - newValue should match");
+    }
+
+    @Test
+    void testLoadMultipleRecords() {
+        repository.save(testLog1);
+        repository.save(testLog2);
+        repository.save(testLog3);
+        
+        List<ChangeLog> result = repository.load();
+        
+        assertNotNull(result, "Failure - load should not return null");
+        assertEquals(3, result.size(), "Failure - should return 3 logs");
+    }
+
+    @Test
+    void testSaveNewEntity() {
+        repository.save(testLog1);
+        
+        List<ChangeLog> result = repository.load();
+        assertEquals(1, result.size(), "Failure - should have 1 log");
+        assertEquals(testLog1.id(), result.get(0).id(), "Failure - id should match");
+        assertEquals(testLog1.actorName(), result.get(0).actorName(), "Failure - actorName should match");
+        assertEquals(testLog1.oldValue(), result.get(0).oldValue(), "Failure - oldValue should match");
+        assertEquals(testLog1.newValue(), result.get(0).newValue(), "Failure - newValue should match");
+    }
+
+    @Test
+    void testSaveMultipleNewEntities() {
+        repository.save(testLog1);
+        repository.save(testLog2);
+        repository.save(testLog3);
+        
+        List<ChangeLog> result = repository.load();
+        assertEquals(3, result.size(), "Failure - should have 3 logs");
+    }
+
+    @Test
+    void testSaveUpdateExistingEntity() {
+        repository.save(testLog1);
+        
+        ChangeLog updatedLog = new ChangeLog(
+            1,
+            100,
+            0.0,
+            2000.0,
+            LocalDateTime.now().format(DATE_FORMATTER),
+            "John Doe Updated",
+            testLog1.actorId()
+        );
+        
+        repository.save(updatedLog);
+        
+        List<ChangeLog> result = repository.load();
+        assertEquals(1, result.size(), "Failure - should still have 1 log");
+        assertEquals(2000.0, result.get(0).newValue(), "Failure - newValue should be updated");
+        assertEquals("John Doe Updated", result.get(0).actorName(), "Failure - actorName should be updated");
+    }
+
+    @Test
+    void testSaveNull() {
+        assertDoesNotThrow(() -> repository.save(null), "Failure - saving null shouldn't throw");
+        
+        List<ChangeLog> result = repository.load();
+        assertTrue(result.isEmpty(), "Failure - should have 0 logs after saving null");
+    }
+
+    @Test
+    void testExistsByIdTrue() {
+        repository.save(testLog1);
+        repository.save(testLog2);
+        
+        boolean exists = repository.existsById(1);
+        
+        assertTrue(exists, "Failure - should return true for existing id");
+    }
+
+    @Test
+    void testExistsByIdFalse() {
+        repository.save(testLog1);
+        repository.save(testLog2);
+        
+        boolean exists = repository.existsById(999);
+        
+        assertFalse(exists, "Failure - should return false for non-existing id");
+    }
+
+    @Test
+    void testExistsByIdNull() {
+        boolean exists = repository.existsById(null);
+        assertFalse(exists, "Failure - should return false for null id");
+    }
+
+    @Test
+    void testExistsByIdEmptyList() {
+        boolean exists = repository.existsById(1);
+        
+        assertFalse(exists, "Failure - should return false for empty list");
+    }
+
+    @Test
+    void testFindByIdExisting() {
+        repository.save(testLog1);
+        repository.save(testLog2);
+        repository.save(testLog3);
+        
+        Optional<ChangeLog> result = repository.findById(2);
+        
+        assertTrue(result.isPresent(), "Failure - should find existing log");
+        assertEquals(2, result.get().id(), "Failure - id should match");
+        assertEquals(testLog2.actorName(), result.get().actorName(), "Failure - actorName should match");
+        assertEquals(testLog2.budgetItemId(), result.get().budgetItemId(), "Failure - budgetItemId should match");
+    }
+
+    @Test
+    void testFindByIdNonExisting() {
+        repository.save(testLog1);
+        repository.save(testLog2);
+        
+        Optional<ChangeLog> result = repository.findById(999);
+        
+        assertTrue(result.isEmpty(), "Failure - should return empty for non-existing id");
+    }
+
+    @Test
+    void testFindByIdNull() {
+        Optional<ChangeLog> result = repository.findById(null);
+        assertTrue(result.isEmpty(), "Failure - should return empty for null id");
+    }
+
+    @Test
+    void testFindByIdEmptyList() {
+        Optional<ChangeLog> result = repository.findById(1);
+        
+        assertTrue(result.isEmpty(), "Failure - should return empty for empty list");
+    }
+
+    @Test
+    void testGetLogsForItemValid() {
+        repository.save(testLog1);
+        repository.save(testLog2);
+        repository.save(testLog3);
+        
+        List<ChangeLog> result = repository.getLogsForItem(100);
+        
+        assertEquals(2, result.size(), "Failure - should return 2 logs for item 100");
+        assertTrue(result.stream().allMatch(log -> log.budgetItemId() == 100), 
+            "Failure - all logs should have budgetItemId 100");
+        assertTrue(result.contains(testLog1), "Failure - should contain testLog1");
+        assertTrue(result.contains(testLog2), "Failure - should contain testLog2");
+    }
+
+    @Test
+    void testGetLogsForItemNoMatching() {
+        repository.save(testLog1);
+        repository.save(testLog2);
+        
+        List<ChangeLog> result = repository.getLogsForItem(999);
+        
+        assertTrue(result.isEmpty(), "Failure - should return empty list for non-matching item");
+    }
+
+    @Test
+    void testGetLogsForItemNull() {
+        IllegalArgumentException exception = assertThrows(
+            IllegalArgumentException.class,
+            () -> repository.getLogsForItem(null),
+            "Failure - should throw for null itemId"
+        );
+        assertEquals("Item ID cannot be null", exception.getMessage(), 
+            "Failure - exception message should match");
+    }
+
+    @Test
+    void testGetLogsByUserValid() {
+        repository.save(testLog1);
+        repository.save(testLog2);
+        repository.save(testLog3);
+        
+        List<ChangeLog> result = repository.getLogsByUser(userId1);
+        
+        assertEquals(2, result.size(), "Failure - should return 2 logs for userId1");
+        assertTrue(result.stream().allMatch(log -> log.actorId().equals(userId1)), 
+            "Failure - all logs should have actorId userId1");
+        assertTrue(result.contains(testLog1), "Failure - should contain testLog1");
+        assertTrue(result.contains(testLog3), "Failure - should contain testLog3");
+    }
+
+    @Test
+    void testGetLogsByUserNoMatching() {
+        repository.save(testLog1);
+        repository.save(testLog2);
+        
+        UUID randomUserId = UUID.randomUUID();
+        List<ChangeLog> result = repository.getLogsByUser(randomUserId);
+        
+        assertTrue(result.isEmpty(), "Failure - should return empty list for non-matching user");
+    }
+
+    @Test
+    void testGetLogsByUserNull() {
+        IllegalArgumentException exception = assertThrows(
+            IllegalArgumentException.class,
+            () -> repository.getLogsByUser(null),
+            "Failure - should throw for null userId"
+        );
+        assertEquals("User ID cannot be null", exception.getMessage(), 
+            "Failure - exception message should match");
+    }
+
+    @Test
+    void testGetLogsForItemPaged() {
+        repository.saveAll(List.of(testLog1, testLog2, testLog3));
+
+        assertEquals(List.of(testLog1), repository.getLogsForItem(100, 0, 1));
+        assertEquals(List.of(testLog2), repository.getLogsForItem(100, 1, 5));
+        assertTrue(repository.getLogsForItem(100, 2, 5).isEmpty(),
+            "Failure - a page past the last log should be empty");
+        assertEquals(List.of(testLog1, testLog3),
+            repository.getLogsByUser(userId1, 0, 2));
+        assertEquals(List.of(testLog3), repository.getLogsByUser(userId1, 1, 1));
+    }
+
+    @Test
+    void testGetLogsPagedRejectsNegativeBounds() {
+        assertThrows(IllegalArgumentException.class,
+            () -> repository.getLogsForItem(100, -1, 1));
+        assertThrows(IllegalArgumentException.class,
+            () -> repository.getLogsByUser(userId1, 0, -1));
+    }
+
+    @Test
+    void testFindPageWalksEveryPage() {
+        repository.saveAll(List.of(testLog1, testLog2, testLog3));
+
+        Page<ChangeLog> first = repository.findPage(
+            ChangeQuery.sortedBy(ChangeQuery.Sort.NEWEST_FIRST, 2), null);
+        assertEquals(List.of(testLog3, testLog2), first.items());
+        assertTrue(first.hasNext(), "Failure - a second page should follow");
+        Page<ChangeLog> second = repository.findPage(
+            ChangeQuery.sortedBy(ChangeQuery.Sort.NEWEST_FIRST, 2),
+            first.nextCursor());
+        assertEquals(List.of(testLog1), second.items());
+        assertFalse(second.hasNext(), "Failure - last page has no cursor");
+
+        ChangeQuery oldest = ChangeQuery.sortedBy(
+            ChangeQuery.Sort.OLDEST_FIRST, 3);
+        Page<ChangeLog> all = repository.findPage(oldest, null);
+        assertEquals(List.of(testLog1, testLog2, testLog3), all.items());
+        assertFalse(all.hasNext(),
+            "Failure - an exactly full last page has no cursor");
+    }
+
+    @Test
+    void testFindPageAppliesFilters() {
+        repository.saveAll(List.of(testLog1, testLog2, testLog3));
+        ChangeQuery newest = ChangeQuery.sortedBy(
+            ChangeQuery.Sort.NEWEST_FIRST, 10);
+
+        assertEquals(List.of(testLog2, testLog1),
+            repository.findPage(newest.withItem(100), null).items());
+        assertEquals(List.of(testLog1, testLog3), repository.findPage(
+            newest.withActor(userId1).withSort(ChangeQuery.Sort.AMOUNT_DESC),
+            null).items());
+        assertEquals(List.of(testLog3), repository.findPage(
+            newest.withDirection(ChangeQuery.Direction.DECREASES),
+            null).items());
+        assertEquals(List.of(testLog3, testLog2), repository.findPage(
+            newest.withDateRange(
+                LocalDateTime.now().minusDays(1).minusMinutes(1), null),
+            null).items());
+        assertEquals(List.of(testLog2, testLog1, testLog3), repository.findPage(
+            newest.withSort(ChangeQuery.Sort.NAME_ASC), null).items());
+    }
+
+    @Test
+    void testFindPageCursorSurvivesDeletes() {
+        repository.saveAll(List.of(testLog1, testLog2, testLog3));
+        ChangeQuery query = ChangeQuery.sortedBy(
+            ChangeQuery.Sort.NEWEST_FIRST, 2);
+        Page<ChangeLog> first = repository.findPage(query, null);
+
+        repository.delete(testLog3);
+        repository.delete(testLog2);
+        assertEquals(List.of(testLog1),
+            repository.findPage(query, first.nextCursor()).items());
+    }
+
+    @Test
+    void testFindPageRejectsInvalidArguments() {
+        repository.saveAll(List.of(testLog1, testLog2, testLog3));
+        ChangeQuery query = ChangeQuery.sortedBy(
+            ChangeQuery.Sort.NEWEST_FIRST, 1);
+        String cursor = repository.findPage(query, null).nextCursor();
+
+        assertThrows(IllegalArgumentException.class,
+            () -> repository.findPage(null, null));
+        assertThrows(IllegalArgumentException.class, () -> repository.findPage(
+            query.withSort(ChangeQuery.Sort.NAME_ASC), cursor));
+        assertThrows(IllegalArgumentException.class,
+            () -> repository.findPage(query, "not a cursor"));
+    }
+
+    @Test
+    void testDeleteExisting() {
+        repository.save(testLog1);
+        repository.save(testLog2);
+        repository.save(testLog3);
+        
+        repository.delete(testLog1);
+        
+        List<ChangeLog> result = repository.load();
+        assertEquals(2, result.size(), "Failure - should have 2 logs after delete");
+        assertFalse(result.stream().anyMatch(log -> log.id() == testLog1.id()), 
+            "Failure - should not contain deleted log");
+        assertTrue(result.contains(testLog2), "Failure - should contain testLog2");
+        assertTrue(result.contains(testLog3), "Failure - should contain testLog3");
+    }
+
+    @Test
+    void testDeleteNonExisting() {
+        repository.save(testLog1);
+        repository.save(testLog2);
+        
+        ChangeLog nonExistingLog = new ChangeLog(
+            999,
+            300,
+            100.0,
+            200.0,
+            LocalDateTime.now().format(DATE_FORMATTER),
+            "Non Existing",
+            UUID.randomUUID()
+        );
+        
+        assertDoesNotThrow(() -> repository.delete(nonExistingLog), 
+            "Failure - deleting non-existing log shouldn't throw");
+        
+        List<ChangeLog> result = repository.load();
+        assertEquals(2, result.size(), "Failure - should still have 2 logs");
+    }
+
+    @Test
+    void testDeleteNull() {
+        repository.save(testLog1);
+        repository.save(testLog2);
+        
+        assertDoesNotThrow(() -> repository.delete(null), 
+            "Failure - deleting null shouldn't throw");
+        
+        List<ChangeLog> result = repository.load();
+        assertEquals(2, result.size(), "Failure - should still have 2 logs");
+    }
+
+    @Test
+    void testDeleteLastEntity() {
+        repository.save(testLog1);
+        
+        repository.delete(testLog1);
+        
+        List<ChangeLog> result = repository.load();
+        assertTrue(result.isEmpty(), "Failure - should have empty list after deleting last entity");
+    }
+
+    @Test
+    void testGenerateIdEmptyList() {
+        int newId = repository.generateId();
+        
+        assertEquals(1, newId, "Failure - first id should be 1");
+    }
+
+    @Test
+    void testGenerateIdWithExistingLogs() {
+        repository.save(testLog1);
+        repository.save(testLog2);
+        repository.save(testLog3);
+        
+        int newId = repository.generateId();
+        
+        assertEquals(4, newId, "Failure - next id should be max + 1");
+    }
+
+    @Test
+    void testGenerateIdWithNonSequentialIds() {
+        ChangeLog log1 = new ChangeLog(1, 100, 0.0, 100.0,
+            LocalDateTime.now().format(DATE_FORMATTER), "Actor 1", UUID.randomUUID());
+        ChangeLog log2 = new ChangeLog(5, 100, 100.0, 200.0,
+            LocalDateTime.now().format(DATE_FORMATTER), "Actor 2", UUID.randomUUID());
+        ChangeLog log3 = new ChangeLog(3, 100, 200.0, 300.0,
+            LocalDateTime.now().format(DATE_FORMATTER), "Actor 3", UUID.randomUUID());
+        
+        repository.save(log1);
+        repository.save(log2);
+        repository.save(log3);
+        
+        int newId = repository.generateId();
+        
+        assertEquals(6, newId, "Failure - should return max id + 1");
+    }
+
+    @Test
+    void testValueTracking() {
+        ChangeLog changeLog = new ChangeLog(
+            1,
+            100,
+            500.0,
+            750.0,
+            LocalDateTime.now().format(DATE_FORMATTER),
+            "Budget Manager",
+            UUID.randomUUID()
+        );
+        
+        repository.save(changeLog);
+        
+        Optional<ChangeLog> result = repository.findById(1);
+        assertTrue(result.isPresent(), "Failure - should find saved log");
+        assertEquals(500.0, result.get().oldValue(), "Failure - oldValue should match");
+        assertEquals(750.0, result.get().newValue(), "Failure - newValue should match");
+    }
+
+    @Test
+    void testConcurrentOperations() throws InterruptedException {
+        Thread thread1 = new Thread(() -> repository.save(testLog1));
+        Thread thread2 = new Thread(() -> repository.save(testLog2));
+        
+        thread1.start();
+        thread2.start();
+        
+        thread1.join();
+        thread2.join();
+        
+        List<ChangeLog> result = repository.load();
+        assertEquals(2, result.size(), "Failure - concurrent saves should both succeed");
+    }
+
+    @Test
+    void testDateFormat() {
+        String expectedDate = "2024-12-15 14:30:00";
+        ChangeLog changeLog = new ChangeLog(
+            1,
+            100,
+            100.0,
+            200.0,
+            expectedDate,
+            "Test Actor",
+            UUID.randomUUID()
+        );
+        
+        repository.save(changeLog);
+        
+        Optional<ChangeLog> result = repository.findById(1);
+        assertTrue(result.isPresent(), "Failure - should find saved log");
+        assertEquals(expectedDate, result.get().submittedDate(), "Failure - date should match");
+    }
+
+    @Test
+    void testFullCrudCycle() {
+        // Create
+        repository.save(testLog1);
+        assertTrue(repository.existsById(testLog1.id()), "Failure - save() not working properly");
+        
+        // Read
+        List<ChangeLog> logs = repository.load();
+        assertEquals(1, logs.size(), "Failure - load() not working properly");
+        Optional<ChangeLog> readLog = repository.findById(testLog1.id());
+        assertTrue(readLog.isPresent(), "Failure - findById() not working properly");
+        assertEquals(testLog1.actorName(), readLog.get().actorName(), 
+            "Failure - actorName should match");
+        
+        // Update
+        ChangeLog updatedLog = new ChangeLog(
+            testLog1.id(),
+            testLog1.budgetItemId(),
+            testLog1.oldValue(),
+            3000.0,
+            LocalDateTime.now().format(DATE_FORMATTER),
+            "Updated Actor",
+            testLog1.actorId()
+        );
+        repository.save(updatedLog);
+        Optional<ChangeLog> afterUpdate = repository.findById(testLog1.id());
+        assertTrue(afterUpdate.isPresent(), "Failure - findById() after update not working");
+        assertEquals(3000.0, afterUpdate.get().newValue(), 
+            "Failure - update() not working properly");
+        
+        // Delete
+        repository.delete(afterUpdate.get());
+        assertFalse(repository.existsById(testLog1.id()), 
+            "Failure - delete() not working properly");
+    }
+
+    @Test
+    void testMultipleLogs() {
+        repository.save(testLog1);
+        repository.save(testLog2);
+        repository.save(testLog3);
+        
+        List<ChangeLog> logs = repository.load();
+        assertEquals(3, logs.size(), "Failure - should have 3 logs");
+        
+        repository.delete(testLog1);
+        assertTrue(repository.existsById(testLog2.id()), "Failure - testLog2 should exist");
+        assertTrue(repository.existsById(testLog3.id()), "Failure - testLog3 should exist");
+        
+        repository.delete(testLog2);
+        repository.delete(testLog3);
+        logs = repository.load();
+        assertEquals(0, logs.size(), "Failure - all logs should be deleted");
+    }
+
+    @Test
+    void testSaveAndLoadKeepStorageOrder() {
+        repository.saveAll(List.of(testLog2, testLog1));
+        repository.save(testLog3);
+
+        assertEquals(List.of(testLog2, testLog1, testLog3), repository.load());
+    }
+
+    @Test
+    void testSaveReplacesInPlace() {
+        repository.saveAll(List.of(testLog1, testLog2));
+        ChangeLog updated = new ChangeLog(1, 100, 0.0, 900.0,
+            testLog1.submittedDate(), "John Doe", userId1);
+        repository.save(updated);
+
+        assertEquals(List.of(updated, testLog2), repository.load());
+        assertEquals(Optional.of(updated), repository.findById(1));
+    }
+
+    @Test
+    void testSaveAndDeleteIgnoreNulls() {
+        repository.save(null);
+        repository.saveAll(null);
+        repository.delete(null);
+        repository.deleteAll(null);
+
+        assertTrue(repository.load().isEmpty());
+        assertFalse(repository.existsById(null));
+        assertTrue(repository.findById(null).isEmpty());
+    }
+
+    @Test
+    void testLookupsByItemAndUser() {
+        repository.saveAll(List.of(testLog1, testLog2, testLog3));
+
+        assertEquals(List.of(testLog1, testLog2),
+            repository.getLogsForItem(100));
+        assertEquals(List.of(testLog2), repository.getLogsForItem(100, 1, 5));
+        assertEquals(List.of(testLog1, testLog3),
+            repository.getLogsByUser(userId1));
+        assertTrue(repository.getLogsByUser(UUID.randomUUID()).isEmpty());
+        assertThrows(IllegalArgumentException.class,
+            () -> repository.getLogsForItem(null));
+        assertThrows(IllegalArgumentException.class,
+            () -> repository.getLogsByUser(userId1, -1, 1));
+    }
+
+    @Test
+    void testDeleteAndFindAllById() {
+        repository.saveAll(List.of(testLog1, testLog2, testLog3));
+        repository.delete(testLog2);
+
+        assertFalse(repository.existsById(2));
+        assertEquals(List.of(testLog3, testLog1),
+            repository.findAllById(List.of(3, 2, 1, 3)));
+    }
+
+    @Test
+    void testGenerateIdNeverRepeats() {
+        assertEquals(1, repository.generateId());
+        repository.saveAll(List.of(testLog1, testLog3));
+        assertEquals(4, repository.generateId());
+        assertEquals(5, repository.generateId());
+    }
+}
@@ -0,0 +1,473 @@
+package budget.backend.repository;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import budget.backend.model.domain.PendingChange;
+import budget.backend.model.enums.Status;
+
+/**
+ * The behaviour every {@link ChangeRequestRepository} backend shares. A
+ * backend runs these tests by extending this class and creating its
+ * repository over the fresh data directory; how it stores the changes is
+ * tested in the subclass.
+ */
+public abstract class ChangeRequestRepositoryContract {
+
+    protected ChangeRequestRepository repository;
+    protected Path dataDir;
+    private String originalDataDir;
+
+    /**
+     * Creates the repository under test, once the data directory holds an
+     * empty pending-changes.json.
+     */
+    protected abstract ChangeRequestRepository createRepository()
+        throws Exception;
+
+    /**
+     * Releases what {@link #createRepository()} opened.
+     */
+    protected void closeRepository() {
+    }
+
+    @BeforeEach
+    void setUpDataDir(@TempDir Path tempDir) throws Exception {
+        originalDataDir = System.getProperty("budget.data.dir");
+        System.setProperty("budget.data.dir", tempDir.toString());
+        dataDir = tempDir;
+        Files.writeString(tempDir.resolve("pending-changes.json"), "[]");
+        repository = createRepository();
+    }
+
+    @AfterEach
+    void tearDownDataDir() {
+        closeRepository();
+        if (originalDataDir == null) {
+            System.clearProperty("budget.data.dir");
+        } else {
+            System.setProperty("budget.data.dir", originalDataDir);
+        }
+    }
+
+    protected PendingChange createTestChange(
+        int id,
+        int budgetItemId,
+        String requestByName,
+        double oldValue,
+        double newValue
+    ) {
+        
+        return new PendingChange(
+            id,
+            budgetItemId,
+            2024,
+            "Test Budget Item",
+            requestByName,
+            UUID.randomUUID(),
+            oldValue,
+            newValue
+        );
+    }
+
+    protected PendingChange createTestChange(
+        int id,
+        String submittedDate,
+        Status status
+    ) {
+        return new PendingChange(id, 10 + id, 2024, "Test Budget Item",
+            "User " + id, UUID.randomUUID(), 100.0, 100.0 + id,
+            status, submittedDate);
+    }
+
+    protected static List<Integer> ids(List<PendingChange> changes) {
+        return changes.stream().map(PendingChange::getId).toList();
+    }
+
+    @Test
+    void testLoadEmptyFile() {
+        List<PendingChange> changes = repository.load();
+        assertNotNull(changes, "Failure - load should not return null");
+        assertTrue(changes.isEmpty(), "Failure - should return empty list");
+    }
+
+    @Test
+    void testLoadWithData() {
+        PendingChange change1 = createTestChange(1,1, "TestName", 1000.0, 1100.0);
+        PendingChange change2 = createTestChange(2, 2, "TestName2", 1500.0, 1600.0);
+        repository.save(change1);
+        repository.save(change2);
+
+        List<PendingChange> changes = repository.load();
+        assertEquals(2, changes.size(), "Failure - should load 2 changes");
+        assertTrue(changes
+                        .stream()
+                        .anyMatch(change -> change.getId() == change1.getId()),
+                         "Failure - data not loaded correctly");
+        assertTrue(changes
+                        .stream()
+                        .anyMatch(change -> change.getId() == change2.getId()),
+                        "Failure - data not loaded correctly");
+    }
+
+    @Test
+    void testSaveNewChange() {
+        PendingChange change = createTestChange(1, 1, "User", 100.0, 200.0);
+        repository.save(change);
+
+        List<PendingChange> changes = repository.load();
+        PendingChange readChange = changes.get(0);
+        //Μελλοντικα θα μπορουσαμε να δημιουργήσουμε equals
+        //και να αποφευχθει ολοι οι ελεγχοι.
+        assertEquals(change.getId(), readChange.getId(), 
+                 "Failure - IDs should match");
+        assertEquals(change.getBudgetItemId(), readChange.getBudgetItemId(),
+                     "Failure - budgetItemId should match");
+        assertEquals(change.getBudgetItemYear(), readChange.getBudgetItemYear(),
+                     "Failure - budgetItemYear should match");
+        assertEquals(change.getBudgetItemName(), readChange.getBudgetItemName(),
+                     "Failure - budgetItemName should match");
+        assertEquals(change.getRequestByName(), readChange.getRequestByName(),
+                     "Failure - requestByName should match");
+        assertEquals(change.getRequestById(), readChange.getRequestById(),
+                     "Failure - requestById should match");
+        assertEquals(change.getOldValue(), readChange.getOldValue(),
+                     "Failure - oldValue should match");
+        assertEquals(change.getNewValue(), readChange.getNewValue(),
+                     "Failure - newValue should match");
+        assertEquals(change.getStatus(), readChange.getStatus(),
+                     "Failure - status should match");
+        assertEquals(change.getSubmittedDate(), readChange.getSubmittedDate(),
+                    "Failure - submittedDate should match");
+    }
+
+    @Test
+    void testSaveUpdateChange() {
+        PendingChange change = createTestChange(1, 1, "User", 100, 200);
+        repository.save(change);
+
+        change.approve();
+        repository.save(change);
+
+        List<PendingChange> changes = repository.load();
+        assertEquals(1, changes.size(),
+        "Failure - save should update existing change");
+        PendingChange readChange = changes.get(0);
+        assertEquals(Status.APPROVED, readChange.getStatus(),
+        "Failure - status not updated correctly");
+    }
+
+    @Test
+    void testSaveNull() {
+        assertDoesNotThrow(() -> repository.save(null),
+        "Failure - saving null shouldn't throw Exception");
+        List<PendingChange> changes = repository.load();
+        assertEquals(0, changes.size(),
+        "Failure - should not have null changes");
+    }
+
+    @Test
+    void testExistsByIdTrue() {
+        PendingChange change = createTestChange(1, 1, "User", 100.0, 150.0);
+        repository.save(change);
+
+        int id = change.getId();
+        assertTrue(repository.existsById(id),
+        "Failure - should return true for existing id");
+    }
+
+    @Test
+    void testExistsByIdFalse() {
+        PendingChange change = createTestChange(1, 1, "User", 100.0, 150.0);
+        repository.save(change);
+
+        assertFalse(repository.existsById(0),
+        "Failure - should return false for Non-existing id");
+    }
+
+    @Test
+    void testExistsByIdNull() {
+        assertFalse(repository.existsById(null),
+        "Failure - should return false for null id");
+    }
+
+    @Test
+    void testDeleteExisting() {
+        PendingChange change = createTestChange(1, 1, "User", 100.0, 150.0);
+        repository.save(change);
+        repository.delete(change);
+        List<PendingChange> changes = repository.load();
+        assertTrue(changes.isEmpty(),"Failure - Should be empty");
+    }
+
+    @Test
+    void testDeleteNonExisting() {
+        PendingChange change = createTestChange(1, 1, "User", 100.0, 150.0);
+        assertDoesNotThrow(() -> repository.delete(change),
+        "Failure - should not throw for deleting non-existing change");
+    }
+
+    @Test
+    void testDeleteNull() {
+        assertDoesNotThrow(() -> repository.delete(null),
+        "Failure - should not throw for deleting null");
+    }
+
+    @Test
+    void testFindByIdExisting() {
+        PendingChange change = createTestChange(1, 1, "User", 100.0, 150.0);
+        repository.save(change);
+        Optional<PendingChange> found_change = repository.findById(change.getId());
+        assertTrue(found_change.isPresent(),
+        "Failure - should find existing change" );
+    }
+
+    @Test
+    void testFindByIdNonExisting() {
+        Optional<PendingChange> found_change = repository.findById(999);
+        assertFalse(found_change.isPresent(),
+        "Failure - should return empty for non-existing id");
+    }
+
+    @Test
+    void testFindByIdNull() {
+        Optional<PendingChange> found_change = repository.findById(null);
+        assertFalse(found_change.isPresent(),
+        "Failure - should return empty for null id");
+    }
+
+    @Test
+    void testFullCrudCycle() {
+        PendingChange change = createTestChange(1, 1, "User", 100.0, 150.0);
+        //Create
+        repository.save(change);
+
+        assertTrue(repository.existsById(change.getId()),
+        "Failure - save() not working properly");
+
+        //Read
+        List<PendingChange> changes = repository.load();
+        assertEquals(1, changes.size(),
+        "Failure - load() not working properly");
+        Optional<PendingChange> read_change = repository.findById(change.getId());
+        assertTrue(read_change.isPresent(),
+        "Failure - findById() not working properly");
+        assertEquals(change.getRequestByName(), read_change.get().getRequestByName(),
+        "Failure - requestByName should be equal");
+        
+        //Update
+        read_change.get().approve();
+        repository.save(read_change.get());
+        Optional<PendingChange> afterUpdate = repository.findById(change.getId());
+        assertTrue(afterUpdate.isPresent(),
+        "Failure - findById() not working properly");
+        assertEquals(Status.APPROVED, afterUpdate.get().getStatus(),
+        "Failure - update() not working properly");
+
+        //Delete
+        repository.delete(afterUpdate.get());
+        assertFalse(repository.existsById(change.getId()),
+        "Failure - delete() not working properly");
+    }
+
+    @Test
+    void testMultipleChanges() {
+        PendingChange change1 = createTestChange(1, 1, "User1", 100.0, 150.0);
+        PendingChange change2 = createTestChange(2, 2, "User2", 200.0, 250.0);
+        PendingChange change3 = createTestChange(3, 3, "User3", 300.0, 350.0);
+
+        repository.save(change1);
+        repository.save(change2);
+        repository.save(change3);
+
+        List<PendingChange> changes = repository.load();
+        assertEquals(3, changes.size(),
+        "Failure - multiple changes not handled correctly");
+
+        repository.delete(change1);
+        assertTrue(repository.existsById(change2.getId()),
+        "Failure - change2 should exist");
+        assertTrue(repository.existsById(change3.getId()),
+        "Failure - change3 should exist");
+        repository.delete(change2);
+        repository.delete(change3);
+        changes = repository.load();
+        assertEquals(0, changes.size(),
+        "Failure - multiple changes not deleted correctly");
+    }
+
+    @Test
+    void testGenerateIdWithExistingChanges() {
+        PendingChange change1 = createTestChange(1, 1, "User1", 100.0, 150.0);
+        PendingChange change2 = createTestChange(2, 2, "User2", 200.0, 250.0);
+        PendingChange change3 = createTestChange(3, 3, "User3", 300.0, 350.0);
+        
+        repository.save(change1);
+        repository.save(change2);
+        repository.save(change3);
+        
+        int newId = repository.generateId();
+        
+        assertEquals(4, newId, "Failure - should return max id + 1");
+    }
+
+    @Test
+    void testGenerateIdReturnsDistinctIdsWithoutSaving() {
+        repository.save(createTestChange(2, 100, "User1", 10.0, 20.0));
+
+        assertEquals(3, repository.generateId());
+        assertEquals(4, repository.generateId(),
+            "Failure - consecutive calls must not hand out the same id");
+
+        repository.save(createTestChange(10, 100, "User1", 10.0, 20.0));
+        assertEquals(11, repository.generateId(),
+            "Failure - explicitly saved ids must be skipped");
+    }
+
+    @Test
+    void testDeleteArchivedChange() {
+        PendingChange change = createTestChange(1, 1, "User1", 100.0, 150.0);
+        change.reject();
+        repository.save(change);
+        repository.save(createTestChange(2, 2, "User2", 200.0, 250.0));
+
+        repository.deleteAll(List.of(change));
+        assertFalse(repository.existsById(1),
+            "Failure - archived change should be deleted");
+        assertEquals(List.of(2),
+            repository.load().stream().map(PendingChange::getId).toList());
+    }
+
+    @Test
+    void testReturnedChangesAreCopies() {
+        repository.save(createTestChange(1, 1, "User1", 100.0, 150.0));
+
+        repository.findById(1).get().approve();
+        assertEquals(Status.PENDING, repository.findById(1).get().getStatus(),
+            "Failure - changing a returned change should not change the store");
+    }
+
+    @Test
+    void testFindPendingPage() {
+        repository.saveAll(List.of(
+            createTestChange(1, 1, "User1", 100.0, 150.0),
+            createTestChange(2, 2, "User2", 200.0, 100.0),
+            createTestChange(3, 1, "User3", 300.0, 310.0)));
+        ChangeQuery query = ChangeQuery.sortedBy(
+            ChangeQuery.Sort.AMOUNT_DESC, 2);
+
+        Page<PendingChange> first = repository.findPendingPage(query, null);
+        assertEquals(List.of(2, 1), first.items().stream()
+            .map(PendingChange::getId).toList());
+        Page<PendingChange> second =
+            repository.findPendingPage(query, first.nextCursor());
+        assertEquals(List.of(3), second.items().stream()
+            .map(PendingChange::getId).toList());
+        assertFalse(second.hasNext(), "Failure - last page has no cursor");
+
+        assertEquals(List.of(3, 1), repository.findPendingPage(
+            query.withItem(1).withSort(ChangeQuery.Sort.AMOUNT_ASC), null)
+            .items().stream().map(PendingChange::getId).toList());
+        assertEquals(List.of(2), repository.findPendingPage(
+            query.withDirection(ChangeQuery.Direction.DECREASES), null)
+            .items().stream().map(PendingChange::getId).toList());
+
+        PendingChange decided = repository.findById(2).get();
+        decided.approve();
+        repository.save(decided);
+        assertEquals(List.of(1, 3), repository.findPendingPage(
+            query.withSort(ChangeQuery.Sort.AMOUNT_DESC)
+                .withDirection(ChangeQuery.Direction.ANY), null)
+            .items().stream().map(PendingChange::getId).toList());
+    }
+
+    @Test
+    void testSaveLoadAndFindRoundTrip() {
+        PendingChange change =
+            createTestChange(1, "2024-01-01 10:00:00", Status.PENDING);
+        repository.save(change);
+
+        PendingChange found = repository.findById(1).orElseThrow();
+        assertEquals(change.getRequestById(), found.getRequestById());
+        assertEquals(change.getSubmittedDate(), found.getSubmittedDate());
+        assertEquals(change.getSubmittedAt(), found.getSubmittedAt());
+        assertEquals(Status.PENDING, found.getStatus());
+        assertEquals(List.of(1), ids(repository.load()));
+        assertTrue(repository.existsById(1));
+        assertFalse(repository.existsById(null));
+    }
+
+    @Test
+    void testFindPendingSortedByDateSkipsDecided() {
+        repository.saveAll(List.of(
+            createTestChange(1, "2024-01-03 10:00:00", Status.PENDING),
+            createTestChange(2, "2024-01-05 10:00:00", Status.APPROVED),
+            createTestChange(3, "2024-01-04 10:00:00", Status.PENDING),
+            createTestChange(4, "not a date", Status.PENDING),
+            createTestChange(5, "2024-01-04 10:00:00", Status.PENDING)));
+
+        assertEquals(List.of(5, 3, 1, 4),
+            ids(repository.findPendingSortedByDate()));
+    }
+
+    @Test
+    void testFindPendingPageWalksQueue() {
+        repository.saveAll(List.of(
+            createTestChange(1, "2024-01-01 10:00:00", Status.PENDING),
+            createTestChange(2, "2024-01-02 10:00:00", Status.REJECTED),
+            createTestChange(3, "2024-01-03 10:00:00", Status.PENDING),
+            createTestChange(4, "2024-01-04 10:00:00", Status.PENDING)));
+        ChangeQuery query =
+            ChangeQuery.sortedBy(ChangeQuery.Sort.NEWEST_FIRST, 2);
+
+        Page<PendingChange> first = repository.findPendingPage(query, null);
+        assertEquals(List.of(4, 3), ids(first.items()));
+        Page<PendingChange> second =
+            repository.findPendingPage(query, first.nextCursor());
+        assertEquals(List.of(1), ids(second.items()));
+        assertNull(second.nextCursor());
+        assertThrows(IllegalArgumentException.class,
+            () -> repository.findPendingPage(null, null));
+    }
+
+    @Test
+    void testDeleteAndFindAllById() {
+        PendingChange first =
+            createTestChange(1, "2024-01-01 10:00:00", Status.PENDING);
+        PendingChange second =
+            createTestChange(2, "2024-01-02 10:00:00", Status.PENDING);
+        repository.saveAll(List.of(first, second));
+        repository.delete(first);
+        repository.delete(first);
+        repository.deleteAll(null);
+
+        assertEquals(List.of(2), ids(repository.findAllById(
+            Arrays.asList(1, null, 2))));
+        assertTrue(repository.findById(1).isEmpty());
+    }
+
+    @Test
+    void testGenerateIdSkipsStoredIds() {
+        repository.save(
+            createTestChange(7, "2024-01-01 10:00:00", Status.PENDING));
+
+        assertEquals(8, repository.generateId());
+        assertEquals(9, repository.generateId());
+    }
+}
@@ -0,0 +1,136 @@
+package budget.backend.repository;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+import budget.backend.model.domain.Budget;
+import budget.backend.model.domain.BudgetItem;
+import budget.backend.model.domain.user.Citizen;
+
+/**
+ * Measures read throughput of the user and budget repositories with a
+ * growing number of reader threads, next to the same calls serialized
+ * behind one global monitor as they were before the read/write locks.
+ * Not part of the regular test run, start it with
+ * {@code mvn test -Dtest=RepositoryReadScalingBenchmark -Dbudget.benchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "budget.benchmark", matches = "true")
+class RepositoryReadScalingBenchmark {
+
+    private static final long RUN_MILLIS = 1000;
+    private static final int WARMUP_ROUNDS = 2;
+    private static final Object GLOBAL_LOCK = new Object();
+
+    @TempDir
+    Path tempDir;
+
+    private String originalDataDir;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        originalDataDir = System.getProperty("budget.data.dir");
+        System.setProperty("budget.data.dir", tempDir.toString());
+        Files.writeString(tempDir.resolve("users.json"), "{}", StandardCharsets.UTF_8);
+        Files.writeString(tempDir.resolve("budget.json"), "{}", StandardCharsets.UTF_8);
+        Files.writeString(tempDir.resolve("bill-ministry-map.json"),
+            "{ \"byId\": {}, \"byName\": {} }", StandardCharsets.UTF_8);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (originalDataDir == null) {
+            System.clearProperty("budget.data.dir");
+        } else {
+            System.setProperty("budget.data.dir", originalDataDir);
+        }
+    }
+
+    @Test
+    void compareReadScaling() throws Exception {
+        UserRepository users = new UserRepository();
+        for (int i = 0; i < 200; i++) {
+            users.save(new Citizen("user" + i, "USER " + i, "pw"));
+        }
+        BudgetRepository budgets = new BudgetRepository();
+        for (int year = 2019; year < 2049; year++) {
+            List<BudgetItem> items = new ArrayList<>();
+            for (int id = 1; id <= 100; id++) {
+                items.add(new BudgetItem(id, year, "Item " + id, id, id % 2 == 0, List.of()));
+            }
+            budgets.save(new Budget(items, year, 0, 0, 0));
+        }
+
+        Runnable userRead = () -> assertTrue(users.usernameExists("user42"));
+        Runnable budgetRead = () ->
+            assertTrue(budgets.findItemById(42, 2030, true).isPresent());
+
+        int maxThreads = Math.max(4, Runtime.getRuntime().availableProcessors());
+        System.out.printf(Locale.ROOT, "%d available processors%n",
+            Runtime.getRuntime().availableProcessors());
+        System.out.printf(Locale.ROOT, "%-22s %7s %14s %14s%n",
+            "read", "threads", "global ops/ms", "rw-lock ops/ms");
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            report("usernameExists", threads, userRead);
+            report("findItemById", threads, budgetRead);
+        }
+    }
+
+    private static void report(String name, int threads, Runnable read) throws Exception {
+        Runnable serialized = () -> {
+            synchronized (GLOBAL_LOCK) {
+                read.run();
+            }
+        };
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            throughput(threads, serialized);
+            throughput(threads, read);
+        }
+        System.out.printf(Locale.ROOT, "%-22s %7d %14.1f %14.1f%n",
+            name, threads, throughput(threads, serialized), throughput(threads, read));
+    }
+
+    private static double throughput(int threads, Runnable read) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(RUN_MILLIS);
+        try {
+            List<Future<Long>> counts = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                counts.add(pool.submit(() -> {
+                    start.await();
+                    long ops = 0;
+                    while (System.nanoTime() < deadline) {
+                        read.run();
+                        ops++;
+                    }
+                    return ops;
+                }));
+            }
+            start.countDown();
+            long total = 0;
+            for (Future<Long> count : counts) {
+                total += count.get();
+            }
+            return (double) total / RUN_MILLIS;
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
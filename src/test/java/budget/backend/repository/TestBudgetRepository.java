@@ -6,57 +6,39 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Optional;
+import java.util.Set;
 
-import org.junit.jupiter.api.AfterEach;
-import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
-import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
 import budget.backend.model.domain.Budget;
 import budget.backend.model.domain.BudgetItem;
 import budget.backend.model.enums.Ministry;
-import budget.constants.Limits;
 
-public class TestBudgetRepository {
-
-    private BudgetRepository repository;
-    private String originalDataDir;
+/**
+ * Runs the {@link BudgetRepositoryContract} on the JSON files and tests how
+ * they are parsed, cached and partitioned.
+ */
+public class TestBudgetRepository extends BudgetRepositoryContract {
 
     private Path budgetJson;
     private Path ministryJson;
 
-    @BeforeEach
-    void setUp(@TempDir Path tempDir) throws IOException {
-        // backup and set data dir so PathsUtil resolves files from tempDir
-        originalDataDir = System.getProperty("budget.data.dir");
-        System.setProperty("budget.data.dir", tempDir.toString());
-
-        budgetJson = tempDir.resolve("budget.json");
-        ministryJson = tempDir.resolve("bill-ministry-map.json");
-
-        // create minimal files (empty JSON structures) so repository.load doesn't
-        // return early due to missing resources
-        Files.writeString(budgetJson, "{}", StandardCharsets.UTF_8);
-        Files.writeString(ministryJson, "{ \"byId\": {}, \"byName\": {} }", StandardCharsets.UTF_8);
-
-        repository = new BudgetRepository();
-    }
-
-    @AfterEach
-    void tearDown() {
-        if (originalDataDir == null) {
-            System.clearProperty("budget.data.dir");
-        } else {
-            System.setProperty("budget.data.dir", originalDataDir);
-        }
+    @Override
+    protected BudgetRepository createRepository() {
+        budgetJson = dataDir.resolve("budget.json");
+        ministryJson = dataDir.resolve("bill-ministry-map.json");
+        return new BudgetRepository();
     }
 
     // helper: write budget.json content
@@ -70,13 +52,6 @@ public class TestBudgetRepository {
     }
 
     //load tests
-    @Test
-    void testLoadEmpty() {
-        List<Budget> budgets = repository.load();
-        assertNotNull(budgets, "load() should never return null");
-        assertTrue(budgets.isEmpty(), "With empty JSON we expect empty list");
-    }
-
     @Test
     void testLoadMalformedBudgetJson() throws IOException {
         writeBudgetJson("{ invalid json }");
@@ -174,277 +149,474 @@ public class TestBudgetRepository {
         assertEquals(-500.0, b.getNetResult(), 0.0001);
     }
 
-    // save tests
-
+    // ministry mapping tests
     @Test
-    void testSaveAndReload() {
-        BudgetItem r = new BudgetItem(10, 2030, "RevenueX", 500.0, true, List.of(Ministry.FINANCE));
-        BudgetItem e = new BudgetItem(11, 2030, "ExpenseY", 200.0, false, List.of(Ministry.HEALTH));
-        Budget b = new Budget(List.of(r, e), 2030, 500.0, 200.0, 300.0);
+    void testInvalidMinistryNamesIgnored() throws IOException {
+        writeBudgetJson("""
+            { "2025": { "esoda": [ { "ID": 1, "BILL": "Test", "VALUE": 100.0 } ] } }
+            """);
+        writeMinistryJson("""
+            { "byId": { "1": ["FINANCE", "INVALID_MINISTRY", "FAKE"] }, "byName": { } }
+            """);
 
-        repository.save(b);
+        BudgetItem item = repository.load().get(0).getItems().get(0);
 
-        // after save, repository.load() should read back the persisted budget.json
-        List<Budget> loaded = repository.load();
-        assertEquals(1, loaded.size(), "After save we should have one budget");
-        Budget read = loaded.get(0);
-        assertEquals(2030, read.getYear());
-        assertEquals(2, read.getItems().size());
+        assertEquals(1, item.getMinistries().size(), "Invalid ministries should be ignored");
+        assertTrue(item.getMinistries().contains(Ministry.FINANCE));
     }
 
     @Test
-    void testSaveReplaceExistingYear() {
-        BudgetItem r1 = new BudgetItem(20, 2040, "R1", 100, true, List.of());
-        Budget b1 = new Budget(List.of(r1), 2040, 100, 0, 100);
-        repository.save(b1);
+    void testByIdPreferenceOverByName() throws IOException {
+        writeBudgetJson("""
+            { "2025": { "esoda": [ { "ID": 1, "BILL": "Item", "VALUE": 100.0 } ] } }
+            """);
+        writeMinistryJson("""
+            {
+              "byId": { "1": ["FINANCE"] },
+              "byName": { "Item": ["HEALTH"] }
+            }
+            """);
 
-        // replace with different content for same year
-        BudgetItem r2 = new BudgetItem(21, 2040, "R2", 200, true, List.of());
-        Budget b2 = new Budget(List.of(r2), 2040, 200, 0, 200);
-        repository.save(b2);
+        BudgetItem item = repository.load().get(0).getItems().get(0);
 
-        List<Budget> loaded = repository.load();
-        assertEquals(1, loaded.size(), "Year 2040 should be stored once");
-        Budget read = loaded.get(0);
-        assertEquals(1, read.getItems().size());
-        assertEquals(21, read.getItems().get(0).getId());
+        assertTrue(item.getMinistries().contains(Ministry.FINANCE));
+        assertFalse(item.getMinistries().contains(Ministry.HEALTH));
     }
 
     @Test
-    void testSaveNullDoesNotThrow() {
-        assertDoesNotThrow(() -> repository.save(null), "Saving null must not throw");
-        assertTrue(repository.load().isEmpty(), "No budgets should be present after saving null");
+    void testMultipleMinistriesMapping() throws IOException {
+        writeBudgetJson("""
+            { "2025": { "esoda": [ { "ID": 1, "BILL": "Shared", "VALUE": 1000.0 } ] } }
+            """);
+        writeMinistryJson("""
+            { "byId": { "1": ["FINANCE", "DEVELOPMENT", "INTERIOR"] }, "byName": { } }
+            """);
+
+        BudgetItem item = repository.load().get(0).getItems().get(0);
+
+        assertEquals(3, item.getMinistries().size());
+        assertTrue(item.getMinistries().contains(Ministry.FINANCE));
+        assertTrue(item.getMinistries().contains(Ministry.DEVELOPMENT));
+        assertTrue(item.getMinistries().contains(Ministry.INTERIOR));
+        List<Ministry> mapOrder =
+            List.of(Ministry.FINANCE, Ministry.DEVELOPMENT, Ministry.INTERIOR);
+        assertEquals(mapOrder, item.getMinistries(),
+            "Failure - ministries should keep the order of the map");
+        assertEquals(mapOrder,
+            repository.findItemById(1, 2025, true).orElseThrow().getMinistries(),
+            "Failure - copies should keep the order of the map");
     }
 
+    // cache tests
     @Test
-    void testSaveAtMinYear() {
-        BudgetItem item = new BudgetItem(1, Limits.MIN_BUDGET_YEAR, "MinYear", 100, true, List.of());
-        Budget b = new Budget(List.of(item), Limits.MIN_BUDGET_YEAR, 100, 0, 100);
+    void testLoadStreamsItemsInRevenueThenExpenseOrder() throws IOException {
+        writeBudgetJson("""
+            {
+              "2025": {
+                "eksoda": [ { "ID": 2, "BILL": "Spend", "VALUE": 40.0 } ],
+                "note": { "ignored": [1, 2, 3] },
+                "esoda": [ { "VALUE": 100.0, "ID": "1", "EXTRA": null,
+                             "BILL": "Income" } ]
+              }
+            }
+            """);
+
+        Budget budget = repository.load().get(0);
 
-        assertDoesNotThrow(() -> repository.save(b));
-        assertTrue(repository.existsById(Limits.MIN_BUDGET_YEAR));
+        assertEquals(2, budget.getItems().size());
+        assertTrue(budget.getItems().get(0).getIsRevenue(),
+            "Revenue items should come first");
+        assertEquals(1, budget.getItems().get(0).getId());
+        assertEquals("Spend", budget.getItems().get(1).getName());
+        assertEquals(60.0, budget.getNetResult(), 0.0001);
     }
 
-    //exist/find tests
     @Test
-    void testExistsByIdAndFindById() {
-        BudgetItem item = new BudgetItem(30, 2050, "X", 100, true, List.of());
-        Budget b = new Budget(List.of(item), 2050, 100, 0, 100);
-        repository.save(b);
+    void testLoadItemWithoutValueIsMalformed() throws IOException {
+        writeBudgetJson("""
+            { "2025": { "esoda": [ { "ID": 1, "BILL": "Income" } ] } }
+            """);
 
-        assertTrue(repository.existsById(2050));
-        Optional<Budget> found = repository.findById(2050);
-        assertTrue(found.isPresent());
-        assertEquals(2050, found.get().getYear());
+        assertTrue(repository.load().isEmpty(),
+            "An item without VALUE should be treated as malformed data");
     }
 
     @Test
-    void testExistsByIdNull() {
-        assertFalse(repository.existsById(null));
+    void testRepeatedReadsAreServedFromCache() throws IOException {
+        writeBudgetJson("""
+            { "2025": { "esoda": [ { "ID": 1, "BILL": "Tax", "VALUE": 100.0 } ] } }
+            """);
+
+        repository.load();
+        repository.findById(2025);
+        repository.existsById(2025);
+        repository.existsByName("Tax", 2025);
+        repository.findItemById(1, 2025, true);
+
+        assertEquals(1, repository.getCacheMisses(),
+                            "Failure - files should be parsed only once");
+        assertEquals(4, repository.getCacheHits());
     }
 
     @Test
-    void testFindByIdNull() {
-        Optional<Budget> found = repository.findById(null);
-        assertTrue(found.isEmpty());
+    void testCacheInvalidatedWhenBudgetFileChanges() throws IOException {
+        writeBudgetJson("""
+            { "2025": { "esoda": [ { "ID": 1, "BILL": "Tax", "VALUE": 100.0 } ] } }
+            """);
+        assertEquals(100.0, repository.load().get(0).getTotalRevenue(), 0.0001);
+
+        writeBudgetJson("""
+            { "2025": { "esoda": [ { "ID": 1, "BILL": "Tax", "VALUE": 12345.0 } ] } }
+            """);
+        assertEquals(12345.0, repository.load().get(0).getTotalRevenue(), 0.0001);
+        assertEquals(2, repository.getCacheMisses());
     }
 
     @Test
-    void testFindByIdBelowMinYear() {
-        Optional<Budget> found = repository.findById(Limits.MIN_BUDGET_YEAR - 1);
-        assertTrue(found.isEmpty());
+    void testCacheInvalidatedWhenMinistryMapChanges() throws IOException {
+        writeBudgetJson("""
+            { "2025": { "esoda": [ { "ID": 1, "BILL": "Tax", "VALUE": 100.0 } ] } }
+            """);
+        assertTrue(repository.load().get(0).getItems().get(0).getMinistries().isEmpty());
 
-        Optional<Budget> found2 = repository.findById(1999);
-        assertTrue(found2.isEmpty());
+        writeMinistryJson("""
+            { "byId": { "1": ["FINANCE"] }, "byName": { } }
+            """);
+        BudgetItem item = repository.load().get(0).getItems().get(0);
+        assertTrue(item.getMinistries().contains(Ministry.FINANCE));
     }
 
     @Test
-    void testExistsByNameAndExistsByItemIdFindItemById() {
-        BudgetItem i1 = new BudgetItem(40, 2060, "IncomeA", 100, true, List.of());
-        BudgetItem i2 = new BudgetItem(41, 2060, "ExpenseB", 50, false, List.of());
-        Budget b = new Budget(List.of(i1, i2), 2060, 100, 50, 50);
-        repository.save(b);
+    void testSaveAndDeleteUpdateCacheWithoutReparsing() throws IOException {
+        writeMinistryJson("""
+            { "byId": { "5": ["HEALTH"] }, "byName": { } }
+            """);
+        repository.load();
 
-        assertTrue(repository.existsByName("IncomeA", 2060));
-        assertFalse(repository.existsByName("NoSuch", 2060));
+        BudgetItem item = new BudgetItem(5, 2030, "Hospitals", 300.0, false, List.of());
+        repository.save(new Budget(List.of(item), 2030, 0, 0, 0));
 
-        assertTrue(repository.existsByItemId(40, 2060));
-        assertFalse(repository.existsByItemId(999, 2060));
+        Budget read = repository.findById(2030).orElseThrow();
+        assertEquals(300.0, read.getTotalExpense(), 0.0001,
+                            "Failure - totals should be recomputed like on reload");
+        assertEquals(300.0, repository.snapshot().findTotals(2030)
+            .orElseThrow().totalExpense(), 0.0001);
+        assertTrue(read.getItems().get(0).getMinistries().contains(Ministry.HEALTH));
 
-        Optional<BudgetItem> found = repository.findItemById(41, 2060, false);
-        assertTrue(found.isPresent());
-        assertEquals("ExpenseB", found.get().getName());
+        repository.delete(read);
+        assertFalse(repository.existsById(2030));
+        assertEquals(1, repository.getCacheMisses(),
+                            "Failure - save/delete should write through the cache");
     }
 
     @Test
-    void testExistsByNameWithNullName() {
-        assertFalse(repository.existsByName(null, 2025),
-                                "Failure - can't search with null name");
-    }
+    void testCachedBudgetsAreNotExposed() throws IOException {
+        writeBudgetJson("""
+            { "2025": { "esoda": [ { "ID": 1, "BILL": "Tax", "VALUE": 100.0 } ] } }
+            """);
 
-    @Test
-    void testExistsByNameWhenBudgetForThatYearDoesntExist() {
-        BudgetItem i1 = new BudgetItem(40, 2060, "IncomeA", 100, true, List.of());
-        Budget b = new Budget(List.of(i1), 2060, 100, 50, 50);
-        repository.save(b);
+        Budget budget = repository.findById(2025).orElseThrow();
+        budget.getItems().get(0).setValue(999.0);
+        budget.setTotalRevenue(999.0);
+        repository.findItemById(1, 2025, true).orElseThrow().setValue(999.0);
 
-        assertFalse(repository.existsByName("IncomeA", 2025),
-                                "Failure - Item name doesn't exist for year 2025");
+        Budget again = repository.findById(2025).orElseThrow();
+        assertEquals(100.0, again.getTotalRevenue(), 0.0001);
+        assertEquals(100.0, again.getItems().get(0).getValue(), 0.0001);
     }
 
     @Test
-    void testExistsByItemIdInvalidParams() {
-        // invalid id
-        assertFalse(repository.existsByItemId(0, 2060));
-        assertFalse(repository.existsByItemId(1, 2060));
-        // invalid year (< limits) - repository uses Limits.MIN_BUDGET_YEAR (= 2000),
-        // pass a year earlier than that to assert false behavior
-        assertFalse(repository.existsByItemId(1, 1900));
+    void testFirstSaveConvertsToPartitionedLayout() throws IOException {
+        writeBudgetJson("""
+            { "2025": { "esoda": [ { "ID": 1, "BILL": "Tax", "VALUE": 100.0 } ] } }
+            """);
+        String singleFile = Files.readString(budgetJson);
+
+        BudgetItem item = new BudgetItem(2, 2026, "Fees", 50.0, true, List.of());
+        repository.save(new Budget(List.of(item), 2026, 50.0, 0, 50.0));
+
+        Path partitions = budgetJson.resolveSibling("budget");
+        assertTrue(Files.exists(partitions.resolve("manifest.json")));
+        assertTrue(Files.exists(partitions.resolve("2025.json")));
+        assertTrue(Files.exists(partitions.resolve("2026.json")));
+        assertEquals(singleFile, Files.readString(budgetJson),
+            "Failure - budget.json should be left as it was");
+
+        List<Budget> loaded = new BudgetRepository().load();
+        assertEquals(List.of(2025, 2026),
+            loaded.stream().map(Budget::getYear).toList());
     }
 
     @Test
-    void testFindItemById() {
-        List<Optional<BudgetItem>> listOfBudgetItems = new ArrayList<>();
-        var b1 = repository.findItemById(-1, 2025, true);
-        var b2 = repository.findItemById(1, 1999, false);
-        var b3 = repository.findItemById(1, 2060, true);
+    void testSaveRewritesOnlyTheAffectedPartition() throws IOException {
+        BudgetItem a = new BudgetItem(1, 2025, "A", 10.0, true, List.of());
+        BudgetItem b = new BudgetItem(2, 2026, "B", 20.0, true, List.of());
+        repository.save(new Budget(List.of(a), 2025, 10.0, 0, 10.0));
+        repository.save(new Budget(List.of(b), 2026, 20.0, 0, 20.0));
+        Path other = budgetJson.resolveSibling("budget").resolve("2025.json");
+        FileStamp before = FileStamp.of(other);
 
-        listOfBudgetItems.addAll(List.of(b1,b2,b3));
+        BudgetItem changed = new BudgetItem(2, 2026, "B", 99.0, true, List.of());
+        repository.save(new Budget(List.of(changed), 2026, 99.0, 0, 99.0));
 
-        for (var b : listOfBudgetItems) {
-            assertTrue(b.isEmpty(), "Failure - optional should be empty");
-        }
+        assertEquals(before, FileStamp.of(other),
+            "Failure - saving 2026 must not rewrite 2025");
+        assertEquals(99.0, new BudgetRepository().findById(2026)
+            .orElseThrow().getTotalRevenue(), 0.0001);
     }
 
     @Test
-    void testFindItemByIdWithBudgetFail() {
-        var opt1 = repository.findItemById(-1, new Budget(List.of(), 2025, 0, 0, 0), true);
-        assertTrue(opt1.isEmpty(),"Failure - negative id should return empty optional");
-        var opt2 = repository.findItemById(1,null, true);
-        assertTrue(opt2.isEmpty(), "Failure - null budget should return empty optional");
+    void testFindByIdReadsOnlyTheRequestedPartition() throws IOException {
+        BudgetItem a = new BudgetItem(1, 2025, "A", 10.0, true, List.of());
+        BudgetItem b = new BudgetItem(2, 2026, "B", 20.0, true, List.of());
+        repository.save(new Budget(List.of(a), 2025, 10.0, 0, 10.0));
+        repository.save(new Budget(List.of(b), 2026, 20.0, 0, 20.0));
+        Files.writeString(budgetJson.resolveSibling("budget").resolve("2025.json"),
+            "{ broken", StandardCharsets.UTF_8);
+
+        BudgetRepository fresh = new BudgetRepository();
+        assertEquals(20.0, fresh.findById(2026).orElseThrow().getTotalRevenue(), 0.0001);
+        assertTrue(fresh.findById(2024).isEmpty());
+        assertEquals(List.of(2026),
+            fresh.load().stream().map(Budget::getYear).toList(),
+            "Failure - a malformed partition should only hide its own year");
     }
 
     @Test
-    void testFindItemByIdWithBudget() {
-        BudgetItem r = new BudgetItem(10, 2025, "RevenueX", 500.0, true, List.of(Ministry.FINANCE));
-        BudgetItem e = new BudgetItem(11, 2025, "ExpenseY", 200.0, false, List.of(Ministry.HEALTH));
-        Budget b = new Budget(List.of(r, e), 2025, 500.0, 200.0, 300.0);
-
-        repository.save(b);
-
-        var itemOpt = repository.findItemById(r.getId(), b, r.getIsRevenue());
-        assertTrue(itemOpt.isPresent(), "Failure - findItemById not working properly");
+    void testPartitionEditedInPlaceIsNoticed() throws IOException {
+        BudgetItem a = new BudgetItem(1, 2025, "A", 10.0, true, List.of());
+        BudgetItem b = new BudgetItem(2, 2026, "B", 20.0, true, List.of());
+        repository.save(new Budget(List.of(a), 2025, 10.0, 0, 10.0));
+        repository.save(new Budget(List.of(b), 2026, 20.0, 0, 20.0));
+        assertEquals(10.0, repository.findById(2025).orElseThrow()
+            .getTotalRevenue(), 0.0001);
+        Path directory = budgetJson.resolveSibling("budget");
+        FileTime directoryTime = Files.getLastModifiedTime(directory);
+        Path partition = directory.resolve("2025.json");
+        FileTime partitionTime = Files.getLastModifiedTime(partition);
+
+        // edit the file itself, which leaves the directory untouched
+        Files.writeString(partition, """
+            { "esoda": [ { "ID": 1, "BILL": "A", "VALUE": 75.0 } ] }
+            """, StandardCharsets.UTF_8);
+        Files.setLastModifiedTime(partition,
+            FileTime.fromMillis(partitionTime.toMillis() + 10_000));
+        Files.setLastModifiedTime(directory, directoryTime);
+
+        assertEquals(75.0, repository.findById(2025).orElseThrow()
+            .getItems().get(0).getValue(), 0.0001);
+        assertEquals(List.of(75.0, 20.0), repository.load().stream()
+            .map(budget -> budget.getItems().get(0).getValue()).toList());
     }
 
     @Test
-    void testDeleteExistingAndNonExistingAndNull() {
-        BudgetItem item = new BudgetItem(50, 2050, "D", 10, true, List.of());
-        Budget b = new Budget(List.of(item), 2050, 10, 0, 10);
-        repository.save(b);
-
-        // delete existing
-        repository.delete(b);
-        assertFalse(repository.existsById(2050));
+    void testDeleteRemovesPartition() {
+        BudgetItem a = new BudgetItem(1, 2025, "A", 10.0, true, List.of());
+        Budget budget = new Budget(List.of(a), 2025, 10.0, 0, 10.0);
+        repository.save(budget);
 
-        // delete non-existing (should not throw)
-        assertDoesNotThrow(() -> repository.delete(new Budget(List.of(), 2000, 0, 0, 0)));
+        repository.delete(budget);
 
-        // delete null should not throw
-        assertDoesNotThrow(() -> repository.delete(null));
+        assertFalse(Files.exists(budgetJson.resolveSibling("budget").resolve("2025.json")));
+        assertTrue(new BudgetRepository().load().isEmpty());
     }
 
     @Test
-    void testFullCrudCycle() {
-        // create
-        BudgetItem item = new BudgetItem(77, 2050, "Full", 111, true, List.of());
-        Budget b = new Budget(List.of(item), 2050, 111, 0, 111);
-        repository.save(b);
-        assertTrue(repository.existsById(2050));
+    void testBatchCostsOneReadAndOneWrite() {
+        repository.save(yearBudget(2020));
+        IoCounters io = repository.ioCounters();
+        long reads = io.reads();
+        long writes = io.writes();
+
+        repository.saveAll(List.of(
+            yearBudget(2021), yearBudget(2022), yearBudget(2023)));
+        assertEquals(writes + 1, io.writes(),
+            "Failure - saveAll should write once");
+        assertEquals(reads + 1, io.reads(),
+            "Failure - saveAll should only read the manifest");
+
+        List<Budget> found = repository.findAllById(List.of(2023, 2021, 1999));
+        assertEquals(List.of(2023, 2021),
+            found.stream().map(Budget::getYear).toList());
+        assertEquals(reads + 1, io.reads(),
+            "Failure - findAllById should be served from the cache");
+
+        repository.deleteAll(List.of(yearBudget(2020), yearBudget(2022)));
+        assertEquals(writes + 2, io.writes(),
+            "Failure - deleteAll should write once");
+        assertEquals(reads + 2, io.reads(),
+            "Failure - deleteAll should only read the manifest");
+        assertEquals(List.of(2021, 2023),
+            repository.load().stream().map(Budget::getYear).toList());
+    }
 
-        // read
-        Optional<Budget> read = repository.findById(2050);
-        assertTrue(read.isPresent());
-        assertEquals(1, read.get().getItems().size());
+    @Test
+    void testColdStartReadsBinarySnapshot() throws IOException {
+        writeBudgetJson("""
+            { "2025": { "esoda": [ { "ID": 1, "BILL": "Tax", "VALUE": 100.0 } ],
+                        "eksoda": [ { "ID": 2, "BILL": "Roads", "VALUE": 40.0 } ] } }
+            """);
+        repository.load();
+        assertTrue(Files.exists(budgetJson.resolveSibling("budget.snapshot")),
+            "Failure - parsing the JSON should write the snapshot");
 
-        // update (replace same year)
-        Budget updated = new Budget(List.of(new BudgetItem(78, 2050, "Full2", 222, false, List.of())), 2050, 0, 222, -222);
-        repository.save(updated);
+        // same size and modification time, so only the snapshot can answer
+        overwriteKeepingStamp(budgetJson);
+        Budget budget = new BudgetRepository().findById(2025).orElseThrow();
+        assertEquals(60.0, budget.getNetResult(), 0.0001);
+        assertEquals("Roads", budget.getItems().get(1).getName());
+        assertFalse(budget.getItems().get(1).getIsRevenue());
+    }
 
-        Optional<Budget> afterUpdate = repository.findById(2050);
-        assertTrue(afterUpdate.isPresent());
-        assertEquals(78, afterUpdate.get().getItems().get(0).getId());
+    @Test
+    void testStaleSnapshotIsRebuilt() throws IOException {
+        writeBudgetJson("""
+            { "2025": { "esoda": [ { "ID": 1, "BILL": "Tax", "VALUE": 100.0 } ] } }
+            """);
+        repository.load();
+        writeBudgetJson("""
+            { "2025": { "esoda": [ { "ID": 1, "BILL": "Tax", "VALUE": 250.0 } ] } }
+            """);
 
-        // delete
-        repository.delete(afterUpdate.get());
-        assertFalse(repository.existsById(2050));
+        assertEquals(250.0, new BudgetRepository().load().get(0).getTotalRevenue(), 0.0001);
+        overwriteKeepingStamp(budgetJson);
+        assertEquals(250.0, new BudgetRepository().load().get(0).getTotalRevenue(), 0.0001,
+            "Failure - the snapshot should have been rebuilt from the new JSON");
     }
 
     @Test
-    void testMultipleBudgets() {
-        repository.save(new Budget(List.of(new BudgetItem(1, 2000, "A", 1, true, List.of())), 2000, 1, 0, 1));
-        repository.save(new Budget(List.of(new BudgetItem(2, 2001, "B", 2, true, List.of())), 2001, 2, 0, 2));
-        repository.save(new Budget(List.of(new BudgetItem(3, 2002, "C", 3, true, List.of())), 2002, 3, 0, 3));
+    void testPartitionedSnapshotServesSingleYear() throws IOException {
+        repository.save(yearBudget(2025));
+        repository.save(yearBudget(2026));
+        assertEquals(2, new BudgetRepository().load().size());
+
+        Path partition = budgetJson.resolveSibling("budget").resolve("2026.json");
+        overwriteKeepingStamp(partition);
+        BudgetRepository fresh = new BudgetRepository();
+        assertEquals(10.0, fresh.findById(2026).orElseThrow().getTotalRevenue(), 0.0001);
+        assertTrue(fresh.findById(2027).isEmpty());
+    }
 
-        List<Budget> all = repository.load();
-        assertEquals(3, all.size());
+    @Test
+    void testColdFindByIdWarmsTheCache() {
+        repository.save(yearBudget(2025));
+        repository.save(yearBudget(2026));
+        assertEquals(2, new BudgetRepository().load().size());
 
-        // delete middle one and ensure others remain
-        repository.delete(new Budget(List.of(), 2001, 0, 0, 0));
-        all = repository.load();
-        assertEquals(2, all.size());
-        assertTrue(repository.existsById(2000));
-        assertFalse(repository.existsById(2001));
-        assertTrue(repository.existsById(2002));
+        BudgetRepository fresh = new BudgetRepository();
+        assertTrue(fresh.findById(2025).isPresent());
+        assertTrue(fresh.findById(2026).isPresent());
+        assertTrue(fresh.findById(2027).isEmpty());
+        assertEquals(2, fresh.load().size());
+        assertEquals(1, fresh.getCacheMisses(),
+            "Failure - the snapshot read by the first lookup should be kept");
+        assertEquals(1, fresh.ioCounters().reads());
     }
 
     @Test
-    void testInvalidMinistryNamesIgnored() throws IOException {
+    void testDamagedSnapshotFallsBackToJson() throws IOException {
         writeBudgetJson("""
-            { "2025": { "esoda": [ { "ID": 1, "BILL": "Test", "VALUE": 100.0 } ] } }
-            """);
-        writeMinistryJson("""
-            { "byId": { "1": ["FINANCE", "INVALID_MINISTRY", "FAKE"] }, "byName": { } }
+            { "2025": { "esoda": [ { "ID": 1, "BILL": "Tax", "VALUE": 100.0 } ] } }
             """);
+        repository.load();
+        Path snapshot = budgetJson.resolveSibling("budget.snapshot");
+        byte[] bytes = Files.readAllBytes(snapshot);
+        bytes[bytes.length - 1] ^= 0x7f;
+        Files.write(snapshot, bytes);
 
-        BudgetItem item = repository.load().get(0).getItems().get(0);
+        assertEquals(100.0, new BudgetRepository().load().get(0).getTotalRevenue(), 0.0001);
+    }
 
-        assertEquals(1, item.getMinistries().size(), "Invalid ministries should be ignored");
-        assertTrue(item.getMinistries().contains(Ministry.FINANCE));
+    // helper: replace a file with garbage of the same size and keep its mtime
+    private static void overwriteKeepingStamp(Path file) throws IOException {
+        FileTime modified = Files.getLastModifiedTime(file);
+        byte[] garbage = new byte[(int) Files.size(file)];
+        Arrays.fill(garbage, (byte) ' ');
+        Files.write(file, garbage);
+        Files.setLastModifiedTime(file, modified);
     }
 
     @Test
-    void testByIdPreferenceOverByName() throws IOException {
-        writeBudgetJson("""
-            { "2025": { "esoda": [ { "ID": 1, "BILL": "Item", "VALUE": 100.0 } ] } }
-            """);
-        writeMinistryJson("""
-            {
-              "byId": { "1": ["FINANCE"] },
-              "byName": { "Item": ["HEALTH"] }
-            }
-            """);
+    void testFindByYearRangeReadsStorageOnce() {
+        List<Budget> years = new ArrayList<>();
+        for (int year = 2020; year < 2028; year++) {
+            years.add(yearBudget(year));
+        }
+        repository.saveAll(years);
 
-        BudgetItem item = repository.load().get(0).getItems().get(0);
+        // before: one findById per year on a cold repository
+        BudgetRepository perYear = new BudgetRepository();
+        for (int year = 2020; year < 2028; year++) {
+            assertTrue(perYear.findById(year).isPresent());
+        }
+        long perYearReads = perYear.ioCounters().reads();
 
-        assertTrue(item.getMinistries().contains(Ministry.FINANCE));
-        assertFalse(item.getMinistries().contains(Ministry.HEALTH));
+        // after: the whole range from one read
+        BudgetRepository ranged = new BudgetRepository();
+        BudgetYearRange range = ranged.findByYearRange(2020, 2028);
+        long rangeReads = ranged.ioCounters().reads();
+
+        System.out.printf("8-year range: %d reads per year, %d as a range%n",
+            perYearReads, rangeReads);
+        assertEquals(8, perYearReads);
+        assertEquals(1, rangeReads);
+        assertEquals(8, range.getBudgets().size());
     }
 
     @Test
-    void testMultipleMinistriesMapping() throws IOException {
-        writeBudgetJson("""
-            { "2025": { "esoda": [ { "ID": 1, "BILL": "Shared", "VALUE": 1000.0 } ] } }
-            """);
-        writeMinistryJson("""
-            { "byId": { "1": ["FINANCE", "DEVELOPMENT", "INTERIOR"] }, "byName": { } }
-            """);
+    void testTotalsFollowWritesAndKeepUntouchedYears() {
+        BudgetItem loan = new BudgetItem(2, 2021, "Loans", 5.0, false, List.of());
+        BudgetItem item = new BudgetItem(1, 2021, "Item", 10.0, true, List.of());
+        repository.saveAll(List.of(yearBudget(2020),
+            new Budget(List.of(item, loan), 2021, 10.0, 5.0, 5.0)));
+        BudgetSnapshot before = repository.snapshot();
+        BudgetTotals totals2021 = before.findTotals(2021).orElseThrow();
+        assertEquals(new BudgetTotals(2021, 10.0, 5.0, 5.0, 0.0, 5.0, 2),
+            totals2021);
+
+        repository.save(new Budget(List.of(item), 2021, 10.0, 0.0, 10.0));
+        BudgetSnapshot after = repository.snapshot();
+
+        assertSame(before.findTotals(2020).orElseThrow(),
+            after.findTotals(2020).orElseThrow(),
+            "Failure - totals of an untouched year should be reused");
+        assertEquals(new BudgetTotals(2021, 10.0, 0.0, 10.0, 0.0, 0.0, 1),
+            after.findTotals(2021).orElseThrow());
+        assertEquals(totals2021, before.findTotals(2021).orElseThrow());
+        assertEquals(1, repository.getCacheMisses());
+    }
 
-        BudgetItem item = repository.load().get(0).getItems().get(0);
+    @Test
+    void testSnapshotIsNotChangedByLaterWrites() {
+        repository.save(yearBudget(2020));
+        BudgetSnapshot before = repository.snapshot();
 
-        assertEquals(3, item.getMinistries().size());
-        assertTrue(item.getMinistries().contains(Ministry.FINANCE));
-        assertTrue(item.getMinistries().contains(Ministry.DEVELOPMENT));
-        assertTrue(item.getMinistries().contains(Ministry.INTERIOR));
+        repository.save(yearBudget(2021));
+        repository.delete(yearBudget(2020));
+
+        assertTrue(before.containsYear(2020));
+        assertFalse(before.containsYear(2021),
+            "Failure - a published snapshot must never change");
+        BudgetSnapshot after = repository.snapshot();
+        assertEquals(List.of(2021),
+            after.getBudgets().stream().map(Budget::getYear).toList());
+        assertEquals(1, repository.getCacheMisses(),
+            "Failure - writes should publish the next snapshot");
+    }
+
+    @Test
+    void testSnapshotBudgetsCannotBeModified() {
+        repository.save(yearBudget(2020));
+        Budget shared = repository.snapshot().findByYear(2020).orElseThrow();
+        BudgetItem item = shared.getItems().get(0);
+
+        assertThrows(IllegalStateException.class, () -> item.setValue(1.0),
+            "Failure - a snapshot item must not be modifiable");
+        assertThrows(IllegalStateException.class, () -> shared.setItems(List.of()));
+
+        Budget copy = repository.findById(2020).orElseThrow();
+        assertFalse(copy.isFrozen(), "Failure - findById should return a private copy");
+        copy.applyItemValue(copy.getItems().get(0), 1.0);
     }
 
     @Test
@@ -0,0 +1,43 @@
+package budget.backend.repository;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+
+public class TestChangeQuery {
+
+    @Test
+    void testWithMethodsReturnNarrowedCopies() {
+        ChangeQuery query = ChangeQuery.sortedBy(
+            ChangeQuery.Sort.NEWEST_FIRST, 10);
+        UUID actor = UUID.randomUUID();
+        ChangeQuery narrowed = query.withActor(actor).withItem(5)
+            .withDirection(ChangeQuery.Direction.INCREASES);
+
+        assertNull(query.actorId(), "Failure - original should be unchanged");
+        assertEquals(actor, narrowed.actorId());
+        assertEquals(5, narrowed.itemId());
+        assertEquals(ChangeQuery.Direction.INCREASES, narrowed.direction());
+        assertEquals(10, narrowed.pageSize());
+    }
+
+    @Test
+    void testInvalidQueriesAreRejected() {
+        ChangeQuery query = ChangeQuery.sortedBy(
+            ChangeQuery.Sort.NEWEST_FIRST, 10);
+        LocalDateTime now = LocalDateTime.now();
+
+        assertThrows(IllegalArgumentException.class,
+            () -> ChangeQuery.sortedBy(null, 10));
+        assertThrows(IllegalArgumentException.class,
+            () -> ChangeQuery.sortedBy(ChangeQuery.Sort.NAME_ASC, 0));
+        assertThrows(IllegalArgumentException.class,
+            () -> query.withDirection(null));
+        assertThrows(IllegalArgumentException.class,
+            () -> query.withDateRange(now, now));
+    }
+}
@@ -5,98 +5,29 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.List;
-import java.util.Optional;
-import java.util.UUID;
 
-import org.junit.jupiter.api.AfterEach;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
-import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
-import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
 import budget.backend.model.domain.PendingChange;
 import budget.backend.model.enums.Status;
 
-public class TestChangeRequestRepository {
+/**
+ * Runs the {@link ChangeRequestRepositoryContract} on the JSON files and
+ * tests how the pending queue and the archive are kept.
+ */
+public class TestChangeRequestRepository
+    extends ChangeRequestRepositoryContract {
 
-    private ChangeRequestRepository repository;
-    // backup της αρχικής τιμής
-    private String originalDataDir;
-
-    @BeforeEach
-    void setUp(@TempDir Path tempDir) throws IOException {
-        //Το junit φτιαχνει temporary directory που διαγράφει 
-        //μετα απο κάθε test
-        originalDataDir = System.getProperty("budget.data.dir");
-        System.setProperty("budget.data.dir", tempDir.toString());
-
-        Path testFile = tempDir.resolve("pending-changes.json");
-        Files.writeString(testFile, "[]");
-
-        repository = new ChangeRequestRepository();
-    }
-
-    @AfterEach
-    void tearDown() {
-        if (originalDataDir == null) {
-            System.clearProperty("budget.data.dir");
-        } else {
-            System.setProperty("budget.data.dir", originalDataDir);
-
-        }
-    }
-
-    private PendingChange createTestChange(
-        int id,
-        int budgetItemId,
-        String requestByName,
-        double oldValue,
-        double newValue
-    ) {
-        
-        return new PendingChange(
-            id,
-            budgetItemId,
-            2024,
-            "Test Budget Item",
-            requestByName,
-            UUID.randomUUID(),
-            oldValue,
-            newValue
-        );
-    }
-
-    //Tests για load()
-
-    @Test
-    void testLoadEmptyFile() {
-        List<PendingChange> changes = repository.load();
-        assertNotNull(changes, "Failure - load should not return null");
-        assertTrue(changes.isEmpty(), "Failure - should return empty list");
-    }
-
-    @Test
-    void testLoadWithData() {
-        PendingChange change1 = createTestChange(1,1, "TestName", 1000.0, 1100.0);
-        PendingChange change2 = createTestChange(2, 2, "TestName2", 1500.0, 1600.0);
-        repository.save(change1);
-        repository.save(change2);
-
-        List<PendingChange> changes = repository.load();
-        assertEquals(2, changes.size(), "Failure - should load 2 changes");
-        assertTrue(changes
-                        .stream()
-                        .anyMatch(change -> change.getId() == change1.getId()),
-                         "Failure - data not loaded correctly");
-        assertTrue(changes
-                        .stream()
-                        .anyMatch(change -> change.getId() == change2.getId()),
-                        "Failure - data not loaded correctly");
+    @Override
+    protected ChangeRequestRepository createRepository() {
+        return new ChangeRequestRepository();
     }
 
     @Test
@@ -111,215 +42,198 @@ public class TestChangeRequestRepository {
             "Failure - should return empty list on malformed JSON");
     }
 
-    //Tests για save()
-
-    @Test
-    void testSaveNewChange() {
-        PendingChange change = createTestChange(1, 1, "User", 100.0, 200.0);
-        repository.save(change);
-
-        List<PendingChange> changes = repository.load();
-        PendingChange readChange = changes.get(0);
-        //Μελλοντικα θα μπορουσαμε να δημιουργήσουμε equals
-        //και να αποφευχθει ολοι οι ελεγχοι.
-        assertEquals(change.getId(), readChange.getId(), 
-                 "Failure - IDs should match");
-        assertEquals(change.getBudgetItemId(), readChange.getBudgetItemId(),
-                     "Failure - budgetItemId should match");
-        assertEquals(change.getBudgetItemYear(), readChange.getBudgetItemYear(),
-                     "Failure - budgetItemYear should match");
-        assertEquals(change.getBudgetItemName(), readChange.getBudgetItemName(),
-                     "Failure - budgetItemName should match");
-        assertEquals(change.getRequestByName(), readChange.getRequestByName(),
-                     "Failure - requestByName should match");
-        assertEquals(change.getRequestById(), readChange.getRequestById(),
-                     "Failure - requestById should match");
-        assertEquals(change.getOldValue(), readChange.getOldValue(),
-                     "Failure - oldValue should match");
-        assertEquals(change.getNewValue(), readChange.getNewValue(),
-                     "Failure - newValue should match");
-        assertEquals(change.getStatus(), readChange.getStatus(),
-                     "Failure - status should match");
-        assertEquals(change.getSubmittedDate(), readChange.getSubmittedDate(),
-                    "Failure - submittedDate should match");
-    }
-
-    @Test
-    void testSaveUpdateChange() {
-        PendingChange change = createTestChange(1, 1, "User", 100, 200);
-        repository.save(change);
-
-        change.approve();
-        repository.save(change);
-
-        List<PendingChange> changes = repository.load();
-        assertEquals(1, changes.size(),
-        "Failure - save should update existing change");
-        PendingChange readChange = changes.get(0);
-        assertEquals(Status.APPROVED, readChange.getStatus(),
-        "Failure - status not updated correctly");
-    }
-
+    //Other Tests
     @Test
-    void testSaveNull() {
-        assertDoesNotThrow(() -> repository.save(null),
-        "Failure - saving null shouldn't throw Exception");
-        List<PendingChange> changes = repository.load();
-        assertEquals(0, changes.size(),
-        "Failure - should not have null changes");
+    void testBatchCostsOneReadAndOneWrite() {
+        List<PendingChange> batch = List.of(
+            createTestChange(1, 100, "User1", 10.0, 20.0),
+            createTestChange(2, 101, "User2", 30.0, 40.0),
+            createTestChange(3, 102, "User3", 50.0, 60.0)
+        );
+        IoCounters io = repository.ioCounters();
+
+        repository.saveAll(batch);
+        assertEquals(1, io.reads(), "Failure - saveAll should read once");
+        assertEquals(1, io.writes(), "Failure - saveAll should write once");
+
+        List<PendingChange> found = repository.findAllById(List.of(3, 1, 99));
+        assertEquals(List.of(3, 1),
+            found.stream().map(PendingChange::getId).toList());
+        assertEquals(1, io.reads(),
+            "Failure - pending changes should be found without reading");
+
+        repository.deleteAll(batch.subList(0, 2));
+        assertEquals(1, io.reads(),
+            "Failure - deleting pending changes should not read");
+        assertEquals(2, io.writes(), "Failure - deleteAll should write once");
+        assertEquals(List.of(3),
+            repository.load().stream().map(PendingChange::getId).toList());
     }
 
-    //Tests για existsById()
-
     @Test
-    void testExistsByIdTrue() {
-        PendingChange change = createTestChange(1, 1, "User", 100.0, 150.0);
-        repository.save(change);
-
-        int id = change.getId();
-        assertTrue(repository.existsById(id),
-        "Failure - should return true for existing id");
+    void testPendingQueueIsNewestFirst(@TempDir Path tempDir) throws IOException {
+        System.setProperty("budget.data.dir", tempDir.toString());
+        Files.writeString(tempDir.resolve("pending-changes.json"), """
+            [
+              {"id": 1, "status": "PENDING", "submittedDate": "2026-01-02T10:00:00"},
+              {"id": 2, "status": "APPROVED", "submittedDate": "2026-01-05T10:00:00"},
+              {"id": 3, "status": "PENDING", "submittedDate": "2026-01-03T10:00:00.5"},
+              {"id": 4, "status": "PENDING", "submittedDate": "2026-01-03T10:00:00"}
+            ]
+            """);
+
+        assertEquals(List.of(3, 4, 1), repository.findPendingSortedByDate()
+            .stream().map(PendingChange::getId).toList());
+
+        PendingChange decided = repository.findById(3).get();
+        decided.reject();
+        repository.save(decided);
+        assertEquals(List.of(4, 1), repository.findPendingSortedByDate()
+            .stream().map(PendingChange::getId).toList());
     }
 
     @Test
-    void testExistsByIdFalse() {
-        PendingChange change = createTestChange(1, 1, "User", 100.0, 150.0);
-        repository.save(change);
-
-        assertFalse(repository.existsById(0),
-        "Failure - should return false for Non-existing id");
-    }
+    void testDecidedChangesAreArchived(@TempDir Path tempDir) throws IOException {
+        System.setProperty("budget.data.dir", tempDir.toString());
+        Files.writeString(tempDir.resolve("pending-changes.json"), """
+            [{"id": 9, "status": "REJECTED", "submittedDate": "2026-01-01T10:00:00"}]
+            """);
+        PendingChange change1 = createTestChange(1, 1, "User1", 100.0, 150.0);
+        PendingChange change2 = createTestChange(2, 2, "User2", 200.0, 250.0);
+        repository.saveAll(List.of(change1, change2));
+        change1.approve();
+        repository.save(change1);
 
-    @Test
-    void testExistsByIdNull() {
-        assertFalse(repository.existsById(null),
-        "Failure - should return false for null id");
+        String hot = Files.readString(tempDir.resolve("pending-changes.json"));
+        assertFalse(hot.contains("APPROVED") || hot.contains("REJECTED"),
+            "Failure - hot segment should only hold pending changes");
+        assertEquals(2, Files.readAllLines(
+            tempDir.resolve("pending-changes-archive.jsonl")).size(),
+            "Failure - decided changes should be archived");
+
+        assertEquals(Status.APPROVED, repository.findById(1).get().getStatus());
+        assertTrue(repository.existsById(9),
+            "Failure - archived changes should still be found");
+        assertEquals(3, repository.load().size());
+        assertEquals(10, repository.generateId(),
+            "Failure - archived ids should not be handed out again");
     }
 
-    //Tests για delete()
-
     @Test
-    void testDeleteExisting() {
-        PendingChange change = createTestChange(1, 1, "User", 100.0, 150.0);
-        repository.save(change);
-        repository.delete(change);
-        List<PendingChange> changes = repository.load();
-        assertTrue(changes.isEmpty(),"Failure - Should be empty");
-    }
-    
-    @Test
-    void testDeleteNonExisting() {
-        PendingChange change = createTestChange(1, 1, "User", 100.0, 150.0);
-        assertDoesNotThrow(() -> repository.delete(change),
-        "Failure - should not throw for deleting non-existing change");
+    void testDecisionsAreJournaled(@TempDir Path otherDir) throws IOException {
+        repository.saveAll(List.of(
+            createTestChange(1, 1, "User1", 100.0, 150.0),
+            createTestChange(2, 2, "User2", 200.0, 250.0)));
+        Path base = dataDir.resolve("pending-changes.json");
+        String before = Files.readString(base);
+
+        PendingChange decided = repository.findById(1).get();
+        decided.approve();
+        repository.save(decided);
+        repository.save(createTestChange(3, 3, "User3", 300.0, 350.0));
+        assertEquals(before, Files.readString(base),
+            "Failure - decisions should not rewrite the pending changes");
+
+        for (String file : List.of("pending-changes.json",
+                "pending-changes.jsonl", "pending-changes-archive.jsonl")) {
+            Files.copy(dataDir.resolve(file), otherDir.resolve(file));
+        }
+        System.setProperty("budget.data.dir", otherDir.toString());
+        assertEquals(List.of(2, 3), ids(repository.findPendingSortedByDate())
+            .stream().sorted().toList(),
+            "Failure - the journal should be replayed on a fresh read");
+        assertEquals(Status.APPROVED, repository.findById(1).get().getStatus());
     }
 
     @Test
-    void testDeleteNull() {
-        assertDoesNotThrow(() -> repository.delete(null),
-        "Failure - should not throw for deleting null");
+    void testAppendsAfterATornLineAreKept(@TempDir Path otherDir)
+        throws IOException {
+        PendingChange rejected = createTestChange(1, 1, "User1", 100.0, 150.0);
+        rejected.reject();
+        repository.saveAll(List.of(rejected,
+            createTestChange(2, 2, "User2", 200.0, 250.0)));
+        Files.writeString(dataDir.resolve("pending-changes-archive.jsonl"),
+            "{\"id\":7,\"status\":", StandardOpenOption.APPEND);
+        Files.writeString(dataDir.resolve("pending-changes.jsonl"),
+            "{\"op\":\"PUT\",\"id\":", StandardOpenOption.APPEND);
+
+        PendingChange approved = repository.findById(2).get();
+        approved.approve();
+        repository.save(approved);
+        repository.save(createTestChange(3, 3, "User3", 300.0, 350.0));
+
+        for (String file : List.of("pending-changes.json",
+                "pending-changes.jsonl", "pending-changes-archive.jsonl")) {
+            Files.copy(dataDir.resolve(file), otherDir.resolve(file));
+        }
+        System.setProperty("budget.data.dir", otherDir.toString());
+        assertEquals(List.of(3), ids(repository.findPendingSortedByDate()),
+            "Failure - a journal entry appended after a torn line was lost");
+        assertEquals(Status.APPROVED, repository.findById(2).get().getStatus(),
+            "Failure - an approval appended after a torn line was lost");
+        assertEquals(Status.REJECTED, repository.findById(1).get().getStatus());
     }
 
-    //Tests για findsById()
-
     @Test
-    void testFindByIdExisting() {
-        PendingChange change = createTestChange(1, 1, "User", 100.0, 150.0);
-        repository.save(change);
-        Optional<PendingChange> found_change = repository.findById(change.getId());
-        assertTrue(found_change.isPresent(),
-        "Failure - should find existing change" );
-    }
+    void testLoadPrefersTheHotCopy() throws IOException {
+        Files.writeString(dataDir.resolve("pending-changes.json"), """
+            [{"id": 5, "status": "PENDING", "submittedDate": "2026-01-01T10:00:00"}]
+            """);
+        Files.writeString(dataDir.resolve("pending-changes-archive.jsonl"),
+            "{\"id\":5,\"status\":\"APPROVED\","
+            + "\"submittedDate\":\"2026-01-01T10:00:00\"}\n");
 
-    @Test
-    void testFindByIdNonExisting() {
-        Optional<PendingChange> found_change = repository.findById(999);
-        assertFalse(found_change.isPresent(),
-        "Failure - should return empty for non-existing id");
-    }
-    
-    @Test
-    void testFindByIdNull() {
-        Optional<PendingChange> found_change = repository.findById(null);
-        assertFalse(found_change.isPresent(),
-        "Failure - should return empty for null id");
+        List<PendingChange> changes = repository.load();
+        assertEquals(List.of(5), ids(changes));
+        assertEquals(Status.PENDING, changes.get(0).getStatus(),
+            "Failure - load should agree with findById");
+        assertEquals(Status.PENDING, repository.findById(5).get().getStatus());
     }
 
-    //Other Tests
-
     @Test
-    void testFullCrudCycle() {
-        PendingChange change = createTestChange(1, 1, "User", 100.0, 150.0);
-        //Create
-        repository.save(change);
-
-        assertTrue(repository.existsById(change.getId()),
-        "Failure - save() not working properly");
-
-        //Read
-        List<PendingChange> changes = repository.load();
-        assertEquals(1, changes.size(),
-        "Failure - load() not working properly");
-        Optional<PendingChange> read_change = repository.findById(change.getId());
-        assertTrue(read_change.isPresent(),
-        "Failure - findById() not working properly");
-        assertEquals(change.getRequestByName(), read_change.get().getRequestByName(),
-        "Failure - requestByName should be equal");
-        
-        //Update
-        read_change.get().approve();
-        repository.save(read_change.get());
-        Optional<PendingChange> afterUpdate = repository.findById(change.getId());
-        assertTrue(afterUpdate.isPresent(),
-        "Failure - findById() not working properly");
-        assertEquals(Status.APPROVED, afterUpdate.get().getStatus(),
-        "Failure - update() not working properly");
-
-        //Delete
-        repository.delete(afterUpdate.get());
-        assertFalse(repository.existsById(change.getId()),
-        "Failure - delete() not working properly");
+    void testPendingReadsDoNotTouchArchive() {
+        PendingChange decided = createTestChange(1, 1, "User1", 100.0, 150.0);
+        decided.approve();
+        repository.save(decided);
+        repository.save(createTestChange(2, 2, "User2", 200.0, 250.0));
+        IoCounters io = repository.ioCounters();
+        long reads = io.reads();
+
+        assertEquals(1, repository.findPendingSortedByDate().size());
+        assertTrue(repository.findById(2).isPresent());
+        assertEquals(reads, io.reads(),
+            "Failure - pending lookups should not read any file");
+
+        assertTrue(repository.findById(1).isPresent());
+        assertEquals(reads + 1, io.reads(),
+            "Failure - decided lookups should read the archive once");
     }
 
     @Test
-    void testMultipleChanges() {
-        PendingChange change1 = createTestChange(1, 1, "User1", 100.0, 150.0);
-        PendingChange change2 = createTestChange(2, 2, "User2", 200.0, 250.0);
-        PendingChange change3 = createTestChange(3, 3, "User3", 300.0, 350.0);
-
-        repository.save(change1);
-        repository.save(change2);
-        repository.save(change3);
-
-        List<PendingChange> changes = repository.load();
-        assertEquals(3, changes.size(),
-        "Failure - multiple changes not handled correctly");
-
-        repository.delete(change1);
-        assertTrue(repository.existsById(change2.getId()),
-        "Failure - change2 should exist");
-        assertTrue(repository.existsById(change3.getId()),
-        "Failure - change3 should exist");
-        repository.delete(change2);
-        repository.delete(change3);
-        changes = repository.load();
-        assertEquals(0, changes.size(),
-        "Failure - multiple changes not deleted correctly");
+    void testPendingStoreFollowsTheDataDirectory(@TempDir Path otherDir)
+        throws IOException {
+        repository.save(createTestChange(1, 1, "User1", 100.0, 150.0));
+        assertTrue(repository.existsById(1));
+        Files.writeString(otherDir.resolve("pending-changes.json"), "[]");
+
+        System.setProperty("budget.data.dir", otherDir.toString());
+        assertFalse(repository.existsById(1),
+            "Failure - the store of the previous directory was used");
+        System.setProperty("budget.data.dir", dataDir.toString());
+        assertTrue(repository.findById(1).isPresent());
     }
 
     @Test
-    void testGenerateIdWithExistingChanges() {
-        PendingChange change1 = createTestChange(1, 1, "User1", 100.0, 150.0);
-        PendingChange change2 = createTestChange(2, 2, "User2", 200.0, 250.0);
-        PendingChange change3 = createTestChange(3, 3, "User3", 300.0, 350.0);
-        
-        repository.save(change1);
-        repository.save(change2);
-        repository.save(change3);
-        
-        int newId = repository.generateId();
-        
-        assertEquals(4, newId, "Failure - should return max id + 1");
+    void testDeleteAllWithoutMatchesDoesNotWrite() {
+        repository.saveAll(List.of(
+            createTestChange(1, 100, "User1", 10.0, 20.0)));
+        IoCounters io = repository.ioCounters();
+        long writes = io.writes();
+
+        repository.deleteAll(List.of(
+            createTestChange(7, 100, "User1", 10.0, 20.0)));
+        assertEquals(writes, io.writes(),
+            "Failure - nothing to delete should not rewrite the file");
     }
 
     @Test
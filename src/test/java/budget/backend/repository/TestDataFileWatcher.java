@@ -0,0 +1,211 @@
+package budget.backend.repository;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import budget.backend.model.domain.Budget;
+import budget.backend.model.domain.BudgetItem;
+import budget.backend.model.domain.user.Citizen;
+
+public class TestDataFileWatcher {
+
+    private static final long DEBOUNCE_MILLIS = 100;
+    private static final long TIMEOUT_MILLIS = 10_000;
+
+    private String originalDataDir;
+    private Path usersFile;
+    private Backend backend;
+    private DataFileWatcher watcher;
+
+    @BeforeEach
+    void setUp(@TempDir Path tempDir) throws IOException {
+        originalDataDir = System.getProperty("budget.data.dir");
+        System.setProperty("budget.data.dir", tempDir.toString());
+        usersFile = tempDir.resolve("users.json");
+        Files.writeString(usersFile, "{}", StandardCharsets.UTF_8);
+        Files.writeString(tempDir.resolve("pending-changes.json"), "[]",
+            StandardCharsets.UTF_8);
+        Files.writeString(tempDir.resolve("budget-changes.json"), "[]",
+            StandardCharsets.UTF_8);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (watcher != null) {
+            watcher.close();
+        }
+        if (backend != null) {
+            backend.close();
+        }
+        if (originalDataDir == null) {
+            System.clearProperty("budget.data.dir");
+        } else {
+            System.setProperty("budget.data.dir", originalDataDir);
+        }
+    }
+
+    private record Backend(
+        BudgetRepository budgets,
+        UserRepository users,
+        ChangeRequestRepository changeRequests,
+        ChangeLogRepository changeLogs
+    ) implements StorageBackend {
+
+        Backend(UserRepository users) {
+            this(new BudgetRepository(), users, new ChangeRequestRepository(),
+                new ChangeLogRepository());
+        }
+
+        @Override
+        public void close() {
+            changeLogs.awaitCompaction();
+        }
+    }
+
+    private static final class CountingUserRepository extends UserRepository {
+        private final AtomicInteger reloads = new AtomicInteger();
+
+        @Override
+        public void reload() {
+            reloads.incrementAndGet();
+            super.reload();
+        }
+    }
+
+    /**
+     * Opens a backend over the users and watches the data directory for
+     * it; both are closed after the test, the watcher first.
+     */
+    private Backend watch(UserRepository users) throws IOException {
+        backend = new Backend(users);
+        watcher = DataFileWatcher.start(backend, DEBOUNCE_MILLIS);
+        return backend;
+    }
+
+    private static boolean await(BooleanSupplier condition)
+            throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                return false;
+            }
+            Thread.sleep(DEBOUNCE_MILLIS / 2);
+        }
+        return true;
+    }
+
+    @Test
+    void testExternalEditIsReloadedInBackground()
+            throws IOException, InterruptedException {
+        UserRepository users = new UserRepository();
+        Citizen citizen = new Citizen("User1", "DET USER1", "123");
+        users.save(citizen);
+        assertTrue(users.existsById(citizen.getId()));
+
+        watch(users);
+        long misses = users.getCacheMisses();
+        Files.writeString(usersFile, "{}", StandardCharsets.UTF_8);
+
+        assertTrue(await(() -> users.getCacheMisses() > misses),
+            "Failure - the watcher should re-read users.json");
+        long reloaded = users.getCacheMisses();
+        assertFalse(users.existsById(citizen.getId()));
+        assertEquals(reloaded, users.getCacheMisses(),
+            "Failure - the read should be answered from the cache");
+    }
+
+    @Test
+    void testRegeneratedBudgetJsonReplacesPartitions()
+            throws IOException, InterruptedException {
+        Path budgetJson = usersFile.resolveSibling("budget.json");
+        Files.writeString(budgetJson, "{}", StandardCharsets.UTF_8);
+        Files.writeString(usersFile.resolveSibling("bill-ministry-map.json"),
+            "{ \"byId\": {}, \"byName\": {} }", StandardCharsets.UTF_8);
+        UserRepository users = new UserRepository();
+
+        BudgetRepository budgets = watch(users).budgets();
+        BudgetItem item =
+            new BudgetItem(1, 2030, "A", 10.0, true, List.of());
+        budgets.save(new Budget(List.of(item), 2030, 10.0, 0, 10.0));
+        Path manifest =
+            budgetJson.resolveSibling("budget").resolve("manifest.json");
+        assertTrue(Files.exists(manifest));
+        long misses = budgets.getCacheMisses();
+
+        Files.writeString(budgetJson, """
+            { "2031": { "esoda": [ { "ID": 1, "BILL": "B", "VALUE": 5.0 } ] } }
+            """, StandardCharsets.UTF_8);
+        Files.setLastModifiedTime(budgetJson, FileTime.fromMillis(
+            Files.getLastModifiedTime(manifest).toMillis() + 10_000));
+
+        assertTrue(await(() -> budgets.getCacheMisses() > misses),
+            "Failure - the watcher should re-read the budgets");
+        assertEquals(List.of(2031), budgets.load().stream()
+            .map(Budget::getYear).toList(),
+            "Failure - a newer budget.json should replace the partitions");
+        assertTrue(Files.exists(
+            manifest.resolveSibling("2031.json")));
+
+        BudgetItem later =
+            new BudgetItem(2, 2032, "C", 7.0, true, List.of());
+        budgets.save(new Budget(List.of(later), 2032, 7.0, 0, 7.0));
+        assertEquals(List.of(2031, 2032), budgets.load().stream()
+            .map(Budget::getYear).toList(),
+            "Failure - budget.json should be imported only once");
+    }
+
+    @Test
+    void testBurstOfWritesIsDebouncedIntoOneReload()
+            throws IOException, InterruptedException {
+        CountingUserRepository users = new CountingUserRepository();
+
+        watch(users);
+        for (int i = 0; i < 5; i++) {
+            Files.writeString(usersFile, "{}" + " ".repeat(i),
+                StandardCharsets.UTF_8);
+        }
+
+        assertTrue(await(() -> users.reloads.get() > 0),
+            "Failure - the watcher should reload users.json");
+        Thread.sleep(DEBOUNCE_MILLIS * 3);
+        assertEquals(1, users.reloads.get(),
+            "Failure - a burst of writes should reload once");
+    }
+
+    @Test
+    void testUnrelatedFilesAreIgnored()
+            throws IOException, InterruptedException {
+        CountingUserRepository users = new CountingUserRepository();
+
+        watch(users);
+        Files.writeString(usersFile.resolveSibling("notes.txt"), "x",
+            StandardCharsets.UTF_8);
+        Thread.sleep(DEBOUNCE_MILLIS * 3);
+        assertEquals(0, users.reloads.get());
+    }
+
+    @Test
+    void testStartRejectsInvalidArguments() {
+        assertThrows(IllegalArgumentException.class,
+            () -> DataFileWatcher.start(null));
+        try (Backend backend = new Backend(new UserRepository())) {
+            assertThrows(IllegalArgumentException.class,
+                () -> DataFileWatcher.start(backend, -1));
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package budget.backend.repository;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class TestGroupCommitWriter {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testWriteReplacesFileAndLeavesNoTempFile() throws IOException {
+        GroupCommitWriter writer = new GroupCommitWriter(0);
+        Path target = tempDir.resolve("data.json");
+        Files.writeString(target, "old");
+
+        writer.writeAndWait(target, out -> out.write("new"));
+
+        assertEquals("new", Files.readString(target));
+        assertFalse(Files.exists(tempDir.resolve("data.json.tmp")),
+            "Failure - temporary file should be renamed away");
+    }
+
+    @Test
+    void testWritesWithinWindowAreCoalesced() throws IOException {
+        GroupCommitWriter writer = new GroupCommitWriter(200);
+        Path first = tempDir.resolve("first.json");
+        Path second = tempDir.resolve("second.json");
+
+        List<CompletableFuture<Void>> writes = List.of(
+            writer.write(first, out -> out.write("1")),
+            writer.write(second, out -> out.write("a")),
+            writer.write(first, out -> out.write("2")),
+            writer.write(first, out -> out.write("3"))
+        );
+        GroupCommitWriter.await(writes);
+
+        assertEquals("3", Files.readString(first),
+            "Failure - the latest content of a file should win");
+        assertEquals("a", Files.readString(second));
+        GroupCommitWriter.Metrics metrics = writer.metrics();
+        assertEquals(1, metrics.flushes(), "Failure - expected one batch");
+        assertEquals(4, metrics.requests());
+        assertEquals(2, metrics.filesWritten(),
+            "Failure - each file should be written once per batch");
+        assertEquals(4, metrics.maxBatchSize());
+        assertEquals(4.0, metrics.averageBatchSize());
+        assertTrue(metrics.maxFlushNanos() > 0);
+    }
+
+    @Test
+    void testFailedWriteKeepsOldContent() throws IOException {
+        GroupCommitWriter writer = new GroupCommitWriter(0);
+        Path target = tempDir.resolve("data.json");
+        Files.writeString(target, "old");
+
+        assertThrows(IOException.class, () -> writer.writeAndWait(target, out -> {
+            out.write("partial");
+            throw new IOException("disk full");
+        }));
+
+        assertEquals("old", Files.readString(target),
+            "Failure - a failed write must not touch the target");
+        assertFalse(Files.exists(tempDir.resolve("data.json.tmp")));
+    }
+
+    @Test
+    void testWriteToMissingDirectoryFails() {
+        GroupCommitWriter writer = new GroupCommitWriter(0);
+        Path target = tempDir.resolve("missing").resolve("data.json");
+
+        assertThrows(IOException.class,
+            () -> writer.writeAndWait(target, out -> out.write("x")));
+        assertEquals(1, writer.metrics().flushes());
+        assertEquals(0, writer.metrics().filesWritten());
+    }
+
+    @Test
+    void testErrorDuringFlushCompletesEveryWrite() throws Exception {
+        GroupCommitWriter writer = new GroupCommitWriter(200);
+        Path good = tempDir.resolve("good.json");
+        Path bad = tempDir.resolve("bad.json");
+        Path later = tempDir.resolve("later.json");
+
+        CompletableFuture<Void> goodWrite = writer.write(good, out -> out.write("1"));
+        CompletableFuture<Void> badWrite = writer.write(bad, out -> {
+            throw new StackOverflowError("simulated");
+        });
+        CompletableFuture<Void> laterWrite = writer.write(later, out -> out.write("3"));
+
+        goodWrite.get(5, TimeUnit.SECONDS);
+        for (CompletableFuture<Void> write : List.of(badWrite, laterWrite)) {
+            ExecutionException failure = assertThrows(ExecutionException.class,
+                () -> write.get(5, TimeUnit.SECONDS),
+                "Failure - writes after the error should fail, not hang");
+            assertTrue(failure.getCause() instanceof StackOverflowError);
+        }
+        assertEquals("1", Files.readString(good));
+        assertFalse(Files.exists(tempDir.resolve("bad.json.tmp")));
+        assertFalse(Files.exists(later));
+
+        writer.writeAndWait(later, out -> out.write("3"));
+        assertEquals("3", Files.readString(later),
+            "Failure - the writer should keep working after an error");
+    }
+
+    @Test
+    void testRejectsNegativeLinger() {
+        assertThrows(IllegalArgumentException.class,
+            () -> new GroupCommitWriter(-1));
+    }
+}
@@ -0,0 +1,120 @@
+package budget.backend.repository;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class TestIdSequence {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testSeedsFromDataOnlyOnce() {
+        IdSequence sequence = new IdSequence(tempDir.resolve("ids.seq"), 10);
+        AtomicInteger seedCalls = new AtomicInteger();
+
+        assertEquals(8, sequence.next(() -> {
+            seedCalls.incrementAndGet();
+            return 7;
+        }));
+        assertEquals(9, sequence.next(() -> {
+            seedCalls.incrementAndGet();
+            return 7;
+        }));
+        assertEquals(1, seedCalls.get(), "Failure - data read more than once");
+    }
+
+    @Test
+    void testPersistsHighWaterMarkPerBlock() throws IOException {
+        Path file = tempDir.resolve("ids.seq");
+        IdSequence sequence = new IdSequence(file, 10);
+
+        sequence.next(() -> 0);
+        assertEquals("10", Files.readString(file));
+        for (int i = 0; i < 9; i++) {
+            sequence.next(() -> 0);
+        }
+        assertEquals("10", Files.readString(file),
+            "Failure - high-water mark rewritten inside a block");
+        assertEquals(11, sequence.next(() -> 0));
+        assertEquals("20", Files.readString(file));
+    }
+
+    @Test
+    void testRestartContinuesAfterReservedBlock() {
+        Path file = tempDir.resolve("ids.seq");
+        IdSequence first = new IdSequence(file, 10);
+        first.next(() -> 0);
+        first.next(() -> 0);
+
+        IdSequence restarted = new IdSequence(file, 10);
+        assertEquals(11, restarted.next(() -> 2),
+            "Failure - ids of the unused block must not be reissued");
+    }
+
+    @Test
+    void testObserveSkipsExplicitIds() {
+        IdSequence sequence = new IdSequence(tempDir.resolve("ids.seq"), 10);
+        assertEquals(1, sequence.next(() -> 0));
+
+        sequence.observe(25);
+        assertEquals(26, sequence.next(() -> 0));
+        sequence.observe(3);
+        assertEquals(27, sequence.next(() -> 0));
+    }
+
+    @Test
+    void testConcurrentCallersGetUniqueIds() throws Exception {
+        IdSequence sequence = new IdSequence(tempDir.resolve("ids.seq"), 4);
+        int threads = 8;
+        int perThread = 250;
+        Set<Integer> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        ids.add(sequence.next(() -> 0));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(threads * perThread, ids.size(),
+            "Failure - duplicate ids were issued");
+    }
+
+    @Test
+    void testForFileSharesInstances() {
+        Path file = tempDir.resolve("ids.seq");
+        assertSame(IdSequence.forFile(file),
+            IdSequence.forFile(tempDir.resolve(".").resolve("ids.seq")));
+    }
+
+    @Test
+    void testRejectsNonPositiveBlockSize() {
+        Path file = tempDir.resolve("ids.seq");
+        assertThrows(IllegalArgumentException.class,
+            () -> new IdSequence(file, 0));
+    }
+}
@@ -0,0 +1,107 @@
+package budget.backend.repository;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import budget.backend.model.domain.ChangeLog;
+import budget.backend.model.domain.PendingChange;
+import budget.backend.model.domain.user.Citizen;
+import budget.backend.model.domain.user.User;
+import budget.backend.model.enums.Ministry;
+
+public class TestJsonToSqlMigration {
+
+    private String originalDataDir;
+    private SqlDatabase database;
+
+    @BeforeEach
+    void setUp(@TempDir Path tempDir) throws IOException, SQLException {
+        originalDataDir = System.getProperty("budget.data.dir");
+        System.setProperty("budget.data.dir", tempDir.toString());
+        Files.writeString(tempDir.resolve("budget.json"), """
+            {
+              "2025": {
+                "esoda": [ { "ID": 1, "BILL": "Taxes", "VALUE": 1500.0 } ],
+                "eksoda": [ { "ID": 2, "BILL": "Health", "VALUE": 700.0 } ]
+              }
+            }
+            """, StandardCharsets.UTF_8);
+        Files.writeString(tempDir.resolve("bill-ministry-map.json"),
+            "{ \"byId\": { \"2\": [\"HEALTH\"] }, \"byName\": {} }",
+            StandardCharsets.UTF_8);
+        Files.writeString(tempDir.resolve("users.json"), "{}",
+            StandardCharsets.UTF_8);
+        Files.writeString(tempDir.resolve("pending-changes.json"), "[]",
+            StandardCharsets.UTF_8);
+        Files.writeString(tempDir.resolve("budget-changes.json"), "[]",
+            StandardCharsets.UTF_8);
+        database = SqlDatabase.open("jdbc:h2:mem:" + UUID.randomUUID()
+            + ";DB_CLOSE_DELAY=-1");
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.close();
+        if (originalDataDir == null) {
+            System.clearProperty("budget.data.dir");
+        } else {
+            System.setProperty("budget.data.dir", originalDataDir);
+        }
+    }
+
+    @Test
+    void testMigrateCopiesEveryRecord() {
+        Citizen citizen = new Citizen("User1", "DET USER1", "123");
+        new UserRepository().save(citizen);
+        PendingChange change = new PendingChange(1, 2, 2025, "Health",
+            "User1", citizen.getId(), 700.0, 800.0);
+        new ChangeRequestRepository().save(change);
+        ChangeLog log = new ChangeLog(1, 2, 600.0, 700.0,
+            "2024-05-01 10:00:00", "User1", citizen.getId());
+        ChangeLogRepository logs = new ChangeLogRepository();
+        logs.save(log);
+        logs.awaitCompaction();
+
+        JsonToSqlMigration.Counts counts = JsonToSqlMigration.migrate(database);
+
+        assertEquals(new JsonToSqlMigration.Counts(1, 1, 1, 1), counts);
+        assertEquals(new BudgetRepository().load().get(0).getNetResult(),
+            new SqlBudgetRepository(database).load().get(0).getNetResult(),
+            0.0001);
+        assertEquals(List.of(Ministry.HEALTH), new SqlBudgetRepository(database)
+            .findItemById(2, 2025, false).orElseThrow().getMinistries());
+        List<User> users = new SqlUserRepository(database).load();
+        assertEquals(citizen.getId(), users.get(0).getId());
+        assertEquals(change.getSubmittedAt(), new SqlChangeRequestRepository(
+            database).findById(1).orElseThrow().getSubmittedAt());
+        assertEquals(List.of(log), new SqlChangeLogRepository(database).load());
+    }
+
+    @Test
+    void testMigrateTwiceReplacesRecords() {
+        JsonToSqlMigration.migrate(database);
+        JsonToSqlMigration.migrate(database);
+
+        assertEquals(1, new SqlBudgetRepository(database).load().size());
+        assertEquals(2, new SqlBudgetRepository(database).load().get(0)
+            .getItems().size());
+    }
+
+    @Test
+    void testMigrateRejectsNullDatabase() {
+        assertThrows(IllegalArgumentException.class,
+            () -> JsonToSqlMigration.migrate(null));
+    }
+}
@@ -0,0 +1,137 @@
+package budget.backend.repository;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import budget.backend.model.domain.user.Citizen;
+
+public class TestRepositoryFactory {
+
+    private String originalDataDir;
+    private String originalStorage;
+    private Path dataDir;
+
+    @BeforeEach
+    void setUp(@TempDir Path tempDir) throws IOException {
+        originalDataDir = System.getProperty("budget.data.dir");
+        originalStorage = System.getProperty("budget.storage");
+        System.setProperty("budget.data.dir", tempDir.toString());
+        System.clearProperty("budget.storage");
+        dataDir = tempDir;
+        Files.writeString(tempDir.resolve("users.json"), "{}",
+            StandardCharsets.UTF_8);
+        Files.writeString(tempDir.resolve("pending-changes.json"), "[]",
+            StandardCharsets.UTF_8);
+        Files.writeString(tempDir.resolve("budget-changes.json"), "[]",
+            StandardCharsets.UTF_8);
+        RepositoryFactory.shutdown();
+    }
+
+    @AfterEach
+    void tearDown() {
+        RepositoryFactory.shutdown();
+        restore("budget.data.dir", originalDataDir);
+        restore("budget.storage", originalStorage);
+    }
+
+    private static void restore(String property, String value) {
+        if (value == null) {
+            System.clearProperty(property);
+        } else {
+            System.setProperty(property, value);
+        }
+    }
+
+    @Test
+    void testStorageFromName() {
+        assertEquals(RepositoryFactory.Storage.JSON,
+            RepositoryFactory.Storage.fromName(null));
+        assertEquals(RepositoryFactory.Storage.SQL,
+            RepositoryFactory.Storage.fromName(" Sql "));
+        assertEquals(RepositoryFactory.Storage.MEMORY,
+            RepositoryFactory.Storage.fromName("memory"));
+        assertEquals(RepositoryFactory.Storage.JSON,
+            RepositoryFactory.Storage.fromName("unknown"));
+    }
+
+    @Test
+    void testSharedRepositoriesAreSingletons() {
+        StorageBackend backend = RepositoryFactory.shared();
+
+        assertSame(backend, RepositoryFactory.shared());
+        assertSame(backend.budgets(), RepositoryFactory.budgets());
+        assertSame(backend.users(), RepositoryFactory.users());
+        assertSame(backend.changeRequests(),
+            RepositoryFactory.changeRequests());
+        assertSame(backend.changeLogs(), RepositoryFactory.changeLogs());
+        assertFalse(backend.budgets() instanceof SqlBudgetRepository,
+            "Failure - json should be the default storage");
+    }
+
+    @Test
+    void testShutdownRereadsStorageProperty() {
+        StorageBackend json = RepositoryFactory.shared();
+        System.setProperty("budget.storage", "sql");
+        assertSame(json, RepositoryFactory.shared());
+
+        RepositoryFactory.shutdown();
+        StorageBackend sql = RepositoryFactory.shared();
+        assertNotSame(json, sql);
+        assertTrue(sql.budgets() instanceof SqlBudgetRepository);
+        assertTrue(sql.changeLogs() instanceof SqlChangeLogRepository);
+    }
+
+    @Test
+    void testSqlStorageKeepsDataInDataDirectory() {
+        Citizen citizen = new Citizen("User1", "DET USER1", "123");
+        try (StorageBackend sql =
+                RepositoryFactory.create(RepositoryFactory.Storage.SQL)) {
+            sql.users().save(citizen);
+        }
+        try (StorageBackend sql =
+                RepositoryFactory.create(RepositoryFactory.Storage.SQL)) {
+            assertTrue(sql.users().existsById(citizen.getId()));
+        }
+        assertTrue(new UserRepository().load().isEmpty(),
+            "Failure - sql storage should not write users.json");
+    }
+
+    @Test
+    void testMemoryStorageStartsFromJsonAndDiscardsChanges() {
+        Citizen stored = new Citizen("User1", "DET USER1", "123");
+        new UserRepository().save(stored);
+        Citizen added = new Citizen("User2", "DET USER2", "1234");
+
+        try (StorageBackend memory =
+                RepositoryFactory.create(RepositoryFactory.Storage.MEMORY)) {
+            assertTrue(memory.users().existsById(stored.getId()));
+            memory.users().save(added);
+            assertTrue(memory.users().existsById(added.getId()));
+        }
+        try (StorageBackend memory =
+                RepositoryFactory.create(RepositoryFactory.Storage.MEMORY)) {
+            assertFalse(memory.users().existsById(added.getId()));
+        }
+        assertFalse(new UserRepository().existsById(added.getId()));
+        assertFalse(Files.exists(dataDir.resolve("budget-db.mv.db")));
+    }
+
+    @Test
+    void testCreateRejectsNullStorage() {
+        assertThrows(IllegalArgumentException.class,
+            () -> RepositoryFactory.create(null));
+    }
+}
@@ -0,0 +1,94 @@
+package budget.backend.repository;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import budget.backend.model.domain.Budget;
+import budget.backend.model.domain.BudgetItem;
+import budget.backend.model.enums.Ministry;
+
+/**
+ * Runs the {@link BudgetRepositoryContract} on an in-memory H2 database and
+ * tests what the SQL backend stores for the items.
+ */
+public class TestSqlBudgetRepository extends BudgetRepositoryContract {
+
+    private SqlDatabase database;
+
+    @Override
+    protected BudgetRepository createRepository()
+        throws IOException, SQLException {
+        Files.writeString(dataDir.resolve("bill-ministry-map.json"),
+            "{ \"byId\": { \"1\": [\"FINANCE\"] }, \"byName\": {} }",
+            StandardCharsets.UTF_8);
+        database = SqlDatabase.open("jdbc:h2:mem:" + UUID.randomUUID()
+            + ";DB_CLOSE_DELAY=-1");
+        return new SqlBudgetRepository(database);
+    }
+
+    @Override
+    protected void closeRepository() {
+        database.close();
+    }
+
+    @Test
+    void testConstructorRejectsNullDatabase() {
+        assertThrows(IllegalArgumentException.class,
+            () -> new SqlBudgetRepository(null));
+    }
+
+    @Test
+    void testSaveStoresBudgetAsJsonBackendReadsIt() {
+        repository.save(createBudget(2025, 1000.0));
+
+        Budget stored = repository.findById(2025).orElseThrow();
+        assertEquals(List.of(1, 2, 3),
+            stored.getItems().stream().map(BudgetItem::getId).toList(),
+            "Failure - revenue items should precede expense items");
+        assertEquals(1000.0, stored.getTotalRevenue(), 0.0001);
+        assertEquals(500.0, stored.getTotalExpense(), 0.0001);
+        assertEquals(500.0, stored.getNetResult(), 0.0001);
+        assertEquals(Set.of(Ministry.DEFENSE, Ministry.FINANCE),
+            stored.getItems().get(1).getMinistrySet());
+        assertTrue(stored.getItems().get(2).getMinistrySet().isEmpty());
+    }
+
+    @Test
+    void testLoadListsBudgetsByYear() {
+        repository.saveAll(List.of(createBudget(2026, 1.0),
+            createBudget(2024, 2.0)));
+
+        assertEquals(List.of(2024, 2026),
+            repository.load().stream().map(Budget::getYear).toList());
+    }
+
+    @Test
+    void testExportAndImportFile() throws IOException {
+        repository.save(createBudget(2025, 1000.0));
+        Path exported = dataDir.resolve("export.json");
+        assertTrue(repository.exportToFile(exported));
+
+        repository.save(createBudget(2026, 1.0));
+        assertTrue(repository.importFromFile(exported));
+
+        List<Budget> budgets = repository.load();
+        assertEquals(1, budgets.size());
+        assertEquals(Set.of(Ministry.FINANCE),
+            budgets.get(0).findItem(1).orElseThrow().getMinistrySet(),
+            "Failure - imported ministries come from the ministry map");
+        assertFalse(repository.importFromFile(dataDir.resolve("missing")));
+        assertEquals(1, repository.load().size());
+    }
+}
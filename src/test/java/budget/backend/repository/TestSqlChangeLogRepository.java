@@ -0,0 +1,76 @@
+package budget.backend.repository;
+
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import budget.backend.model.domain.ChangeLog;
+
+/**
+ * Runs the {@link ChangeLogRepositoryContract} on an in-memory H2 database
+ * and checks its pages against the JSON backend.
+ */
+public class TestSqlChangeLogRepository extends ChangeLogRepositoryContract {
+
+    private SqlDatabase database;
+
+    @Override
+    protected ChangeLogRepository createRepository() throws SQLException {
+        database = SqlDatabase.open("jdbc:h2:mem:" + UUID.randomUUID()
+            + ";DB_CLOSE_DELAY=-1");
+        return new SqlChangeLogRepository(database);
+    }
+
+    @Override
+    protected void closeRepository() {
+        database.close();
+    }
+
+    @Test
+    void testConstructorRejectsNullDatabase() {
+        assertThrows(IllegalArgumentException.class,
+            () -> new SqlChangeLogRepository(null));
+    }
+
+    @Test
+    void testFindPageMatchesJsonBackend() {
+        List<ChangeLog> logs = List.of(testLog1, testLog2, testLog3);
+        ChangeLogRepository json = new ChangeLogRepository();
+        json.saveAll(logs);
+        repository.saveAll(logs);
+
+        for (ChangeQuery.Sort sort : ChangeQuery.Sort.values()) {
+            ChangeQuery query = ChangeQuery.sortedBy(sort, 1);
+            String jsonCursor = null;
+            String sqlCursor = null;
+            do {
+                Page<ChangeLog> expected = json.findPage(query, jsonCursor);
+                Page<ChangeLog> actual = repository.findPage(query, sqlCursor);
+                assertEquals(expected, actual, "Failure - " + sort);
+                jsonCursor = expected.nextCursor();
+                sqlCursor = actual.nextCursor();
+            } while (jsonCursor != null);
+        }
+        json.awaitCompaction();
+    }
+
+    @Test
+    void testDataSurvivesReopen(@TempDir Path dbDir) throws SQLException {
+        String url = "jdbc:h2:file:" + dbDir.resolve("budget-db")
+            .toAbsolutePath();
+        try (SqlDatabase file = SqlDatabase.open(url)) {
+            new SqlChangeLogRepository(file).saveAll(
+                List.of(testLog1, testLog2));
+        }
+        try (SqlDatabase file = SqlDatabase.open(url)) {
+            assertEquals(List.of(testLog1, testLog2),
+                new SqlChangeLogRepository(file).load());
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package budget.backend.repository;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.Test;
+
+import budget.backend.model.domain.PendingChange;
+import budget.backend.model.enums.Status;
+
+/**
+ * Runs the {@link ChangeRequestRepositoryContract} on an in-memory H2
+ * database and tests the order the SQL backend keeps.
+ */
+public class TestSqlChangeRequestRepository
+    extends ChangeRequestRepositoryContract {
+
+    private SqlDatabase database;
+
+    @Override
+    protected ChangeRequestRepository createRepository()
+        throws SQLException {
+        database = SqlDatabase.open("jdbc:h2:mem:" + UUID.randomUUID()
+            + ";DB_CLOSE_DELAY=-1");
+        return new SqlChangeRequestRepository(database);
+    }
+
+    @Override
+    protected void closeRepository() {
+        database.close();
+    }
+
+    @Test
+    void testUpdateKeepsStorageOrder() {
+        PendingChange first =
+            createTestChange(1, "2024-01-01 10:00:00", Status.PENDING);
+        repository.saveAll(List.of(first,
+            createTestChange(2, "2024-01-02 10:00:00", Status.PENDING)));
+        first.approve();
+        repository.save(first);
+
+        assertEquals(List.of(1, 2), ids(repository.load()));
+        assertEquals(Status.APPROVED,
+            repository.findById(1).orElseThrow().getStatus());
+    }
+}
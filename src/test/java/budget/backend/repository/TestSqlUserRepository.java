@@ -0,0 +1,33 @@
+package budget.backend.repository;
+
+import java.sql.SQLException;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Runs the {@link UserRepositoryContract} on an in-memory H2 database.
+ */
+public class TestSqlUserRepository extends UserRepositoryContract {
+
+    private SqlDatabase database;
+
+    @Override
+    protected UserRepository createRepository() throws SQLException {
+        database = SqlDatabase.open("jdbc:h2:mem:" + UUID.randomUUID()
+            + ";DB_CLOSE_DELAY=-1");
+        return new SqlUserRepository(database);
+    }
+
+    @Override
+    protected void closeRepository() {
+        database.close();
+    }
+
+    @Test
+    void testConstructorRejectsNullDatabase() {
+        assertThrows(IllegalArgumentException.class,
+            () -> new SqlUserRepository(null));
+    }
+}
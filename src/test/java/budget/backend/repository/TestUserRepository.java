@@ -8,15 +8,11 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 import java.util.List;
-import java.util.Optional;
 
-import org.junit.jupiter.api.AfterEach;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
-import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
-import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
@@ -29,51 +25,20 @@ import budget.backend.model.domain.user.Citizen;
 import budget.backend.model.domain.user.GovernmentMember;
 import budget.backend.model.domain.user.PrimeMinister;
 import budget.backend.model.domain.user.User;
-import budget.backend.model.enums.Ministry;
 
-class TestUserRepository {
+/**
+ * Runs the {@link UserRepositoryContract} on users.json and tests how the
+ * file is parsed and cached.
+ */
+class TestUserRepository extends UserRepositoryContract {
 
-    private String originalDataDir;
-    private UserRepository repository;
     private Path usersFile;
-
-    private Citizen c1;
-    private GovernmentMember gm;
-    private PrimeMinister pm;
     private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
 
-    @BeforeEach
-    void setup(@TempDir Path tempDir) throws IOException {
-        originalDataDir = System.getProperty("budget.data.dir");
-        System.setProperty("budget.data.dir", tempDir.toString());
-
-        usersFile = tempDir.resolve("users.json");
-        Files.writeString(usersFile, "{}", StandardCharsets.UTF_8);
-
-        repository = new UserRepository();
-    }
-
-    @AfterEach
-    void tearDown() {
-        if (originalDataDir == null) {
-            System.clearProperty("budget.data.dir");
-        } else {
-            System.setProperty("budget.data.dir", originalDataDir);
-        }
-    }
-
-    @BeforeEach
-    void getSampleData() {
-        c1 = new Citizen("User1", "DET USER1", "123");
-        gm = new GovernmentMember("User2", "DET USER2", "1234", Ministry.DEFENSE);
-        pm = PrimeMinister.getInstance("User3", "DET USER3", "12345");
-    }
-
-    @Test
-    void testLoadEmptyJsonReturnsEmptyUserList() {
-        List<User> users = repository.load();
-        assertNotNull(users);
-        assertTrue(users.isEmpty(), "Failure - should be empty");
+    @Override
+    protected UserRepository createRepository() {
+        usersFile = dataDir.resolve("users.json");
+        return new UserRepository();
     }
 
     @Test
@@ -174,141 +139,38 @@ class TestUserRepository {
         assertTrue(users.get(0) instanceof PrimeMinister, "Failure should be instace of PrimeMinister");
     }
 
-    @Test
-    void testFindByIdFound() {
-        repository.save(c1);
-
-        Optional<User> found = repository.findById(c1.getId());
 
-        assertTrue(found.isPresent(), "Failure - should found");
-        assertEquals(c1.getUserName(), found.get().getUserName(), "Failure - usernames should be equal");
-    }
 
     @Test
-    void testFindByIdNullReturnsEmpty() {
-        assertTrue(repository.findById(null).isEmpty(), "Failure - null id -> empty");
-    }
-
-    @Test
-    void testFindByUsername() {
+    void testLookupsParseFileOnce() {
         repository.save(c1);
+        repository.save(gm);
+        long misses = repository.getCacheMisses();
 
-        Optional<User> found = repository.findByUsername(c1.getUserName());
-
-        assertTrue(found.isPresent(), "Failure - should be present");
-    }
-
-    @Test
-    void testFindByUsernameInvalid() {
-        assertTrue(repository.findByUsername("").isEmpty(), "Failure - shouldn't find");
-        assertTrue(repository.findByUsername(null).isEmpty(), "Failure - shouldn't find");
-    }
-
-
-    @Test
-    void testSaveNewUser() {
-        repository.save(c1);
-
-        List<User> users = repository.load();
-        assertEquals(1, users.size(), "Failure - should be size = 1");
-        assertEquals(c1.getUserName(), users.get(0).getUserName(), "Failure - usernames should match");
-    }
-
-    @Test
-    void testSaveFail() {
-        assertDoesNotThrow(() -> repository.save(null),
-                        "Failure - saving null user shouldn't throw");
-        c1.setUserName(null);
-        assertDoesNotThrow(() -> repository.save(c1),
-                        "Failure - saving invalid user shouldn't throw");
-        c1.setUserName("");
-        assertDoesNotThrow(() -> repository.save(c1),
-                        "Failure - saving invalid user shouldn't throw");
-    }
-
-    @Test
-    void testSaveUpdatesExistingUser() {
-        repository.save(c1);
-
-        c1.setFullName("updated");
-        repository.save(c1);
-
-        List<User> users = repository.load();
-        assertEquals(1, users.size(), "Failure - should be size = 1");
-        assertEquals("updated", users.get(0).getFullName(), "Failure - fullName not updated");
-    }
-
-
-    @Test
-    void testExistsById() {
-        repository.save(c1);
-        assertTrue(repository.existsById(c1.getId()), "Failure - user should exist");
-    }
-
-    @Test
-    void testExistsByIdNull() {
-        assertFalse(repository.existsById(null),
-                                "Failure - shouldn't search with null");
-    }
-
-    @Test
-    void testUsernameExists() {
-        repository.save(c1);
-        assertTrue(repository.usernameExists(c1.getUserName()),
-                                "Failure - userName should exist");
-    }
-
-    @Test
-    void testUserNameExistsNull() {
-        assertDoesNotThrow(() -> repository.usernameExists(null),
-                                "Failure - shouldn't search with null UserName");
-    }
-
-    @Test
-    void testUserNameExistsBlank() {
-        assertDoesNotThrow(() -> repository.usernameExists(""),
-                                "Failure - shouldn't search with blank UserName");
-    }
+        UserRepository other = new UserRepository();
+        assertTrue(other.findByUsername("user1").isPresent());
+        assertTrue(other.usernameExists("USER2"));
+        assertTrue(other.existsById(gm.getId()));
+        assertFalse(other.primeMinisterExists());
 
-    @Test
-    void testPrimeMinisterExists() {
-        repository.save(pm);
-        assertTrue(repository.primeMinisterExists(),
-                                "Failure - PrimeMinister should exist");
+        assertEquals(misses, repository.getCacheMisses(),
+                                "Failure - lookups should not re-parse users.json");
     }
 
     @Test
-    void testDelete() {
+    void testExternalChangeRefreshesIndexes() throws IOException {
         repository.save(c1);
+        assertTrue(repository.usernameExists("User1"));
 
-        repository.delete(c1);
-
-        assertTrue(repository.load().isEmpty(),
-                                "Failure - delete not working properly");
-    }
-
-    @Test
-    void testDeleteFalseUser() {
-        assertDoesNotThrow(() -> repository.delete(c1),
-                                "Failure deleting non existing user shouldn't throw"); 
-    }
-
-    @Test
-    void testDeleteNullDoesNothing() {
-        assertDoesNotThrow(() -> repository.delete(null),
-                                "Failure - deleting null shouldn't throw");
-        
-    }
-
-    @Test
-    void testDeleteAllUsers() {
-        repository.save(c1);
-        repository.save(gm);
-        repository.save(pm);
-        repository.deleteAllUsers();
+        JsonObject root = new JsonObject();
+        JsonArray arr = new JsonArray();
+        arr.add(GSON.toJsonTree(gm));
+        root.add("governmentMembers", arr);
+        writeJson(root);
 
-        assertTrue(repository.load().isEmpty(),
-                                "Failure - delete not working properly");
+        assertFalse(repository.usernameExists("User1"),
+                                "Failure - stale username index");
+        assertTrue(repository.findById(gm.getId()).isPresent());
     }
 
     private void writeJson(JsonObject json) throws IOException {
@@ -317,6 +179,33 @@ class TestUserRepository {
         }
     }
 
+    @Test
+    void testBatchCostsOneReadAndOneWrite() {
+        repository.deleteAllUsers();
+        IoCounters io = repository.ioCounters();
+        long reads = io.reads();
+        long writes = io.writes();
+
+        repository.saveAll(List.of(c1, gm, pm));
+        assertEquals(writes + 1, io.writes(),
+            "Failure - saveAll should write once");
+        assertTrue(io.reads() - reads <= 1,
+            "Failure - saveAll should read at most once");
+
+        List<User> found = repository.findAllById(
+            List.of(pm.getId(), c1.getId()));
+        assertEquals(List.of(pm.getId(), c1.getId()),
+            found.stream().map(User::getId).toList());
+
+        repository.deleteAll(List.of(c1, gm));
+        assertEquals(writes + 2, io.writes(),
+            "Failure - deleteAll should write once");
+        assertTrue(io.reads() - reads <= 1,
+            "Failure - the store should serve the batch reads");
+        assertEquals(List.of(pm.getId()),
+            repository.load().stream().map(User::getId).toList());
+    }
+
     @Test
     void testLoadWhenFileNotFound(@TempDir Path emptyTempDir) throws IOException{
         System.setProperty("budget.data.dir", emptyTempDir.toString());
@@ -0,0 +1,342 @@
+package budget.backend.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import budget.backend.model.domain.user.Citizen;
+import budget.backend.model.domain.user.GovernmentMember;
+import budget.backend.model.domain.user.PrimeMinister;
+import budget.backend.model.domain.user.User;
+import budget.backend.model.enums.Ministry;
+
+/**
+ * The behaviour every {@link UserRepository} backend shares. A backend runs
+ * these tests by extending this class and creating its repository over the
+ * fresh data directory; how it stores the users is tested in the subclass.
+ */
+public abstract class UserRepositoryContract {
+
+    protected UserRepository repository;
+    protected Path dataDir;
+    private String originalDataDir;
+
+    protected Citizen c1;
+    protected GovernmentMember gm;
+    protected PrimeMinister pm;
+
+    /**
+     * Creates the repository under test, once the data directory holds an
+     * empty users.json.
+     */
+    protected abstract UserRepository createRepository() throws Exception;
+
+    /**
+     * Releases what {@link #createRepository()} opened.
+     */
+    protected void closeRepository() {
+    }
+
+    @BeforeEach
+    void setUpDataDir(@TempDir Path tempDir) throws Exception {
+        originalDataDir = System.getProperty("budget.data.dir");
+        System.setProperty("budget.data.dir", tempDir.toString());
+        dataDir = tempDir;
+        Files.writeString(tempDir.resolve("users.json"), "{}",
+            StandardCharsets.UTF_8);
+        repository = createRepository();
+
+        c1 = new Citizen("User1", "DET USER1", "123");
+        gm = new GovernmentMember("User2", "DET USER2", "1234", Ministry.DEFENSE);
+        pm = PrimeMinister.getInstance("User3", "DET USER3", "12345");
+    }
+
+    @AfterEach
+    void tearDownDataDir() {
+        closeRepository();
+        if (originalDataDir == null) {
+            System.clearProperty("budget.data.dir");
+        } else {
+            System.setProperty("budget.data.dir", originalDataDir);
+        }
+    }
+
+    protected static List<UUID> ids(List<User> users) {
+        return users.stream().map(User::getId).toList();
+    }
+
+    @Test
+    void testLoadEmptyJsonReturnsEmptyUserList() {
+        List<User> users = repository.load();
+        assertNotNull(users);
+        assertTrue(users.isEmpty(), "Failure - should be empty");
+    }
+
+    @Test
+    void testFindByIdFound() {
+        repository.save(c1);
+
+        Optional<User> found = repository.findById(c1.getId());
+
+        assertTrue(found.isPresent(), "Failure - should found");
+        assertEquals(c1.getUserName(), found.get().getUserName(), "Failure - usernames should be equal");
+    }
+
+    @Test
+    void testFindByIdNullReturnsEmpty() {
+        assertTrue(repository.findById(null).isEmpty(), "Failure - null id -> empty");
+    }
+
+    @Test
+    void testFindByUsername() {
+        repository.save(c1);
+
+        Optional<User> found = repository.findByUsername(c1.getUserName());
+
+        assertTrue(found.isPresent(), "Failure - should be present");
+    }
+
+    @Test
+    void testFindByUsernameInvalid() {
+        assertTrue(repository.findByUsername("").isEmpty(), "Failure - shouldn't find");
+        assertTrue(repository.findByUsername(null).isEmpty(), "Failure - shouldn't find");
+    }
+
+    @Test
+    void testSaveNewUser() {
+        repository.save(c1);
+
+        List<User> users = repository.load();
+        assertEquals(1, users.size(), "Failure - should be size = 1");
+        assertEquals(c1.getUserName(), users.get(0).getUserName(), "Failure - usernames should match");
+    }
+
+    @Test
+    void testSaveFail() {
+        assertDoesNotThrow(() -> repository.save(null),
+                        "Failure - saving null user shouldn't throw");
+        c1.setUserName(null);
+        assertDoesNotThrow(() -> repository.save(c1),
+                        "Failure - saving invalid user shouldn't throw");
+        c1.setUserName("");
+        assertDoesNotThrow(() -> repository.save(c1),
+                        "Failure - saving invalid user shouldn't throw");
+    }
+
+    @Test
+    void testSaveUpdatesExistingUser() {
+        repository.save(c1);
+
+        c1.setFullName("updated");
+        repository.save(c1);
+
+        List<User> users = repository.load();
+        assertEquals(1, users.size(), "Failure - should be size = 1");
+        assertEquals("updated", users.get(0).getFullName(), "Failure - fullName not updated");
+    }
+
+    @Test
+    void testExistsById() {
+        repository.save(c1);
+        assertTrue(repository.existsById(c1.getId()), "Failure - user should exist");
+    }
+
+    @Test
+    void testExistsByIdNull() {
+        assertFalse(repository.existsById(null),
+                                "Failure - shouldn't search with null");
+    }
+
+    @Test
+    void testUsernameExists() {
+        repository.save(c1);
+        assertTrue(repository.usernameExists(c1.getUserName()),
+                                "Failure - userName should exist");
+    }
+
+    @Test
+    void testUserNameExistsNull() {
+        assertDoesNotThrow(() -> repository.usernameExists(null),
+                                "Failure - shouldn't search with null UserName");
+    }
+
+    @Test
+    void testUserNameExistsBlank() {
+        assertDoesNotThrow(() -> repository.usernameExists(""),
+                                "Failure - shouldn't search with blank UserName");
+    }
+
+    @Test
+    void testPrimeMinisterExists() {
+        assertFalse(repository.primeMinisterExists());
+        repository.save(pm);
+        assertTrue(repository.primeMinisterExists(),
+                                "Failure - PrimeMinister should exist");
+    }
+
+    @Test
+    void testDelete() {
+        repository.save(c1);
+
+        repository.delete(c1);
+
+        assertTrue(repository.load().isEmpty(),
+                                "Failure - delete not working properly");
+    }
+
+    @Test
+    void testDeleteFalseUser() {
+        assertDoesNotThrow(() -> repository.delete(c1),
+                                "Failure deleting non existing user shouldn't throw"); 
+    }
+
+    @Test
+    void testDeleteNullDoesNothing() {
+        assertDoesNotThrow(() -> repository.delete(null),
+                                "Failure - deleting null shouldn't throw");
+        
+    }
+
+    @Test
+    void testDeleteAllUsers() {
+        repository.save(c1);
+        repository.save(gm);
+        repository.save(pm);
+        repository.deleteAllUsers();
+
+        assertTrue(repository.load().isEmpty(),
+                                "Failure - delete not working properly");
+    }
+
+    @Test
+    void testSaveAndDeleteKeepIndexesConsistent() {
+        repository.save(c1);
+        c1.setUserName("Renamed");
+        repository.save(c1);
+
+        assertFalse(repository.usernameExists("User1"),
+                                "Failure - old username still indexed");
+        assertTrue(repository.usernameExists("renamed"));
+
+        repository.save(pm);
+        assertTrue(repository.primeMinisterExists());
+        repository.delete(pm);
+        assertFalse(repository.primeMinisterExists(),
+                                "Failure - role index not updated on delete");
+
+        repository.deleteAllUsers();
+        assertFalse(repository.existsById(c1.getId()));
+    }
+
+    @Test
+    void testReturnedUsersAreCopies() {
+        repository.save(c1);
+
+        User found = repository.findById(c1.getId()).orElseThrow();
+        assertNotSame(c1, found);
+        found.setUserName("Changed");
+
+        assertTrue(repository.usernameExists("User1"),
+                                "Failure - callers must not modify the store");
+        assertFalse(repository.usernameExists("Changed"));
+    }
+
+    @Test
+    void testReadersRunAlongsideWriters() throws Exception {
+        repository.save(c1);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int r = 0; r < 3; r++) {
+                tasks.add(pool.submit(() -> {
+                    for (int i = 0; i < 200; i++) {
+                        assertTrue(repository.findByUsername("User1").isPresent(),
+                            "Failure - readers must never see a partial store");
+                        assertTrue(repository.usernameExists("user1"));
+                    }
+                }));
+            }
+            tasks.add(pool.submit(() -> {
+                for (int i = 0; i < 30; i++) {
+                    repository.save(new Citizen("Extra" + i, "EXTRA", "pw"));
+                }
+            }));
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(31, repository.load().size());
+    }
+
+    @Test
+    void testSaveAndLoadKeepIdsAndRoleOrder() {
+        repository.saveAll(List.of(pm, gm, c1));
+
+        List<User> users = repository.load();
+        assertEquals(List.of(c1.getId(), gm.getId(), pm.getId()),
+            ids(users));
+        GovernmentMember stored = (GovernmentMember) users.get(1);
+        assertEquals(Ministry.DEFENSE, stored.getMinistry());
+        assertEquals(gm.getHashPassword(), stored.getHashPassword());
+        assertTrue(users.get(2) instanceof PrimeMinister);
+    }
+
+    @Test
+    void testFindByUsernameIgnoresCase() {
+        repository.save(c1);
+
+        assertEquals(c1.getId(),
+            repository.findByUsername("user1").orElseThrow().getId());
+        assertTrue(repository.usernameExists("USER1"));
+        assertFalse(repository.usernameExists("User9"));
+        assertFalse(repository.usernameExists(null));
+        assertTrue(repository.findByUsername(" ").isEmpty());
+    }
+
+    @Test
+    void testSaveSkipsInvalidUsersAndReplacesById() {
+        repository.save(null);
+        repository.saveAll(Arrays.asList(c1, null));
+        c1.setFullName("Renamed");
+        repository.save(c1);
+
+        List<User> users = repository.load();
+        assertEquals(1, users.size());
+        assertEquals("Renamed", users.get(0).getFullName());
+    }
+
+    @Test
+    void testDeleteFindAllByIdAndDeleteAllUsers() {
+        repository.saveAll(List.of(c1, gm));
+        repository.delete(c1);
+        repository.delete(c1);
+
+        assertFalse(repository.existsById(c1.getId()));
+        assertEquals(List.of(gm.getId()), ids(repository.findAllById(
+            Arrays.asList(c1.getId(), null, gm.getId()))));
+
+        repository.deleteAllUsers();
+        assertTrue(repository.load().isEmpty());
+    }
+}
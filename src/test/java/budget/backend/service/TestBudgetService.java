@@ -268,6 +268,29 @@ public class TestBudgetService {
 
     }
 
+    @Test
+    void testGetTopBudgetItemsSeriesFollowsChangesOfTheYear() {
+        Series<String, Number> before = service.getTopBudgetItemsSeries(2024, 1, false, true);
+        assertEquals("expenseItem1", before.getData().get(0).getXValue());
+
+        service.updateItemValue(3, 2024, 900.0, false);
+
+        Series<String, Number> after = service.getTopBudgetItemsSeries(2024, 1, false, true);
+        assertEquals("expenseItem2", after.getData().get(0).getXValue(),
+            "Failure - a change of the year should refresh its top items");
+        assertEquals(900.0, after.getData().get(0).getYValue().doubleValue(), 0.0001);
+    }
+
+    @Test
+    void testGetTopBudgetItemsSeriesExcludesLoans() {
+        Series<String, Number> series = service.getTopBudgetItemsSeries(2024, 5, true, false);
+
+        assertEquals(List.of("revenueItem"),
+            series.getData().stream().map(Data::getXValue).toList());
+        assertEquals(2, service.getTopBudgetItemsSeries(2024, 5, true, true)
+            .getData().size());
+    }
+
     //getYearComparisonSeries
     @Test
     void testGetYearComparisonSeriesInvalidYearThrows() {
@@ -407,6 +430,95 @@ public class TestBudgetService {
             "Failure - revenueItem value for 2025 should be 2100.0");
     }
 
+    @Test
+    void testTrendSeriesReadBudgetsOnce() {
+        BudgetRepository cold = new BudgetRepository();
+        BudgetService coldService = new BudgetService(cold);
+
+        coldService.getRevenueExpenseTrendSeries(2020, 2028);
+        coldService.getNetResultSeries(2020, 2028);
+        coldService.getLoansTrendSeries(2020, 2028, true);
+        coldService.getTopItemsTrendSeries(2024, 2020, 2028, 2, true);
+
+        assertEquals(1, cold.getCacheMisses(),
+            "Failure - every trend should be served from one read");
+    }
+
+    @Test
+    void testUpdateItemValueUpdatesTrendTotals() {
+        service.updateItemValue(4, 2024, 650.0, true);
+
+        assertEquals(650.0, service.getLoansTrendSeries(2024, 2025, true)
+            .getData().get(0).getYValue().doubleValue(), 0.0001);
+        assertEquals(2650.0, service.getRevenueExpenseTrendSeries(2024, 2025)
+            .get(Constants.REVENUE_LABEL).getData().get(0).getYValue()
+            .doubleValue(), 0.0001);
+        assertEquals(1450.0, service.getNetResultSeries(2024, 2025)
+            .getData().get(0).getYValue().doubleValue(), 0.0001);
+    }
+
+    @Test
+    void testVerifyTotalsCorrectsDrift() {
+        assertTrue(service.verifyTotals(budget2024));
+
+        budget2024.setTotalExpense(1.0);
+        assertFalse(service.verifyTotals(budget2024),
+            "Failure - drifted totals should be reported");
+        assertEquals(1200.0, budget2024.getTotalExpense(), 0.0001);
+        assertEquals(1200.0, budget2024.getNetResult(), 0.0001);
+        assertTrue(service.verifyTotals(budget2024));
+    }
+
+    @Test
+    void testVerifyTotalsToleranceIsRelative() {
+        BudgetItem large = new BudgetItem(1, 2030, "large", 4e11, true, List.of());
+        Budget budget = new Budget(List.of(large), 2030, 4e11 + 1.0, 0, 4e11 + 1.0);
+        assertTrue(service.verifyTotals(budget),
+            "Failure - rounding of a large total is not a drift");
+
+        BudgetItem small = new BudgetItem(1, 2030, "small", 0.005, true, List.of());
+        Budget tiny = new Budget(List.of(small), 2030, 0.0, 0, 0.0);
+        assertFalse(service.verifyTotals(tiny),
+            "Failure - a small total that is off should be corrected");
+        assertEquals(0.005, tiny.getTotalRevenue(), 1e-12);
+    }
+
+    @Test
+    void testTotalsAreCheckedAcrossServices() {
+        BudgetService other = new BudgetService(repository);
+        BudgetItem expense = budget2024.findItem(2, false).orElseThrow();
+        budget2024.setTotalExpense(0.0);
+
+        for (int i = 0; i < BudgetService.VERIFY_INTERVAL; i++) {
+            BudgetService next = i % 2 == 0 ? service : other;
+            next.applyItemValue(budget2024, expense, 800.0 + i % 2);
+        }
+
+        assertTrue(service.verifyTotals(budget2024),
+            "Failure - changes through any service should count");
+    }
+
+    @Test
+    void testApplyItemValueChecksTotalsInDebugMode() {
+        String original = System.getProperty(BudgetService.VERIFY_TOTALS_PROPERTY);
+        System.setProperty(BudgetService.VERIFY_TOTALS_PROPERTY, "true");
+        try {
+            BudgetItem expense = budget2024.findItem(2, false).orElseThrow();
+            budget2024.setTotalExpense(0.0);
+
+            assertEquals(800.0, service.applyItemValue(budget2024, expense, 500.0));
+            assertEquals(900.0, budget2024.getTotalExpense(), 0.0001,
+                "Failure - the check should replace drifted totals");
+            assertEquals(1500.0, budget2024.getNetResult(), 0.0001);
+        } finally {
+            if (original == null) {
+                System.clearProperty(BudgetService.VERIFY_TOTALS_PROPERTY);
+            } else {
+                System.setProperty(BudgetService.VERIFY_TOTALS_PROPERTY, original);
+            }
+        }
+    }
+
     //creatRegressionSeries
     @Test
     void creatRegressionSeriesLogic() {
@@ -2,7 +2,11 @@ package budget.backend.service;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.junit.jupiter.api.AfterEach;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
@@ -213,6 +217,46 @@ public class TestChangeRequestService {
             "Failure - should not throw exception for valid approval");
     }
 
+    @Test
+    void testConcurrentApprovalsOfOneYearAreAllApplied() throws Exception {
+        userRepo.save(gm);
+        int count = 16;
+        List<BudgetItem> items = new ArrayList<>();
+        List<PendingChange> changes = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int id = 100 + i;
+            items.add(new BudgetItem(id, 2026, "item" + id, 100, false,
+                List.of(Ministry.DEFENSE)));
+            changes.add(new PendingChange(id, id, 2026, "item" + id,
+                gm.getFullName(), gm.getId(), 100, 100 + id));
+        }
+        bRepo.save(new Budget(items, 2026));
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> approvals = new ArrayList<>();
+            for (PendingChange pending : changes) {
+                approvals.add(pool.submit(
+                    () -> service.approveRequest(pm, pending)));
+            }
+            for (Future<?> approval : approvals) {
+                approval.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        Budget after = bRepo.findById(2026).orElseThrow();
+        double expected = 0;
+        for (int i = 0; i < count; i++) {
+            int id = 100 + i;
+            assertEquals(100 + id, after.findItem(id).orElseThrow().getValue(),
+                0.001, "Failure - approval of item " + id + " was lost");
+            expected += 100 + id;
+        }
+        assertEquals(expected, after.getTotalExpense(), 0.001);
+    }
+
     // Tests for rejectRequest()
 
     @Test
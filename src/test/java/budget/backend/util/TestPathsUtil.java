@@ -11,6 +11,7 @@ import java.util.List;
 import org.junit.jupiter.api.AfterEach;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -55,6 +56,23 @@ public class TestPathsUtil {
 
     // resolveDataFile() Tests
 
+    @Test
+    void getStorageName_TrimsAndIgnoresBlank() {
+        String original = System.getProperty("budget.storage");
+        try {
+            System.setProperty("budget.storage", "  sql ");
+            assertEquals("sql", PathsUtil.getStorageName());
+            System.setProperty("budget.storage", " ");
+            assertNull(PathsUtil.getStorageName());
+        } finally {
+            if (original == null) {
+                System.clearProperty("budget.storage");
+            } else {
+                System.setProperty("budget.storage", original);
+            }
+        }
+    }
+
     @Test
     void resolveDataFile_WhenPropertyNotSet() {
         // ShouldReturnDefaultPath
@@ -212,6 +230,33 @@ public class TestPathsUtil {
         assertEquals(expected, result, "Failure - wrong budget changes writable path");
     }
 
+    @Test
+    void getBudgetChangesJournalPath() {
+        // ShouldReturnCorrectPath
+        System.clearProperty(DATA_DIR_PROPERTY);
+        Path result = PathsUtil.getBudgetChangesJournalPath();
+        Path expected = Paths.get("src", "main", "resources", "budget-changes.jsonl");
+        assertEquals(expected, result, "Failure - wrong budget changes journal path");
+    }
+
+    @Test
+    void getPendingChangesJournalPath() {
+        // ShouldReturnCorrectPath
+        System.clearProperty(DATA_DIR_PROPERTY);
+        Path result = PathsUtil.getPendingChangesJournalPath();
+        Path expected = Paths.get("src", "main", "resources", "pending-changes.jsonl");
+        assertEquals(expected, result, "Failure - wrong pending changes journal path");
+    }
+
+    @Test
+    void getBudgetPartitionDirectory() {
+        // ShouldReturnCorrectPath
+        System.clearProperty(DATA_DIR_PROPERTY);
+        Path result = PathsUtil.getBudgetPartitionDirectory();
+        Path expected = Paths.get("src", "main", "resources", "budget");
+        assertEquals(expected, result, "Failure - wrong budget partition directory");
+    }
+
     // get*InputStream() Tests 
 
     @Test
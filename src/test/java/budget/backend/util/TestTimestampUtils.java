@@ -0,0 +1,43 @@
+package budget.backend.util;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class TestTimestampUtils {
+
+    @Test
+    void testIsoDateRoundTrips() {
+        long millis = TimestampUtils.toEpochMillis("2026-01-13T17:51:16.013");
+
+        assertEquals(LocalDateTime.of(2026, 1, 13, 17, 51, 16, 13_000_000),
+            TimestampUtils.toLocalDateTime(millis),
+            "Failure - timestamp should convert back to the same date");
+    }
+
+    @Test
+    void testSpaceSeparatedDateIsAccepted() {
+        assertEquals(TimestampUtils.toEpochMillis("2025-11-25T12:00:00"),
+            TimestampUtils.toEpochMillis("2025-11-25 12:00:00"),
+            "Failure - both date forms should give the same timestamp");
+    }
+
+    @Test
+    void testTimestampsKeepDateOrder() {
+        assertTrue(TimestampUtils.toEpochMillis("2025-12-31T23:59:59")
+            < TimestampUtils.toEpochMillis("2026-01-01T00:00:00"),
+            "Failure - later dates should have larger timestamps");
+    }
+
+    @Test
+    void testUnreadableDateIsUnknown() {
+        assertEquals(TimestampUtils.UNKNOWN, TimestampUtils.toEpochMillis((String) null));
+        assertEquals(TimestampUtils.UNKNOWN, TimestampUtils.toEpochMillis(""));
+        assertEquals(TimestampUtils.UNKNOWN,
+            TimestampUtils.toEpochMillis("25-11-2025 12:00"));
+        assertNull(TimestampUtils.toLocalDateTime(TimestampUtils.UNKNOWN));
+    }
+}
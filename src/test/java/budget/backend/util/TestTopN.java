@@ -0,0 +1,71 @@
+package budget.backend.util;
+
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+
+public class TestTopN {
+
+    private static int[] select(double[] values, int n) {
+        TopN top = new TopN(n);
+        for (int i = 0; i < values.length; i++) {
+            top.offer(values[i], i);
+        }
+        return top.positions();
+    }
+
+    @Test
+    void testKeepsLargestValuesInDescendingOrder() {
+        double[] values = {5.0, 1.0, 9.0, 3.0, 7.0};
+
+        assertArrayEquals(new int[] {2, 4, 0}, select(values, 3));
+        assertArrayEquals(new int[] {2, 4, 0, 3, 1}, select(values, 10),
+            "Failure - fewer values than n should all be kept");
+        assertArrayEquals(new int[0], select(new double[0], 2));
+    }
+
+    @Test
+    void testEqualValuesKeepOfferOrder() {
+        double[] values = {4.0, 8.0, 4.0, 8.0, 4.0};
+
+        assertArrayEquals(new int[] {1, 3, 0}, select(values, 3));
+        assertArrayEquals(new int[] {1, 3, 0, 2}, select(values, 4));
+    }
+
+    @Test
+    void testMatchesStableSort() {
+        Random random = new Random(42);
+        for (int round = 0; round < 50; round++) {
+            double[] values = random.doubles(200, 0, 20)
+                .map(Math::floor).toArray();
+            int n = 1 + random.nextInt(30);
+            int[] sorted = IntStream.range(0, values.length).boxed()
+                .sorted(Comparator.comparingDouble(
+                    (Integer i) -> values[i]).reversed())
+                .limit(n)
+                .mapToInt(Integer::intValue)
+                .toArray();
+
+            assertArrayEquals(sorted, select(values, n));
+        }
+    }
+
+    @Test
+    void testPositionsCanBeReadTwice() {
+        TopN top = new TopN(2);
+        top.offer(1.0, 0);
+        top.offer(3.0, 1);
+        assertArrayEquals(new int[] {1, 0}, top.positions());
+        top.offer(2.0, 2);
+        assertArrayEquals(new int[] {1, 2}, top.positions());
+    }
+
+    @Test
+    void testRejectsNonPositiveSize() {
+        assertThrows(IllegalArgumentException.class, () -> new TopN(0));
+    }
+}